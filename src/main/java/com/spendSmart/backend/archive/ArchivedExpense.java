@@ -0,0 +1,27 @@
+package com.spendSmart.backend.archive;
+
+import com.spendSmart.backend.entity.Expense;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// An expense row as stored in an archive segment
+public record ArchivedExpense(
+        Long id,
+        Long userId,
+        Long walletId,
+        Long categoryId,
+        BigDecimal amount,
+        String currency,
+        LocalDate transactionDate,
+        String merchant,
+        String description,
+        String tagsJson,
+        String attachmentsJson,
+        Expense.ExpenseType type,
+        Boolean isRecurring,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {
+}
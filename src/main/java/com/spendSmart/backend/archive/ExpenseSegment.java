@@ -0,0 +1,210 @@
+package com.spendSmart.backend.archive;
+
+import com.spendSmart.backend.categorization.LongIntHashMap;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Read-only view of a segment file, memory-mapped once when opened. Lookups binary search the
+ * footer index and only decompress the blocks whose key range overlaps the requested user and dates.
+ * Opening also reads every row once to index ids by date, so a lookup by id decompresses only the
+ * blocks of that one day.
+ */
+public class ExpenseSegment implements Closeable {
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final long[] firstUsers;
+    private final int[] firstDays;
+    private final long[] lastUsers;
+    private final int[] lastDays;
+    private final long[] offsets;
+    private final int[] compressedLengths;
+    private final int[] uncompressedLengths;
+    private final int[] rowCounts;
+    private final int minDay;
+    private final int maxDay;
+    private final long rowCount;
+    // Transaction day of each row by expense id, stored as days since minDay plus one so no entry is 0
+    private final LongIntHashMap days;
+
+    public ExpenseSegment(Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            channel.close();
+            throw new IOException("Segment too large to map: " + path);
+        }
+        this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+        if (size < ExpenseSegmentFormat.HEADER_BYTES + ExpenseSegmentFormat.TRAILER_BYTES
+                || buffer.getInt(0) != ExpenseSegmentFormat.MAGIC
+                || buffer.getInt((int) size - Integer.BYTES) != ExpenseSegmentFormat.MAGIC) {
+            channel.close();
+            throw new IOException("Not an expense archive segment: " + path);
+        }
+
+        int trailer = (int) size - ExpenseSegmentFormat.TRAILER_BYTES;
+        int blockCount = buffer.getInt(trailer);
+        this.minDay = buffer.getInt(trailer + 4);
+        this.maxDay = buffer.getInt(trailer + 8);
+        this.rowCount = buffer.getLong(trailer + 12);
+        int footer = (int) buffer.getLong(trailer + 20);
+
+        firstUsers = new long[blockCount];
+        firstDays = new int[blockCount];
+        lastUsers = new long[blockCount];
+        lastDays = new int[blockCount];
+        offsets = new long[blockCount];
+        compressedLengths = new int[blockCount];
+        uncompressedLengths = new int[blockCount];
+        rowCounts = new int[blockCount];
+
+        ByteBuffer entries = buffer.slice(footer, blockCount * ExpenseSegmentFormat.INDEX_ENTRY_BYTES);
+        for (int i = 0; i < blockCount; i++) {
+            firstUsers[i] = entries.getLong();
+            firstDays[i] = entries.getInt();
+            lastUsers[i] = entries.getLong();
+            lastDays[i] = entries.getInt();
+            offsets[i] = entries.getLong();
+            compressedLengths[i] = entries.getInt();
+            uncompressedLengths[i] = entries.getInt();
+            rowCounts[i] = entries.getInt();
+        }
+
+        try {
+            this.days = indexDays();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the user's rows with a transaction date inside the range, in (date, id) order.
+     * A null bound leaves that side of the range open.
+     */
+    public List<ArchivedExpense> find(long userId, LocalDate startDate, LocalDate endDate) throws IOException {
+        int fromDay = startDate != null ? Math.toIntExact(startDate.toEpochDay()) : Integer.MIN_VALUE;
+        int toDay = endDate != null ? Math.toIntExact(endDate.toEpochDay()) : Integer.MAX_VALUE;
+        List<ArchivedExpense> result = new ArrayList<>();
+        if (rowCount == 0 || fromDay > maxDay || toDay < minDay) {
+            return result;
+        }
+
+        for (int block = firstCandidateBlock(userId, fromDay); block < offsets.length; block++) {
+            if (ExpenseSegmentFormat.compareKeys(firstUsers[block], firstDays[block], userId, toDay) > 0) {
+                break;
+            }
+            readBlock(block, userId, fromDay, toDay, result);
+        }
+        return result;
+    }
+
+    public boolean contains(long expenseId) {
+        return days.get(expenseId) != 0;
+    }
+
+    /**
+     * Returns the user's row with the given id. The in-memory index gives its date, so only the
+     * blocks covering that user and day are decompressed.
+     */
+    public Optional<ArchivedExpense> findById(long userId, long expenseId) throws IOException {
+        int day = days.get(expenseId);
+        if (day == 0) {
+            return Optional.empty();
+        }
+        LocalDate date = LocalDate.ofEpochDay(minDay + day - 1L);
+        return find(userId, date, date).stream().filter(expense -> expense.id() == expenseId).findFirst();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // First block whose last key is not below (userId, fromDay)
+    private int firstCandidateBlock(long userId, int fromDay) {
+        int low = 0;
+        int high = offsets.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ExpenseSegmentFormat.compareKeys(lastUsers[mid], lastDays[mid], userId, fromDay) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void readBlock(int block, long userId, int fromDay, int toDay, List<ArchivedExpense> result)
+            throws IOException {
+        DataInputStream in = inflate(block);
+        for (int row = 0; row < rowCounts[block]; row++) {
+            ArchivedExpense expense = ExpenseSegmentFormat.readRow(in);
+            long day = expense.transactionDate().toEpochDay();
+            if (expense.userId() == userId && day >= fromDay && day <= toDay) {
+                result.add(expense);
+            }
+        }
+    }
+
+    // Decompresses every block once and records the day of each row
+    private LongIntHashMap indexDays() throws IOException {
+        LongIntHashMap index = new LongIntHashMap(Math.toIntExact(rowCount));
+        for (int block = 0; block < offsets.length; block++) {
+            DataInputStream in = inflate(block);
+            for (int row = 0; row < rowCounts[block]; row++) {
+                ArchivedExpense expense = ExpenseSegmentFormat.readRow(in);
+                index.addTo(expense.id(), Math.toIntExact(expense.transactionDate().toEpochDay()) - minDay + 1);
+            }
+        }
+        return index;
+    }
+
+    private DataInputStream inflate(int block) throws IOException {
+        byte[] raw = new byte[uncompressedLengths[block]];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(buffer.slice((int) offsets[block], compressedLengths[block]));
+            int read = 0;
+            while (read < raw.length && !inflater.finished()) {
+                int inflated = inflater.inflate(raw, read, raw.length - read);
+                if (inflated == 0 && inflater.needsInput()) {
+                    throw new IOException("Truncated block " + block + " in segment " + path);
+                }
+                read += inflated;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt block " + block + " in segment " + path, e);
+        } finally {
+            inflater.end();
+        }
+        return new DataInputStream(new ByteArrayInputStream(raw));
+    }
+}
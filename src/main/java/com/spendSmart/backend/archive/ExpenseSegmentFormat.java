@@ -0,0 +1,129 @@
+package com.spendSmart.backend.archive;
+
+import com.spendSmart.backend.entity.Expense;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * On-disk layout of an expense archive segment:
+ * <pre>
+ * header   magic, version
+ * blocks   deflate-compressed runs of rows sorted by (user_id, transaction_date, id)
+ * footer   one index entry per block: first/last (user, day) key, offset, lengths, row count
+ * trailer  block count, min/max day, row count, footer offset, magic
+ * </pre>
+ * Days are stored as epoch days; every block can be located and decompressed on its own.
+ */
+final class ExpenseSegmentFormat {
+
+    static final int MAGIC = 0x53534547; // "SSEG"
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = Integer.BYTES + Short.BYTES;
+    static final int INDEX_ENTRY_BYTES = 2 * (Long.BYTES + Integer.BYTES) + Long.BYTES + 3 * Integer.BYTES;
+    static final int TRAILER_BYTES = 3 * Integer.BYTES + 2 * Long.BYTES + Integer.BYTES;
+
+    private ExpenseSegmentFormat() {
+    }
+
+    static void writeRow(DataOutput out, ArchivedExpense expense) throws IOException {
+        out.writeLong(expense.id());
+        out.writeLong(expense.userId());
+        out.writeLong(expense.walletId());
+        out.writeLong(expense.categoryId());
+        writeDecimal(out, expense.amount());
+        writeString(out, expense.currency());
+        out.writeInt(Math.toIntExact(expense.transactionDate().toEpochDay()));
+        writeString(out, expense.merchant());
+        writeString(out, expense.description());
+        writeString(out, expense.tagsJson());
+        writeString(out, expense.attachmentsJson());
+        writeString(out, expense.type() != null ? expense.type().name() : null);
+        out.writeByte(expense.isRecurring() == null ? -1 : expense.isRecurring() ? 1 : 0);
+        writeDateTime(out, expense.createdAt());
+        writeDateTime(out, expense.updatedAt());
+    }
+
+    static ArchivedExpense readRow(DataInput in) throws IOException {
+        long id = in.readLong();
+        long userId = in.readLong();
+        long walletId = in.readLong();
+        long categoryId = in.readLong();
+        BigDecimal amount = readDecimal(in);
+        String currency = readString(in);
+        LocalDate transactionDate = LocalDate.ofEpochDay(in.readInt());
+        String merchant = readString(in);
+        String description = readString(in);
+        String tagsJson = readString(in);
+        String attachmentsJson = readString(in);
+        String type = readString(in);
+        byte recurring = in.readByte();
+        LocalDateTime createdAt = readDateTime(in);
+        LocalDateTime updatedAt = readDateTime(in);
+
+        return new ArchivedExpense(id, userId, walletId, categoryId, amount, currency, transactionDate,
+                merchant, description, tagsJson, attachmentsJson,
+                type != null ? Expense.ExpenseType.valueOf(type) : null,
+                recurring < 0 ? null : recurring == 1,
+                createdAt, updatedAt);
+    }
+
+    // Orders (user, day) keys the same way rows are sorted inside a segment
+    static int compareKeys(long userA, int dayA, long userB, int dayB) {
+        int byUser = Long.compare(userA, userB);
+        return byUser != 0 ? byUser : Integer.compare(dayA, dayB);
+    }
+
+    private static void writeDecimal(DataOutput out, BigDecimal value) throws IOException {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        out.writeByte(value.scale());
+        out.writeByte(unscaled.length);
+        out.write(unscaled);
+    }
+
+    private static BigDecimal readDecimal(DataInput in) throws IOException {
+        int scale = in.readByte();
+        byte[] unscaled = new byte[in.readUnsignedByte()];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    // Length-prefixed UTF-8; -1 marks null. TEXT columns can exceed what writeUTF accepts
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeDateTime(DataOutput out, LocalDateTime value) throws IOException {
+        out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(value.getNano());
+    }
+
+    private static LocalDateTime readDateTime(DataInput in) throws IOException {
+        long seconds = in.readLong();
+        int nanos = in.readInt();
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,153 @@
+package com.spendSmart.backend.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * Writes one immutable segment. Rows must be appended in (user_id, transaction_date, id) order.
+ * The segment is written to a temporary file and only appears under its final name, fsynced,
+ * once {@link #finish()} succeeds.
+ */
+public class ExpenseSegmentWriter implements Closeable {
+
+    private final Path target;
+    private final Path tempFile;
+    private final FileChannel channel;
+    private final int blockSizeBytes;
+    private final ByteArrayOutputStream blockBuffer = new ByteArrayOutputStream();
+    private final DataOutputStream blockOut = new DataOutputStream(blockBuffer);
+    private final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+    private final List<IndexEntry> index = new ArrayList<>();
+
+    private long position;
+    private long rowCount;
+    private int blockRows;
+    private long blockFirstUser;
+    private int blockFirstDay;
+    private long lastUser;
+    private int lastDay;
+    private int minDay = Integer.MAX_VALUE;
+    private int maxDay = Integer.MIN_VALUE;
+    private boolean finished;
+
+    public ExpenseSegmentWriter(Path target, int blockSizeBytes) throws IOException {
+        this.target = target;
+        this.tempFile = target.resolveSibling(target.getFileName() + ".tmp");
+        this.blockSizeBytes = blockSizeBytes;
+        this.channel = FileChannel.open(tempFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+
+        ByteBuffer header = ByteBuffer.allocate(ExpenseSegmentFormat.HEADER_BYTES);
+        header.putInt(ExpenseSegmentFormat.MAGIC).putShort(ExpenseSegmentFormat.VERSION).flip();
+        write(header);
+    }
+
+    public void append(ArchivedExpense expense) throws IOException {
+        long user = expense.userId();
+        int day = Math.toIntExact(expense.transactionDate().toEpochDay());
+        if (rowCount > 0 && ExpenseSegmentFormat.compareKeys(user, day, lastUser, lastDay) < 0) {
+            throw new IllegalArgumentException("Rows must be appended in (user, transaction date) order");
+        }
+
+        if (blockRows == 0) {
+            blockFirstUser = user;
+            blockFirstDay = day;
+        }
+        ExpenseSegmentFormat.writeRow(blockOut, expense);
+        blockRows++;
+        rowCount++;
+        lastUser = user;
+        lastDay = day;
+        minDay = Math.min(minDay, day);
+        maxDay = Math.max(maxDay, day);
+
+        if (blockBuffer.size() >= blockSizeBytes) {
+            flushBlock();
+        }
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public Path finish() throws IOException {
+        flushBlock();
+
+        long footerOffset = position;
+        ByteBuffer footer = ByteBuffer.allocate(index.size() * ExpenseSegmentFormat.INDEX_ENTRY_BYTES
+                + ExpenseSegmentFormat.TRAILER_BYTES);
+        for (IndexEntry entry : index) {
+            footer.putLong(entry.firstUser).putInt(entry.firstDay)
+                    .putLong(entry.lastUser).putInt(entry.lastDay)
+                    .putLong(entry.offset)
+                    .putInt(entry.compressedLength)
+                    .putInt(entry.uncompressedLength)
+                    .putInt(entry.rowCount);
+        }
+        footer.putInt(index.size())
+                .putInt(rowCount > 0 ? minDay : 0)
+                .putInt(rowCount > 0 ? maxDay : 0)
+                .putLong(rowCount)
+                .putLong(footerOffset)
+                .putInt(ExpenseSegmentFormat.MAGIC)
+                .flip();
+        write(footer);
+
+        channel.force(true);
+        channel.close();
+        Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+        finished = true;
+        return target;
+    }
+
+    @Override
+    public void close() throws IOException {
+        deflater.end();
+        if (!finished) {
+            channel.close();
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        if (blockRows == 0) {
+            return;
+        }
+        byte[] raw = blockBuffer.toByteArray();
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+
+        long offset = position;
+        byte[] chunk = new byte[8192];
+        while (!deflater.finished()) {
+            int length = deflater.deflate(chunk);
+            write(ByteBuffer.wrap(chunk, 0, length));
+        }
+
+        index.add(new IndexEntry(blockFirstUser, blockFirstDay, lastUser, lastDay, offset,
+                Math.toIntExact(position - offset), raw.length, blockRows));
+        blockBuffer.reset();
+        blockRows = 0;
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer);
+        }
+    }
+
+    private record IndexEntry(long firstUser, int firstDay, long lastUser, int lastDay, long offset,
+                              int compressedLength, int uncompressedLength, int rowCount) {
+    }
+}
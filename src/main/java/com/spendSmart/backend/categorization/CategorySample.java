@@ -0,0 +1,5 @@
+package com.spendSmart.backend.categorization;
+
+// The parts of an expense the category suggester learns from
+public record CategorySample(String merchant, String description, Long categoryId) {
+}
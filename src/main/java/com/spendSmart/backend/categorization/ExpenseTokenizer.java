@@ -0,0 +1,73 @@
+package com.spendSmart.backend.categorization;
+
+import java.util.Locale;
+
+/**
+ * Turns an expense's merchant and description into distinct 64-bit token hashes. Words shorter than
+ * two characters and pure numbers (amounts, reference numbers) are skipped; the whole merchant name
+ * is added as one extra token since it is usually the strongest signal.
+ */
+public final class ExpenseTokenizer {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long MERCHANT_SEED = 0x9E3779B97F4A7C15L;
+
+    private ExpenseTokenizer() {
+    }
+
+    public static long[] tokenize(String merchant, String description) {
+        LongIntHashMap seen = new LongIntHashMap(16);
+        addWords(seen, merchant);
+        addWords(seen, description);
+        if (merchant != null && !merchant.isBlank()) {
+            seen.addTo(hash(merchant.strip().toLowerCase(Locale.ROOT), MERCHANT_SEED), 1);
+        }
+        return seen.keys();
+    }
+
+    private static void addWords(LongIntHashMap seen, String text) {
+        if (text == null) {
+            return;
+        }
+        String normalized = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                if (i - start >= 2 && !isNumber(normalized, start, i)) {
+                    long token = hash(normalized, start, i, FNV_OFFSET);
+                    if (seen.get(token) == 0) {
+                        seen.addTo(token, 1);
+                    }
+                }
+                start = -1;
+            }
+        }
+    }
+
+    private static boolean isNumber(String text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!Character.isDigit(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long hash(String text, long seed) {
+        return hash(text, 0, text.length(), FNV_OFFSET ^ seed);
+    }
+
+    // FNV-1a over UTF-16 code units
+    private static long hash(String text, int start, int end, long seed) {
+        long hash = seed;
+        for (int i = start; i < end; i++) {
+            hash ^= text.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,116 @@
+package com.spendSmart.backend.categorization;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Multinomial naive Bayes over expense tokens with Laplace smoothing, updated one expense at a time.
+ * All counts live in primitive {@link LongIntHashMap}s; (token, category) pairs are folded into a
+ * single long key. Methods are synchronized per model, and scoring touches one map lookup per
+ * token and category, which keeps a suggestion in the microsecond range.
+ */
+public final class NaiveBayesModel {
+
+    private static final long CATEGORY_MIX = 0xC2B2AE3D27D4EB4FL;
+
+    // (token, category) -> number of expenses of the category containing the token
+    private final LongIntHashMap tokenCategoryCounts = new LongIntHashMap(256);
+    // token -> number of categories it occurs with, used for the vocabulary size
+    private final LongIntHashMap tokenCounts = new LongIntHashMap(256);
+    // category -> number of expenses
+    private final LongIntHashMap categoryDocuments = new LongIntHashMap(16);
+    // category -> sum of token occurrences
+    private final LongIntHashMap categoryTokens = new LongIntHashMap(16);
+    private int documents;
+
+    public synchronized void add(long[] tokens, long categoryId) {
+        update(tokens, categoryId, 1);
+    }
+
+    public synchronized void remove(long[] tokens, long categoryId) {
+        if (categoryDocuments.get(categoryId) > 0) {
+            update(tokens, categoryId, -1);
+        }
+    }
+
+    public synchronized int getDocumentCount() {
+        return documents;
+    }
+
+    public synchronized long memoryBytes() {
+        return tokenCategoryCounts.memoryBytes() + tokenCounts.memoryBytes()
+                + categoryDocuments.memoryBytes() + categoryTokens.memoryBytes();
+    }
+
+    /**
+     * Returns up to {@code limit} categories, most probable first, with posterior probabilities
+     * normalized over all categories the model has seen.
+     */
+    public synchronized List<Suggestion> suggest(long[] tokens, int limit) {
+        if (documents == 0 || tokens.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        long[] categories = categoryDocuments.keys();
+        double[] scores = new double[categories.length];
+        double vocabulary = Math.max(1, tokenCounts.size());
+        double maxScore = Double.NEGATIVE_INFINITY;
+
+        for (int c = 0; c < categories.length; c++) {
+            long category = categories[c];
+            double score = Math.log((double) categoryDocuments.get(category) / documents);
+            double denominator = categoryTokens.get(category) + vocabulary;
+            for (long token : tokens) {
+                score += Math.log((tokenCategoryCounts.get(key(token, category)) + 1) / denominator);
+            }
+            scores[c] = score;
+            maxScore = Math.max(maxScore, score);
+        }
+
+        double total = 0;
+        for (int c = 0; c < scores.length; c++) {
+            scores[c] = Math.exp(scores[c] - maxScore);
+            total += scores[c];
+        }
+
+        // Selection of the k best; the number of categories per user is small
+        List<Suggestion> suggestions = new ArrayList<>(Math.min(limit, categories.length));
+        boolean[] taken = new boolean[categories.length];
+        for (int k = 0; k < Math.min(limit, categories.length); k++) {
+            int best = -1;
+            for (int c = 0; c < categories.length; c++) {
+                if (!taken[c] && (best < 0 || scores[c] > scores[best])) {
+                    best = c;
+                }
+            }
+            taken[best] = true;
+            suggestions.add(new Suggestion(categories[best], scores[best] / total));
+        }
+        return suggestions;
+    }
+
+    private void update(long[] tokens, long categoryId, int delta) {
+        documents += delta;
+        categoryDocuments.addTo(categoryId, delta);
+        categoryTokens.addTo(categoryId, delta * tokens.length);
+        for (long token : tokens) {
+            int count = tokenCategoryCounts.addTo(key(token, categoryId), delta);
+            // Vocabulary counts distinct (token, category) pairs per token
+            if (delta > 0 && count == 1) {
+                tokenCounts.addTo(token, 1);
+            } else if (delta < 0 && count == 0) {
+                tokenCounts.addTo(token, -1);
+            }
+        }
+    }
+
+    private static long key(long token, long categoryId) {
+        long key = token ^ (categoryId * CATEGORY_MIX);
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    public record Suggestion(long categoryId, double probability) {
+    }
+}
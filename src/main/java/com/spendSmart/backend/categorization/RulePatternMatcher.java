@@ -0,0 +1,218 @@
+package com.spendSmart.backend.categorization;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+
+/**
+ * Aho-Corasick automaton over the rule patterns of a set of categories. Matching is case-insensitive,
+ * only accepts whole words, and runs in time linear in the text length plus the number of matches.
+ * Instances are immutable once built and safe to share between threads.
+ */
+public final class RulePatternMatcher {
+
+    private static final RulePatternMatcher EMPTY = builder().build();
+
+    // Per node: sorted transition characters and their targets
+    private final char[][] transitionChars;
+    private final int[][] transitionTargets;
+    private final int[] failure;
+    // Nearest node on the failure chain (excluding itself) that ends a pattern, or -1
+    private final int[] outputLink;
+    // Pattern ending at each node, or -1
+    private final int[] nodePattern;
+    private final int[] patternLengths;
+    private final long[] patternCategories;
+    private final int[] patternPriorities;
+
+    private RulePatternMatcher(Builder builder) {
+        int nodeCount = builder.children.size();
+        transitionChars = new char[nodeCount][];
+        transitionTargets = new int[nodeCount][];
+        for (int node = 0; node < nodeCount; node++) {
+            Map<Character, Integer> edges = builder.children.get(node);
+            char[] chars = new char[edges.size()];
+            int i = 0;
+            for (char c : edges.keySet()) {
+                chars[i++] = c;
+            }
+            Arrays.sort(chars);
+            int[] targets = new int[chars.length];
+            for (i = 0; i < chars.length; i++) {
+                targets[i] = edges.get(chars[i]);
+            }
+            transitionChars[node] = chars;
+            transitionTargets[node] = targets;
+        }
+
+        nodePattern = builder.nodePattern.stream().mapToInt(Integer::intValue).toArray();
+        patternLengths = builder.patternLengths.stream().mapToInt(Integer::intValue).toArray();
+        patternCategories = builder.patternCategories.stream().mapToLong(Long::longValue).toArray();
+        patternPriorities = builder.patternPriorities.stream().mapToInt(Integer::intValue).toArray();
+
+        failure = new int[nodeCount];
+        outputLink = new int[nodeCount];
+        Arrays.fill(outputLink, -1);
+        linkFailures();
+    }
+
+    public static RulePatternMatcher empty() {
+        return EMPTY;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public boolean isEmpty() {
+        return patternLengths.length == 0;
+    }
+
+    /**
+     * Returns the category of the best whole-word match in the given texts: the longest pattern wins,
+     * then the higher priority, then the earliest occurrence.
+     */
+    public Optional<Long> match(String... texts) {
+        int bestPattern = -1;
+        for (String text : texts) {
+            if (text == null || text.isEmpty() || isEmpty()) {
+                continue;
+            }
+            String normalized = text.toLowerCase(Locale.ROOT);
+            int node = 0;
+            for (int i = 0; i < normalized.length(); i++) {
+                node = next(node, normalized.charAt(i));
+                int candidate = nodePattern[node] >= 0 ? node : outputLink[node];
+                for (; candidate >= 0; candidate = outputLink[candidate]) {
+                    int pattern = nodePattern[candidate];
+                    int start = i - patternLengths[pattern] + 1;
+                    if (isWordBoundary(normalized, start - 1) && isWordBoundary(normalized, i + 1)
+                            && isBetter(pattern, bestPattern)) {
+                        bestPattern = pattern;
+                    }
+                }
+            }
+        }
+        return bestPattern >= 0 ? Optional.of(patternCategories[bestPattern]) : Optional.empty();
+    }
+
+    private boolean isBetter(int pattern, int current) {
+        if (current < 0) {
+            return true;
+        }
+        if (patternLengths[pattern] != patternLengths[current]) {
+            return patternLengths[pattern] > patternLengths[current];
+        }
+        return patternPriorities[pattern] > patternPriorities[current];
+    }
+
+    private int next(int node, char c) {
+        while (true) {
+            int target = transition(node, c);
+            if (target >= 0) {
+                return target;
+            }
+            if (node == 0) {
+                return 0;
+            }
+            node = failure[node];
+        }
+    }
+
+    private int transition(int node, char c) {
+        int index = Arrays.binarySearch(transitionChars[node], c);
+        return index >= 0 ? transitionTargets[node][index] : -1;
+    }
+
+    // Breadth-first, so every node's failure target is linked before its children need it
+    private void linkFailures() {
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int child : transitionTargets[0]) {
+            failure[child] = 0;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            char[] chars = transitionChars[node];
+            int[] targets = transitionTargets[node];
+            for (int i = 0; i < chars.length; i++) {
+                int child = targets[i];
+                int fallback = failure[node];
+                int target;
+                while ((target = transition(fallback, chars[i])) < 0 && fallback != 0) {
+                    fallback = failure[fallback];
+                }
+                failure[child] = target >= 0 && target != child ? target : 0;
+                int failureNode = failure[child];
+                outputLink[child] = nodePattern[failureNode] >= 0 ? failureNode : outputLink[failureNode];
+                queue.add(child);
+            }
+        }
+    }
+
+    private static boolean isWordBoundary(String text, int index) {
+        return index < 0 || index >= text.length() || !Character.isLetterOrDigit(text.charAt(index));
+    }
+
+    public static final class Builder {
+
+        private final List<Map<Character, Integer>> children = new ArrayList<>();
+        private final List<Integer> nodePattern = new ArrayList<>();
+        private final List<Integer> patternLengths = new ArrayList<>();
+        private final List<Long> patternCategories = new ArrayList<>();
+        private final List<Integer> patternPriorities = new ArrayList<>();
+
+        private Builder() {
+            addNode();
+        }
+
+        /**
+         * Adds a pattern for a category. When the same pattern is added twice, the higher priority wins.
+         */
+        public Builder add(String pattern, long categoryId, int priority) {
+            String normalized = pattern.strip().toLowerCase(Locale.ROOT);
+            if (normalized.isEmpty()) {
+                return this;
+            }
+            int node = 0;
+            for (int i = 0; i < normalized.length(); i++) {
+                Integer child = children.get(node).get(normalized.charAt(i));
+                if (child == null) {
+                    child = addNode();
+                    children.get(node).put(normalized.charAt(i), child);
+                }
+                node = child;
+            }
+
+            int existing = nodePattern.get(node);
+            if (existing >= 0) {
+                if (priority > patternPriorities.get(existing)) {
+                    patternCategories.set(existing, categoryId);
+                    patternPriorities.set(existing, priority);
+                }
+                return this;
+            }
+            nodePattern.set(node, patternLengths.size());
+            patternLengths.add(normalized.length());
+            patternCategories.add(categoryId);
+            patternPriorities.add(priority);
+            return this;
+        }
+
+        public RulePatternMatcher build() {
+            return new RulePatternMatcher(this);
+        }
+
+        private int addNode() {
+            children.add(new HashMap<>());
+            nodePattern.add(-1);
+            return children.size() - 1;
+        }
+    }
+}
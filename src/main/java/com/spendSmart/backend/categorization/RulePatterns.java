@@ -0,0 +1,21 @@
+package com.spendSmart.backend.categorization;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Category.rulePatterns holds keywords separated by newlines, commas, semicolons or pipes; a JSON array of strings also works
+public final class RulePatterns {
+
+    private RulePatterns() {
+    }
+
+    public static List<String> parse(String rulePatterns) {
+        if (rulePatterns == null || rulePatterns.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(rulePatterns.split("[\\n,;|]"))
+                .map(pattern -> pattern.replaceAll("^[\\s\\[\"]+|[\\s\\]\"]+$", ""))
+                .filter(pattern -> !pattern.isEmpty())
+                .toList();
+    }
+}
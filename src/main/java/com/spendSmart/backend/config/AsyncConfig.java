@@ -0,0 +1,127 @@
+package com.spendSmart.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    @Value("${app.analytics.executor.pool-size:4}")
+    private int analyticsPoolSize;
+
+    @Value("${app.analytics.executor.queue-capacity:100}")
+    private int analyticsQueueCapacity;
+
+    @Value("${app.analytics.jobs.pool-size:2}")
+    private int analyticsJobPoolSize;
+
+    @Value("${app.analytics.jobs.queue-capacity:20}")
+    private int analyticsJobQueueCapacity;
+
+    @Value("${app.stream.broadcast-threads:2}")
+    private int streamBroadcastThreads;
+
+    @Value("${app.stream.broadcast-queue-capacity:1000}")
+    private int streamBroadcastQueueCapacity;
+
+    @Value("${app.bootstrap.executor.pool-size:8}")
+    private int bootstrapPoolSize;
+
+    @Value("${app.bootstrap.executor.queue-capacity:100}")
+    private int bootstrapQueueCapacity;
+
+    @Bean
+    public ThreadPoolTaskExecutor analyticsExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(analyticsPoolSize);
+        executor.setMaxPoolSize(analyticsPoolSize);
+        executor.setQueueCapacity(analyticsQueueCapacity);
+        executor.setThreadNamePrefix("analytics-");
+        executor.setTaskDecorator(analyticsWorkload());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    // Long-range report jobs; the pool size doubles as their database connection budget
+    @Bean
+    public ThreadPoolTaskExecutor analyticsJobExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(analyticsJobPoolSize);
+        executor.setMaxPoolSize(analyticsJobPoolSize);
+        executor.setQueueCapacity(analyticsJobQueueCapacity);
+        executor.setThreadNamePrefix("analytics-job-");
+        executor.setTaskDecorator(analyticsWorkload());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    // Writes ledger change events to SSE connections, off the threads that committed the changes
+    @Bean
+    public ThreadPoolTaskExecutor ledgerStreamExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(streamBroadcastThreads);
+        executor.setMaxPoolSize(streamBroadcastThreads);
+        executor.setQueueCapacity(streamBroadcastQueueCapacity);
+        executor.setThreadNamePrefix("ledger-stream-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    // Sections of the bootstrap response computed alongside the request thread; a full queue runs them inline
+    @Bean
+    public ThreadPoolTaskExecutor bootstrapExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(bootstrapPoolSize);
+        executor.setMaxPoolSize(bootstrapPoolSize);
+        executor.setQueueCapacity(bootstrapQueueCapacity);
+        executor.setThreadNamePrefix("bootstrap-");
+        executor.setTaskDecorator(securityContextPropagation());
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    // Carries over the submitting user's security context, which replica routing needs for read-your-writes
+    private static TaskDecorator securityContextPropagation() {
+        return task -> {
+            SecurityContext securityContext = SecurityContextHolder.getContext();
+            return () -> {
+                SecurityContextHolder.setContext(securityContext);
+                try {
+                    task.run();
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+            };
+        };
+    }
+
+    // Charges database work done by analytics tasks to the analytics connection pool and carries over
+    // the submitting user's security context, which replica routing needs for read-your-writes
+    private static TaskDecorator analyticsWorkload() {
+        return task -> {
+            SecurityContext securityContext = SecurityContextHolder.getContext();
+            return () -> {
+                DataSourceWorkload.set(DataSourceWorkload.ANALYTICS);
+                SecurityContextHolder.setContext(securityContext);
+                try {
+                    task.run();
+                } finally {
+                    SecurityContextHolder.clearContext();
+                    DataSourceWorkload.clear();
+                }
+            };
+        };
+    }
+}
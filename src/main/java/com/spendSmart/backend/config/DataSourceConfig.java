@@ -0,0 +1,136 @@
+package com.spendSmart.backend.config;
+
+import com.spendSmart.backend.config.ReplicaRoutingDataSource.ReplicaKey;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Bulkhead between interactive CRUD traffic and analytics. Both workloads talk to the same
+ * database, but through separate Hikari pools sized and timed out independently, so a burst of
+ * analytics requests can exhaust only its own pool. The pool is picked per thread from
+ * {@link DataSourceWorkload}, which the analytics executors set on their worker threads.
+ * <p>
+ * When a replica is enabled, read-only transactions are sent to a matching pair of replica pools
+ * instead, unless the replica lags too far behind or the current user has just written data.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Value("${app.datasource.replica.enabled:false}")
+    private boolean replicaEnabled;
+
+    @Value("${app.datasource.replica.url:}")
+    private String replicaUrl;
+
+    @Value("${app.datasource.replica.username:}")
+    private String replicaUsername;
+
+    @Value("${app.datasource.replica.password:}")
+    private String replicaPassword;
+
+    @Value("${app.datasource.replica.max-lag-seconds:2}")
+    private long replicaMaxLagSeconds;
+
+    @Bean(autowireCandidate = false)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource crudDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("crud-pool");
+        return dataSource;
+    }
+
+    @Bean(autowireCandidate = false)
+    @ConfigurationProperties("app.datasource.analytics.hikari")
+    public HikariDataSource analyticsDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("analytics-pool");
+        return dataSource;
+    }
+
+    @Bean(autowireCandidate = false)
+    @ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = replicaPool(properties);
+        dataSource.setPoolName("replica-crud-pool");
+        return dataSource;
+    }
+
+    @Bean(autowireCandidate = false)
+    @ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+    @ConfigurationProperties("app.datasource.replica.analytics-hikari")
+    public HikariDataSource analyticsReplicaDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = replicaPool(properties);
+        dataSource.setPoolName("replica-analytics-pool");
+        return dataSource;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+    public ReplicaHealthMonitor replicaHealthMonitor(DataSourceProperties properties) {
+        ReplicaHealthMonitor monitor = new ReplicaHealthMonitor(replicaDataSource(properties), replicaMaxLagSeconds);
+        // Decide on the replica before the first request instead of waiting for the first scheduled check
+        monitor.checkReplica();
+        return monitor;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties, ReadYourWritesTracker readYourWritesTracker,
+                                 ObjectProvider<ReplicaHealthMonitor> replicaHealthMonitor) {
+        HikariDataSource crud = crudDataSource(properties);
+        HikariDataSource analytics = analyticsDataSource(properties);
+
+        WorkloadRoutingDataSource routingDataSource = new WorkloadRoutingDataSource(
+                replicaEnabled ? readYourWritesTracker : null);
+        routingDataSource.setTargetDataSources(Map.of(
+                DataSourceWorkload.CRUD, crud,
+                DataSourceWorkload.ANALYTICS, analytics
+        ));
+        routingDataSource.setDefaultTargetDataSource(crud);
+        routingDataSource.afterPropertiesSet();
+
+        // Defers the physical connection until the first statement, when the routing key is known
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+
+        if (replicaEnabled) {
+            ReplicaRoutingDataSource readOnlyDataSource = new ReplicaRoutingDataSource(
+                    replicaHealthMonitor.getObject(), readYourWritesTracker);
+            readOnlyDataSource.setTargetDataSources(Map.of(
+                    DataSourceWorkload.CRUD, crud,
+                    DataSourceWorkload.ANALYTICS, analytics,
+                    new ReplicaKey(DataSourceWorkload.CRUD), replicaDataSource(properties),
+                    new ReplicaKey(DataSourceWorkload.ANALYTICS), analyticsReplicaDataSource(properties)
+            ));
+            readOnlyDataSource.setDefaultTargetDataSource(crud);
+            readOnlyDataSource.afterPropertiesSet();
+
+            // Connections of read-only transactions are marked read-only before their first statement
+            dataSource.setReadOnlyDataSource(readOnlyDataSource);
+        }
+
+        return dataSource;
+    }
+
+    private HikariDataSource replicaPool(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setJdbcUrl(replicaUrl);
+        if (!replicaUsername.isEmpty()) {
+            dataSource.setUsername(replicaUsername);
+            dataSource.setPassword(replicaPassword);
+        }
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+}
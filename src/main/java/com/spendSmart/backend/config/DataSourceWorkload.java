@@ -0,0 +1,21 @@
+package com.spendSmart.backend.config;
+
+// Identifies which connection pool the current thread's database work is charged to
+public enum DataSourceWorkload {
+    CRUD,
+    ANALYTICS;
+
+    private static final ThreadLocal<DataSourceWorkload> CURRENT = ThreadLocal.withInitial(() -> CRUD);
+
+    public static DataSourceWorkload current() {
+        return CURRENT.get();
+    }
+
+    public static void set(DataSourceWorkload workload) {
+        CURRENT.set(workload);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
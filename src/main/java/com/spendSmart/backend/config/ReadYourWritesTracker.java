@@ -0,0 +1,78 @@
+package com.spendSmart.backend.config;
+
+import com.spendSmart.backend.security.UserPrincipal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which users wrote recently so their reads stay on the primary until the replica has
+ * had time to catch up (read-your-writes). State is per node, which is enough because a user's
+ * follow-up reads are normally served by the node that handled the write or see a short window.
+ */
+@Component
+public class ReadYourWritesTracker {
+
+    private final Map<Long, Long> lastWriteAt = new ConcurrentHashMap<>();
+
+    @Value("${app.datasource.replica.read-your-writes-window-ms:5000}")
+    private long windowMs;
+
+    // Called whenever a read-write transaction obtains a primary connection
+    public void onPrimaryConnection() {
+        Long userId = currentUserId();
+        if (userId == null
+                || !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return;
+        }
+
+        recordWrite(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Restart the window at commit time so long transactions are covered too
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    recordWrite(userId);
+                }
+            });
+        }
+    }
+
+    public boolean isSticky(Long userId) {
+        if (userId == null) {
+            return false;
+        }
+        Long writtenAt = lastWriteAt.get(userId);
+        return writtenAt != null && System.currentTimeMillis() - writtenAt < windowMs;
+    }
+
+    public boolean isCurrentUserSticky() {
+        return isSticky(currentUserId());
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.read-your-writes-window-ms:5000}")
+    public void purgeExpired() {
+        long cutoff = System.currentTimeMillis() - windowMs;
+        lastWriteAt.values().removeIf(writtenAt -> writtenAt < cutoff);
+    }
+
+    private void recordWrite(Long userId) {
+        lastWriteAt.put(userId, System.currentTimeMillis());
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal.getId();
+        }
+        return null;
+    }
+}
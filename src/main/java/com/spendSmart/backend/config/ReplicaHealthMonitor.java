@@ -0,0 +1,66 @@
+package com.spendSmart.backend.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Polls the replica's replication lag. Reads are only routed to the replica while it is reachable
+ * and no further behind the primary than the configured maximum lag.
+ */
+@Slf4j
+public class ReplicaHealthMonitor {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long maxLagSeconds;
+    private volatile boolean available;
+    private volatile Long lagSeconds;
+
+    public ReplicaHealthMonitor(DataSource replicaDataSource, long maxLagSeconds) {
+        this.jdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.maxLagSeconds = maxLagSeconds;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public Long getLagSeconds() {
+        return lagSeconds;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.health-check-interval-ms:5000}")
+    public void checkReplica() {
+        boolean wasAvailable = available;
+        try {
+            lagSeconds = queryLagSeconds();
+            available = lagSeconds != null && lagSeconds <= maxLagSeconds;
+        } catch (Exception e) {
+            lagSeconds = null;
+            available = false;
+            if (wasAvailable) {
+                log.warn("Replica health check failed: {}", e.getMessage());
+            }
+        }
+
+        if (available != wasAvailable) {
+            log.info("Replica {} (lag: {}s, max: {}s)", available ? "back in rotation" : "taken out of rotation",
+                    lagSeconds, maxLagSeconds);
+        }
+    }
+
+    // A server that is not replicating from anything (e.g. a local stand-in) reports no status rows and counts as caught up
+    private Long queryLagSeconds() {
+        List<Long> lag = jdbcTemplate.query("SHOW REPLICA STATUS", (rs, rowNum) -> {
+            long seconds = rs.getLong("Seconds_Behind_Source");
+            return rs.wasNull() ? null : seconds;
+        });
+        if (lag.isEmpty()) {
+            return 0L;
+        }
+        return lag.get(0);
+    }
+}
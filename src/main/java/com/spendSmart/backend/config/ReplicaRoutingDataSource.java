@@ -0,0 +1,27 @@
+package com.spendSmart.backend.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+// Target for read-only connections: the replica pool of the current workload, or its primary pool as fallback
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ReplicaHealthMonitor replicaHealthMonitor;
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    public ReplicaRoutingDataSource(ReplicaHealthMonitor replicaHealthMonitor, ReadYourWritesTracker readYourWritesTracker) {
+        this.replicaHealthMonitor = replicaHealthMonitor;
+        this.readYourWritesTracker = readYourWritesTracker;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        DataSourceWorkload workload = DataSourceWorkload.current();
+        if (replicaHealthMonitor.isAvailable() && !readYourWritesTracker.isCurrentUserSticky()) {
+            return new ReplicaKey(workload);
+        }
+        return workload;
+    }
+
+    public record ReplicaKey(DataSourceWorkload workload) {
+    }
+}
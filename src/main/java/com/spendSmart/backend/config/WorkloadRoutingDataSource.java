@@ -0,0 +1,21 @@
+package com.spendSmart.backend.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource {
+
+    // Null when no replica is configured and read-your-writes tracking is unnecessary
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    public WorkloadRoutingDataSource(ReadYourWritesTracker readYourWritesTracker) {
+        this.readYourWritesTracker = readYourWritesTracker;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (readYourWritesTracker != null) {
+            readYourWritesTracker.onPrimaryConnection();
+        }
+        return DataSourceWorkload.current();
+    }
+}
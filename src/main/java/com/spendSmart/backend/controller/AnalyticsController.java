@@ -2,14 +2,26 @@ package com.spendSmart.backend.controller;
 
 import com.spendSmart.backend.dto.analytics.*;
 import com.spendSmart.backend.security.UserPrincipal;
+import com.spendSmart.backend.service.AnalyticsJobService;
+import com.spendSmart.backend.service.AnalyticsResultCache;
 import com.spendSmart.backend.service.AnalyticsService;
+import com.spendSmart.backend.service.LedgerVersionService;
+import com.spendSmart.backend.service.TagService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.net.URI;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/v1/analytics")
@@ -17,6 +29,10 @@ import java.time.LocalDateTime;
 public class AnalyticsController {
 
     private final AnalyticsService analyticsService;
+    private final AnalyticsResultCache analyticsResultCache;
+    private final AnalyticsJobService analyticsJobService;
+    private final TagService tagService;
+    private final LedgerVersionService ledgerVersionService;
 
     @GetMapping("/expenses")
     public ResponseEntity<ExpenseAnalyticsResponse> getExpenseAnalytics(
@@ -24,8 +40,7 @@ public class AnalyticsController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
             @AuthenticationPrincipal UserPrincipal userPrincipal) {
         
-        ExpenseAnalyticsResponse analytics = analyticsService.getExpenseAnalytics(userPrincipal.getId(), startDate, endDate);
-        return ResponseEntity.ok(analytics);
+        return toResponse(getExpenseAnalytics(userPrincipal.getId(), startDate, endDate));
     }
 
     @GetMapping("/trends")
@@ -33,16 +48,40 @@ public class AnalyticsController {
             @RequestParam(defaultValue = "12") int months,
             @AuthenticationPrincipal UserPrincipal userPrincipal) {
         
-        SpendingTrendsResponse trends = analyticsService.getSpendingTrends(userPrincipal.getId(), months);
-        return ResponseEntity.ok(trends);
+        Long userId = userPrincipal.getId();
+        return toResponse(analyticsResultCache.get("trends", userId, List.of(months),
+                () -> analyticsService.getSpendingTrends(userId, months)));
     }
 
     @GetMapping("/dashboard")
     public ResponseEntity<DashboardSummaryResponse> getDashboardSummary(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            WebRequest request) {
+        
+        Long userId = userPrincipal.getId();
+        long version = ledgerVersionService.currentVersion(userId);
+        String etag = ledgerVersionService.etag(userId, version, request);
+        if (ledgerVersionService.isNotModified(request, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        // Keyed by version, so the body is never older than the ETag it is sent with
+        AnalyticsResultCache.CachedResult<DashboardSummaryResponse> result = analyticsResultCache.get("dashboard", userId,
+                List.of(version), () -> analyticsService.getDashboardSummary(userId));
+        return cachedResponse(result)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(result.value());
+    }
+
+    @GetMapping("/tags")
+    public ResponseEntity<List<TagSpendResponse>> getTagSpend(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             @AuthenticationPrincipal UserPrincipal userPrincipal) {
         
-        DashboardSummaryResponse summary = analyticsService.getDashboardSummary(userPrincipal.getId());
-        return ResponseEntity.ok(summary);
+        Long userId = userPrincipal.getId();
+        return toResponse(analyticsResultCache.get("tags", userId, List.of(startDate, endDate),
+                () -> tagService.getTagSpend(userId, startDate, endDate)));
     }
 
     @GetMapping("/expenses/current-month")
@@ -50,11 +89,10 @@ public class AnalyticsController {
             @AuthenticationPrincipal UserPrincipal userPrincipal) {
         
         LocalDateTime now = LocalDateTime.now();
-        LocalDateTime monthStart = now.withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0);
-        LocalDateTime monthEnd = now.withDayOfMonth(now.toLocalDate().lengthOfMonth()).withHour(23).withMinute(59).withSecond(59);
+        LocalDateTime monthStart = now.withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0).withNano(0);
+        LocalDateTime monthEnd = now.withDayOfMonth(now.toLocalDate().lengthOfMonth()).withHour(23).withMinute(59).withSecond(59).withNano(0);
         
-        ExpenseAnalyticsResponse analytics = analyticsService.getExpenseAnalytics(userPrincipal.getId(), monthStart, monthEnd);
-        return ResponseEntity.ok(analytics);
+        return toResponse(getExpenseAnalytics(userPrincipal.getId(), monthStart, monthEnd));
     }
 
     @GetMapping("/expenses/last-month")
@@ -62,10 +100,45 @@ public class AnalyticsController {
             @AuthenticationPrincipal UserPrincipal userPrincipal) {
         
         LocalDateTime now = LocalDateTime.now();
-        LocalDateTime lastMonthStart = now.minusMonths(1).withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0);
-        LocalDateTime lastMonthEnd = now.minusMonths(1).withDayOfMonth(now.minusMonths(1).toLocalDate().lengthOfMonth()).withHour(23).withMinute(59).withSecond(59);
+        LocalDateTime lastMonthStart = now.minusMonths(1).withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0).withNano(0);
+        LocalDateTime lastMonthEnd = now.minusMonths(1).withDayOfMonth(now.minusMonths(1).toLocalDate().lengthOfMonth()).withHour(23).withMinute(59).withSecond(59).withNano(0);
         
-        ExpenseAnalyticsResponse analytics = analyticsService.getExpenseAnalytics(userPrincipal.getId(), lastMonthStart, lastMonthEnd);
-        return ResponseEntity.ok(analytics);
+        return toResponse(getExpenseAnalytics(userPrincipal.getId(), lastMonthStart, lastMonthEnd));
+    }
+
+    @PostMapping("/jobs")
+    public ResponseEntity<AnalyticsJobResponse> submitAnalyticsJob(
+            @Valid @RequestBody AnalyticsJobRequest request,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+        
+        AnalyticsJobResponse job = analyticsJobService.submit(userPrincipal.getId(), request);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/analytics/jobs/" + job.getJobId()))
+                .body(job);
+    }
+
+    // With waitMs > 0 this long-polls without holding a request thread until the job finishes or the wait elapses
+    @GetMapping("/jobs/{jobId}")
+    public CompletableFuture<ResponseEntity<AnalyticsJobResponse>> getAnalyticsJob(
+            @PathVariable String jobId,
+            @RequestParam(defaultValue = "0") long waitMs,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+        
+        return analyticsJobService.awaitJob(userPrincipal.getId(), jobId, waitMs)
+                .thenApply(ResponseEntity::ok);
+    }
+
+    private AnalyticsResultCache.CachedResult<ExpenseAnalyticsResponse> getExpenseAnalytics(
+            Long userId, LocalDateTime startDate, LocalDateTime endDate) {
+        return analyticsResultCache.get("expenses", userId, List.of(startDate, endDate),
+                () -> analyticsService.getExpenseAnalytics(userId, startDate, endDate));
+    }
+
+    private <T> ResponseEntity<T> toResponse(AnalyticsResultCache.CachedResult<T> result) {
+        return cachedResponse(result).body(result.value());
+    }
+
+    private static ResponseEntity.BodyBuilder cachedResponse(AnalyticsResultCache.CachedResult<?> result) {
+        return ResponseEntity.ok().headers(result.headers());
     }
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.spendSmart.backend.controller;
+
+import com.spendSmart.backend.dto.bootstrap.BootstrapResponse;
+import com.spendSmart.backend.security.UserPrincipal;
+import com.spendSmart.backend.service.BootstrapService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/bootstrap")
+@RequiredArgsConstructor
+public class BootstrapController {
+
+    private final BootstrapService bootstrapService;
+
+    @GetMapping
+    public ResponseEntity<BootstrapResponse> bootstrap(
+            @RequestParam(defaultValue = "50") int limit,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+        return ResponseEntity.ok(bootstrapService.bootstrap(userPrincipal.getId(), limit));
+    }
+}
@@ -1,14 +1,20 @@
 package com.spendSmart.backend.controller;
 
+import com.spendSmart.backend.config.MessageConverterConfig;
 import com.spendSmart.backend.dto.budget.*;
 import com.spendSmart.backend.security.UserPrincipal;
 import com.spendSmart.backend.service.BudgetService;
+import com.spendSmart.backend.service.LedgerVersionService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -18,12 +24,35 @@ import java.util.List;
 public class BudgetController {
 
     private final BudgetService budgetService;
+    private final LedgerVersionService ledgerVersionService;
 
+    // JSON listings are written as they are read instead of being built in memory first. No produces,
+    // so requests without an Accept header or with */* are served here too
     @GetMapping
-    public ResponseEntity<List<BudgetResponse>> getAllBudgets(
-            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+    public ResponseEntity<?> getAllBudgets(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            WebRequest request) {
+        String etag = ledgerVersionService.etag(userPrincipal.getId(), request);
+        if (ledgerVersionService.isNotModified(request, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        Long userId = userPrincipal.getId();
+        StreamingResponseBody body = out -> budgetService.writeAllBudgets(userId, out);
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache().cachePrivate())
+                .contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    // The binary formats are written whole by their converters, so the listing is built in memory
+    @GetMapping(produces = {MediaType.APPLICATION_CBOR_VALUE, MessageConverterConfig.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<List<BudgetResponse>> listAllBudgets(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            WebRequest request) {
+        String etag = ledgerVersionService.etag(userPrincipal.getId(), request);
+        if (ledgerVersionService.isNotModified(request, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
         List<BudgetResponse> budgets = budgetService.getAllBudgets(userPrincipal.getId());
-        return ResponseEntity.ok(budgets);
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache().cachePrivate()).body(budgets);
     }
 
     @GetMapping("/{id}")
@@ -61,15 +90,25 @@ public class BudgetController {
 
     @GetMapping("/summary")
     public ResponseEntity<BudgetSummaryResponse> getBudgetSummary(
-            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            WebRequest request) {
+        String etag = ledgerVersionService.etag(userPrincipal.getId(), request);
+        if (ledgerVersionService.isNotModified(request, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
         BudgetSummaryResponse summary = budgetService.getBudgetSummary(userPrincipal.getId());
-        return ResponseEntity.ok(summary);
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache().cachePrivate()).body(summary);
     }
 
     @GetMapping("/active")
     public ResponseEntity<List<BudgetResponse>> getActiveBudgets(
-            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            WebRequest request) {
+        String etag = ledgerVersionService.etag(userPrincipal.getId(), request);
+        if (ledgerVersionService.isNotModified(request, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
         List<BudgetResponse> budgets = budgetService.getActiveBudgets(userPrincipal.getId());
-        return ResponseEntity.ok(budgets);
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache().cachePrivate()).body(budgets);
     }
-}
\ No newline at end of file
+}
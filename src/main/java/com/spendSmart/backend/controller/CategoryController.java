@@ -3,11 +3,16 @@ package com.spendSmart.backend.controller;
 import com.spendSmart.backend.dto.category.*;
 import com.spendSmart.backend.security.UserPrincipal;
 import com.spendSmart.backend.service.CategoryService;
+import com.spendSmart.backend.service.CategorySuggestionService;
+import com.spendSmart.backend.service.LedgerVersionService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -18,10 +23,32 @@ public class CategoryController {
     @Autowired
     private CategoryService categoryService;
 
+    @Autowired
+    private CategorySuggestionService categorySuggestionService;
+
+    @Autowired
+    private LedgerVersionService ledgerVersionService;
+
     @GetMapping
-    public ResponseEntity<List<CategoryResponse>> getUserCategories(@AuthenticationPrincipal UserPrincipal userPrincipal) {
+    public ResponseEntity<List<CategoryResponse>> getUserCategories(@AuthenticationPrincipal UserPrincipal userPrincipal,
+                                                                    WebRequest request) {
+        String etag = ledgerVersionService.etag(userPrincipal.getId(), request);
+        if (ledgerVersionService.isNotModified(request, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
         List<CategoryResponse> categories = categoryService.getUserCategories(userPrincipal.getId());
-        return ResponseEntity.ok(categories);
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache().cachePrivate()).body(categories);
+    }
+
+    @GetMapping("/suggestions")
+    public ResponseEntity<List<CategorySuggestionResponse>> suggestCategories(
+            @RequestParam(required = false) String merchant,
+            @RequestParam(required = false) String description,
+            @RequestParam(defaultValue = "3") int limit,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+        List<CategorySuggestionResponse> suggestions = categorySuggestionService.suggest(
+                userPrincipal.getId(), merchant, description, Math.min(Math.max(limit, 1), 10));
+        return ResponseEntity.ok(suggestions);
     }
 
     @GetMapping("/{id}")
@@ -1,17 +1,22 @@
 package com.spendSmart.backend.controller;
 
+import com.spendSmart.backend.config.MessageConverterConfig;
 import com.spendSmart.backend.dto.expense.*;
+import com.spendSmart.backend.exception.ValidationException;
 import com.spendSmart.backend.security.UserPrincipal;
 import com.spendSmart.backend.service.ExpenseService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/v1/expenses")
@@ -20,22 +25,77 @@ public class ExpenseController {
     @Autowired
     private ExpenseService expenseService;
 
+    // Full JSON listings are written as they are read instead of being built in memory first. No
+    // produces, so requests without an Accept header or with */* are served here too: Spring prefers
+    // an unconstrained mapping over one naming a media type for those
     @GetMapping
-    public ResponseEntity<List<ExpenseResponse>> getUserExpenses(
+    public ResponseEntity<?> getUserExpenses(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String tag,
+            @RequestParam(defaultValue = "full") String view,
+            @RequestParam(required = false) String fields,
             @AuthenticationPrincipal UserPrincipal userPrincipal) {
-        
+        if (isCompact(view, fields) || (tag != null && !tag.isBlank())) {
+            return listUserExpenses(startDate, endDate, tag, view, fields, userPrincipal);
+        }
+        Long userId = userPrincipal.getId();
+        boolean ranged = startDate != null && endDate != null;
+        StreamingResponseBody body = out -> expenseService.writeExpenses(userId,
+                ranged ? startDate : null, ranged ? endDate : null, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    // The binary formats are written whole by their converters, so the listing is built in memory.
+    // view=compact, or any fields= selector, returns rows with wallet/category ids and side-loaded dictionaries
+    @GetMapping(produces = {MediaType.APPLICATION_CBOR_VALUE, MessageConverterConfig.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<?> listUserExpenses(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String tag,
+            @RequestParam(defaultValue = "full") String view,
+            @RequestParam(required = false) String fields,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+        Set<ExpenseField> selected = ExpenseField.parse(fields);
+        if (isCompact(view, fields)) {
+            return ResponseEntity.ok(expenseService.getCompactExpenses(userPrincipal.getId(), startDate, endDate, tag,
+                    selected));
+        }
+
         List<ExpenseResponse> expenses;
-        if (startDate != null && endDate != null) {
+        if (tag != null && !tag.isBlank()) {
+            expenses = expenseService.getExpensesByTag(userPrincipal.getId(), tag, startDate, endDate);
+        } else if (startDate != null && endDate != null) {
             expenses = expenseService.getExpensesByDateRange(userPrincipal.getId(), startDate, endDate);
         } else {
             expenses = expenseService.getUserExpenses(userPrincipal.getId());
         }
-        
         return ResponseEntity.ok(expenses);
     }
 
+    @GetMapping("/filter")
+    public ResponseEntity<?> filterExpenses(
+            @Valid ExpenseFilterRequest filter,
+            @RequestParam(defaultValue = "full") String view,
+            @RequestParam(required = false) String fields,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+        Set<ExpenseField> selected = ExpenseField.parse(fields);
+        if (isCompact(view, fields)) {
+            return ResponseEntity.ok(expenseService.filterCompactExpenses(userPrincipal.getId(), filter, selected));
+        }
+        return ResponseEntity.ok(expenseService.filterExpenses(userPrincipal.getId(), filter));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<ExpenseSearchResult>> searchExpenses(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "20") int limit,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+        List<ExpenseSearchResult> results = expenseService.searchExpenses(
+                userPrincipal.getId(), query, Math.min(Math.max(limit, 1), 100));
+        return ResponseEntity.ok(results);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ExpenseResponse> getExpense(
             @PathVariable Long id,
@@ -68,4 +128,11 @@ public class ExpenseController {
         expenseService.deleteExpense(id, userPrincipal.getId());
         return ResponseEntity.noContent().build();
     }
+
+    private static boolean isCompact(String view, String fields) {
+        if (!"compact".equalsIgnoreCase(view) && !"full".equalsIgnoreCase(view)) {
+            throw new ValidationException("Unknown view: " + view);
+        }
+        return "compact".equalsIgnoreCase(view) || (fields != null && !fields.isBlank());
+    }
 }
\ No newline at end of file
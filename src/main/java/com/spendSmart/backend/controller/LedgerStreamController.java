@@ -0,0 +1,24 @@
+package com.spendSmart.backend.controller;
+
+import com.spendSmart.backend.security.UserPrincipal;
+import com.spendSmart.backend.service.LedgerStreamService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/v1/stream")
+@RequiredArgsConstructor
+public class LedgerStreamController {
+
+    private final LedgerStreamService ledgerStreamService;
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@AuthenticationPrincipal UserPrincipal userPrincipal) {
+        return ledgerStreamService.subscribe(userPrincipal.getId());
+    }
+}
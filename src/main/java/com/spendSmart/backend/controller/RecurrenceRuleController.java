@@ -0,0 +1,52 @@
+package com.spendSmart.backend.controller;
+
+import com.spendSmart.backend.dto.recurrence.RecurrenceRuleRequest;
+import com.spendSmart.backend.dto.recurrence.RecurrenceRuleResponse;
+import com.spendSmart.backend.security.UserPrincipal;
+import com.spendSmart.backend.service.RecurrenceRuleService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/recurrence-rules")
+@RequiredArgsConstructor
+public class RecurrenceRuleController {
+
+    private final RecurrenceRuleService recurrenceRuleService;
+
+    @GetMapping
+    public ResponseEntity<List<RecurrenceRuleResponse>> getRules(
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+        return ResponseEntity.ok(recurrenceRuleService.getRules(userPrincipal.getId()));
+    }
+
+    @PostMapping
+    public ResponseEntity<RecurrenceRuleResponse> createRule(
+            @Valid @RequestBody RecurrenceRuleRequest request,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+        RecurrenceRuleResponse rule = recurrenceRuleService.createRule(request, userPrincipal.getId());
+        return ResponseEntity.status(HttpStatus.CREATED).body(rule);
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<RecurrenceRuleResponse> updateRule(
+            @PathVariable Long id,
+            @Valid @RequestBody RecurrenceRuleRequest request,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+        return ResponseEntity.ok(recurrenceRuleService.updateRule(id, request, userPrincipal.getId()));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteRule(
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+        recurrenceRuleService.deleteRule(id, userPrincipal.getId());
+        return ResponseEntity.noContent().build();
+    }
+}
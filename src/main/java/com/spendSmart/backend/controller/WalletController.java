@@ -2,12 +2,16 @@ package com.spendSmart.backend.controller;
 
 import com.spendSmart.backend.dto.wallet.*;
 import com.spendSmart.backend.security.UserPrincipal;
+import com.spendSmart.backend.service.LedgerVersionService;
 import com.spendSmart.backend.service.WalletService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -18,10 +22,18 @@ public class WalletController {
     @Autowired
     private WalletService walletService;
 
+    @Autowired
+    private LedgerVersionService ledgerVersionService;
+
     @GetMapping
-    public ResponseEntity<List<WalletResponse>> getUserWallets(@AuthenticationPrincipal UserPrincipal userPrincipal) {
+    public ResponseEntity<List<WalletResponse>> getUserWallets(@AuthenticationPrincipal UserPrincipal userPrincipal,
+                                                               WebRequest request) {
+        String etag = ledgerVersionService.etag(userPrincipal.getId(), request);
+        if (ledgerVersionService.isNotModified(request, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
         List<WalletResponse> wallets = walletService.getUserWallets(userPrincipal.getId());
-        return ResponseEntity.ok(wallets);
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache().cachePrivate()).body(wallets);
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,52 @@
+package com.spendSmart.backend.controller;
+
+import com.spendSmart.backend.dto.webhook.WebhookSubscriptionRequest;
+import com.spendSmart.backend.dto.webhook.WebhookSubscriptionResponse;
+import com.spendSmart.backend.security.UserPrincipal;
+import com.spendSmart.backend.service.WebhookService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/webhooks")
+@RequiredArgsConstructor
+public class WebhookController {
+
+    private final WebhookService webhookService;
+
+    @GetMapping
+    public ResponseEntity<List<WebhookSubscriptionResponse>> getSubscriptions(
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+        return ResponseEntity.ok(webhookService.getSubscriptions(userPrincipal.getId()));
+    }
+
+    @PostMapping
+    public ResponseEntity<WebhookSubscriptionResponse> createSubscription(
+            @Valid @RequestBody WebhookSubscriptionRequest request,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+        WebhookSubscriptionResponse subscription = webhookService.createSubscription(request, userPrincipal.getId());
+        return ResponseEntity.status(HttpStatus.CREATED).body(subscription);
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<WebhookSubscriptionResponse> updateSubscription(
+            @PathVariable Long id,
+            @Valid @RequestBody WebhookSubscriptionRequest request,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+        return ResponseEntity.ok(webhookService.updateSubscription(id, request, userPrincipal.getId()));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteSubscription(
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+        webhookService.deleteSubscription(id, userPrincipal.getId());
+        return ResponseEntity.noContent().build();
+    }
+}
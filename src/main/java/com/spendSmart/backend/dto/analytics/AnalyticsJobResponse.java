@@ -0,0 +1,34 @@
+package com.spendSmart.backend.dto.analytics;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AnalyticsJobResponse {
+    private String jobId;
+    private JobStatus status;
+    private LocalDateTime periodStart;
+    private LocalDateTime periodEnd;
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    private LocalDateTime expiresAt;
+    private String error;
+
+    // Only present once the job has completed
+    private ExpenseAnalyticsResponse result;
+
+    public enum JobStatus {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
@@ -0,0 +1,20 @@
+package com.spendSmart.backend.dto.analytics;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TagSpendResponse {
+    private Long tagId;
+    private String name;
+    private BigDecimal totalExpenses;
+    private BigDecimal totalIncome;
+    private Integer transactionCount;
+}
@@ -0,0 +1,27 @@
+package com.spendSmart.backend.dto.bootstrap;
+
+import com.spendSmart.backend.dto.analytics.DashboardSummaryResponse;
+import com.spendSmart.backend.dto.budget.BudgetResponse;
+import com.spendSmart.backend.dto.category.CategoryResponse;
+import com.spendSmart.backend.dto.expense.ExpensePageResponse;
+import com.spendSmart.backend.dto.wallet.WalletResponse;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BootstrapResponse {
+    private List<WalletResponse> wallets;
+    private List<CategoryResponse> categories;
+    private List<BudgetResponse> activeBudgets;
+    private DashboardSummaryResponse dashboard;
+
+    // First page of GET /api/v1/expenses/filter; continue from its nextCursor
+    private ExpensePageResponse expenses;
+}
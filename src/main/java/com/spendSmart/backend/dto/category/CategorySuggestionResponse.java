@@ -0,0 +1,24 @@
+package com.spendSmart.backend.dto.category;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CategorySuggestionResponse {
+    private Long categoryId;
+    private String categoryName;
+    private String categoryColor;
+    private String categoryIcon;
+    private Double confidence;
+    private Source source;
+
+    public enum Source {
+        RULE,
+        HISTORY
+    }
+}
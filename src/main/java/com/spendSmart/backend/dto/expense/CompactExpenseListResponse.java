@@ -0,0 +1,29 @@
+package com.spendSmart.backend.dto.expense;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.spendSmart.backend.dto.category.CategoryResponse;
+import com.spendSmart.backend.dto.wallet.WalletResponse;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Expense rows with the wallets and categories they reference side-loaded once, keyed by id. The
+ * dictionaries are left out when wallet or category is not among the selected fields.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CompactExpenseListResponse {
+    private List<CompactExpenseResponse> items;
+    private Map<Long, WalletResponse> wallets;
+    private Map<Long, CategoryResponse> categories;
+    // Only for /filter; null on the last page
+    private String nextCursor;
+}
@@ -0,0 +1,35 @@
+package com.spendSmart.backend.dto.expense;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.spendSmart.backend.entity.Expense;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// An expense row referencing its wallet and category by id; fields not selected are left out
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CompactExpenseResponse {
+    private Long id;
+    private Long walletId;
+    private Long categoryId;
+    private BigDecimal amount;
+    private String currency;
+    private LocalDate transactionDate;
+    private String merchant;
+    private String description;
+    private String tagsJson;
+    private String attachmentsJson;
+    private Expense.ExpenseType type;
+    private Boolean isRecurring;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -13,7 +13,7 @@ public class ExpenseCreateRequest {
     @NotNull(message = "Wallet ID is required")
     private Long walletId;
     
-    @NotNull(message = "Category ID is required")
+    // Optional: when omitted, the category is picked by the user's category rule patterns
     private Long categoryId;
     
     @NotNull(message = "Amount is required")
@@ -0,0 +1,49 @@
+package com.spendSmart.backend.dto.expense;
+
+import com.spendSmart.backend.exception.ValidationException;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+// Fields selectable with ?fields= on expense lists; id is always included
+public enum ExpenseField {
+    WALLET("wallet"),
+    CATEGORY("category"),
+    AMOUNT("amount"),
+    CURRENCY("currency"),
+    TRANSACTION_DATE("transactionDate"),
+    MERCHANT("merchant"),
+    DESCRIPTION("description"),
+    TAGS("tagsJson"),
+    ATTACHMENTS("attachmentsJson"),
+    TYPE("type"),
+    IS_RECURRING("isRecurring"),
+    CREATED_AT("createdAt"),
+    UPDATED_AT("updatedAt");
+
+    private final String fieldName;
+
+    ExpenseField(String fieldName) {
+        this.fieldName = fieldName;
+    }
+
+    // A missing or blank selector selects every field
+    public static Set<ExpenseField> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return EnumSet.allOf(ExpenseField.class);
+        }
+        Set<ExpenseField> selected = EnumSet.noneOf(ExpenseField.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty() || trimmed.equals("id")) {
+                continue;
+            }
+            selected.add(Arrays.stream(values())
+                    .filter(field -> field.fieldName.equals(trimmed))
+                    .findFirst()
+                    .orElseThrow(() -> new ValidationException("Unknown expense field: " + trimmed)));
+        }
+        return selected;
+    }
+}
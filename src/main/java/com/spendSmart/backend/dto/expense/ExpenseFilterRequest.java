@@ -0,0 +1,53 @@
+package com.spendSmart.backend.dto.expense;
+
+import com.spendSmart.backend.entity.Expense;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+// Every field is optional; the ones given are combined with AND
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExpenseFilterRequest {
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate startDate;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate endDate;
+
+    private Long walletId;
+
+    private List<Long> categoryIds;
+
+    private Expense.ExpenseType type;
+
+    private BigDecimal minAmount;
+
+    private BigDecimal maxAmount;
+
+    // Matches merchants starting with this text, ignoring case
+    private String merchant;
+
+    private String tag;
+
+    private Boolean isRecurring;
+
+    // nextCursor of the previous page
+    private String cursor;
+
+    @Min(value = 1, message = "Limit must be at least 1")
+    @Max(value = 200, message = "Limit must not exceed 200")
+    @Builder.Default
+    private Integer limit = 50;
+}
@@ -0,0 +1,18 @@
+package com.spendSmart.backend.dto.expense;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExpensePageResponse {
+    private List<ExpenseResponse> items;
+    // Null on the last page
+    private String nextCursor;
+}
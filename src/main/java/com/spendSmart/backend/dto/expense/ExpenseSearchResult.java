@@ -0,0 +1,29 @@
+package com.spendSmart.backend.dto.expense;
+
+import com.spendSmart.backend.entity.Expense;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExpenseSearchResult {
+    private Long id;
+    private Long walletId;
+    private Long categoryId;
+    private BigDecimal amount;
+    private String currency;
+    private LocalDate transactionDate;
+    private String merchant;
+    private String description;
+    private List<String> tags;
+    private Expense.ExpenseType type;
+    private Double score;
+}
@@ -0,0 +1,59 @@
+package com.spendSmart.backend.dto.recurrence;
+
+import com.spendSmart.backend.entity.Expense;
+import com.spendSmart.backend.entity.RecurrenceRule;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RecurrenceRuleRequest {
+
+    @NotNull(message = "Wallet ID is required")
+    private Long walletId;
+
+    @NotNull(message = "Category ID is required")
+    private Long categoryId;
+
+    @NotNull(message = "Amount is required")
+    @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
+    private BigDecimal amount;
+
+    @NotNull(message = "Currency is required")
+    @Size(min = 3, max = 3, message = "Currency must be 3 characters (e.g., USD)")
+    private String currency;
+
+    @Size(max = 200, message = "Merchant name must not exceed 200 characters")
+    private String merchant;
+
+    private String description;
+
+    @Builder.Default
+    private Expense.ExpenseType type = Expense.ExpenseType.EXPENSE;
+
+    @NotNull(message = "Frequency is required")
+    private RecurrenceRule.Frequency frequency;
+
+    @NotNull(message = "Interval is required")
+    @Min(value = 1, message = "Interval must be at least 1")
+    @Max(value = 366, message = "Interval must not exceed 366")
+    @Builder.Default
+    private Integer intervalCount = 1;
+
+    @NotNull(message = "Start date is required")
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+}
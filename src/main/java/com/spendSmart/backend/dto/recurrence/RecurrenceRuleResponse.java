@@ -0,0 +1,36 @@
+package com.spendSmart.backend.dto.recurrence;
+
+import com.spendSmart.backend.entity.Expense;
+import com.spendSmart.backend.entity.RecurrenceRule;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RecurrenceRuleResponse {
+    private Long id;
+    private Long walletId;
+    private Long categoryId;
+    private BigDecimal amount;
+    private String currency;
+    private String merchant;
+    private String description;
+    private Expense.ExpenseType type;
+    private RecurrenceRule.Frequency frequency;
+    private Integer intervalCount;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Integer occurrenceCount;
+    private LocalDate nextOccurrenceDate;
+    private Boolean isActive;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
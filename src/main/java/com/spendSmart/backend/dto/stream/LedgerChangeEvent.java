@@ -0,0 +1,62 @@
+package com.spendSmart.backend.dto.stream;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LedgerChangeEvent {
+
+    private ChangeType type;
+    private Long expenseId;
+    private Long walletId;
+
+    // Balances of the wallets touched by the change, after it
+    private List<WalletBalance> wallets;
+
+    // Totals of the active budgets the change counts towards, after it
+    private List<BudgetTotal> budgets;
+
+    private LocalDateTime occurredAt;
+
+    public enum ChangeType {
+        EXPENSE_CREATED,
+        EXPENSE_UPDATED,
+        EXPENSE_DELETED,
+        WALLET_CREATED,
+        WALLET_UPDATED,
+        WALLET_DELETED
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class WalletBalance {
+        private Long walletId;
+        private BigDecimal balance;
+        private String currency;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class BudgetTotal {
+        private Long budgetId;
+        private BigDecimal amount;
+        private BigDecimal spentAmount;
+        private BigDecimal remainingAmount;
+        private Boolean isOverBudget;
+    }
+}
@@ -0,0 +1,45 @@
+package com.spendSmart.backend.dto.sync;
+
+import com.spendSmart.backend.dto.budget.BudgetResponse;
+import com.spendSmart.backend.dto.category.CategoryResponse;
+import com.spendSmart.backend.dto.expense.ExpenseResponse;
+import com.spendSmart.backend.dto.wallet.WalletResponse;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SyncResponse {
+
+    // Pass as `since` on the next call
+    private Long nextSince;
+    private Boolean hasMore;
+
+    private List<ExpenseResponse> expenses;
+    private List<WalletResponse> wallets;
+    private List<CategoryResponse> categories;
+    private List<BudgetResponse> budgets;
+    private List<Tombstone> deleted;
+
+    public enum EntityType {
+        EXPENSE,
+        WALLET,
+        CATEGORY,
+        BUDGET
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Tombstone {
+        private EntityType type;
+        private Long id;
+    }
+}
@@ -0,0 +1,31 @@
+package com.spendSmart.backend.dto.webhook;
+
+import com.spendSmart.backend.entity.WebhookSubscription;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WebhookSubscriptionRequest {
+
+    @NotBlank(message = "URL is required")
+    @Size(max = 2048, message = "URL must not exceed 2048 characters")
+    private String url;
+
+    @NotEmpty(message = "At least one event type is required")
+    private Set<WebhookSubscription.EventType> eventTypes;
+
+    @DecimalMin(value = "0.00", message = "Low balance threshold must not be negative")
+    private BigDecimal lowBalanceThreshold;
+}
@@ -0,0 +1,30 @@
+package com.spendSmart.backend.dto.webhook;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.spendSmart.backend.entity.WebhookSubscription;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WebhookSubscriptionResponse {
+    private Long id;
+    private String url;
+    private Set<WebhookSubscription.EventType> eventTypes;
+    private BigDecimal lowBalanceThreshold;
+
+    // Only returned when the subscription is created
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String secret;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,43 @@
+package com.spendSmart.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+// Read-only mapping of expense_tags for criteria queries; rows are written by TagService
+@Entity
+@Table(name = "expense_tags")
+@IdClass(ExpenseTag.Key.class)
+@Immutable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpenseTag {
+
+    @Id
+    @Column(name = "expense_id")
+    private Long expenseId;
+
+    @Id
+    @Column(name = "tag_id")
+    private Long tagId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "transaction_date", nullable = false)
+    private LocalDate transactionDate;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long expenseId;
+        private Long tagId;
+    }
+}
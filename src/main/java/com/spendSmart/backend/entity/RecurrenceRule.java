@@ -0,0 +1,123 @@
+package com.spendSmart.backend.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Template for an expense that repeats; occurrences are materialized by RecurringExpenseScheduler
+@Entity
+@Table(name = "recurrence_rules")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RecurrenceRule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "wallet_id", nullable = false)
+    private Wallet wallet;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "category_id", nullable = false)
+    private Category category;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    @NotNull(message = "Amount is required")
+    @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
+    private BigDecimal amount;
+
+    @Column(nullable = false, length = 3)
+    @NotNull(message = "Currency is required")
+    @Size(min = 3, max = 3, message = "Currency must be 3 characters (e.g., USD)")
+    private String currency;
+
+    @Column(length = 200)
+    @Size(max = 200, message = "Merchant name must not exceed 200 characters")
+    private String merchant;
+
+    @Column(columnDefinition = "TEXT")
+    private String description;
+
+    @Enumerated(EnumType.STRING)
+    @Builder.Default
+    private Expense.ExpenseType type = Expense.ExpenseType.EXPENSE;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Frequency frequency;
+
+    @Column(name = "interval_count", nullable = false)
+    @Builder.Default
+    private Integer intervalCount = 1;
+
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+
+    @Column(name = "end_date")
+    private LocalDate endDate;
+
+    // Occurrences generated so far; the next one is occurrence(occurrenceCount)
+    @Column(name = "occurrence_count", nullable = false)
+    @Builder.Default
+    private Integer occurrenceCount = 0;
+
+    // Null once the rule has run past its end date
+    @Column(name = "next_occurrence_date")
+    private LocalDate nextOccurrenceDate;
+
+    @Column(name = "is_active", nullable = false)
+    @Builder.Default
+    private Boolean isActive = true;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public LocalDate occurrence(int index) {
+        return frequency.occurrence(startDate, intervalCount, index);
+    }
+
+    // The date of the given occurrence, or null when it falls after the end date
+    public LocalDate occurrenceWithinEnd(int index) {
+        LocalDate date = occurrence(index);
+        return endDate == null || !date.isAfter(endDate) ? date : null;
+    }
+
+    public enum Frequency {
+        DAILY, WEEKLY, MONTHLY, YEARLY;
+
+        // Counted from the start date so month ends do not drift (Jan 31, Feb 29, Mar 31, ...)
+        public LocalDate occurrence(LocalDate startDate, int intervalCount, int index) {
+            long steps = (long) index * intervalCount;
+            return switch (this) {
+                case DAILY -> startDate.plusDays(steps);
+                case WEEKLY -> startDate.plusWeeks(steps);
+                case MONTHLY -> startDate.plusMonths(steps);
+                case YEARLY -> startDate.plusYears(steps);
+            };
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.spendSmart.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Entity
+@Table(name = "webhook_subscriptions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WebhookSubscription {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(nullable = false, length = 2048)
+    private String url;
+
+    // HMAC-SHA256 key for the X-SpendSmart-Signature header
+    @Column(nullable = false, length = 128)
+    private String secret;
+
+    // Comma-separated EventType names
+    @Column(name = "event_types", nullable = false)
+    private String eventTypes;
+
+    // LOW_BALANCE fires when a wallet balance drops below this
+    @Column(name = "low_balance_threshold", precision = 15, scale = 2)
+    private BigDecimal lowBalanceThreshold;
+
+    @Column(name = "is_active", nullable = false)
+    @Builder.Default
+    private Boolean isActive = true;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public Set<EventType> getEventTypeSet() {
+        return Arrays.stream(eventTypes.split(","))
+                .filter(type -> !type.isBlank())
+                .map(EventType::valueOf)
+                .collect(Collectors.toCollection(() -> EnumSet.noneOf(EventType.class)));
+    }
+
+    public void setEventTypeSet(Set<EventType> types) {
+        this.eventTypes = types.stream().map(Enum::name).sorted().collect(Collectors.joining(","));
+    }
+
+    public enum EventType {
+        BUDGET_THRESHOLD,
+        BUDGET_OVERSPENT,
+        LOW_BALANCE
+    }
+}
@@ -1,5 +1,9 @@
 package com.spendSmart.backend.exception;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
 public class ValidationException extends RuntimeException {
     public ValidationException(String message) {
         super(message);
@@ -8,4 +12,4 @@ public class ValidationException extends RuntimeException {
     public ValidationException(String message, Throwable cause) {
         super(message, cause);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,16 @@
+package com.spendSmart.backend.outbox;
+
+import java.time.LocalDateTime;
+
+// A row of outbox_events; payload is JSON whose shape depends on the event type
+public record OutboxEvent(
+        Long id,
+        String aggregateType,
+        Long aggregateId,
+        Long userId,
+        String eventType,
+        String payload,
+        int attempts,
+        LocalDateTime createdAt
+) {
+}
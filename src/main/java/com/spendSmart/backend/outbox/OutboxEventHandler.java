@@ -0,0 +1,16 @@
+package com.spendSmart.backend.outbox;
+
+import java.util.List;
+
+/**
+ * Consumer of outbox events. Handlers run inside the dispatcher's transaction, so database work they
+ * do commits together with the events being marked processed; throwing rolls both back and the
+ * events are retried later with backoff. Handlers must tolerate seeing an event more than once.
+ */
+public interface OutboxEventHandler {
+
+    boolean supports(String eventType);
+
+    // Events arrive in id order, with only the newest event per aggregate and type in a batch
+    void handle(List<OutboxEvent> events);
+}
@@ -3,6 +3,7 @@ package com.spendSmart.backend.repository;
 import com.spendSmart.backend.entity.Budget;
 import com.spendSmart.backend.entity.Category;
 import com.spendSmart.backend.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -18,6 +19,9 @@ public interface BudgetRepository extends JpaRepository<Budget, Long> {
     // Find all budgets for a user
     List<Budget> findByUserAndIsActiveTrue(User user);
 
+    // Next chunk of a user's budgets in id order, for streamed listings
+    List<Budget> findByUserAndIsActiveTrueAndIdGreaterThanOrderByIdAsc(User user, Long id, Limit limit);
+
     // Find budget by user and category
     Optional<Budget> findByUserAndCategoryAndIsActiveTrue(User user, Category category);
 
@@ -1,7 +1,10 @@
 package com.spendSmart.backend.repository;
 
 import com.spendSmart.backend.entity.Category;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,9 +15,17 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     
     List<Category> findByUserIdAndIsActiveTrue(Long userId);
     
+    // Cached until a write to categories invalidates it
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = "system-categories")
+    })
     List<Category> findByIsSystemTrueAndIsActiveTrue();
     
     Optional<Category> findByIdAndUserIdAndIsActiveTrue(Long id, Long userId);
     
+    // A query, so it reads the database rather than the second-level cache
+    boolean existsByIdAndIsActiveTrue(Long id);
+    
     boolean existsByUserIdAndNameAndIsActiveTrue(Long userId, String name);
 }
\ No newline at end of file
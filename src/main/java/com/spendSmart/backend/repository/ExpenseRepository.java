@@ -1,8 +1,10 @@
 package com.spendSmart.backend.repository;
 
+import com.spendSmart.backend.categorization.CategorySample;
 import com.spendSmart.backend.entity.Expense;
 import com.spendSmart.backend.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -13,23 +15,41 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ExpenseRepository extends JpaRepository<Expense, Long> {
+public interface ExpenseRepository extends JpaRepository<Expense, Long>, JpaSpecificationExecutor<Expense> {
     
     List<Expense> findByUserIdOrderByTransactionDateDesc(Long userId);
     
     Optional<Expense> findByIdAndUserId(Long id, Long userId);
     
-    List<Expense> findByUserIdAndWalletIdOrderByTransactionDateDesc(Long userId, Long walletId);
-    
-    List<Expense> findByUserIdAndCategoryIdOrderByTransactionDateDesc(Long userId, Long categoryId);
-    
     @Query("SELECT e FROM Expense e WHERE e.user.id = :userId AND e.transactionDate BETWEEN :startDate AND :endDate ORDER BY e.transactionDate DESC")
     List<Expense> findByUserIdAndTransactionDateBetween(@Param("userId") Long userId, 
                                                        @Param("startDate") LocalDate startDate, 
                                                        @Param("endDate") LocalDate endDate);
     
+    // Resolved through idx_expense_tags_user_tag_date, then by primary key so each lookup hits one partition
+    @Query(value = "SELECT e.* FROM expense_tags et " +
+                   "JOIN expenses e ON e.id = et.expense_id AND e.transaction_date = et.transaction_date " +
+                   "WHERE et.user_id = :userId AND et.tag_id = :tagId " +
+                   "ORDER BY et.transaction_date DESC", nativeQuery = true)
+    List<Expense> findByUserIdAndTagId(@Param("userId") Long userId, @Param("tagId") Long tagId);
+
+    @Query(value = "SELECT e.* FROM expense_tags et " +
+                   "JOIN expenses e ON e.id = et.expense_id AND e.transaction_date = et.transaction_date " +
+                   "WHERE et.user_id = :userId AND et.tag_id = :tagId " +
+                   "AND et.transaction_date BETWEEN :startDate AND :endDate " +
+                   "ORDER BY et.transaction_date DESC", nativeQuery = true)
+    List<Expense> findByUserIdAndTagIdAndTransactionDateBetween(@Param("userId") Long userId,
+                                                                @Param("tagId") Long tagId,
+                                                                @Param("startDate") LocalDate startDate,
+                                                                @Param("endDate") LocalDate endDate);
+
     // Methods for Analytics Service
     List<Expense> findByUserAndTransactionDateBetween(User user, LocalDate startDate, LocalDate endDate);
     
     List<Expense> findTop10ByUserOrderByTransactionDateDesc(User user);
+
+    // Training data for the category suggester
+    @Query("SELECT new com.spendSmart.backend.categorization.CategorySample(e.merchant, e.description, e.category.id) " +
+           "FROM Expense e WHERE e.user.id = :userId")
+    List<CategorySample> findCategorySamplesByUserId(@Param("userId") Long userId);
 }
\ No newline at end of file
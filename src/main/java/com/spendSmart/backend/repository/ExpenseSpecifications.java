@@ -0,0 +1,82 @@
+package com.spendSmart.backend.repository;
+
+import com.spendSmart.backend.entity.Expense;
+import com.spendSmart.backend.entity.ExpenseTag;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * Predicates for the expense filter API. Every one of them is meant to be combined with
+ * {@link #belongsTo}, so the leading user_id column of the expense indexes always applies.
+ */
+public final class ExpenseSpecifications {
+
+    private ExpenseSpecifications() {
+    }
+
+    public static Specification<Expense> belongsTo(Long userId) {
+        return (root, query, cb) -> cb.equal(root.get("user").get("id"), userId);
+    }
+
+    public static Specification<Expense> transactionDateFrom(LocalDate startDate) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("transactionDate"), startDate);
+    }
+
+    public static Specification<Expense> transactionDateTo(LocalDate endDate) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("transactionDate"), endDate);
+    }
+
+    public static Specification<Expense> inWallet(Long walletId) {
+        return (root, query, cb) -> cb.equal(root.get("wallet").get("id"), walletId);
+    }
+
+    public static Specification<Expense> inCategories(Collection<Long> categoryIds) {
+        return (root, query, cb) -> root.get("category").get("id").in(categoryIds);
+    }
+
+    public static Specification<Expense> ofType(Expense.ExpenseType type) {
+        return (root, query, cb) -> cb.equal(root.get("type"), type);
+    }
+
+    public static Specification<Expense> amountAtLeast(BigDecimal minAmount) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("amount"), minAmount);
+    }
+
+    public static Specification<Expense> amountAtMost(BigDecimal maxAmount) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("amount"), maxAmount);
+    }
+
+    // A prefix LIKE stays a range scan on idx_expenses_user_merchant; the column collation ignores case
+    public static Specification<Expense> merchantStartsWith(String prefix) {
+        String pattern = prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return (root, query, cb) -> cb.like(root.get("merchant"), pattern, '\\');
+    }
+
+    public static Specification<Expense> recurring(boolean isRecurring) {
+        return (root, query, cb) -> cb.equal(root.get("isRecurring"), isRecurring);
+    }
+
+    // Probes the expense_tags primary key once per candidate row
+    public static Specification<Expense> taggedWith(Long tagId) {
+        return (root, query, cb) -> {
+            Subquery<Long> tagged = query.subquery(Long.class);
+            Root<ExpenseTag> expenseTag = tagged.from(ExpenseTag.class);
+            tagged.select(expenseTag.get("expenseId"))
+                    .where(cb.equal(expenseTag.get("expenseId"), root.get("id")),
+                            cb.equal(expenseTag.get("tagId"), tagId));
+            return cb.exists(tagged);
+        };
+    }
+
+    // Rows strictly after the cursor in (transactionDate DESC, id DESC) order
+    public static Specification<Expense> before(LocalDate transactionDate, Long id) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("transactionDate"), transactionDate),
+                cb.and(cb.equal(root.get("transactionDate"), transactionDate), cb.lessThan(root.get("id"), id)));
+    }
+}
@@ -0,0 +1,16 @@
+package com.spendSmart.backend.repository;
+
+import com.spendSmart.backend.entity.RecurrenceRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RecurrenceRuleRepository extends JpaRepository<RecurrenceRule, Long> {
+
+    List<RecurrenceRule> findByUserIdOrderByCreatedAtDesc(Long userId);
+
+    Optional<RecurrenceRule> findByIdAndUserId(Long id, Long userId);
+}
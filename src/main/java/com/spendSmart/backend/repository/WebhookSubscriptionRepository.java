@@ -0,0 +1,16 @@
+package com.spendSmart.backend.repository;
+
+import com.spendSmart.backend.entity.WebhookSubscription;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WebhookSubscriptionRepository extends JpaRepository<WebhookSubscription, Long> {
+
+    List<WebhookSubscription> findByUserIdAndIsActiveTrueOrderByCreatedAtDesc(Long userId);
+
+    Optional<WebhookSubscription> findByIdAndUserIdAndIsActiveTrue(Long id, Long userId);
+}
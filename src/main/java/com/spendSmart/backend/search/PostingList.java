@@ -0,0 +1,133 @@
+package com.spendSmart.backend.search;
+
+import java.util.Arrays;
+
+/**
+ * Compressed postings of one term: (expense id, term frequency) pairs sorted by id, stored as the
+ * varint-encoded gap to the previous id followed by the varint frequency. New expenses get
+ * increasing ids, so the common write is an append; updates and deletes re-encode the list.
+ * Not thread-safe; guarded by the owning {@link UserSearchIndex}.
+ */
+public final class PostingList {
+
+    private byte[] data = new byte[8];
+    private int length;
+    private int size;
+    private long lastId;
+
+    public int size() {
+        return size;
+    }
+
+    public int byteSize() {
+        return length;
+    }
+
+    public void add(long id, int frequency) {
+        if (size == 0 || id > lastId) {
+            append(id, frequency);
+            return;
+        }
+        // Out-of-order id (an updated expense): rebuild the list with the posting in place
+        long[] ids = new long[size + 1];
+        int[] frequencies = new int[size + 1];
+        int[] count = {0};
+        forEach((existingId, existingFrequency) -> {
+            if (existingId != id) {
+                ids[count[0]] = existingId;
+                frequencies[count[0]++] = existingFrequency;
+            }
+        });
+        ids[count[0]] = id;
+        frequencies[count[0]++] = frequency;
+        rewrite(ids, frequencies, count[0]);
+    }
+
+    public boolean remove(long id) {
+        if (size == 0 || id > lastId) {
+            return false;
+        }
+        long[] ids = new long[size];
+        int[] frequencies = new int[size];
+        int[] count = {0};
+        forEach((existingId, frequency) -> {
+            if (existingId != id) {
+                ids[count[0]] = existingId;
+                frequencies[count[0]++] = frequency;
+            }
+        });
+        if (count[0] == size) {
+            return false;
+        }
+        rewrite(ids, frequencies, count[0]);
+        return true;
+    }
+
+    public void forEach(PostingConsumer consumer) {
+        int position = 0;
+        long id = 0;
+        while (position < length) {
+            long gap = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                gap |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+
+            int frequency = 0;
+            shift = 0;
+            do {
+                b = data[position++];
+                frequency |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+
+            id += gap;
+            consumer.accept(id, frequency);
+        }
+    }
+
+    private void rewrite(long[] ids, int[] frequencies, int count) {
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(ids[a], ids[b]));
+
+        length = 0;
+        size = 0;
+        lastId = 0;
+        for (int i : order) {
+            append(ids[i], frequencies[i]);
+        }
+    }
+
+    private void append(long id, int frequency) {
+        ensureCapacity(20);
+        writeVarint(id - lastId);
+        writeVarint(frequency);
+        lastId = id;
+        size++;
+    }
+
+    private void writeVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            data[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[length++] = (byte) value;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, length + extra));
+        }
+    }
+
+    @FunctionalInterface
+    public interface PostingConsumer {
+        void accept(long id, int frequency);
+    }
+}
@@ -0,0 +1,22 @@
+package com.spendSmart.backend.search;
+
+import com.spendSmart.backend.entity.Expense;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+// What the index keeps per expense, enough to render a search result without a database round trip
+public record SearchDocument(
+        Long id,
+        Long walletId,
+        Long categoryId,
+        BigDecimal amount,
+        String currency,
+        LocalDate transactionDate,
+        String merchant,
+        String description,
+        List<String> tags,
+        Expense.ExpenseType type
+) {
+}
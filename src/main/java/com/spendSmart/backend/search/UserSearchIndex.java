@@ -0,0 +1,143 @@
+package com.spendSmart.backend.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Inverted index over one user's expenses. Terms are kept sorted so a query word also matches every
+ * term it is a prefix of; documents are ranked with BM25, where merchant and tag words count double.
+ */
+public final class UserSearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int MERCHANT_WEIGHT = 2;
+    private static final int TAG_WEIGHT = 2;
+    // Caps the work done for very short prefixes such as a single letter
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    // Exact term matches rank above words that merely start with the query
+    private static final double PREFIX_PENALTY = 0.8;
+
+    private final NavigableMap<String, PostingList> terms = new TreeMap<>();
+    private final Map<Long, IndexedDocument> documents = new HashMap<>();
+    private long totalLength;
+
+    public synchronized void put(SearchDocument document) {
+        remove(document.id());
+
+        Map<String, Integer> frequencies = new HashMap<>();
+        addTokens(frequencies, document.merchant(), MERCHANT_WEIGHT);
+        addTokens(frequencies, document.description(), 1);
+        if (document.tags() != null) {
+            document.tags().forEach(tag -> addTokens(frequencies, tag, TAG_WEIGHT));
+        }
+
+        int length = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            terms.computeIfAbsent(entry.getKey(), term -> new PostingList()).add(document.id(), entry.getValue());
+            length += entry.getValue();
+        }
+        documents.put(document.id(), new IndexedDocument(document, List.copyOf(frequencies.keySet()), length));
+        totalLength += length;
+    }
+
+    public synchronized void remove(Long id) {
+        IndexedDocument existing = documents.remove(id);
+        if (existing == null) {
+            return;
+        }
+        for (String term : existing.terms()) {
+            PostingList postings = terms.get(term);
+            if (postings != null && postings.remove(id) && postings.size() == 0) {
+                terms.remove(term);
+            }
+        }
+        totalLength -= existing.length();
+    }
+
+    public synchronized int size() {
+        return documents.size();
+    }
+
+    public synchronized long postingBytes() {
+        return terms.values().stream().mapToLong(PostingList::byteSize).sum();
+    }
+
+    /**
+     * Every query word must match (as a whole term or a prefix of one). Results are ordered by
+     * score, then by most recent transaction date.
+     */
+    public synchronized List<SearchHit> search(String query, int limit) {
+        List<String> words = SearchTokenizer.tokenize(query);
+        if (words.isEmpty() || documents.isEmpty()) {
+            return List.of();
+        }
+
+        double averageLength = (double) totalLength / documents.size();
+        Map<Long, Double> scores = null;
+        for (String word : words.stream().distinct().toList()) {
+            Map<Long, Double> wordScores = scoreWord(word, averageLength);
+            if (scores == null) {
+                scores = wordScores;
+            } else {
+                Map<Long, Double> intersection = new HashMap<>();
+                for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                    Double wordScore = wordScores.get(entry.getKey());
+                    if (wordScore != null) {
+                        intersection.put(entry.getKey(), entry.getValue() + wordScore);
+                    }
+                }
+                scores = intersection;
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        List<SearchHit> hits = new ArrayList<>(scores.size());
+        scores.forEach((id, score) -> hits.add(new SearchHit(documents.get(id).document(), score)));
+        hits.sort(Comparator.comparingDouble(SearchHit::score).reversed()
+                .thenComparing(hit -> hit.document().transactionDate(), Comparator.reverseOrder())
+                .thenComparing(hit -> hit.document().id(), Comparator.reverseOrder()));
+        return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+    }
+
+    // Best BM25 contribution per document among the terms the word matches
+    private Map<Long, Double> scoreWord(String word, double averageLength) {
+        Map<Long, Double> scores = new HashMap<>();
+        int expansions = 0;
+        for (Map.Entry<String, PostingList> entry : terms.tailMap(word, true).entrySet()) {
+            String term = entry.getKey();
+            if (!term.startsWith(word) || expansions++ >= MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            PostingList postings = entry.getValue();
+            double idf = Math.log(1 + (documents.size() - postings.size() + 0.5) / (postings.size() + 0.5));
+            double boost = term.length() == word.length() ? 1.0 : PREFIX_PENALTY;
+            postings.forEach((id, frequency) -> {
+                int length = documents.get(id).length();
+                double score = boost * idf * frequency * (K1 + 1)
+                        / (frequency + K1 * (1 - B + B * length / averageLength));
+                scores.merge(id, score, Math::max);
+            });
+        }
+        return scores;
+    }
+
+    private static void addTokens(Map<String, Integer> frequencies, String text, int weight) {
+        for (String token : SearchTokenizer.tokenize(text)) {
+            frequencies.merge(token, weight, Integer::sum);
+        }
+    }
+
+    private record IndexedDocument(SearchDocument document, List<String> terms, int length) {
+    }
+
+    public record SearchHit(SearchDocument document, double score) {
+    }
+}
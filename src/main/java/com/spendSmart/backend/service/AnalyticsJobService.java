@@ -0,0 +1,194 @@
+package com.spendSmart.backend.service;
+
+import com.spendSmart.backend.dto.analytics.AnalyticsJobRequest;
+import com.spendSmart.backend.dto.analytics.AnalyticsJobResponse;
+import com.spendSmart.backend.dto.analytics.AnalyticsJobResponse.JobStatus;
+import com.spendSmart.backend.dto.analytics.ExpenseAnalyticsResponse;
+import com.spendSmart.backend.exception.ResourceNotFoundException;
+import com.spendSmart.backend.exception.ValidationException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs long-range expense analytics as background jobs so they never hold a request thread.
+ * Jobs execute on their own small executor, whose pool size is also the number of database
+ * connections report generation can occupy at once.
+ */
+@Service
+@Slf4j
+public class AnalyticsJobService {
+
+    private final Map<String, AnalyticsJob> jobs = new ConcurrentHashMap<>();
+    // Jobs per user that are queued or running, counted apart from jobs so purging never touches them
+    private final Map<Long, AtomicInteger> activeJobs = new ConcurrentHashMap<>();
+    private final AnalyticsService analyticsService;
+    private final ThreadPoolTaskExecutor jobExecutor;
+
+    @Value("${app.analytics.jobs.retention-ms:3600000}")
+    private long retentionMs;
+
+    @Value("${app.analytics.jobs.max-wait-ms:25000}")
+    private long maxWaitMs;
+
+    @Value("${app.analytics.jobs.max-active-per-user:3}")
+    private int maxActivePerUser;
+
+    public AnalyticsJobService(AnalyticsService analyticsService,
+                               @Qualifier("analyticsJobExecutor") ThreadPoolTaskExecutor jobExecutor) {
+        this.analyticsService = analyticsService;
+        this.jobExecutor = jobExecutor;
+    }
+
+    public AnalyticsJobResponse submit(Long userId, AnalyticsJobRequest request) {
+        if (request.getEndDate().isBefore(request.getStartDate())) {
+            throw new ValidationException("End date must be after start date");
+        }
+
+        acquireSlot(userId);
+
+        AnalyticsJob job = new AnalyticsJob(UUID.randomUUID().toString(), userId,
+                request.getStartDate(), request.getEndDate());
+
+        // Registered before it can run, so a job that finishes straight away is already visible
+        jobs.put(job.id, job);
+        try {
+            jobExecutor.execute(() -> run(job));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.id);
+            releaseSlot(userId);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Analytics job queue is full, try again later");
+        }
+
+        log.info("Submitted analytics job {} for user {} from {} to {}", job.id, userId, job.startDate, job.endDate);
+        return toResponse(job);
+    }
+
+    // Completes when the job finishes or the wait elapses, whichever comes first
+    public CompletableFuture<AnalyticsJobResponse> awaitJob(Long userId, String jobId, long waitMs) {
+        AnalyticsJob job = findJob(userId, jobId);
+        long wait = Math.min(Math.max(waitMs, 0), maxWaitMs);
+
+        if (wait == 0 || job.future.isDone()) {
+            return CompletableFuture.completedFuture(toResponse(job));
+        }
+
+        return job.future
+                .handle((result, error) -> toResponse(job))
+                .orTimeout(wait, TimeUnit.MILLISECONDS)
+                .exceptionally(timeout -> toResponse(job));
+    }
+
+    @Scheduled(fixedDelayString = "${app.analytics.jobs.cleanup-interval-ms:60000}")
+    public void purgeExpiredJobs() {
+        LocalDateTime now = LocalDateTime.now();
+        int before = jobs.size();
+        jobs.values().removeIf(job -> job.completedAt != null && expiresAt(job).isBefore(now));
+
+        if (jobs.size() < before) {
+            log.info("Purged {} expired analytics jobs", before - jobs.size());
+        }
+    }
+
+    private void run(AnalyticsJob job) {
+        job.startedAt = LocalDateTime.now();
+        job.status = JobStatus.RUNNING;
+        try {
+            job.result = analyticsService.getExpenseAnalytics(job.userId, job.startDate, job.endDate);
+            job.completedAt = LocalDateTime.now();
+            job.status = JobStatus.COMPLETED;
+            log.info("Analytics job {} completed in {} ms", job.id,
+                    Duration.between(job.startedAt, job.completedAt).toMillis());
+        } catch (Exception e) {
+            log.error("Analytics job {} failed: {}", job.id, e.getMessage(), e);
+            job.error = e.getMessage();
+            job.completedAt = LocalDateTime.now();
+            job.status = JobStatus.FAILED;
+        }
+        releaseSlot(job.userId);
+        job.future.complete(null);
+    }
+
+    // Checks the cap and takes a slot in one step, so concurrent submits cannot both pass the check
+    private void acquireSlot(Long userId) {
+        activeJobs.compute(userId, (id, active) -> {
+            AtomicInteger count = active != null ? active : new AtomicInteger();
+            if (count.get() >= maxActivePerUser) {
+                throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                        "Too many analytics jobs in progress, wait for one to finish");
+            }
+            count.incrementAndGet();
+            return count;
+        });
+    }
+
+    private void releaseSlot(Long userId) {
+        activeJobs.computeIfPresent(userId, (id, active) -> active.decrementAndGet() > 0 ? active : null);
+    }
+
+    private AnalyticsJob findJob(Long userId, String jobId) {
+        AnalyticsJob job = jobs.get(jobId);
+        if (job == null || !job.userId.equals(userId)) {
+            throw new ResourceNotFoundException("Analytics job not found with id: " + jobId);
+        }
+        return job;
+    }
+
+    private LocalDateTime expiresAt(AnalyticsJob job) {
+        return job.completedAt.plus(Duration.ofMillis(retentionMs));
+    }
+
+    private AnalyticsJobResponse toResponse(AnalyticsJob job) {
+        JobStatus status = job.status;
+        return AnalyticsJobResponse.builder()
+                .jobId(job.id)
+                .status(status)
+                .periodStart(job.startDate)
+                .periodEnd(job.endDate)
+                .submittedAt(job.submittedAt)
+                .startedAt(job.startedAt)
+                .completedAt(job.completedAt)
+                .expiresAt(job.completedAt != null ? expiresAt(job) : null)
+                .error(status == JobStatus.FAILED ? job.error : null)
+                .result(status == JobStatus.COMPLETED ? job.result : null)
+                .build();
+    }
+
+    private static final class AnalyticsJob {
+        private final String id;
+        private final Long userId;
+        private final LocalDateTime startDate;
+        private final LocalDateTime endDate;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        // Completed once the job reaches a terminal status; only used to wake up long-polling clients
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private volatile JobStatus status = JobStatus.QUEUED;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime completedAt;
+        private volatile ExpenseAnalyticsResponse result;
+        private volatile String error;
+
+        private AnalyticsJob(String id, Long userId, LocalDateTime startDate, LocalDateTime endDate) {
+            this.id = id;
+            this.userId = userId;
+            this.startDate = startDate;
+            this.endDate = endDate;
+        }
+    }
+}
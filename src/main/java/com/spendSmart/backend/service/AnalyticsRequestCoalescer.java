@@ -0,0 +1,78 @@
+package com.spendSmart.backend.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight layer for expensive analytics computations.
+ * Concurrent callers asking for the same operation, user and parameters share one in-flight
+ * computation instead of each running the same queries against the database.
+ */
+@Service
+@Slf4j
+public class AnalyticsRequestCoalescer {
+
+    private final Map<FlightKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public AnalyticsRequestCoalescer(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("analytics.singleflight.in_flight", inFlight, Map::size)
+                .description("Analytics computations currently in flight")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts the computation on the given executor unless an identical one is already in flight.
+     * Every caller receives its own copy of the shared future, so cancelling it only stops that
+     * caller from waiting and never cancels the computation the other callers depend on.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> submit(String operation, Long userId, List<?> params,
+                                           Supplier<T> computation, Executor executor) {
+        FlightKey key = new FlightKey(operation, userId, List.copyOf(params));
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+
+        if (existing != null) {
+            log.debug("Coalescing {} request for user {} onto in-flight computation", operation, userId);
+            countRequest(operation, "coalesced");
+            return (CompletableFuture<T>) existing.copy();
+        }
+
+        countRequest(operation, "executed");
+        flight.whenComplete((result, error) -> inFlight.remove(key, flight));
+
+        try {
+            executor.execute(() -> {
+                try {
+                    flight.complete(computation.get());
+                } catch (Throwable t) {
+                    flight.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            flight.completeExceptionally(e);
+        }
+
+        return (CompletableFuture<T>) flight.copy();
+    }
+
+    private void countRequest(String operation, String outcome) {
+        meterRegistry.counter("analytics.singleflight.requests", "operation", operation, "outcome", outcome)
+                .increment();
+    }
+
+    private record FlightKey(String operation, Long userId, List<?> params) {
+    }
+}
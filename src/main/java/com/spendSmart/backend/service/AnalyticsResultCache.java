@@ -0,0 +1,209 @@
+package com.spendSmart.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Clock;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Stale-while-revalidate store for analytics results.
+ * <ul>
+ *   <li>younger than the soft TTL: served as is</li>
+ *   <li>between soft and hard TTL: served immediately while one background refresh runs</li>
+ *   <li>older than the hard TTL, missing or invalidated: recomputed, but if that takes longer than
+ *   the latency budget the retained value is served instead and the refresh keeps running</li>
+ * </ul>
+ * Computations run on the bounded analytics executor and go through the single-flight coalescer,
+ * so a key never has more than one refresh in flight.
+ */
+@Service
+@Slf4j
+public class AnalyticsResultCache {
+
+    private final Map<CacheKey, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Long, Long> userGenerations = new ConcurrentHashMap<>();
+    private final AnalyticsRequestCoalescer coalescer;
+    private final Executor executor;
+    private final Clock clock;
+
+    @Value("${app.analytics.cache.soft-ttl-ms:30000}")
+    private long softTtlMs;
+
+    @Value("${app.analytics.cache.hard-ttl-ms:600000}")
+    private long hardTtlMs;
+
+    @Value("${app.analytics.cache.retention-ms:3600000}")
+    private long retentionMs;
+
+    @Value("${app.analytics.cache.latency-budget-ms:500}")
+    private long latencyBudgetMs;
+
+    @Value("${app.analytics.cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${app.analytics.executor.timeout-ms:15000}")
+    private long computeTimeoutMs;
+
+    @Autowired
+    public AnalyticsResultCache(AnalyticsRequestCoalescer coalescer,
+                                @Qualifier("analyticsExecutor") ThreadPoolTaskExecutor executor) {
+        this(coalescer, executor, Clock.systemUTC());
+    }
+
+    AnalyticsResultCache(AnalyticsRequestCoalescer coalescer, Executor executor, Clock clock) {
+        this.coalescer = coalescer;
+        this.executor = executor;
+        this.clock = clock;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> CachedResult<T> get(String operation, Long userId, List<?> params, Supplier<T> loader) {
+        CacheKey key = new CacheKey(operation, userId, List.copyOf(params));
+        Entry entry = entries.get(key);
+        long now = clock.millis();
+
+        if (entry != null && !entry.invalidated()) {
+            long age = now - entry.computedAt();
+            if (age < softTtlMs) {
+                return new CachedResult<>((T) entry.value(), false, age);
+            }
+            if (age < hardTtlMs) {
+                refresh(key, loader);
+                return new CachedResult<>((T) entry.value(), true, age);
+            }
+        }
+
+        CompletableFuture<T> refresh = refresh(key, loader);
+        if (entry == null || now - entry.computedAt() > retentionMs) {
+            return new CachedResult<>(awaitWithinTimeout(refresh, operation, userId), false, 0);
+        }
+
+        try {
+            return new CachedResult<>(refresh.get(latencyBudgetMs, TimeUnit.MILLISECONDS), false, 0);
+        } catch (TimeoutException | ExecutionException e) {
+            log.warn("Serving stale {} analytics for user {}: {}", operation, userId,
+                    e instanceof TimeoutException ? "latency budget of " + latencyBudgetMs + "ms exceeded" : e.getCause().getMessage());
+            return new CachedResult<>((T) entry.value(), true, now - entry.computedAt());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new CachedResult<>((T) entry.value(), true, now - entry.computedAt());
+        }
+    }
+
+    // Forces the next read of every entry belonging to the user to revalidate, keeping the old value as fallback
+    public void invalidateUser(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doInvalidateUser(userId);
+                }
+            });
+        } else {
+            doInvalidateUser(userId);
+        }
+    }
+
+    private void doInvalidateUser(Long userId) {
+        userGenerations.merge(userId, 1L, Long::sum);
+        entries.replaceAll((key, entry) -> key.userId().equals(userId) ? entry.markInvalidated() : entry);
+    }
+
+    // Nothing to fall back on: wait for the computation, but shed the request once the bulkhead is saturated
+    private <T> T awaitWithinTimeout(CompletableFuture<T> future, String operation, Long userId) {
+        try {
+            return future.get(computeTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("{} analytics for user {} did not complete within {}ms", operation, userId, computeTimeoutMs);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Analytics is busy, try again later");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RejectedExecutionException) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Analytics queue is full, try again later");
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException("Analytics computation failed: " + cause.getMessage(), cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for analytics computation", e);
+        }
+    }
+
+    private <T> CompletableFuture<T> refresh(CacheKey key, Supplier<T> loader) {
+        return coalescer.submit(key.operation(), key.userId(), key.params(), () -> {
+            long generation = userGenerations.getOrDefault(key.userId(), 0L);
+            T value = loader.get();
+            boolean invalidatedMeanwhile = generation != userGenerations.getOrDefault(key.userId(), 0L);
+            entries.put(key, new Entry(value, clock.millis(), invalidatedMeanwhile));
+            evictIfNeeded();
+            return value;
+        }, executor);
+    }
+
+    private void evictIfNeeded() {
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        long cutoff = clock.millis() - retentionMs;
+        entries.values().removeIf(entry -> entry.computedAt() < cutoff);
+
+        int excess = entries.size() - maxEntries;
+        if (excess > 0) {
+            entries.entrySet().stream()
+                    .sorted(Comparator.comparingLong(e -> e.getValue().computedAt()))
+                    .limit(excess)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(entries::remove);
+        }
+    }
+
+    public record CachedResult<T>(T value, boolean stale, long ageMillis) {
+
+        public long ageSeconds() {
+            return TimeUnit.MILLISECONDS.toSeconds(ageMillis);
+        }
+
+        // Age of the value served, and the stale warning when it is past its soft TTL or a fallback
+        public HttpHeaders headers() {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.AGE, String.valueOf(ageSeconds()));
+            if (stale) {
+                headers.set(HttpHeaders.WARNING, "110 - \"Response is Stale\"");
+            }
+            return headers;
+        }
+    }
+
+    private record CacheKey(String operation, Long userId, List<?> params) {
+    }
+
+    private record Entry(Object value, long computedAt, boolean invalidated) {
+
+        Entry markInvalidated() {
+            return new Entry(value, computedAt, true);
+        }
+    }
+}
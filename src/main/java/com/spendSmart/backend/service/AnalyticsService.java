@@ -11,6 +11,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalAdjusters;
@@ -27,6 +28,8 @@ public class AnalyticsService {
     private final BudgetRepository budgetRepository;
     private final WalletRepository walletRepository;
     private final UserRepository userRepository;
+    private final ExpenseArchiveService expenseArchiveService;
+    private final BudgetAlertService budgetAlertService;
 
     public ExpenseAnalyticsResponse getExpenseAnalytics(Long userId, LocalDateTime startDate, LocalDateTime endDate) {
         log.info("Getting expense analytics for user {} from {} to {}", userId, startDate, endDate);
@@ -35,7 +38,7 @@ public class AnalyticsService {
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
 
         // Get expenses for the period
-        List<Expense> expenses = expenseRepository.findByUserAndTransactionDateBetween(user, startDate.toLocalDate(), endDate.toLocalDate());
+        List<Expense> expenses = findExpenses(user, startDate.toLocalDate(), endDate.toLocalDate());
         
         // Calculate totals
         BigDecimal totalExpenses = expenses.stream()
@@ -54,7 +57,7 @@ public class AnalyticsService {
         LocalDateTime previousStart = startDate.minus(ChronoUnit.DAYS.between(startDate, endDate), ChronoUnit.DAYS);
         LocalDateTime previousEnd = startDate;
         
-        List<Expense> previousExpenses = expenseRepository.findByUserAndTransactionDateBetween(user, previousStart.toLocalDate(), previousEnd.toLocalDate());
+        List<Expense> previousExpenses = findExpenses(user, previousStart.toLocalDate(), previousEnd.toLocalDate());
         BigDecimal previousPeriodExpenses = previousExpenses.stream()
                 .filter(e -> e.getType() == Expense.ExpenseType.EXPENSE)
                 .map(Expense::getAmount)
@@ -117,7 +120,7 @@ public class AnalyticsService {
         LocalDateTime endDate = LocalDateTime.now();
         LocalDateTime startDate = endDate.minusMonths(months);
         
-        List<Expense> expenses = expenseRepository.findByUserAndTransactionDateBetween(user, startDate.toLocalDate(), endDate.toLocalDate());
+        List<Expense> expenses = findExpenses(user, startDate.toLocalDate(), endDate.toLocalDate());
 
         // Monthly trends
         List<SpendingTrendsResponse.MonthlyTrend> monthlyTrends = generateMonthlyTrends(expenses, months);
@@ -144,7 +147,10 @@ public class AnalyticsService {
         
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
-        
+        return getDashboardSummary(user);
+    }
+
+    public DashboardSummaryResponse getDashboardSummary(User user) {
         try {
 
         LocalDateTime now = LocalDateTime.now();
@@ -152,7 +158,7 @@ public class AnalyticsService {
         LocalDateTime monthEnd = now.with(TemporalAdjusters.lastDayOfMonth()).withHour(23).withMinute(59).withSecond(59);
 
         // Current month data
-        List<Expense> currentMonthExpenses = expenseRepository.findByUserAndTransactionDateBetween(user, monthStart.toLocalDate(), monthEnd.toLocalDate());
+        List<Expense> currentMonthExpenses = findExpenses(user, monthStart.toLocalDate(), monthEnd.toLocalDate());
         
         BigDecimal currentMonthExpenseTotal = currentMonthExpenses.stream()
                 .filter(e -> e.getType() == Expense.ExpenseType.EXPENSE)
@@ -168,7 +174,7 @@ public class AnalyticsService {
         LocalDateTime prevMonthStart = monthStart.minusMonths(1);
         LocalDateTime prevMonthEnd = monthEnd.minusMonths(1);
         
-        List<Expense> previousMonthExpenses = expenseRepository.findByUserAndTransactionDateBetween(user, prevMonthStart.toLocalDate(), prevMonthEnd.toLocalDate());
+        List<Expense> previousMonthExpenses = findExpenses(user, prevMonthStart.toLocalDate(), prevMonthEnd.toLocalDate());
         BigDecimal previousMonthExpenseTotal = previousMonthExpenses.stream()
                 .filter(e -> e.getType() == Expense.ExpenseType.EXPENSE)
                 .map(Expense::getAmount)
@@ -210,12 +216,18 @@ public class AnalyticsService {
                 .build();
         
         } catch (Exception e) {
-            log.error("Error generating dashboard summary for user {}: {}", userId, e.getMessage(), e);
+            log.error("Error generating dashboard summary for user {}: {}", user.getId(), e.getMessage(), e);
             throw new RuntimeException("Failed to generate dashboard summary: " + e.getMessage(), e);
         }
     }
 
     // Helper methods
+    private List<Expense> findExpenses(User user, LocalDate startDate, LocalDate endDate) {
+        return expenseArchiveService.mergeArchived(
+                expenseRepository.findByUserAndTransactionDateBetween(user, startDate, endDate),
+                user.getId(), startDate, endDate);
+    }
+
     private ExpenseAnalyticsResponse.CategoryExpenseSummary createCategoryExpenseSummary(
             Category category, List<Expense> expenses, BigDecimal totalExpenses) {
         
@@ -415,49 +427,9 @@ public class AnalyticsService {
                 .build();
     }
 
+    // Alert levels are materialized from the outbox as expenses are written, not recomputed here
     private List<DashboardSummaryResponse.BudgetAlert> generateBudgetAlerts(User user) {
-        // Get all active budgets and update their spent amounts with fresh calculations
-        List<Budget> activeBudgets = budgetRepository.findByUserAndIsActiveTrue(user);
-        
-        for (Budget budget : activeBudgets) {
-            BigDecimal actualSpent = calculateActualSpentAmount(budget);
-            System.out.println("Dashboard Alert Generation - Budget '" + budget.getName() + "' spent amount updated: " + 
-                budget.getSpentAmount() + " -> " + actualSpent);
-            budget.setSpentAmount(actualSpent);
-        }
-        
-        // Now filter for budgets that need alerts based on fresh data
-        List<Budget> alertingBudgets = activeBudgets.stream()
-                .filter(budget -> {
-                    boolean needsAlert = budget.shouldAlert() || budget.isOverBudget();
-                    System.out.println("Budget '" + budget.getName() + "' alert check: shouldAlert=" + 
-                        budget.shouldAlert() + ", isOverBudget=" + budget.isOverBudget() + ", needsAlert=" + needsAlert);
-                    return needsAlert;
-                })
-                .collect(Collectors.toList());
-                
-        System.out.println("Total active budgets: " + activeBudgets.size() + ", Alerting budgets: " + alertingBudgets.size());
-        
-        return alertingBudgets.stream()
-                .map(budget -> DashboardSummaryResponse.BudgetAlert.builder()
-                        .budgetId(budget.getId())
-                        .budgetName(budget.getName())
-                        .categoryName(budget.getCategory() != null ? budget.getCategory().getName() : "Overall")
-                        .spentPercentage(budget.getSpentPercentage())
-                        .remainingAmount(budget.getRemainingAmount())
-                        .alertType(budget.isOverBudget() ? "OVERBUDGET" : "THRESHOLD")
-                        .message(generateAlertMessage(budget))
-                        .alertDate(LocalDateTime.now())
-                        .build())
-                .collect(Collectors.toList());
-    }
-
-    private String generateAlertMessage(Budget budget) {
-        if (budget.isOverBudget()) {
-            return "You have exceeded your budget by " + budget.getSpentAmount().subtract(budget.getAmount());
-        } else {
-            return "You have spent " + budget.getSpentPercentage() + "% of your budget";
-        }
+        return budgetAlertService.getActiveAlerts(user.getId());
     }
 
     private BigDecimal calculateActualSpentAmount(Budget budget) {
@@ -466,7 +438,7 @@ public class AnalyticsService {
         LocalDateTime endDate = budget.getEndDate();
         
         // Get all expenses for the user in the budget period
-        List<Expense> expenses = expenseRepository.findByUserAndTransactionDateBetween(
+        List<Expense> expenses = findExpenses(
             budget.getUser(), 
             startDate.toLocalDate(), 
             endDate.toLocalDate()
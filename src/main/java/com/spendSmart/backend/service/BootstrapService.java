@@ -0,0 +1,114 @@
+package com.spendSmart.backend.service;
+
+import com.spendSmart.backend.dto.analytics.DashboardSummaryResponse;
+import com.spendSmart.backend.dto.bootstrap.BootstrapResponse;
+import com.spendSmart.backend.dto.budget.BudgetResponse;
+import com.spendSmart.backend.dto.category.CategoryResponse;
+import com.spendSmart.backend.dto.expense.ExpenseFilterRequest;
+import com.spendSmart.backend.dto.expense.ExpensePageResponse;
+import com.spendSmart.backend.dto.wallet.WalletResponse;
+import com.spendSmart.backend.entity.User;
+import com.spendSmart.backend.exception.ResourceNotFoundException;
+import com.spendSmart.backend.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Everything the client loads on launch, in one response. The user is looked up once. Budgets and
+ * the dashboard are computed on the bootstrap pool while the request thread loads wallets,
+ * categories and the first page of expenses, which are mapped through lookup maps built from
+ * those wallets and categories. There is no transaction around the whole response: each read takes
+ * its own connection, so none is held while the request thread waits for the pooled sections.
+ * A section that fails fails the response with an error naming that section.
+ */
+@Service
+@Slf4j
+public class BootstrapService {
+
+    private final UserRepository userRepository;
+    private final WalletService walletService;
+    private final CategoryService categoryService;
+    private final BudgetService budgetService;
+    private final ExpenseService expenseService;
+    private final AnalyticsService analyticsService;
+    private final AnalyticsResultCache analyticsResultCache;
+    private final LedgerVersionService ledgerVersionService;
+    private final ThreadPoolTaskExecutor executor;
+
+    public BootstrapService(UserRepository userRepository,
+                            WalletService walletService,
+                            CategoryService categoryService,
+                            BudgetService budgetService,
+                            ExpenseService expenseService,
+                            AnalyticsService analyticsService,
+                            AnalyticsResultCache analyticsResultCache,
+                            LedgerVersionService ledgerVersionService,
+                            @Qualifier("bootstrapExecutor") ThreadPoolTaskExecutor executor) {
+        this.userRepository = userRepository;
+        this.walletService = walletService;
+        this.categoryService = categoryService;
+        this.budgetService = budgetService;
+        this.expenseService = expenseService;
+        this.analyticsService = analyticsService;
+        this.analyticsResultCache = analyticsResultCache;
+        this.ledgerVersionService = ledgerVersionService;
+        this.executor = executor;
+    }
+
+    public BootstrapResponse bootstrap(Long userId, int expenseLimit) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+
+        CompletableFuture<List<BudgetResponse>> budgets = CompletableFuture.supplyAsync(
+                () -> budgetService.getActiveBudgets(user), executor);
+        // Shares its cache entry with GET /analytics/dashboard
+        long version = ledgerVersionService.currentVersion(userId);
+        CompletableFuture<DashboardSummaryResponse> dashboard = CompletableFuture.supplyAsync(
+                () -> analyticsResultCache.get("dashboard", userId, List.of(version),
+                        () -> analyticsService.getDashboardSummary(user)).value(), executor);
+
+        List<WalletResponse> wallets = walletService.getUserWallets(userId);
+        List<CategoryResponse> categories = categoryService.getUserCategories(userId);
+        Map<Long, WalletResponse> walletLookup = new HashMap<>();
+        wallets.forEach(wallet -> walletLookup.put(wallet.getId(), wallet));
+        Map<Long, CategoryResponse> categoryLookup = new HashMap<>();
+        categories.forEach(category -> categoryLookup.put(category.getId(), category));
+
+        ExpenseFilterRequest firstPage = new ExpenseFilterRequest();
+        firstPage.setLimit(Math.max(1, Math.min(expenseLimit, 200)));
+        ExpensePageResponse expenses = expenseService.filterExpenses(userId, firstPage, walletLookup, categoryLookup);
+
+        return BootstrapResponse.builder()
+                .wallets(wallets)
+                .categories(categories)
+                .activeBudgets(join("budgets", budgets))
+                .dashboard(join("dashboard", dashboard))
+                .expenses(expenses)
+                .build();
+    }
+
+    // Keeps the status of a section that was refused, e.g. a busy analytics pool, but never exposes internal messages
+    private static <T> T join(String name, CompletableFuture<T> section) {
+        try {
+            return section.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            log.error("Bootstrap section {} failed: {}", name, cause.getMessage(), cause);
+            if (cause instanceof ResponseStatusException refused) {
+                throw new ResponseStatusException(refused.getStatusCode(),
+                        "Could not load " + name + ": " + refused.getReason(), cause);
+            }
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Could not load " + name, cause);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.spendSmart.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spendSmart.backend.dto.analytics.DashboardSummaryResponse;
+import com.spendSmart.backend.entity.Budget;
+import com.spendSmart.backend.entity.User;
+import com.spendSmart.backend.entity.WebhookSubscription;
+import com.spendSmart.backend.outbox.OutboxEvent;
+import com.spendSmart.backend.outbox.OutboxEventHandler;
+import com.spendSmart.backend.repository.BudgetRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps budget_alert_state current without recomputing budgets on read.
+ * <p>
+ * {@link #evaluate} runs in the transaction of every write that changes a budget's spent amount and
+ * queues an outbox event for each budget whose alert level differs from its materialized state.
+ * The outbox dispatcher later applies those events to budget_alert_state, which is all the
+ * dashboard reads.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BudgetAlertService implements OutboxEventHandler {
+
+    public static final String AGGREGATE_TYPE = "BUDGET";
+    public static final String ALERT_EVALUATED = "BUDGET_ALERT_EVALUATED";
+
+    private final BudgetRepository budgetRepository;
+    private final OutboxService outboxService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final WebhookService webhookService;
+    private final LedgerVersionService ledgerVersionService;
+
+    /**
+     * Compares the user's budgets with their materialized alert state and queues the differences.
+     * Only budgets at or over their alert level are loaded; every other budget with a non-OK state,
+     * or with events still in flight, is evaluated as OK.
+     */
+    public void evaluate(User user) {
+        Map<Long, Budget> alerting = new LinkedHashMap<>();
+        budgetRepository.findBudgetsNeedingAlert(user).forEach(budget -> alerting.put(budget.getId(), budget));
+        budgetRepository.findOverbudgetBudgets(user).forEach(budget -> alerting.put(budget.getId(), budget));
+
+        Map<Long, AlertStatus> materialized = new HashMap<>();
+        jdbcTemplate.query("SELECT budget_id, status FROM budget_alert_state WHERE user_id = ?",
+                rs -> {
+                    materialized.put(rs.getLong("budget_id"), AlertStatus.valueOf(rs.getString("status")));
+                },
+                user.getId());
+        // A queued event may still move the state, so those budgets are always re-evaluated
+        Set<Long> inFlight = new HashSet<>(outboxService.findPendingAggregateIds(AGGREGATE_TYPE, user.getId()));
+
+        for (Budget budget : alerting.values()) {
+            AlertStatus status = budget.isOverBudget() ? AlertStatus.OVERBUDGET : AlertStatus.THRESHOLD;
+            if (status != materialized.getOrDefault(budget.getId(), AlertStatus.OK) || inFlight.contains(budget.getId())) {
+                publish(user.getId(), budget.getId(), status, budget.getSpentAmount(), budget.getAmount());
+            }
+        }
+
+        Set<Long> cleared = new HashSet<>(inFlight);
+        materialized.forEach((budgetId, status) -> {
+            if (status != AlertStatus.OK) {
+                cleared.add(budgetId);
+            }
+        });
+        cleared.removeAll(alerting.keySet());
+        for (Long budgetId : cleared) {
+            budgetRepository.findById(budgetId).ifPresent(budget ->
+                    publish(user.getId(), budgetId, AlertStatus.OK, budget.getSpentAmount(), budget.getAmount()));
+        }
+    }
+
+    // Active alerts as materialized by the outbox dispatcher
+    public List<DashboardSummaryResponse.BudgetAlert> getActiveAlerts(Long userId) {
+        return jdbcTemplate.query("SELECT s.budget_id, s.status, s.spent_amount, s.budget_amount, s.spent_percentage, " +
+                        "s.changed_at, b.name, c.name AS category_name FROM budget_alert_state s " +
+                        "JOIN budgets b ON b.id = s.budget_id LEFT JOIN categories c ON c.id = b.category_id " +
+                        "WHERE s.user_id = ? AND s.status <> 'OK' AND b.is_active = TRUE ORDER BY s.changed_at DESC",
+                (rs, rowNum) -> {
+                    BigDecimal spent = rs.getBigDecimal("spent_amount");
+                    BigDecimal amount = rs.getBigDecimal("budget_amount");
+                    BigDecimal percentage = rs.getBigDecimal("spent_percentage");
+                    boolean overBudget = AlertStatus.valueOf(rs.getString("status")) == AlertStatus.OVERBUDGET;
+                    String categoryName = rs.getString("category_name");
+                    return DashboardSummaryResponse.BudgetAlert.builder()
+                            .budgetId(rs.getLong("budget_id"))
+                            .budgetName(rs.getString("name"))
+                            .categoryName(categoryName != null ? categoryName : "Overall")
+                            .spentPercentage(percentage)
+                            .remainingAmount(amount.subtract(spent))
+                            .alertType(overBudget ? "OVERBUDGET" : "THRESHOLD")
+                            .message(overBudget
+                                    ? "You have exceeded your budget by " + spent.subtract(amount)
+                                    : "You have spent " + percentage + "% of your budget")
+                            .alertDate(rs.getTimestamp("changed_at").toLocalDateTime())
+                            .build();
+                },
+                userId);
+    }
+
+    @Override
+    public boolean supports(String eventType) {
+        return ALERT_EVALUATED.equals(eventType);
+    }
+
+    // Applies alert levels in event order; an event older than the one already applied is ignored.
+    // Escalations are pushed to the user's webhooks.
+    @Override
+    public void handle(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            AlertEvaluated alert = readPayload(event);
+            List<String> previous = jdbcTemplate.queryForList(
+                    "SELECT status FROM budget_alert_state WHERE budget_id = ? FOR UPDATE", String.class, alert.budgetId());
+            Object[] values = {alert.status().name(), alert.status().name(), alert.spentAmount(), alert.budgetAmount(),
+                    alert.spentPercentage(), event.id(), alert.budgetId(), event.id()};
+            int updated = jdbcTemplate.update("UPDATE budget_alert_state SET " +
+                    "changed_at = IF(status <> ?, NOW(6), changed_at), status = ?, spent_amount = ?, budget_amount = ?, " +
+                    "spent_percentage = ?, last_event_id = ?, updated_at = NOW(6) " +
+                    "WHERE budget_id = ? AND last_event_id < ?", values);
+            if (updated == 0 && previous.isEmpty()) {
+                // Budgets deleted meanwhile are skipped by the join
+                updated = jdbcTemplate.update("INSERT IGNORE INTO budget_alert_state (budget_id, user_id, status, spent_amount, " +
+                                "budget_amount, spent_percentage, last_event_id, changed_at, updated_at) " +
+                                "SELECT b.id, b.user_id, ?, ?, ?, ?, ?, NOW(6), NOW(6) FROM budgets b WHERE b.id = ?",
+                        alert.status().name(), alert.spentAmount(), alert.budgetAmount(), alert.spentPercentage(),
+                        event.id(), alert.budgetId());
+            }
+
+            AlertStatus before = previous.isEmpty() ? AlertStatus.OK : AlertStatus.valueOf(previous.get(0));
+            if (updated > 0 && alert.status() != before) {
+                // The dashboard lists active alerts, so cached copies of it are now out of date
+                ledgerVersionService.bump(event.userId());
+            }
+            if (updated > 0 && alert.status().compareTo(before) > 0) {
+                webhookService.enqueue(event.userId(), alert.status() == AlertStatus.OVERBUDGET
+                        ? WebhookSubscription.EventType.BUDGET_OVERSPENT
+                        : WebhookSubscription.EventType.BUDGET_THRESHOLD, alert);
+            }
+        }
+    }
+
+    private void publish(Long userId, Long budgetId, AlertStatus status, BigDecimal spent, BigDecimal amount) {
+        BigDecimal percentage = amount.signum() == 0
+                ? BigDecimal.ZERO
+                : spent.multiply(new BigDecimal("100")).divide(amount, 2, RoundingMode.HALF_UP);
+        outboxService.publish(AGGREGATE_TYPE, budgetId, userId, ALERT_EVALUATED,
+                new AlertEvaluated(budgetId, status, spent, amount, percentage));
+    }
+
+    private AlertEvaluated readPayload(OutboxEvent event) {
+        try {
+            return objectMapper.readValue(event.payload(), AlertEvaluated.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Malformed payload in outbox event " + event.id(), e);
+        }
+    }
+
+    public enum AlertStatus {
+        OK, THRESHOLD, OVERBUDGET
+    }
+
+    public record AlertEvaluated(Long budgetId, AlertStatus status, BigDecimal spentAmount,
+                                 BigDecimal budgetAmount, BigDecimal spentPercentage) {
+    }
+}
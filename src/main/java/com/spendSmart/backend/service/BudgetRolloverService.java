@@ -0,0 +1,191 @@
+package com.spendSmart.backend.service;
+
+import com.spendSmart.backend.dto.sync.SyncResponse;
+import com.spendSmart.backend.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Rolls periodic budgets over once their end date has passed: the next period is created with the
+ * same settings and the expired one is closed. CUSTOM budgets are only closed.
+ * <p>
+ * Expired budgets are taken from idx_budgets_active_end in batches, one transaction per batch, with
+ * a single INSERT ... SELECT and a single UPDATE each. A budget that is several periods behind rolls
+ * forward one period per batch until it is current. Budget alerts of the affected users are
+ * re-evaluated in the same transaction, so closed budgets clear their alerts and successors that
+ * start at or past their alert level raise one. The unique rolled_over_from_id key makes a
+ * repeated batch harmless, and a database lease keeps the job on one node at a time.
+ */
+@Service
+@Slf4j
+public class BudgetRolloverService {
+
+    private static final String LEASE_NAME = "budget-rollover";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SchedulerLeaseService leaseService;
+    private final AnalyticsResultCache analyticsResultCache;
+    private final ChangeSequenceService changeSequenceService;
+    private final BudgetAlertService budgetAlertService;
+    private final UserRepository userRepository;
+    private final Timer runTimer;
+    private final Counter rolledCounter;
+    private final Counter closedCounter;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${app.budgets.rollover.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.budgets.rollover.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.budgets.rollover.lease-duration-ms:600000}")
+    private long leaseDurationMs;
+
+    public BudgetRolloverService(JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 SchedulerLeaseService leaseService,
+                                 AnalyticsResultCache analyticsResultCache,
+                                 ChangeSequenceService changeSequenceService,
+                                 BudgetAlertService budgetAlertService,
+                                 UserRepository userRepository,
+                                 MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.leaseService = leaseService;
+        this.analyticsResultCache = analyticsResultCache;
+        this.changeSequenceService = changeSequenceService;
+        this.budgetAlertService = budgetAlertService;
+        this.userRepository = userRepository;
+        this.runTimer = Timer.builder("budget.rollover.duration")
+                .description("Time taken by a budget rollover run")
+                .register(meterRegistry);
+        this.rolledCounter = Counter.builder("budget.rollover.budgets")
+                .description("Expired budgets processed by the rollover job")
+                .tag("outcome", "rolled")
+                .register(meterRegistry);
+        this.closedCounter = Counter.builder("budget.rollover.budgets")
+                .description("Expired budgets processed by the rollover job")
+                .tag("outcome", "closed")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.budgets.rollover.cron:0 10 * * * *}")
+    public void rollOverExpiredBudgets() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+        Duration leaseDuration = Duration.ofMillis(leaseDurationMs);
+        try {
+            if (!leaseService.tryAcquire(LEASE_NAME, leaseDuration)) {
+                log.debug("Budget rollover lease is held by another node, skipping this run");
+                return;
+            }
+            try {
+                runTimer.record(() -> run(LocalDateTime.now(), leaseDuration));
+            } finally {
+                leaseService.release(LEASE_NAME);
+            }
+        } catch (Exception e) {
+            log.error("Budget rollover failed: {}", e.getMessage(), e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void run(LocalDateTime now, Duration leaseDuration) {
+        int closed = 0;
+        int rolled = 0;
+        while (leaseService.renew(LEASE_NAME, leaseDuration)) {
+            int[] batch = transactionTemplate.execute(status -> rollOverBatch(now));
+            if (batch == null || batch[0] == 0) {
+                break;
+            }
+            closed += batch[0];
+            rolled += batch[1];
+        }
+        if (closed > 0) {
+            log.info("Closed {} expired budgets, {} of them rolled over into a new period", closed, rolled);
+        }
+    }
+
+    // Returns {expired budgets closed, successors created}
+    private int[] rollOverBatch(LocalDateTime now) {
+        Map<Long, List<Long>> expiredByUser = new TreeMap<>();
+        List<Long> ids = jdbcTemplate.query("SELECT id, user_id FROM budgets WHERE is_active = TRUE AND end_date < ? " +
+                        "ORDER BY end_date LIMIT ? FOR UPDATE SKIP LOCKED",
+                (rs, rowNum) -> {
+                    expiredByUser.computeIfAbsent(rs.getLong("user_id"), id -> new ArrayList<>()).add(rs.getLong("id"));
+                    return rs.getLong("id");
+                },
+                Timestamp.valueOf(now), batchSize);
+        if (ids.isEmpty()) {
+            return new int[]{0, 0};
+        }
+        String idList = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+
+        // The next period keeps the gap between the old end date and one period after the old start,
+        // so a month ending 23:59:59 on the 31st is followed by one ending 23:59:59 on the 28th/29th/30th
+        String nextStart = advance("b.start_date");
+        String nextEnd = advance(nextStart) + " - INTERVAL TIMESTAMPDIFF(MICROSECOND, b.end_date, " + nextStart + ") MICROSECOND";
+        int rolled = jdbcTemplate.update("INSERT IGNORE INTO budgets (user_id, category_id, name, amount, spent_amount, " +
+                "period, start_date, end_date, is_active, alert_threshold, alert_enabled, description, rolled_over_from_id, " +
+                "created_at, updated_at) " +
+                "SELECT n.user_id, n.category_id, n.name, n.amount, " +
+                "(SELECT COALESCE(SUM(e.amount), 0) FROM expenses e WHERE e.user_id = n.user_id AND e.type = 'EXPENSE' " +
+                "AND (n.category_id IS NULL OR e.category_id = n.category_id) " +
+                "AND e.transaction_date BETWEEN DATE(n.next_start) AND DATE(n.next_end)), " +
+                "n.period, n.next_start, n.next_end, TRUE, n.alert_threshold, n.alert_enabled, n.description, n.id, " +
+                "NOW(6), NOW(6) " +
+                "FROM (SELECT b.*, " + nextStart + " AS next_start, " + nextEnd + " AS next_end " +
+                "FROM budgets b WHERE b.id IN (" + idList + ") AND b.period <> 'CUSTOM') n");
+
+        jdbcTemplate.update("UPDATE budgets SET is_active = FALSE, updated_at = NOW(6) WHERE id IN (" + idList + ")");
+
+        // Closed budgets leave the active list, so sync reports them as deleted
+        Map<Long, List<Long>> successorsByUser = new HashMap<>();
+        jdbcTemplate.query("SELECT id, user_id FROM budgets WHERE rolled_over_from_id IN (" + idList + ")",
+                rs -> {
+                    successorsByUser.computeIfAbsent(rs.getLong("user_id"), id -> new ArrayList<>()).add(rs.getLong("id"));
+                });
+        expiredByUser.forEach((userId, expired) -> {
+            changeSequenceService.recordChanges(userId, SyncResponse.EntityType.BUDGET, expired, true);
+            changeSequenceService.recordChanges(userId, SyncResponse.EntityType.BUDGET,
+                    successorsByUser.getOrDefault(userId, List.of()), false);
+        });
+
+        for (Long userId : expiredByUser.keySet()) {
+            budgetAlertService.evaluate(userRepository.getReferenceById(userId));
+            analyticsResultCache.invalidateUser(userId);
+        }
+        closedCounter.increment(ids.size());
+        rolledCounter.increment(rolled);
+        return new int[]{ids.size(), rolled};
+    }
+
+    private static String advance(String date) {
+        return "(CASE b.period WHEN 'WEEKLY' THEN " + date + " + INTERVAL 1 WEEK " +
+                "WHEN 'MONTHLY' THEN " + date + " + INTERVAL 1 MONTH " +
+                "WHEN 'QUARTERLY' THEN " + date + " + INTERVAL 1 QUARTER " +
+                "ELSE " + date + " + INTERVAL 1 YEAR END)";
+    }
+}
@@ -1,6 +1,7 @@
 package com.spendSmart.backend.service;
 
 import com.spendSmart.backend.dto.budget.*;
+import com.spendSmart.backend.dto.sync.SyncResponse;
 import com.spendSmart.backend.entity.Budget;
 import com.spendSmart.backend.entity.Category;
 import com.spendSmart.backend.entity.User;
@@ -10,14 +11,26 @@ import com.spendSmart.backend.mapper.BudgetMapper;
 import com.spendSmart.backend.repository.BudgetRepository;
 import com.spendSmart.backend.repository.CategoryRepository;
 import com.spendSmart.backend.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -33,6 +46,17 @@ public class BudgetService {
     private final BudgetMapper budgetMapper;
     private final UserRepository userRepository;
     private final com.spendSmart.backend.repository.ExpenseRepository expenseRepository;
+    private final AnalyticsResultCache analyticsResultCache;
+    private final BudgetAlertService budgetAlertService;
+    private final ChangeSequenceService changeSequenceService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.streaming.chunk-size:500}")
+    private int streamChunkSize;
 
     public List<BudgetResponse> getAllBudgets(Long userId) {
         log.info("Getting all budgets for user: {}", userId);
@@ -55,6 +79,56 @@ public class BudgetService {
                 .toList();
     }
 
+    /**
+     * The same listing as {@link #getAllBudgets}, written to {@code out} as a JSON array in id order.
+     * Budgets are read and refreshed a chunk at a time, each chunk in its own transaction, and each
+     * chunk is flushed to the client before the next is read.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void writeAllBudgets(Long userId, OutputStream out) throws IOException {
+        log.info("Streaming all budgets for user: {}", userId);
+        
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+        
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            long afterId = 0L;
+            List<BudgetResponse> chunk;
+            do {
+                long from = afterId;
+                chunk = transactionTemplate.execute(status -> {
+                    List<Budget> budgets = budgetRepository.findByUserAndIsActiveTrueAndIdGreaterThanOrderByIdAsc(
+                            user, from, Limit.of(streamChunkSize));
+                    for (Budget budget : budgets) {
+                        budget.setSpentAmount(calculateActualSpentAmount(budget));
+                    }
+                    return budgets.stream().map(this::mapToBudgetResponse).toList();
+                });
+                for (BudgetResponse budget : chunk) {
+                    generator.writeObject(budget);
+                }
+                generator.flush();
+                if (!chunk.isEmpty()) {
+                    afterId = chunk.get(chunk.size() - 1).getId();
+                }
+                // A persistence context bound by the caller would otherwise keep every budget written so far
+                entityManager.clear();
+            } while (chunk.size() == streamChunkSize);
+            generator.writeEndArray();
+        }
+    }
+
+    // Current state of the given budgets for delta sync; other users' budgets are left out
+    @Transactional(readOnly = true)
+    public List<BudgetResponse> getBudgetsByIds(Collection<Long> budgetIds, Long userId) {
+        return budgetRepository.findAllById(budgetIds).stream()
+                .filter(budget -> budget.getUser().getId().equals(userId) && budget.getIsActive())
+                .map(this::mapToBudgetResponse)
+                .toList();
+    }
+
     public BudgetResponse getBudgetById(Long id, Long userId) {
         log.info("Getting budget {} for user: {}", id, userId);
         
@@ -98,8 +172,13 @@ public class BudgetService {
                 .spentAmount(BigDecimal.ZERO)
                 .isActive(true)
                 .build();
+        // A budget created over a period with expenses may start at or past its alert level
+        budget.setSpentAmount(calculateActualSpentAmount(budget));
 
         Budget savedBudget = budgetRepository.save(budget);
+        budgetAlertService.evaluate(user);
+        analyticsResultCache.invalidateUser(userId);
+        changeSequenceService.recordChange(userId, SyncResponse.EntityType.BUDGET, savedBudget.getId(), false);
         log.info("Created budget with id: {}", savedBudget.getId());
         
         return mapToBudgetResponse(savedBudget);
@@ -136,6 +215,10 @@ public class BudgetService {
         }
 
         Budget savedBudget = budgetRepository.save(budget);
+        budgetAlertService.evaluate(user);
+        analyticsResultCache.invalidateUser(userId);
+        changeSequenceService.recordChange(userId, SyncResponse.EntityType.BUDGET, savedBudget.getId(),
+                !savedBudget.getIsActive());
         log.info("Updated budget with id: {}", savedBudget.getId());
         
         return mapToBudgetResponse(savedBudget);
@@ -157,6 +240,8 @@ public class BudgetService {
         // Soft delete
         budget.setIsActive(false);
         budgetRepository.save(budget);
+        analyticsResultCache.invalidateUser(userId);
+        changeSequenceService.recordChange(userId, SyncResponse.EntityType.BUDGET, id, true);
         
         log.info("Deleted budget with id: {}", id);
     }
@@ -219,7 +304,10 @@ public class BudgetService {
         
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
-        
+        return getActiveBudgets(user);
+    }
+
+    public List<BudgetResponse> getActiveBudgets(User user) {
         List<Budget> activeBudgets = budgetRepository.findActiveBudgetsForUser(user, LocalDateTime.now());
         
         // Update spent amounts for accurate status calculations
@@ -348,12 +436,18 @@ public class BudgetService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
         
         List<Budget> activeBudgets = budgetRepository.findByUserAndIsActiveTrue(user);
+        List<Long> changed = new ArrayList<>();
         
         for (Budget budget : activeBudgets) {
             BigDecimal actualSpent = calculateActualSpentAmount(budget);
+            if (budget.getSpentAmount() == null || actualSpent.compareTo(budget.getSpentAmount()) != 0) {
+                changed.add(budget.getId());
+            }
             budget.setSpentAmount(actualSpent);
             budgetRepository.save(budget);
         }
+        budgetAlertService.evaluate(user);
+        changeSequenceService.recordChanges(userId, SyncResponse.EntityType.BUDGET, changed, false);
         
         log.info("Updated spent amounts for {} budgets", activeBudgets.size());
     }
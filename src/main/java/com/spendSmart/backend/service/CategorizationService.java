@@ -0,0 +1,119 @@
+package com.spendSmart.backend.service;
+
+import com.spendSmart.backend.categorization.RulePatternMatcher;
+import com.spendSmart.backend.categorization.RulePatterns;
+import com.spendSmart.backend.entity.Category;
+import com.spendSmart.backend.repository.CategoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Assigns categories from an expense's merchant and description using the rule patterns of the
+ * active system categories and the user's own categories. Each user's patterns are compiled into
+ * one {@link RulePatternMatcher}, cached, and recompiled only after that user's categories change.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CategorizationService {
+
+    // User rules outrank system rules of the same length
+    private static final int SYSTEM_PRIORITY = 0;
+    private static final int USER_PRIORITY = 1;
+
+    private final CategoryRepository categoryRepository;
+    private final Map<Long, RulePatternMatcher> matchers = new ConcurrentHashMap<>();
+    private final Map<Long, Long> userGenerations = new ConcurrentHashMap<>();
+    private final AtomicLong systemGeneration = new AtomicLong();
+
+    @Value("${app.categorization.max-cached-users:10000}")
+    private int maxCachedUsers;
+
+    public Optional<Long> categorize(Long userId, String merchant, String description) {
+        return getMatcher(userId).match(merchant, description);
+    }
+
+    public RulePatternMatcher getMatcher(Long userId) {
+        RulePatternMatcher matcher = matchers.get(userId);
+        if (matcher != null) {
+            return matcher;
+        }
+
+        long systemBefore = systemGeneration.get();
+        long userBefore = userGenerations.getOrDefault(userId, 0L);
+        matcher = compile(userId);
+        // Only cache if no rule changed while compiling, otherwise the next call recompiles
+        if (systemBefore == systemGeneration.get() && userBefore == userGenerations.getOrDefault(userId, 0L)) {
+            evictIfNeeded();
+            matchers.put(userId, matcher);
+        }
+        return matcher;
+    }
+
+    // Called when a user's categories change; the matcher is recompiled on next use once the change is committed
+    public void invalidateUser(Long userId) {
+        afterCommit(() -> {
+            userGenerations.merge(userId, 1L, Long::sum);
+            matchers.remove(userId);
+        });
+    }
+
+    // System categories are shared by every user's matcher
+    public void invalidateAll() {
+        afterCommit(() -> {
+            systemGeneration.incrementAndGet();
+            matchers.clear();
+        });
+    }
+
+    private RulePatternMatcher compile(Long userId) {
+        RulePatternMatcher.Builder builder = RulePatternMatcher.builder();
+        int patterns = addPatterns(builder, categoryRepository.findByIsSystemTrueAndIsActiveTrue(), SYSTEM_PRIORITY)
+                + addPatterns(builder, categoryRepository.findByUserIdAndIsActiveTrue(userId), USER_PRIORITY);
+        log.debug("Compiled {} category rule patterns for user {}", patterns, userId);
+        return patterns > 0 ? builder.build() : RulePatternMatcher.empty();
+    }
+
+    private int addPatterns(RulePatternMatcher.Builder builder, List<Category> categories, int priority) {
+        int count = 0;
+        for (Category category : categories) {
+            for (String pattern : RulePatterns.parse(category.getRulePatterns())) {
+                builder.add(pattern, category.getId(), priority);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Long> users = matchers.keySet().iterator();
+        while (matchers.size() >= maxCachedUsers && users.hasNext()) {
+            users.next();
+            users.remove();
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
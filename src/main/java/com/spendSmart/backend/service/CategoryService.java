@@ -1,6 +1,7 @@
 package com.spendSmart.backend.service;
 
 import com.spendSmart.backend.dto.category.*;
+import com.spendSmart.backend.dto.sync.SyncResponse;
 import com.spendSmart.backend.entity.Category;
 import com.spendSmart.backend.entity.User;
 import com.spendSmart.backend.repository.CategoryRepository;
@@ -11,7 +12,9 @@ import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.annotation.PostConstruct;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,11 +26,18 @@ public class CategoryService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CategorizationService categorizationService;
+
+    @Autowired
+    private ChangeSequenceService changeSequenceService;
+
     @PostConstruct
     @Transactional
     public void initializeSystemCategories() {
         if (categoryRepository.findByIsSystemTrueAndIsActiveTrue().isEmpty()) {
             createSystemCategories();
+            categorizationService.invalidateAll();
         }
     }
 
@@ -45,14 +55,40 @@ public class CategoryService {
                 .collect(Collectors.toList());
     }
 
+    public List<CategoryResponse> getSystemCategories() {
+        return categoryRepository.findByIsSystemTrueAndIsActiveTrue().stream()
+                .map(this::mapToCategoryResponse)
+                .collect(Collectors.toList());
+    }
+
+    // Current state of the given user categories for delta sync; other users' categories are left out
+    public List<CategoryResponse> getCategoriesByIds(Collection<Long> categoryIds, Long userId) {
+        return categoryRepository.findAllById(categoryIds).stream()
+                .filter(category -> category.getUser() != null && category.getUser().getId().equals(userId)
+                        && category.getIsActive())
+                .map(this::mapToCategoryResponse)
+                .collect(Collectors.toList());
+    }
+
+    // Looked up by id so the second-level cache answers; ownership is checked on the cached entity
     public CategoryResponse getCategoryById(Long categoryId, Long userId) {
-        Category category = categoryRepository.findByIdAndUserIdAndIsActiveTrue(categoryId, userId)
-                .or(() -> categoryRepository.findById(categoryId)
-                        .filter(c -> c.getIsSystem() && c.getIsActive()))
+        Category category = categoryRepository.findById(categoryId)
+                .filter(c -> c.getIsActive() && (c.getIsSystem() || isOwnedBy(c, userId)))
                 .orElseThrow(() -> new RuntimeException("Category not found"));
         return mapToCategoryResponse(category);
     }
 
+    /**
+     * The category an expense or recurrence rule may be written against. Ownership is checked on the
+     * cached entity, since a category never changes owner, but whether it is still active is read
+     * from the database: another node may have deleted it within the cache's expiry.
+     */
+    public Optional<Category> findActiveForWrite(Long categoryId, Long userId) {
+        return categoryRepository.findById(categoryId)
+                .filter(c -> c.getIsSystem() || isOwnedBy(c, userId))
+                .filter(c -> c.getIsActive() && categoryRepository.existsByIdAndIsActiveTrue(categoryId));
+    }
+
     @Transactional
     public CategoryResponse createCategory(CategoryCreateRequest request, Long userId) {
         User user = userRepository.findById(userId)
@@ -75,6 +111,8 @@ public class CategoryService {
                 .build();
 
         Category savedCategory = categoryRepository.save(category);
+        categorizationService.invalidateUser(userId);
+        changeSequenceService.recordChange(userId, SyncResponse.EntityType.CATEGORY, savedCategory.getId(), false);
         return mapToCategoryResponse(savedCategory);
     }
 
@@ -105,6 +143,9 @@ public class CategoryService {
         }
 
         Category updatedCategory = categoryRepository.save(category);
+        categorizationService.invalidateUser(userId);
+        changeSequenceService.recordChange(userId, SyncResponse.EntityType.CATEGORY, updatedCategory.getId(),
+                !updatedCategory.getIsActive());
         return mapToCategoryResponse(updatedCategory);
     }
 
@@ -121,32 +162,49 @@ public class CategoryService {
         // Soft delete
         category.setIsActive(false);
         categoryRepository.save(category);
+        categorizationService.invalidateUser(userId);
+        changeSequenceService.recordChange(userId, SyncResponse.EntityType.CATEGORY, categoryId, true);
+    }
+
+    // The user's id is read from the lazy proxy without loading the user
+    static boolean isOwnedBy(Category category, Long userId) {
+        return category.getUser() != null && category.getUser().getId().equals(userId);
     }
 
     private void createSystemCategories() {
         List<Category> systemCategories = Arrays.asList(
-            createSystemCategory("Food & Dining", "#EF4444", "utensils", "Restaurant meals, grocery shopping, food delivery"),
-            createSystemCategory("Transportation", "#3B82F6", "car", "Gas, public transport, taxi, car maintenance"),
-            createSystemCategory("Entertainment", "#8B5CF6", "gamepad", "Movies, concerts, games, subscriptions"),
-            createSystemCategory("Shopping", "#F59E0B", "shopping-bag", "Clothing, electronics, personal items"),
-            createSystemCategory("Bills & Utilities", "#10B981", "receipt", "Electricity, water, internet, phone bills"),
-            createSystemCategory("Healthcare", "#EC4899", "heart", "Doctor visits, medicine, health insurance"),
-            createSystemCategory("Education", "#6366F1", "book", "Tuition, books, courses, training"),
-            createSystemCategory("Travel", "#14B8A6", "plane", "Flights, hotels, vacation expenses"),
-            createSystemCategory("Income", "#22C55E", "dollar-sign", "Salary, freelance, investments"),
-            createSystemCategory("Other", "#6B7280", "more-horizontal", "Miscellaneous expenses")
+            createSystemCategory("Food & Dining", "#EF4444", "utensils", "Restaurant meals, grocery shopping, food delivery",
+                    "restaurant, cafe, coffee, grocery, supermarket, bakery, pizza, burger, doordash, uber eats, starbucks, mcdonald's"),
+            createSystemCategory("Transportation", "#3B82F6", "car", "Gas, public transport, taxi, car maintenance",
+                    "uber, lyft, taxi, fuel, gas station, shell, parking, metro, subway, bus, train, toll"),
+            createSystemCategory("Entertainment", "#8B5CF6", "gamepad", "Movies, concerts, games, subscriptions",
+                    "netflix, spotify, cinema, movie, concert, steam, playstation, xbox, disney+, hulu"),
+            createSystemCategory("Shopping", "#F59E0B", "shopping-bag", "Clothing, electronics, personal items",
+                    "amazon, ebay, walmart, target, ikea, zara, h&m, best buy, apple store"),
+            createSystemCategory("Bills & Utilities", "#10B981", "receipt", "Electricity, water, internet, phone bills",
+                    "electricity, water bill, internet, broadband, phone bill, mobile plan, utility, rent"),
+            createSystemCategory("Healthcare", "#EC4899", "heart", "Doctor visits, medicine, health insurance",
+                    "pharmacy, doctor, dentist, hospital, clinic, medicine, health insurance"),
+            createSystemCategory("Education", "#6366F1", "book", "Tuition, books, courses, training",
+                    "tuition, course, udemy, coursera, bookstore, textbook, school, university"),
+            createSystemCategory("Travel", "#14B8A6", "plane", "Flights, hotels, vacation expenses",
+                    "airline, flight, hotel, airbnb, booking.com, expedia, hostel"),
+            createSystemCategory("Income", "#22C55E", "dollar-sign", "Salary, freelance, investments",
+                    "salary, payroll, dividend, interest, refund, invoice payment"),
+            createSystemCategory("Other", "#6B7280", "more-horizontal", "Miscellaneous expenses", null)
         );
 
         categoryRepository.saveAll(systemCategories);
     }
 
-    private Category createSystemCategory(String name, String color, String icon, String description) {
+    private Category createSystemCategory(String name, String color, String icon, String description, String rulePatterns) {
         return Category.builder()
                 .user(null) // System categories don't belong to any user
                 .name(name)
                 .color(color)
                 .icon(icon)
                 .description(description)
+                .rulePatterns(rulePatterns)
                 .isSystem(true)
                 .isActive(true)
                 .build();
@@ -0,0 +1,210 @@
+package com.spendSmart.backend.service;
+
+import com.spendSmart.backend.categorization.CategorySample;
+import com.spendSmart.backend.categorization.ExpenseTokenizer;
+import com.spendSmart.backend.categorization.NaiveBayesModel;
+import com.spendSmart.backend.dto.category.CategoryResponse;
+import com.spendSmart.backend.dto.category.CategorySuggestionResponse;
+import com.spendSmart.backend.repository.ExpenseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Suggests categories from what a user chose for similar expenses before. Each user gets a
+ * {@link NaiveBayesModel} trained once from their expense history (archived rows included) and then
+ * kept current incrementally as expenses are created, updated and deleted.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CategorySuggestionService {
+
+    private final ExpenseRepository expenseRepository;
+    private final ExpenseArchiveService expenseArchiveService;
+    private final CategorizationService categorizationService;
+    private final CategoryService categoryService;
+    private final Map<Long, TrainedModel> models = new ConcurrentHashMap<>();
+    // Users with a training in progress, and when their latest change since then started committing
+    private final Map<Long, Integer> trainingsInFlight = new ConcurrentHashMap<>();
+    private final Map<Long, Long> lastChangeAt = new ConcurrentHashMap<>();
+
+    @Value("${app.categorization.suggester.max-cached-users:10000}")
+    private int maxCachedUsers;
+
+    @Value("${app.categorization.suggester.min-confidence:0.6}")
+    private double minConfidence;
+
+    @Value("${app.categorization.suggester.min-training-expenses:5}")
+    private int minTrainingExpenses;
+
+    /**
+     * Rule matches come first with full confidence, followed by the model's suggestions. Only
+     * categories that are still active for the user are returned.
+     */
+    public List<CategorySuggestionResponse> suggest(Long userId, String merchant, String description, int limit) {
+        Map<Long, CategoryResponse> categories = categoryService.getUserCategories(userId).stream()
+                .collect(Collectors.toMap(CategoryResponse::getId, Function.identity()));
+        List<CategorySuggestionResponse> suggestions = new ArrayList<>();
+
+        categorizationService.categorize(userId, merchant, description)
+                .map(categories::get)
+                .ifPresent(category -> suggestions.add(toResponse(category, 1.0, CategorySuggestionResponse.Source.RULE)));
+
+        for (NaiveBayesModel.Suggestion suggestion : getModel(userId).suggest(ExpenseTokenizer.tokenize(merchant, description), limit + 1)) {
+            CategoryResponse category = categories.get(suggestion.categoryId());
+            boolean alreadySuggested = suggestions.stream().anyMatch(s -> s.getCategoryId().equals(suggestion.categoryId()));
+            if (category != null && !alreadySuggested) {
+                suggestions.add(toResponse(category, suggestion.probability(), CategorySuggestionResponse.Source.HISTORY));
+            }
+        }
+        return suggestions.size() > limit ? suggestions.subList(0, limit) : suggestions;
+    }
+
+    // The model's best guess, if it is confident enough to be applied without asking the user
+    public Optional<Long> suggestDefault(Long userId, String merchant, String description) {
+        NaiveBayesModel model = getModel(userId);
+        if (model.getDocumentCount() < minTrainingExpenses) {
+            return Optional.empty();
+        }
+        return model.suggest(ExpenseTokenizer.tokenize(merchant, description), 1).stream()
+                .filter(suggestion -> suggestion.probability() >= minConfidence)
+                .map(NaiveBayesModel.Suggestion::categoryId)
+                .findFirst();
+    }
+
+    /**
+     * Applies an expense change to the user's model once the surrounding transaction commits.
+     * {@code before} is null for a new expense and {@code after} is null for a deleted one.
+     */
+    public void recordChange(Long userId, CategorySample before, CategorySample after) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            applyChange(userId, before, after, System.nanoTime());
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private long commitStartedAt;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                commitStartedAt = System.nanoTime();
+            }
+
+            @Override
+            public void afterCommit() {
+                applyChange(userId, before, after, commitStartedAt);
+            }
+        });
+    }
+
+    private void applyChange(Long userId, CategorySample before, CategorySample after, long commitStartedAt) {
+        if (trainingsInFlight.containsKey(userId)) {
+            lastChangeAt.merge(userId, commitStartedAt, Math::max);
+        }
+        TrainedModel trained = models.get(userId);
+        if (trained == null) {
+            return;
+        }
+        if (trained.trainingStartedAt() >= commitStartedAt) {
+            // Training may already have read this change; rebuild rather than count it twice
+            models.remove(userId, trained);
+            return;
+        }
+        if (before != null && before.categoryId() != null) {
+            trained.model().remove(ExpenseTokenizer.tokenize(before.merchant(), before.description()), before.categoryId());
+        }
+        if (after != null && after.categoryId() != null) {
+            trained.model().add(ExpenseTokenizer.tokenize(after.merchant(), after.description()), after.categoryId());
+        }
+    }
+
+    private NaiveBayesModel getModel(Long userId) {
+        TrainedModel trained = models.get(userId);
+        if (trained != null) {
+            return trained.model();
+        }
+
+        trainingsInFlight.merge(userId, 1, Integer::sum);
+        try {
+            return train(userId);
+        } finally {
+            trainingsInFlight.computeIfPresent(userId, (id, count) -> {
+                if (count > 1) {
+                    return count - 1;
+                }
+                lastChangeAt.remove(id);
+                return null;
+            });
+        }
+    }
+
+    private NaiveBayesModel train(Long userId) {
+        long startedAt = System.nanoTime();
+        NaiveBayesModel model = new NaiveBayesModel();
+        List<CategorySample> samples = new ArrayList<>(expenseRepository.findCategorySamplesByUserId(userId));
+        expenseArchiveService.findArchived(userId, null, null).forEach(archived ->
+                samples.add(new CategorySample(archived.merchant(), archived.description(), archived.categoryId())));
+        for (CategorySample sample : samples) {
+            if (sample.categoryId() != null) {
+                model.add(ExpenseTokenizer.tokenize(sample.merchant(), sample.description()), sample.categoryId());
+            }
+        }
+        log.debug("Trained category suggester for user {} on {} expenses ({} bytes)", userId,
+                model.getDocumentCount(), model.memoryBytes());
+
+        if (changedSince(userId, startedAt)) {
+            return model;
+        }
+        evictIfNeeded();
+        TrainedModel candidate = new TrainedModel(model, startedAt);
+        TrainedModel existing = models.putIfAbsent(userId, candidate);
+        if (existing != null) {
+            return existing.model();
+        }
+        // A change committed while caching would have found no model to update
+        if (changedSince(userId, startedAt)) {
+            models.remove(userId, candidate);
+        }
+        return model;
+    }
+
+    private boolean changedSince(Long userId, long startedAt) {
+        Long changedAt = lastChangeAt.get(userId);
+        return changedAt != null && changedAt >= startedAt;
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Long> users = models.keySet().iterator();
+        while (models.size() >= maxCachedUsers && users.hasNext()) {
+            users.next();
+            users.remove();
+        }
+    }
+
+    private static CategorySuggestionResponse toResponse(CategoryResponse category, double confidence,
+                                                         CategorySuggestionResponse.Source source) {
+        return CategorySuggestionResponse.builder()
+                .categoryId(category.getId())
+                .categoryName(category.getName())
+                .categoryColor(category.getColor())
+                .categoryIcon(category.getIcon())
+                .confidence(confidence)
+                .source(source)
+                .build();
+    }
+
+    private record TrainedModel(NaiveBayesModel model, long trainingStartedAt) {
+    }
+}
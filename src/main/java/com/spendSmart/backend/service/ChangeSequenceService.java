@@ -0,0 +1,55 @@
+package com.spendSmart.backend.service;
+
+import com.spendSmart.backend.dto.sync.SyncResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Numbers every change to a user's expenses, wallets, categories and budgets for delta sync.
+ * <p>
+ * Sequence numbers come from the user's row in user_change_sequences via LAST_INSERT_ID, so the
+ * row stays locked until the writing transaction ends. A user's changes therefore commit in
+ * sequence order, and a client that has seen sequence N can never miss a change numbered below N.
+ */
+@Service
+@RequiredArgsConstructor
+public class ChangeSequenceService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LedgerVersionService ledgerVersionService;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChange(Long userId, SyncResponse.EntityType type, Long entityId, boolean deleted) {
+        recordChanges(userId, type, List.of(entityId), deleted);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChanges(Long userId, SyncResponse.EntityType type, Collection<Long> entityIds, boolean deleted) {
+        Set<Long> ids = new LinkedHashSet<>(entityIds);
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update("INSERT INTO user_change_sequences (user_id, last_seq) VALUES (?, LAST_INSERT_ID(?)) " +
+                "ON DUPLICATE KEY UPDATE last_seq = LAST_INSERT_ID(last_seq + ?)", userId, ids.size(), ids.size());
+        long last = jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class);
+        ledgerVersionService.advance(userId, last);
+
+        List<Object[]> rows = new ArrayList<>(ids.size());
+        long seq = last - ids.size();
+        for (Long id : ids) {
+            rows.add(new Object[]{userId, type.name(), id, ++seq, deleted});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO sync_changes (user_id, entity_type, entity_id, seq, deleted, changed_at) " +
+                "VALUES (?, ?, ?, ?, ?, NOW(6)) ON DUPLICATE KEY UPDATE seq = VALUES(seq), deleted = VALUES(deleted), " +
+                "changed_at = VALUES(changed_at)", rows);
+    }
+}
@@ -0,0 +1,475 @@
+package com.spendSmart.backend.service;
+
+import com.spendSmart.backend.archive.ArchivedExpense;
+import com.spendSmart.backend.archive.ExpenseSegment;
+import com.spendSmart.backend.archive.ExpenseSegmentWriter;
+import com.spendSmart.backend.config.DataSourceWorkload;
+import com.spendSmart.backend.entity.Category;
+import com.spendSmart.backend.entity.Expense;
+import com.spendSmart.backend.entity.User;
+import com.spendSmart.backend.entity.Wallet;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Cold storage for old expenses. The archival job moves rows older than the configured age out of
+ * MySQL into immutable segment files; reads merge them back in so callers see one continuous
+ * history. An archived expense that is updated or deleted is first restored into the table.
+ * <p>
+ * Rows are claimed with SELECT ... FOR UPDATE and deleted in the same transaction that registers
+ * their segment in expense_archive_segments, so no concurrent update is lost. Other nodes re-read that
+ * registry at most every app.expenses.archive.registry-refresh-ms, so for that long their listings can
+ * miss rows that were just archived; lookups by id re-read it on a miss. Nodes open registered segments from
+ * app.expenses.archive.directory, which must therefore be shared between them; a registered
+ * segment missing from it stops startup and fails reads instead of silently hiding expenses.
+ */
+@Service
+@Slf4j
+public class ExpenseArchiveService {
+
+    private static final DateTimeFormatter SEGMENT_NAME = DateTimeFormatter.ofPattern("'expenses-'yyyyMMdd-HHmmss'.seg'");
+    private static final int DELETE_BATCH_SIZE = 1000;
+    private static final String LEASE_NAME = "expense-archive";
+    private static final String EXPENSE_COLUMNS = "id, user_id, wallet_id, category_id, amount, currency, " +
+            "transaction_date, merchant, description, tags_json, attachments_json, type, is_recurring, created_at, updated_at";
+
+    private final List<ExpenseSegment> segments = new CopyOnWriteArrayList<>();
+    private final Object segmentsLock = new Object();
+    private final AtomicBoolean archiving = new AtomicBoolean();
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SchedulerLeaseService leaseService;
+    // Looked up lazily: the search index depends on tags, which depend on this service
+    private final ObjectProvider<ExpenseSearchService> expenseSearchService;
+    private volatile long lastSegmentId;
+    private volatile long nextRegistryReadAt;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.expenses.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.expenses.archive.directory:data/archive}")
+    private String directory;
+
+    @Value("${app.expenses.archive.age-months:24}")
+    private int ageMonths;
+
+    @Value("${app.expenses.archive.max-rows-per-run:1000000}")
+    private int maxRowsPerRun;
+
+    @Value("${app.expenses.archive.block-size-bytes:65536}")
+    private int blockSizeBytes;
+
+    @Value("${app.expenses.archive.lease-duration-ms:21600000}")
+    private long leaseDurationMs;
+
+    @Value("${app.expenses.archive.registry-refresh-ms:5000}")
+    private long registryRefreshMs;
+
+    public ExpenseArchiveService(JdbcTemplate jdbcTemplate, DataSource dataSource,
+                                 TransactionTemplate transactionTemplate,
+                                 SchedulerLeaseService leaseService,
+                                 ObjectProvider<ExpenseSearchService> expenseSearchService) {
+        this.jdbcTemplate = jdbcTemplate;
+        // MySQL Connector/J streams rows one at a time instead of buffering the whole result set
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        this.transactionTemplate = transactionTemplate;
+        this.leaseService = leaseService;
+        this.expenseSearchService = expenseSearchService;
+    }
+
+    @PostConstruct
+    public void loadSegments() {
+        refreshSegments(true);
+        log.info("Loaded {} expense archive segments from {}", segments.size(), Paths.get(directory).toAbsolutePath());
+    }
+
+    @PreDestroy
+    public void closeSegments() throws IOException {
+        for (ExpenseSegment segment : segments) {
+            segment.close();
+        }
+    }
+
+    public boolean hasSegments() {
+        refreshSegments(false);
+        return !segments.isEmpty();
+    }
+
+    // Null bounds leave that side of the range open
+    public List<ArchivedExpense> findArchived(Long userId, LocalDate startDate, LocalDate endDate) {
+        refreshSegments(false);
+        if (segments.isEmpty()) {
+            return List.of();
+        }
+        // A row archived again after a restore is returned once, as its newest copy
+        Map<Long, ArchivedExpense> byId = new LinkedHashMap<>();
+        for (ExpenseSegment segment : segments) {
+            try {
+                segment.find(userId, startDate, endDate).forEach(expense -> byId.put(expense.id(), expense));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read archive segment " + segment.getPath(), e);
+            }
+        }
+        if (!byId.isEmpty()) {
+            byId.keySet().removeAll(jdbcTemplate.queryForList(
+                    "SELECT expense_id FROM expense_archive_restores WHERE user_id = ?", Long.class, userId));
+        }
+        return new ArrayList<>(byId.values());
+    }
+
+    public Optional<Expense> findArchivedExpense(Long userId, Long expenseId) {
+        return findArchivedById(userId, expenseId).map(this::toExpense);
+    }
+
+    // The user's archived expenses among the given ids, looked up through the segment id indexes
+    public List<Expense> findArchivedExpenses(Long userId, Collection<Long> expenseIds) {
+        if (expenseIds.isEmpty()) {
+            return List.of();
+        }
+        refreshSegments(false);
+        List<ArchivedExpense> archived = new ArrayList<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long expenseId : expenseIds) {
+            findInSegments(userId, expenseId).ifPresentOrElse(archived::add, () -> missing.add(expenseId));
+        }
+        // Another node may have archived some of them since the registry was last read
+        if (!missing.isEmpty() && refreshSegments(true)) {
+            for (Long expenseId : missing) {
+                findInSegments(userId, expenseId).ifPresent(archived::add);
+            }
+        }
+        if (!archived.isEmpty()) {
+            Set<Long> restored = new HashSet<>(jdbcTemplate.queryForList(
+                    "SELECT expense_id FROM expense_archive_restores WHERE user_id = ?", Long.class, userId));
+            archived.removeIf(expense -> restored.contains(expense.id()));
+        }
+        return archived.stream().map(this::toExpense).toList();
+    }
+
+    /**
+     * Puts an archived expense back into the expenses table, in the caller's transaction, so it can be
+     * updated or deleted like any other. Its archived copies are ignored from then on. Returns false
+     * if the user has no such archived expense.
+     */
+    public boolean restore(Long userId, Long expenseId) {
+        Optional<ArchivedExpense> archived = findArchivedById(userId, expenseId);
+        if (archived.isEmpty()) {
+            return false;
+        }
+        ArchivedExpense expense = archived.get();
+        jdbcTemplate.update("INSERT INTO expenses (" + EXPENSE_COLUMNS + ") " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                expense.id(), expense.userId(), expense.walletId(), expense.categoryId(), expense.amount(),
+                expense.currency(), Date.valueOf(expense.transactionDate()), expense.merchant(), expense.description(),
+                expense.tagsJson(), expense.attachmentsJson(), expense.type() != null ? expense.type().name() : null,
+                expense.isRecurring(), Timestamp.valueOf(expense.createdAt()), Timestamp.valueOf(expense.updatedAt()));
+        jdbcTemplate.update("INSERT IGNORE INTO expense_archive_restores (expense_id, user_id, created_at) " +
+                "VALUES (?, ?, NOW(6))", expenseId, userId);
+        log.info("Restored archived expense {} for user {}", expenseId, userId);
+        return true;
+    }
+
+    /**
+     * Adds the user's archived expenses in the range to rows read from the database, newest first.
+     * Rows still present in the database win over their archived copy.
+     */
+    public List<Expense> mergeArchived(List<Expense> expenses, Long userId, LocalDate startDate, LocalDate endDate) {
+        return mergeArchived(expenses, userId, startDate, endDate, expense -> true);
+    }
+
+    public List<Expense> mergeArchived(List<Expense> expenses, Long userId, LocalDate startDate, LocalDate endDate,
+                                       Predicate<ArchivedExpense> filter) {
+        List<ArchivedExpense> archived = findArchived(userId, startDate, endDate).stream().filter(filter).toList();
+        if (archived.isEmpty()) {
+            return expenses;
+        }
+
+        Set<Long> liveIds = expenses.stream().map(Expense::getId).collect(Collectors.toCollection(HashSet::new));
+        List<Expense> merged = new ArrayList<>(expenses);
+        archived.stream()
+                .filter(expense -> !liveIds.contains(expense.id()))
+                .map(this::toExpense)
+                .forEach(merged::add);
+        merged.sort(Comparator.comparing(Expense::getTransactionDate).reversed());
+        return merged;
+    }
+
+    @Scheduled(cron = "${app.expenses.archive.cron:0 30 3 * * SUN}")
+    public void archiveOldExpenses() {
+        if (!enabled || !archiving.compareAndSet(false, true)) {
+            return;
+        }
+        // Bulk reads and deletes are charged to the analytics pool, away from interactive traffic
+        DataSourceWorkload.set(DataSourceWorkload.ANALYTICS);
+        try {
+            if (!leaseService.tryAcquire(LEASE_NAME, Duration.ofMillis(leaseDurationMs))) {
+                log.debug("Expense archive lease is held by another node, skipping this run");
+                return;
+            }
+            try {
+                archive(LocalDate.now().minusMonths(ageMonths).withDayOfMonth(1));
+            } finally {
+                leaseService.release(LEASE_NAME);
+            }
+        } catch (Exception e) {
+            log.error("Expense archival failed: {}", e.getMessage(), e);
+        } finally {
+            DataSourceWorkload.clear();
+            archiving.set(false);
+        }
+    }
+
+    private void archive(LocalDate cutoff) throws IOException {
+        Path archiveDirectory = Files.createDirectories(Paths.get(directory));
+        deleteUnfinishedSegments(archiveDirectory);
+        Path target = archiveDirectory.resolve(LocalDateTime.now().format(SEGMENT_NAME));
+
+        long archived;
+        try {
+            archived = transactionTemplate.execute(status -> {
+                try {
+                    return moveToSegment(target, cutoff);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            // An unregistered segment copied rows that are still in the table
+            if (!isRegistered(target)) {
+                Files.deleteIfExists(target);
+            }
+            throw e;
+        }
+
+        if (archived == 0) {
+            log.info("No expenses older than {} to archive", cutoff);
+            return;
+        }
+        refreshSegments(true);
+        log.info("Archived {} expenses older than {} into {}", archived, cutoff, target.getFileName());
+    }
+
+    /**
+     * Copies the oldest rows into a new segment and deletes them, all in the current transaction. The
+     * rows stay locked from the moment they are read until the delete commits, so an update either
+     * lands before they are read or waits and then finds them archived.
+     */
+    private long moveToSegment(Path target, LocalDate cutoff) throws IOException {
+        Map<Long, List<Long>> archivedIds = new LinkedHashMap<>();
+        try (ExpenseSegmentWriter writer = new ExpenseSegmentWriter(target, blockSizeBytes)) {
+            streamingJdbcTemplate.query("SELECT " + EXPENSE_COLUMNS + " FROM expenses WHERE transaction_date < ? " +
+                            "ORDER BY user_id, transaction_date, id LIMIT ? FOR UPDATE",
+                    rs -> {
+                        String type = rs.getString("type");
+                        boolean recurring = rs.getBoolean("is_recurring");
+                        boolean recurringUnset = rs.wasNull();
+                        ArchivedExpense expense = new ArchivedExpense(
+                                rs.getLong("id"),
+                                rs.getLong("user_id"),
+                                rs.getLong("wallet_id"),
+                                rs.getLong("category_id"),
+                                rs.getBigDecimal("amount"),
+                                rs.getString("currency"),
+                                rs.getDate("transaction_date").toLocalDate(),
+                                rs.getString("merchant"),
+                                rs.getString("description"),
+                                rs.getString("tags_json"),
+                                rs.getString("attachments_json"),
+                                type != null ? Expense.ExpenseType.valueOf(type) : null,
+                                recurringUnset ? null : recurring,
+                                rs.getTimestamp("created_at").toLocalDateTime(),
+                                rs.getTimestamp("updated_at").toLocalDateTime());
+                        try {
+                            writer.append(expense);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        archivedIds.computeIfAbsent(expense.userId(), id -> new ArrayList<>()).add(expense.id());
+                    },
+                    Date.valueOf(cutoff), maxRowsPerRun);
+
+            if (writer.getRowCount() == 0) {
+                return 0;
+            }
+            // The segment is durable before any row leaves the database
+            writer.finish();
+
+            List<Long> ids = archivedIds.values().stream().flatMap(List::stream).toList();
+            for (int from = 0; from < ids.size(); from += DELETE_BATCH_SIZE) {
+                String batch = ids.subList(from, Math.min(from + DELETE_BATCH_SIZE, ids.size())).stream()
+                        .map(String::valueOf)
+                        .collect(Collectors.joining(","));
+                jdbcTemplate.update("DELETE FROM expense_tags WHERE expense_id IN (" + batch + ")");
+                jdbcTemplate.update("DELETE FROM expenses WHERE transaction_date < ? AND id IN (" + batch + ")",
+                        Date.valueOf(cutoff));
+                // Rows archived again supersede the copies their restore had hidden
+                jdbcTemplate.update("DELETE FROM expense_archive_restores WHERE expense_id IN (" + batch + ")");
+            }
+            jdbcTemplate.update("INSERT INTO expense_archive_segments (file_name, row_count, created_at) " +
+                    "VALUES (?, ?, NOW(6))", target.getFileName().toString(), writer.getRowCount());
+
+            // Search covers live expenses only; the affected users are reindexed once this transaction commits
+            ExpenseSearchService search = expenseSearchService.getObject();
+            archivedIds.keySet().forEach(search::invalidateUser);
+            return writer.getRowCount();
+        }
+    }
+
+    /**
+     * Opens the segments registered since the last read, in the order they were written. Unless forced,
+     * the registry is read at most once per refresh interval. Returns whether any segment was opened.
+     */
+    private boolean refreshSegments(boolean force) {
+        long now = System.currentTimeMillis();
+        if (!force && now < nextRegistryReadAt) {
+            return false;
+        }
+        nextRegistryReadAt = now + registryRefreshMs;
+        List<RegisteredSegment> registered = jdbcTemplate.query(
+                "SELECT id, file_name FROM expense_archive_segments WHERE id > ? ORDER BY id",
+                (rs, rowNum) -> new RegisteredSegment(rs.getLong("id"), rs.getString("file_name")),
+                lastSegmentId);
+        if (registered.isEmpty()) {
+            return false;
+        }
+        boolean opened = false;
+        synchronized (segmentsLock) {
+            Path archiveDirectory = Paths.get(directory);
+            for (RegisteredSegment segment : registered) {
+                if (segment.id() <= lastSegmentId) {
+                    continue;
+                }
+                Path file = archiveDirectory.resolve(segment.fileName());
+                if (!Files.isRegularFile(file)) {
+                    throw new IllegalStateException("Archive segment " + segment.fileName() + " is registered but missing from "
+                            + archiveDirectory.toAbsolutePath() + "; app.expenses.archive.directory must be shared by every node");
+                }
+                try {
+                    segments.add(new ExpenseSegment(file));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to open archive segment " + file, e);
+                }
+                lastSegmentId = segment.id();
+                opened = true;
+            }
+        }
+        return opened;
+    }
+
+    // Only the lease holder writes segments, so temporary files are leftovers of an interrupted run
+    private void deleteUnfinishedSegments(Path archiveDirectory) throws IOException {
+        try (Stream<Path> files = Files.list(archiveDirectory)) {
+            for (Path file : files.filter(file -> file.getFileName().toString().endsWith(".seg.tmp")).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private boolean isRegistered(Path segment) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expense_archive_segments WHERE file_name = ?",
+                Integer.class, segment.getFileName().toString());
+        return count != null && count > 0;
+    }
+
+    private Optional<ArchivedExpense> findArchivedById(Long userId, Long expenseId) {
+        Optional<ArchivedExpense> archived = findInSegments(userId, expenseId);
+        // Another node may have archived it since the registry was last read
+        if (archived.isEmpty() && refreshSegments(true)) {
+            archived = findInSegments(userId, expenseId);
+        }
+        if (archived.isEmpty() || isRestored(expenseId)) {
+            return Optional.empty();
+        }
+        return archived;
+    }
+
+    // Newest segment first, so a row archived again after a restore is found as its latest copy
+    private Optional<ArchivedExpense> findInSegments(Long userId, Long expenseId) {
+        List<ExpenseSegment> snapshot = new ArrayList<>(segments);
+        for (int i = snapshot.size() - 1; i >= 0; i--) {
+            ExpenseSegment segment = snapshot.get(i);
+            if (!segment.contains(expenseId)) {
+                continue;
+            }
+            try {
+                Optional<ArchivedExpense> archived = segment.findById(userId, expenseId);
+                if (archived.isPresent()) {
+                    return archived;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read archive segment " + segment.getPath(), e);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private boolean isRestored(Long expenseId) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expense_archive_restores WHERE expense_id = ?",
+                Integer.class, expenseId);
+        return count != null && count > 0;
+    }
+
+    private Expense toExpense(ArchivedExpense archived) {
+        return Expense.builder()
+                .id(archived.id())
+                .user(entityManager.getReference(User.class, archived.userId()))
+                .wallet(entityManager.getReference(Wallet.class, archived.walletId()))
+                .category(entityManager.getReference(Category.class, archived.categoryId()))
+                .amount(archived.amount())
+                .currency(archived.currency())
+                .transactionDate(archived.transactionDate())
+                .merchant(archived.merchant())
+                .description(archived.description())
+                .tagsJson(archived.tagsJson())
+                .attachmentsJson(archived.attachmentsJson())
+                .type(archived.type())
+                .isRecurring(archived.isRecurring())
+                .createdAt(archived.createdAt())
+                .updatedAt(archived.updatedAt())
+                .build();
+    }
+
+    private record RegisteredSegment(long id, String fileName) {
+    }
+}
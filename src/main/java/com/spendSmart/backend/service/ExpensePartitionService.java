@@ -0,0 +1,135 @@
+package com.spendSmart.backend.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Maintains the monthly partitions of the expenses table: future months are split off the
+ * catch-all pfuture partition ahead of time, and months past the retention period are dropped
+ * once the archiver has moved every row out of them. A month that still holds rows is kept and
+ * reported, so enabling retention never deletes expenses that were not archived.
+ * <p>
+ * The DDL runs under a database lease, so only one node reorganizes or drops partitions at a time;
+ * partitions are re-read after taking it, so a node that lost the race finds nothing left to do.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExpensePartitionService {
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+    private static final String FUTURE_PARTITION = "pfuture";
+    private static final String LEASE_NAME = "expense-partitions";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SchedulerLeaseService leaseService;
+
+    @Value("${app.expenses.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    // 0 keeps every partition
+    @Value("${app.expenses.partitions.retention-months:0}")
+    private int retentionMonths;
+
+    @Value("${app.expenses.partitions.lease-duration-ms:600000}")
+    private long leaseDurationMs;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintainPartitions();
+    }
+
+    @Scheduled(cron = "${app.expenses.partitions.maintenance-cron:0 0 3 * * *}")
+    public void maintainPartitions() {
+        try {
+            if (!leaseService.tryAcquire(LEASE_NAME, Duration.ofMillis(leaseDurationMs))) {
+                log.debug("Expense partition lease is held by another node, skipping maintenance");
+                return;
+            }
+            try {
+                List<YearMonth> months = getMonthlyPartitions();
+                if (months.isEmpty()) {
+                    log.warn("Expenses table is not partitioned, skipping partition maintenance");
+                    return;
+                }
+                createFuturePartitions(months.get(months.size() - 1));
+                if (retentionMonths > 0) {
+                    dropPartitionsBefore(months, YearMonth.now().minusMonths(retentionMonths));
+                }
+            } finally {
+                leaseService.release(LEASE_NAME);
+            }
+        } catch (DataAccessException e) {
+            // The next run will catch up
+            log.error("Expense partition maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    public List<YearMonth> getMonthlyPartitions() {
+        return jdbcTemplate.queryForList(
+                        "SELECT PARTITION_NAME FROM information_schema.PARTITIONS " +
+                        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'expenses' AND PARTITION_NAME IS NOT NULL " +
+                        "ORDER BY PARTITION_ORDINAL_POSITION", String.class)
+                .stream()
+                .map(ExpensePartitionService::parseMonth)
+                .flatMap(Optional::stream)
+                .toList();
+    }
+
+    private void createFuturePartitions(YearMonth lastMonth) {
+        YearMonth target = YearMonth.now().plusMonths(monthsAhead);
+        for (YearMonth month = lastMonth.plusMonths(1); !month.isAfter(target); month = month.plusMonths(1)) {
+            // Only rows dated beyond every existing month live in pfuture, so splitting it is cheap
+            jdbcTemplate.execute("ALTER TABLE expenses REORGANIZE PARTITION " + FUTURE_PARTITION + " INTO (" +
+                    "PARTITION " + month.format(PARTITION_NAME) + " VALUES LESS THAN ('" + month.plusMonths(1).atDay(1) + "'), " +
+                    "PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN (MAXVALUE))");
+            log.info("Created expenses partition {}", month.format(PARTITION_NAME));
+        }
+    }
+
+    // The newest monthly partition is never dropped, so there is always one holding older rows
+    private void dropPartitionsBefore(List<YearMonth> months, YearMonth cutoff) {
+        List<String> candidates = months.subList(0, months.size() - 1).stream()
+                .filter(month -> month.isBefore(cutoff))
+                .map(month -> month.format(PARTITION_NAME))
+                .toList();
+        List<String> expired = candidates.stream().filter(this::isEmpty).toList();
+        if (expired.size() < candidates.size()) {
+            log.warn("Keeping expired expenses partitions that still hold rows, the archiver has not emptied them: {}",
+                    candidates.stream().filter(name -> !expired.contains(name)).toList());
+        }
+        if (expired.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE expenses DROP PARTITION " + String.join(", ", expired));
+        log.info("Dropped expired expenses partitions {}", expired);
+    }
+
+    // Reads at most one row, pruned to the single partition
+    private boolean isEmpty(String partition) {
+        return jdbcTemplate.queryForList("SELECT 1 FROM expenses PARTITION (" + partition + ") LIMIT 1",
+                Integer.class).isEmpty();
+    }
+
+    private static Optional<YearMonth> parseMonth(String partitionName) {
+        try {
+            return Optional.of(YearMonth.parse(partitionName, PARTITION_NAME));
+        } catch (DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.spendSmart.backend.service;
+
+import com.spendSmart.backend.config.DataSourceWorkload;
+import com.spendSmart.backend.entity.Expense;
+import com.spendSmart.backend.search.SearchDocument;
+import com.spendSmart.backend.search.UserSearchIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Full-text search over expenses, served entirely from memory. Each user has an inverted index
+ * built from MySQL once, either for all users at startup (in parallel) or lazily on the user's
+ * first search, and kept current by expense writes after they commit. An on-demand load runs
+ * outside the index map, and writes committed while it runs are applied once it is in place.
+ * <p>
+ * The index reflects writes made through this instance only, like the other in-process caches.
+ */
+@Service
+@Slf4j
+public class ExpenseSearchService {
+
+    private static final String SELECT_DOCUMENTS = "SELECT id, user_id, wallet_id, category_id, amount, currency, " +
+            "transaction_date, merchant, description, tags_json, type FROM expenses ";
+
+    private final Map<Long, UserSearchIndex> indexes = new ConcurrentHashMap<>();
+    // Users whose index is being loaded on demand; concurrent first searches share the load
+    private final Map<Long, CompletableFuture<UserSearchIndex>> loading = new ConcurrentHashMap<>();
+    private final List<Runnable> pendingChanges = new ArrayList<>();
+    private final Object pendingLock = new Object();
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TagService tagService;
+    private volatile boolean ready;
+
+    @Value("${app.search.preload:true}")
+    private boolean preload;
+
+    @Value("${app.search.rebuild-threads:4}")
+    private int rebuildThreads;
+
+    @Value("${app.search.rebuild-queue-capacity:16}")
+    private int rebuildQueueCapacity;
+
+    public ExpenseSearchService(JdbcTemplate jdbcTemplate, DataSource dataSource, TagService tagService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        this.tagService = tagService;
+    }
+
+    public List<UserSearchIndex.SearchHit> search(Long userId, String query, int limit) {
+        if (!ready) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Search index is still loading, try again shortly");
+        }
+        UserSearchIndex index = indexes.get(userId);
+        return (index != null ? index : loadUser(userId)).search(query, limit);
+    }
+
+    public void index(Long userId, Expense expense) {
+        SearchDocument document = toDocument(expense);
+        afterCommit(() -> applyToUser(userId, index -> index.put(document)));
+    }
+
+    public void remove(Long userId, Long expenseId) {
+        afterCommit(() -> applyToUser(userId, index -> index.remove(expenseId)));
+    }
+
+    // For bulk writes made outside ExpenseService: the user's index is reloaded on their next search
+    public void invalidateUser(Long userId) {
+        afterCommit(() -> {
+            indexes.remove(userId);
+            CompletableFuture<UserSearchIndex> load = loading.get(userId);
+            if (load != null) {
+                load.thenAccept(index -> indexes.remove(userId, index));
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (!preload) {
+            ready = true;
+            return;
+        }
+        Thread.ofPlatform().name("search-index-rebuild").daemon().start(this::rebuild);
+    }
+
+    /**
+     * Streams every expense once, ordered by user, and builds the users' indexes on a small pool.
+     * Changes committed meanwhile are queued and replayed on top once the rebuild is done. The pool's
+     * queue is bounded: once it is full the streaming thread builds the next user itself, so only a
+     * few users' documents are held in memory at a time.
+     */
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        ExecutorService pool = new ThreadPoolExecutor(rebuildThreads, rebuildThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(rebuildQueueCapacity), Thread.ofPlatform().name("search-index-", 0).factory(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        DataSourceWorkload.set(DataSourceWorkload.ANALYTICS);
+        try {
+            List<SearchDocument> batch = new ArrayList<>();
+            long[] currentUser = {-1};
+            streamingJdbcTemplate.query(SELECT_DOCUMENTS + "ORDER BY user_id, id", rs -> {
+                long userId = rs.getLong("user_id");
+                if (userId != currentUser[0] && !batch.isEmpty()) {
+                    submitBuild(pool, currentUser[0], List.copyOf(batch));
+                    batch.clear();
+                }
+                currentUser[0] = userId;
+                batch.add(documentMapper().mapRow(rs, 0));
+            });
+            if (!batch.isEmpty()) {
+                submitBuild(pool, currentUser[0], List.copyOf(batch));
+            }
+            pool.shutdown();
+            pool.awaitTermination(1, TimeUnit.HOURS);
+            log.info("Built search indexes for {} users in {} ms", indexes.size(), System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            log.error("Search index rebuild failed, falling back to loading users on demand: {}", e.getMessage(), e);
+            indexes.clear();
+        } finally {
+            pool.shutdownNow();
+            DataSourceWorkload.clear();
+            synchronized (pendingLock) {
+                pendingChanges.forEach(Runnable::run);
+                pendingChanges.clear();
+                ready = true;
+            }
+        }
+    }
+
+    private void submitBuild(ExecutorService pool, long userId, List<SearchDocument> documents) {
+        pool.execute(() -> {
+            UserSearchIndex index = new UserSearchIndex();
+            documents.forEach(index::put);
+            indexes.put(userId, index);
+        });
+    }
+
+    private UserSearchIndex loadUser(Long userId) {
+        CompletableFuture<UserSearchIndex> load = new CompletableFuture<>();
+        CompletableFuture<UserSearchIndex> running = loading.putIfAbsent(userId, load);
+        if (running != null) {
+            return running.join();
+        }
+        try {
+            UserSearchIndex index = new UserSearchIndex();
+            jdbcTemplate.query(SELECT_DOCUMENTS + "WHERE user_id = ?", documentMapper(), userId).forEach(index::put);
+            UserSearchIndex existing = indexes.putIfAbsent(userId, index);
+            UserSearchIndex loaded = existing != null ? existing : index;
+            // Writes that committed during the query were chained onto the load and run now
+            load.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(userId, load);
+        }
+    }
+
+    // Changes are idempotent, so one that reaches an index twice while a load completes is harmless
+    private void applyToUser(Long userId, Consumer<UserSearchIndex> change) {
+        UserSearchIndex index = indexes.get(userId);
+        if (index != null) {
+            change.accept(index);
+            return;
+        }
+        CompletableFuture<UserSearchIndex> load = loading.get(userId);
+        if (load != null) {
+            load.thenAccept(change);
+            return;
+        }
+        // The load may have finished between the two lookups
+        index = indexes.get(userId);
+        if (index != null) {
+            change.accept(index);
+        }
+    }
+
+    private void afterCommit(Runnable change) {
+        Runnable apply = () -> {
+            synchronized (pendingLock) {
+                if (!ready) {
+                    pendingChanges.add(change);
+                    return;
+                }
+            }
+            change.run();
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    private RowMapper<SearchDocument> documentMapper() {
+        return (rs, rowNum) -> {
+            String type = rs.getString("type");
+            return new SearchDocument(
+                    rs.getLong("id"),
+                    rs.getLong("wallet_id"),
+                    rs.getLong("category_id"),
+                    rs.getBigDecimal("amount"),
+                    rs.getString("currency"),
+                    rs.getDate("transaction_date").toLocalDate(),
+                    rs.getString("merchant"),
+                    rs.getString("description"),
+                    tagService.parseTags(rs.getString("tags_json")),
+                    type != null ? Expense.ExpenseType.valueOf(type) : null);
+        };
+    }
+
+    private SearchDocument toDocument(Expense expense) {
+        return new SearchDocument(
+                expense.getId(),
+                expense.getWallet().getId(),
+                expense.getCategory().getId(),
+                expense.getAmount(),
+                expense.getCurrency(),
+                expense.getTransactionDate(),
+                expense.getMerchant(),
+                expense.getDescription(),
+                tagService.parseTags(expense.getTagsJson()),
+                expense.getType());
+    }
+}
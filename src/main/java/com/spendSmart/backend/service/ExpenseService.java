@@ -1,21 +1,46 @@
 package com.spendSmart.backend.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spendSmart.backend.archive.ArchivedExpense;
+import com.spendSmart.backend.categorization.CategorySample;
+import com.spendSmart.backend.dto.category.CategoryResponse;
 import com.spendSmart.backend.dto.expense.*;
+import com.spendSmart.backend.dto.stream.LedgerChangeEvent;
+import com.spendSmart.backend.dto.sync.SyncResponse;
+import com.spendSmart.backend.dto.wallet.WalletResponse;
 import com.spendSmart.backend.entity.Category;
 import com.spendSmart.backend.entity.Expense;
 import com.spendSmart.backend.entity.User;
 import com.spendSmart.backend.entity.Wallet;
-import com.spendSmart.backend.repository.CategoryRepository;
+import com.spendSmart.backend.exception.ValidationException;
 import com.spendSmart.backend.repository.ExpenseRepository;
+import com.spendSmart.backend.repository.ExpenseSpecifications;
 import com.spendSmart.backend.repository.UserRepository;
 import com.spendSmart.backend.repository.WalletRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,9 +55,6 @@ public class ExpenseService {
     @Autowired
     private WalletRepository walletRepository;
 
-    @Autowired
-    private CategoryRepository categoryRepository;
-
     @Autowired
     private WalletService walletService;
 
@@ -42,26 +64,298 @@ public class ExpenseService {
     @Autowired
     private BudgetService budgetService;
 
+    @Autowired
+    private AnalyticsResultCache analyticsResultCache;
+
+    @Autowired
+    private ExpenseArchiveService expenseArchiveService;
+
+    @Autowired
+    private CategorizationService categorizationService;
+
+    @Autowired
+    private CategorySuggestionService categorySuggestionService;
+
+    @Autowired
+    private ExpenseSearchService expenseSearchService;
+
+    @Autowired
+    private TagService tagService;
+
+    @Autowired
+    private WebhookService webhookService;
+
+    @Autowired
+    private LedgerStreamService ledgerStreamService;
+
+    @Autowired
+    private ChangeSequenceService changeSequenceService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.streaming.chunk-size:500}")
+    private int streamChunkSize;
+
     public List<ExpenseResponse> getUserExpenses(Long userId) {
-        List<Expense> expenses = expenseRepository.findByUserIdOrderByTransactionDateDesc(userId);
-        return expenses.stream()
-                .map(this::mapToExpenseResponse)
-                .collect(Collectors.toList());
+        return mapToExpenseResponses(findUserExpenses(userId), new HashMap<>(), new HashMap<>());
     }
 
     public List<ExpenseResponse> getExpensesByDateRange(Long userId, LocalDate startDate, LocalDate endDate) {
-        List<Expense> expenses = expenseRepository.findByUserIdAndTransactionDateBetween(userId, startDate, endDate);
-        return expenses.stream()
-                .map(this::mapToExpenseResponse)
+        return mapToExpenseResponses(findExpensesByDateRange(userId, startDate, endDate), new HashMap<>(), new HashMap<>());
+    }
+
+    /**
+     * The compact view of the user's expenses, selected like the full listings: by tag when one is
+     * given, otherwise by date range when both dates are, otherwise the whole history.
+     */
+    public CompactExpenseListResponse getCompactExpenses(Long userId, LocalDate startDate, LocalDate endDate, String tag,
+                                                         Set<ExpenseField> fields) {
+        List<Expense> expenses;
+        if (tag != null && !tag.isBlank()) {
+            expenses = findExpensesByTag(userId, tag, startDate, endDate);
+        } else if (startDate != null && endDate != null) {
+            expenses = findExpensesByDateRange(userId, startDate, endDate);
+        } else {
+            expenses = findUserExpenses(userId);
+        }
+        return toCompactList(expenses, null, fields);
+    }
+
+    /**
+     * Writes the user's expenses as a JSON array, newest first, without building the whole list.
+     * Rows are read in keyset-paginated chunks and each chunk is written and flushed before the next
+     * is read. Null dates leave that side of the range open. Archived expenses are read per chunk,
+     * for the dates between the previous chunk's cursor and the chunk's last row, and merged in.
+     */
+    public void writeExpenses(Long userId, LocalDate startDate, LocalDate endDate, OutputStream out) throws IOException {
+        ExpenseFilterRequest range = new ExpenseFilterRequest();
+        range.setStartDate(startDate);
+        range.setEndDate(endDate);
+        Comparator<Expense> newestFirst = Comparator.comparing(Expense::getTransactionDate)
+                .thenComparing(Expense::getId)
+                .reversed();
+        Map<Long, WalletResponse> wallets = new HashMap<>();
+        Map<Long, CategoryResponse> categories = new HashMap<>();
+
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            ExpenseCursor cursor = null;
+            boolean full;
+            do {
+                List<Expense> chunk = expenseRepository.findBy(toSpecification(userId, range, null, cursor),
+                        query -> query.sortBy(Sort.by(Sort.Order.desc("transactionDate"), Sort.Order.desc("id")))
+                                .limit(streamChunkSize)
+                                .all());
+                full = chunk.size() == streamChunkSize;
+                Expense last = chunk.isEmpty() ? null : chunk.get(chunk.size() - 1);
+                ExpenseCursor after = cursor;
+                ExpenseCursor through = full ? new ExpenseCursor(last.getTransactionDate(), last.getId()) : null;
+                // Archived rows sorting after the chunk's last row share its date at most, and are
+                // read again with the next chunk; rows still present in the database win over their copy
+                List<Expense> rows = new ArrayList<>(expenseArchiveService.mergeArchived(chunk, userId,
+                        full ? last.getTransactionDate() : startDate,
+                        cursor != null ? cursor.transactionDate() : endDate,
+                        archived -> (after == null || sortsAfter(archived, after))
+                                && (through == null || !sortsAfter(archived, through))));
+                rows.sort(newestFirst);
+                for (ExpenseResponse response : mapToExpenseResponses(rows, wallets, categories)) {
+                    generator.writeObject(response);
+                }
+                generator.flush();
+
+                cursor = through;
+                // A persistence context bound by the caller would otherwise keep every row written so far
+                entityManager.clear();
+            } while (full);
+            generator.writeEndArray();
+        }
+    }
+
+    // Without both dates the whole history is listed
+    public List<ExpenseResponse> getExpensesByTag(Long userId, String tag, LocalDate startDate, LocalDate endDate) {
+        return mapToExpenseResponses(findExpensesByTag(userId, tag, startDate, endDate), new HashMap<>(), new HashMap<>());
+    }
+
+    private List<Expense> findUserExpenses(Long userId) {
+        return expenseArchiveService.mergeArchived(
+                expenseRepository.findByUserIdOrderByTransactionDateDesc(userId), userId, null, null);
+    }
+
+    private List<Expense> findExpensesByDateRange(Long userId, LocalDate startDate, LocalDate endDate) {
+        return expenseArchiveService.mergeArchived(
+                expenseRepository.findByUserIdAndTransactionDateBetween(userId, startDate, endDate),
+                userId, startDate, endDate);
+    }
+
+    private List<Expense> findExpensesByTag(Long userId, String tag, LocalDate startDate, LocalDate endDate) {
+        boolean ranged = startDate != null && endDate != null;
+        List<Expense> live = tagService.findTagId(userId, tag)
+                .map(tagId -> ranged
+                        ? expenseRepository.findByUserIdAndTagIdAndTransactionDateBetween(userId, tagId, startDate, endDate)
+                        : expenseRepository.findByUserIdAndTagId(userId, tagId))
+                .orElse(List.of());
+        return expenseArchiveService.mergeArchived(live, userId,
+                ranged ? startDate : null, ranged ? endDate : null,
+                archived -> tagService.hasTag(archived.tagsJson(), tag));
+    }
+
+    /**
+     * One page of the user's expenses matching every given filter, newest first. Pages are keyset
+     * paginated on (transactionDate, id); archived expenses are filtered in memory and merged in.
+     */
+    public ExpensePageResponse filterExpenses(Long userId, ExpenseFilterRequest filter) {
+        return filterExpenses(userId, filter, new HashMap<>(), new HashMap<>());
+    }
+
+    // Wallets and categories already in the lookup maps are not loaded again; missing ones are added
+    public ExpensePageResponse filterExpenses(Long userId, ExpenseFilterRequest filter,
+                                              Map<Long, WalletResponse> wallets, Map<Long, CategoryResponse> categories) {
+        ExpensePage page = findPage(userId, filter);
+        return ExpensePageResponse.builder()
+                .items(mapToExpenseResponses(page.items(), wallets, categories))
+                .nextCursor(page.nextCursor())
+                .build();
+    }
+
+    // The same page as filterExpenses, in the compact view
+    public CompactExpenseListResponse filterCompactExpenses(Long userId, ExpenseFilterRequest filter,
+                                                            Set<ExpenseField> fields) {
+        ExpensePage page = findPage(userId, filter);
+        return toCompactList(page.items(), page.nextCursor(), fields);
+    }
+
+    private ExpensePage findPage(Long userId, ExpenseFilterRequest filter) {
+        if (filter.getMinAmount() != null && filter.getMaxAmount() != null
+                && filter.getMinAmount().compareTo(filter.getMaxAmount()) > 0) {
+            throw new ValidationException("Minimum amount must not exceed maximum amount");
+        }
+        if (filter.getStartDate() != null && filter.getEndDate() != null
+                && filter.getEndDate().isBefore(filter.getStartDate())) {
+            throw new ValidationException("End date must be after start date");
+        }
+        int limit = filter.getLimit() != null ? filter.getLimit() : 50;
+        ExpenseCursor cursor = filter.getCursor() != null ? ExpenseCursor.decode(filter.getCursor()) : null;
+
+        Optional<Long> tagId = filter.getTag() != null
+                ? tagService.findTagId(userId, filter.getTag())
+                : Optional.empty();
+        List<Expense> live = filter.getTag() != null && tagId.isEmpty()
+                ? List.of()
+                : expenseRepository.findBy(toSpecification(userId, filter, tagId.orElse(null), cursor),
+                        query -> query.sortBy(Sort.by(Sort.Order.desc("transactionDate"), Sort.Order.desc("id")))
+                                .limit(limit + 1)
+                                .all());
+
+        List<Expense> page = live;
+        if (expenseArchiveService.hasSegments()) {
+            LocalDate end = cursor != null && (filter.getEndDate() == null || cursor.transactionDate().isBefore(filter.getEndDate()))
+                    ? cursor.transactionDate()
+                    : filter.getEndDate();
+            page = new ArrayList<>(expenseArchiveService.mergeArchived(live, userId, filter.getStartDate(), end,
+                    archived -> matches(archived, filter, cursor)));
+            page.sort(Comparator.comparing(Expense::getTransactionDate).thenComparing(Expense::getId).reversed());
+        }
+
+        boolean hasMore = page.size() > limit;
+        List<Expense> items = hasMore ? page.subList(0, limit) : page;
+        Expense last = items.isEmpty() ? null : items.get(items.size() - 1);
+        return new ExpensePage(items, hasMore ? new ExpenseCursor(last.getTransactionDate(), last.getId()).encode() : null);
+    }
+
+    /**
+     * The compact view of an expense list: rows carry wallet and category ids, and each referenced
+     * wallet and category appears once in the side-loaded dictionaries. Rows are built straight from
+     * the entities, and wallets and categories are only looked up when their field is selected.
+     */
+    private CompactExpenseListResponse toCompactList(List<Expense> expenses, String nextCursor,
+                                                     Set<ExpenseField> fields) {
+        boolean withWallets = fields.contains(ExpenseField.WALLET);
+        boolean withCategories = fields.contains(ExpenseField.CATEGORY);
+        // The lookup maps double as the dictionaries, so they hold exactly the referenced entries
+        Map<Long, WalletResponse> wallets = new LinkedHashMap<>();
+        Map<Long, CategoryResponse> categories = new LinkedHashMap<>();
+        List<CompactExpenseResponse> items = new ArrayList<>(expenses.size());
+        for (Expense expense : expenses) {
+            Long userId = expense.getUser().getId();
+            CompactExpenseResponse.CompactExpenseResponseBuilder item = CompactExpenseResponse.builder().id(expense.getId());
+            if (withWallets) {
+                Long walletId = expense.getWallet().getId();
+                wallets.computeIfAbsent(walletId, id -> walletService.getWalletById(id, userId));
+                item.walletId(walletId);
+            }
+            if (withCategories) {
+                Long categoryId = expense.getCategory().getId();
+                categories.computeIfAbsent(categoryId, id -> categoryService.getCategoryById(id, userId));
+                item.categoryId(categoryId);
+            }
+            items.add(item
+                    .amount(fields.contains(ExpenseField.AMOUNT) ? expense.getAmount() : null)
+                    .currency(fields.contains(ExpenseField.CURRENCY) ? expense.getCurrency() : null)
+                    .transactionDate(fields.contains(ExpenseField.TRANSACTION_DATE) ? expense.getTransactionDate() : null)
+                    .merchant(fields.contains(ExpenseField.MERCHANT) ? expense.getMerchant() : null)
+                    .description(fields.contains(ExpenseField.DESCRIPTION) ? expense.getDescription() : null)
+                    .tagsJson(fields.contains(ExpenseField.TAGS) ? expense.getTagsJson() : null)
+                    .attachmentsJson(fields.contains(ExpenseField.ATTACHMENTS) ? expense.getAttachmentsJson() : null)
+                    .type(fields.contains(ExpenseField.TYPE) ? expense.getType() : null)
+                    .isRecurring(fields.contains(ExpenseField.IS_RECURRING) ? expense.getIsRecurring() : null)
+                    .createdAt(fields.contains(ExpenseField.CREATED_AT) ? expense.getCreatedAt() : null)
+                    .updatedAt(fields.contains(ExpenseField.UPDATED_AT) ? expense.getUpdatedAt() : null)
+                    .build());
+        }
+        return CompactExpenseListResponse.builder()
+                .items(items)
+                .wallets(withWallets ? wallets : null)
+                .categories(withCategories ? categories : null)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    public List<ExpenseSearchResult> searchExpenses(Long userId, String query, int limit) {
+        return expenseSearchService.search(userId, query, limit).stream()
+                .map(hit -> ExpenseSearchResult.builder()
+                        .id(hit.document().id())
+                        .walletId(hit.document().walletId())
+                        .categoryId(hit.document().categoryId())
+                        .amount(hit.document().amount())
+                        .currency(hit.document().currency())
+                        .transactionDate(hit.document().transactionDate())
+                        .merchant(hit.document().merchant())
+                        .description(hit.document().description())
+                        .tags(hit.document().tags())
+                        .type(hit.document().type())
+                        .score(hit.score())
+                        .build())
                 .collect(Collectors.toList());
     }
 
     public ExpenseResponse getExpenseById(Long expenseId, Long userId) {
         Expense expense = expenseRepository.findByIdAndUserId(expenseId, userId)
+                .or(() -> expenseArchiveService.findArchivedExpense(userId, expenseId))
                 .orElseThrow(() -> new RuntimeException("Expense not found"));
         return mapToExpenseResponse(expense);
     }
 
+    /**
+     * Current state of the given expenses for delta sync; other users' expenses are left out. Ids
+     * missing from the table are looked up in the archive, so a first sync still gets archived rows.
+     */
+    public List<ExpenseResponse> getExpensesByIds(Collection<Long> expenseIds, Long userId) {
+        List<Expense> live = expenseRepository.findAllById(expenseIds);
+        Set<Long> liveIds = live.stream().map(Expense::getId).collect(Collectors.toSet());
+        List<Expense> expenses = new ArrayList<>(live.stream()
+                .filter(expense -> expense.getUser().getId().equals(userId))
+                .toList());
+        expenses.addAll(expenseArchiveService.findArchivedExpenses(userId, expenseIds.stream()
+                .filter(id -> !liveIds.contains(id))
+                .toList()));
+        return mapToExpenseResponses(expenses, new HashMap<>(), new HashMap<>());
+    }
+
     @Transactional
     public ExpenseResponse createExpense(ExpenseCreateRequest request, Long userId) {
         User user = userRepository.findById(userId)
@@ -70,7 +364,9 @@ public class ExpenseService {
         Wallet wallet = walletRepository.findByIdAndUserIdAndIsActiveTrue(request.getWalletId(), userId)
                 .orElseThrow(() -> new RuntimeException("Wallet not found"));
 
-        Category category = validateCategory(request.getCategoryId(), userId);
+        Category category = request.getCategoryId() != null
+                ? validateCategory(request.getCategoryId(), userId)
+                : categorize(request.getMerchant(), request.getDescription(), userId);
 
         Expense expense = Expense.builder()
                 .user(user)
@@ -88,29 +384,42 @@ public class ExpenseService {
                 .build();
 
         Expense savedExpense = expenseRepository.save(expense);
+        categorySuggestionService.recordChange(userId, null, toCategorySample(savedExpense));
+        expenseSearchService.index(userId, savedExpense);
+        tagService.syncExpenseTags(savedExpense);
 
         // Update wallet balance based on expense type
+        BigDecimal balanceBefore = wallet.getBalance();
         updateWalletBalance(wallet, savedExpense, true);
+        notifyBalanceChange(wallet, balanceBefore);
 
         // Update budget spent amounts
         System.out.println("Updating budget spent amounts after creating expense for user: " + userId);
         updateBudgetSpentAmounts(userId);
 
+        ledgerStreamService.expenseChanged(user, LedgerChangeEvent.ChangeType.EXPENSE_CREATED, savedExpense.getId(),
+                List.of(wallet), List.of(category.getId()), List.of(savedExpense.getTransactionDate()));
+        recordSyncChanges(userId, savedExpense.getId(), false, List.of(wallet));
+
         return mapToExpenseResponse(savedExpense);
     }
 
     @Transactional
     public ExpenseResponse updateExpense(Long expenseId, ExpenseUpdateRequest request, Long userId) {
-        Expense expense = expenseRepository.findByIdAndUserId(expenseId, userId)
-                .orElseThrow(() -> new RuntimeException("Expense not found"));
+        Expense expense = findForWrite(expenseId, userId);
 
         Wallet oldWallet = expense.getWallet();
+        CategorySample previousSample = toCategorySample(expense);
+        LocalDate previousDate = expense.getTransactionDate();
 
         // Revert old wallet balance change
+        BigDecimal oldBalanceBefore = oldWallet.getBalance();
         updateWalletBalance(oldWallet, expense, false);
 
         Wallet newWallet = walletRepository.findByIdAndUserIdAndIsActiveTrue(request.getWalletId(), userId)
                 .orElseThrow(() -> new RuntimeException("Wallet not found"));
+        boolean sameWallet = newWallet.getId().equals(oldWallet.getId());
+        BigDecimal newBalanceBefore = sameWallet ? oldBalanceBefore : newWallet.getBalance();
 
         Category category = validateCategory(request.getCategoryId(), userId);
 
@@ -133,42 +442,169 @@ public class ExpenseService {
         }
 
         Expense updatedExpense = expenseRepository.save(expense);
+        categorySuggestionService.recordChange(userId, previousSample, toCategorySample(updatedExpense));
+        expenseSearchService.index(userId, updatedExpense);
+        tagService.syncExpenseTags(updatedExpense);
 
         // Apply new wallet balance change
         updateWalletBalance(newWallet, updatedExpense, true);
+        if (!sameWallet) {
+            notifyBalanceChange(oldWallet, oldBalanceBefore);
+        }
+        notifyBalanceChange(newWallet, newBalanceBefore);
 
         // Update budget spent amounts
         updateBudgetSpentAmounts(userId);
 
+        ledgerStreamService.expenseChanged(updatedExpense.getUser(), LedgerChangeEvent.ChangeType.EXPENSE_UPDATED,
+                expenseId, List.of(oldWallet, newWallet), List.of(previousSample.categoryId(), category.getId()),
+                List.of(previousDate, updatedExpense.getTransactionDate()));
+        recordSyncChanges(userId, expenseId, false, List.of(oldWallet, newWallet));
+
         return mapToExpenseResponse(updatedExpense);
     }
 
     @Transactional
     public void deleteExpense(Long expenseId, Long userId) {
-        Expense expense = expenseRepository.findByIdAndUserId(expenseId, userId)
-                .orElseThrow(() -> new RuntimeException("Expense not found"));
+        Expense expense = findForWrite(expenseId, userId);
 
         // Revert wallet balance change
+        BigDecimal balanceBefore = expense.getWallet().getBalance();
         updateWalletBalance(expense.getWallet(), expense, false);
+        notifyBalanceChange(expense.getWallet(), balanceBefore);
 
         expenseRepository.delete(expense);
+        categorySuggestionService.recordChange(userId, toCategorySample(expense), null);
+        expenseSearchService.remove(userId, expenseId);
+        tagService.removeExpenseTags(expenseId);
 
         // Update budget spent amounts
         updateBudgetSpentAmounts(userId);
+
+        ledgerStreamService.expenseChanged(expense.getUser(), LedgerChangeEvent.ChangeType.EXPENSE_DELETED, expenseId,
+                List.of(expense.getWallet()), List.of(expense.getCategory().getId()), List.of(expense.getTransactionDate()));
+        recordSyncChanges(userId, expenseId, true, List.of(expense.getWallet()));
     }
 
-    private Category validateCategory(Long categoryId, Long userId) {
-        // Check if it's a system category
-        Category category = categoryRepository.findById(categoryId).orElse(null);
-        if (category != null && category.getIsSystem() && category.getIsActive()) {
-            return category;
+    // Archived expenses are put back into the table first, so they are written like live ones
+    private Expense findForWrite(Long expenseId, Long userId) {
+        return expenseRepository.findByIdAndUserId(expenseId, userId)
+                .or(() -> {
+                    if (!expenseArchiveService.restore(userId, expenseId)) {
+                        return Optional.empty();
+                    }
+                    Optional<Expense> restored = expenseRepository.findByIdAndUserId(expenseId, userId);
+                    restored.ifPresent(tagService::syncExpenseTags);
+                    return restored;
+                })
+                .orElseThrow(() -> new RuntimeException("Expense not found"));
+    }
+
+    private Specification<Expense> toSpecification(Long userId, ExpenseFilterRequest filter, Long tagId, ExpenseCursor cursor) {
+        List<Specification<Expense>> predicates = new ArrayList<>();
+        predicates.add(ExpenseSpecifications.belongsTo(userId));
+        if (filter.getStartDate() != null) {
+            predicates.add(ExpenseSpecifications.transactionDateFrom(filter.getStartDate()));
+        }
+        if (filter.getEndDate() != null) {
+            predicates.add(ExpenseSpecifications.transactionDateTo(filter.getEndDate()));
+        }
+        if (filter.getWalletId() != null) {
+            predicates.add(ExpenseSpecifications.inWallet(filter.getWalletId()));
+        }
+        if (filter.getCategoryIds() != null && !filter.getCategoryIds().isEmpty()) {
+            predicates.add(ExpenseSpecifications.inCategories(filter.getCategoryIds()));
+        }
+        if (filter.getType() != null) {
+            predicates.add(ExpenseSpecifications.ofType(filter.getType()));
+        }
+        if (filter.getMinAmount() != null) {
+            predicates.add(ExpenseSpecifications.amountAtLeast(filter.getMinAmount()));
+        }
+        if (filter.getMaxAmount() != null) {
+            predicates.add(ExpenseSpecifications.amountAtMost(filter.getMaxAmount()));
         }
+        if (filter.getMerchant() != null && !filter.getMerchant().isBlank()) {
+            predicates.add(ExpenseSpecifications.merchantStartsWith(filter.getMerchant().strip()));
+        }
+        if (tagId != null) {
+            predicates.add(ExpenseSpecifications.taggedWith(tagId));
+        }
+        if (filter.getIsRecurring() != null) {
+            predicates.add(ExpenseSpecifications.recurring(filter.getIsRecurring()));
+        }
+        if (cursor != null) {
+            predicates.add(ExpenseSpecifications.before(cursor.transactionDate(), cursor.id()));
+        }
+        return Specification.allOf(predicates);
+    }
 
-        // Check if it's a user category
-        return categoryRepository.findByIdAndUserIdAndIsActiveTrue(categoryId, userId)
+    // The same filters as toSpecification, for archived rows; dates are already bounded by the segment lookup
+    private boolean matches(ArchivedExpense expense, ExpenseFilterRequest filter, ExpenseCursor cursor) {
+        if (cursor != null && !sortsAfter(expense, cursor)) {
+            return false;
+        }
+        if (filter.getWalletId() != null && !filter.getWalletId().equals(expense.walletId())) {
+            return false;
+        }
+        if (filter.getCategoryIds() != null && !filter.getCategoryIds().isEmpty()
+                && !filter.getCategoryIds().contains(expense.categoryId())) {
+            return false;
+        }
+        if (filter.getType() != null && filter.getType() != expense.type()) {
+            return false;
+        }
+        if (filter.getMinAmount() != null && expense.amount().compareTo(filter.getMinAmount()) < 0) {
+            return false;
+        }
+        if (filter.getMaxAmount() != null && expense.amount().compareTo(filter.getMaxAmount()) > 0) {
+            return false;
+        }
+        if (filter.getMerchant() != null && !filter.getMerchant().isBlank() && (expense.merchant() == null
+                || !expense.merchant().toLowerCase(Locale.ROOT).startsWith(filter.getMerchant().strip().toLowerCase(Locale.ROOT)))) {
+            return false;
+        }
+        if (filter.getTag() != null && !tagService.hasTag(expense.tagsJson(), filter.getTag())) {
+            return false;
+        }
+        return filter.getIsRecurring() == null || filter.getIsRecurring().equals(expense.isRecurring());
+    }
+
+    // Newest first, as the listings are ordered: an earlier date, or the same date and a lower id
+    private static boolean sortsAfter(ArchivedExpense expense, ExpenseCursor cursor) {
+        return expense.transactionDate().isBefore(cursor.transactionDate())
+                || expense.transactionDate().equals(cursor.transactionDate()) && expense.id() < cursor.id();
+    }
+
+    private Category validateCategory(Long categoryId, Long userId) {
+        // System or user category, served by the second-level cache and confirmed active in the database
+        return categoryService.findActiveForWrite(categoryId, userId)
                 .orElseThrow(() -> new RuntimeException("Category not found"));
     }
 
+    // Rule patterns first, then the user's history if the suggester is confident enough
+    private Category categorize(String merchant, String description, Long userId) {
+        Long categoryId = categorizationService.categorize(userId, merchant, description)
+                .or(() -> categorySuggestionService.suggestDefault(userId, merchant, description))
+                .orElseThrow(() -> new ValidationException("Could not determine a category for this expense, please choose one"));
+        return validateCategory(categoryId, userId);
+    }
+
+    private CategorySample toCategorySample(Expense expense) {
+        return new CategorySample(expense.getMerchant(), expense.getDescription(), expense.getCategory().getId());
+    }
+
+    private void recordSyncChanges(Long userId, Long expenseId, boolean deleted, List<Wallet> wallets) {
+        changeSequenceService.recordChange(userId, SyncResponse.EntityType.EXPENSE, expenseId, deleted);
+        changeSequenceService.recordChanges(userId, SyncResponse.EntityType.WALLET,
+                wallets.stream().map(Wallet::getId).toList(), false);
+    }
+
+    private void notifyBalanceChange(Wallet wallet, BigDecimal balanceBefore) {
+        webhookService.onWalletBalanceChanged(wallet.getUser().getId(), wallet.getId(), wallet.getCurrency(),
+                balanceBefore, wallet.getBalance());
+    }
+
     private void updateWalletBalance(Wallet wallet, Expense expense, boolean isAdding) {
         BigDecimal amount = expense.getAmount();
         
@@ -196,10 +632,29 @@ public class ExpenseService {
     }
 
     private ExpenseResponse mapToExpenseResponse(Expense expense) {
+        return mapToExpenseResponse(expense,
+                walletService.getWalletById(expense.getWallet().getId(), expense.getUser().getId()),
+                categoryService.getCategoryById(expense.getCategory().getId(), expense.getUser().getId()));
+    }
+
+    // Each wallet and category is looked up once per list rather than once per row
+    private List<ExpenseResponse> mapToExpenseResponses(List<Expense> expenses, Map<Long, WalletResponse> wallets,
+                                                        Map<Long, CategoryResponse> categories) {
+        return expenses.stream()
+                .map(expense -> {
+                    Long userId = expense.getUser().getId();
+                    return mapToExpenseResponse(expense,
+                            wallets.computeIfAbsent(expense.getWallet().getId(), id -> walletService.getWalletById(id, userId)),
+                            categories.computeIfAbsent(expense.getCategory().getId(), id -> categoryService.getCategoryById(id, userId)));
+                })
+                .collect(Collectors.toList());
+    }
+
+    private ExpenseResponse mapToExpenseResponse(Expense expense, WalletResponse wallet, CategoryResponse category) {
         return new ExpenseResponse(
                 expense.getId(),
-                walletService.getWalletById(expense.getWallet().getId(), expense.getUser().getId()),
-                categoryService.getCategoryById(expense.getCategory().getId(), expense.getUser().getId()),
+                wallet,
+                category,
                 expense.getAmount(),
                 expense.getCurrency(),
                 expense.getTransactionDate(),
@@ -217,5 +672,10 @@ public class ExpenseService {
     private void updateBudgetSpentAmounts(Long userId) {
         System.out.println("ExpenseService calling BudgetService.updateBudgetSpentAmounts for user: " + userId);
         budgetService.updateBudgetSpentAmounts(userId);
+        analyticsResultCache.invalidateUser(userId);
+    }
+
+    // One page of entities and the cursor of the page after it, if any
+    private record ExpensePage(List<Expense> items, String nextCursor) {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,199 @@
+package com.spendSmart.backend.service;
+
+import com.spendSmart.backend.dto.stream.LedgerChangeEvent;
+import com.spendSmart.backend.entity.Budget;
+import com.spendSmart.backend.entity.User;
+import com.spendSmart.backend.entity.Wallet;
+import com.spendSmart.backend.repository.BudgetRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Pushes ledger changes to the user's open Server-Sent Events connections.
+ * <p>
+ * Connections are async servlet requests, so an idle one holds no thread, only its emitter.
+ * Services describe a change inside their transaction; the event is sent only after it commits,
+ * from a small broadcast pool, so a slow client never delays a write. Heartbeats go through the
+ * same pool, so a slow client never holds up the shared scheduler thread either. Events reach the
+ * connections held by the node that made the change.
+ */
+@Service
+@Slf4j
+public class LedgerStreamService {
+
+    private static final String CHANGE_EVENT = "ledger-change";
+
+    private final BudgetRepository budgetRepository;
+    private final ThreadPoolTaskExecutor broadcastExecutor;
+    private final Map<Long, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+
+    @Value("${app.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${app.stream.reconnect-ms:3000}")
+    private long reconnectMs;
+
+    @Value("${app.stream.max-connections-per-user:5}")
+    private int maxConnectionsPerUser;
+
+    public LedgerStreamService(BudgetRepository budgetRepository,
+                               @Qualifier("ledgerStreamExecutor") ThreadPoolTaskExecutor broadcastExecutor,
+                               MeterRegistry meterRegistry) {
+        this.budgetRepository = budgetRepository;
+        this.broadcastExecutor = broadcastExecutor;
+        meterRegistry.gauge("ledger.stream.connections", connections);
+    }
+
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        emitter.onCompletion(() -> remove(userId, emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> remove(userId, emitter));
+        List<SseEmitter> userEmitters = emitters.compute(userId, (id, current) -> {
+            List<SseEmitter> updated = current != null ? current : new CopyOnWriteArrayList<>();
+            updated.add(emitter);
+            return updated;
+        });
+        connections.incrementAndGet();
+
+        // The oldest connections give way, e.g. tabs the client forgot to close
+        while (userEmitters.size() > maxConnectionsPerUser) {
+            SseEmitter oldest = userEmitters.get(0);
+            remove(userId, oldest);
+            oldest.complete();
+        }
+
+        send(userId, emitter, SseEmitter.event().name("ready").reconnectTime(reconnectMs).data("{}"));
+        return emitter;
+    }
+
+    public void expenseChanged(User user, LedgerChangeEvent.ChangeType type, Long expenseId,
+                               Collection<Wallet> wallets, Collection<Long> categoryIds, Collection<LocalDate> dates) {
+        if (!emitters.containsKey(user.getId())) {
+            return;
+        }
+        List<LedgerChangeEvent.BudgetTotal> budgets = budgetRepository.findByUserAndIsActiveTrue(user).stream()
+                .filter(budget -> budget.getCategory() == null || categoryIds.contains(budget.getCategory().getId()))
+                .filter(budget -> dates.stream().anyMatch(date -> covers(budget, date)))
+                .map(budget -> LedgerChangeEvent.BudgetTotal.builder()
+                        .budgetId(budget.getId())
+                        .amount(budget.getAmount())
+                        .spentAmount(budget.getSpentAmount())
+                        .remainingAmount(budget.getRemainingAmount())
+                        .isOverBudget(budget.getSpentAmount().compareTo(budget.getAmount()) > 0)
+                        .build())
+                .toList();
+        publish(user.getId(), LedgerChangeEvent.builder()
+                .type(type)
+                .expenseId(expenseId)
+                .wallets(wallets.stream()
+                        .collect(Collectors.toMap(Wallet::getId, LedgerStreamService::toBalance,
+                                (first, second) -> second, LinkedHashMap::new))
+                        .values().stream().toList())
+                .budgets(budgets)
+                .occurredAt(LocalDateTime.now())
+                .build());
+    }
+
+    public void walletChanged(Long userId, LedgerChangeEvent.ChangeType type, Wallet wallet) {
+        if (!emitters.containsKey(userId)) {
+            return;
+        }
+        publish(userId, LedgerChangeEvent.builder()
+                .type(type)
+                .walletId(wallet.getId())
+                .wallets(List.of(toBalance(wallet)))
+                .occurredAt(LocalDateTime.now())
+                .build());
+    }
+
+    // A comment line keeps proxies from closing idle connections and detects clients that went away
+    @Scheduled(fixedRateString = "${app.stream.heartbeat-interval-ms:15000}")
+    public void sendHeartbeats() {
+        for (Long userId : emitters.keySet()) {
+            try {
+                broadcastExecutor.execute(() -> emitters.getOrDefault(userId, List.of()).forEach(emitter ->
+                        send(userId, emitter, SseEmitter.event().comment("heartbeat"))));
+            } catch (TaskRejectedException e) {
+                // The backlog is busy sending anyway, and the next heartbeat follows shortly
+                log.debug("Ledger stream backlog is full, skipping heartbeats for the remaining users");
+                return;
+            }
+        }
+    }
+
+    private void publish(Long userId, LedgerChangeEvent event) {
+        Runnable broadcast = () -> {
+            try {
+                broadcastExecutor.execute(() -> emitters.getOrDefault(userId, List.of()).forEach(emitter ->
+                        send(userId, emitter, SseEmitter.event().name(CHANGE_EVENT).data(event, MediaType.APPLICATION_JSON))));
+            } catch (TaskRejectedException e) {
+                // Clients resynchronize on reconnect, so a dropped event only delays them
+                log.warn("Ledger stream backlog is full, dropping {} event for user {}", event.getType(), userId);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    broadcast.run();
+                }
+            });
+        } else {
+            broadcast.run();
+        }
+    }
+
+    private void send(Long userId, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            remove(userId, emitter);
+            emitter.completeWithError(e);
+        }
+    }
+
+    private void remove(Long userId, SseEmitter emitter) {
+        emitters.computeIfPresent(userId, (id, userEmitters) -> {
+            if (userEmitters.remove(emitter)) {
+                connections.decrementAndGet();
+            }
+            return userEmitters.isEmpty() ? null : userEmitters;
+        });
+    }
+
+    private static boolean covers(Budget budget, LocalDate date) {
+        return !date.isBefore(budget.getStartDate().toLocalDate()) && !date.isAfter(budget.getEndDate().toLocalDate());
+    }
+
+    private static LedgerChangeEvent.WalletBalance toBalance(Wallet wallet) {
+        return LedgerChangeEvent.WalletBalance.builder()
+                .walletId(wallet.getId())
+                .balance(wallet.getBalance())
+                .currency(wallet.getCurrency())
+                .build();
+    }
+}
@@ -0,0 +1,138 @@
+package com.spendSmart.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.WebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user ledger version for conditional GETs. The version is the user's last change sequence
+ * (user_change_sequences), which every write to expenses, wallets, categories and budgets advances.
+ * <p>
+ * Versions can be cached per node. A write committed on this node updates the cache right away; one
+ * committed elsewhere is picked up once the cached value is older than the version TTL. The TTL
+ * defaults to 0, which rereads the version on every request, because with more than one node a
+ * cached version would answer 304 for data another node already changed. Only a single node
+ * deployment should raise it.
+ */
+@Service
+public class LedgerVersionService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Long, CachedVersion> versions = new ConcurrentHashMap<>();
+
+    @Value("${app.etag.version-ttl-ms:0}")
+    private long versionTtlMs;
+
+    public LedgerVersionService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public long currentVersion(Long userId) {
+        long now = System.currentTimeMillis();
+        CachedVersion cached = versions.get(userId);
+        if (cached != null && now - cached.loadedAt() < versionTtlMs) {
+            return cached.version();
+        }
+        List<Long> loaded = jdbcTemplate.queryForList(
+                "SELECT last_seq FROM user_change_sequences WHERE user_id = ?", Long.class, userId);
+        return remember(userId, loaded.isEmpty() ? 0L : loaded.get(0), now);
+    }
+
+    // Called with the version a write allocated; it becomes current here once the write commits
+    public void advance(Long userId, long version) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remember(userId, version, System.currentTimeMillis());
+                }
+            });
+        } else {
+            remember(userId, version, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Advances the version without recording a sync change, for derived state that is not synced
+     * but still shows up in responses, such as materialized budget alerts.
+     */
+    public void bump(Long userId) {
+        jdbcTemplate.update("INSERT INTO user_change_sequences (user_id, last_seq) VALUES (?, LAST_INSERT_ID(1)) " +
+                "ON DUPLICATE KEY UPDATE last_seq = LAST_INSERT_ID(last_seq + 1)", userId);
+        advance(userId, jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class));
+    }
+
+    /**
+     * Weak ETag for the current request: the user's version plus everything else the response
+     * depends on (path, query, Accept header and today's date, for responses relative to now).
+     * It is weak because Tomcat drops strong ETags from responses it compresses, and the gzipped and
+     * plain bodies are semantically the same.
+     */
+    public String etag(Long userId, WebRequest request) {
+        return etag(userId, currentVersion(userId), request);
+    }
+
+    public String etag(Long userId, long version, WebRequest request) {
+        String representation = userId + "|" + request.getDescription(false) + "?" + queryString(request) + "|"
+                + request.getHeader(HttpHeaders.ACCEPT) + "|" + LocalDate.now();
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(representation.getBytes(StandardCharsets.UTF_8));
+            return "W/\"" + version + "-" + HexFormat.of().formatHex(digest, 0, 8) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // If-None-Match uses the weak comparison, so W/ prefixes are ignored on both sides
+    public boolean isNotModified(WebRequest request, String etag) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaqueTag = stripWeakPrefix(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = stripWeakPrefix(candidate.trim());
+            if (tag.equals("*") || tag.equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    long remember(Long userId, long version, long now) {
+        // Versions only move forward, whichever of two racing loads finishes last
+        return versions.merge(userId, new CachedVersion(version, now),
+                (current, loaded) -> loaded.version() >= current.version()
+                        ? loaded
+                        : new CachedVersion(current.version(), now)).version();
+    }
+
+    private static String stripWeakPrefix(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    private static String queryString(WebRequest request) {
+        StringBuilder query = new StringBuilder();
+        request.getParameterMap().entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(parameter -> query.append(parameter.getKey()).append('=')
+                        .append(String.join(",", parameter.getValue())).append('&'));
+        return query.toString();
+    }
+
+    private record CachedVersion(long version, long loadedAt) {
+    }
+}
@@ -0,0 +1,230 @@
+package com.spendSmart.backend.service;
+
+import com.spendSmart.backend.config.DataSourceWorkload;
+import com.spendSmart.backend.outbox.OutboxEvent;
+import com.spendSmart.backend.outbox.OutboxEventHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Delivers outbox events to their {@link OutboxEventHandler}s in batches.
+ * <p>
+ * A batch is claimed with FOR UPDATE SKIP LOCKED, so several nodes can dispatch at once without
+ * taking the same events. Within a batch only the newest event per aggregate and type is handled;
+ * older ones are superseded. If a batch fails, its events are retried one by one so a single bad
+ * event cannot hold back the rest, and a failing event backs off exponentially until it reaches
+ * the attempt limit and is marked FAILED.
+ */
+@Service
+@Slf4j
+public class OutboxDispatcher {
+
+    private static final String SELECT_DUE = "SELECT id, aggregate_type, aggregate_id, user_id, event_type, payload, " +
+            "attempts, created_at FROM outbox_events WHERE status = 'PENDING' AND available_at <= NOW(6) ";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectProvider<OutboxEventHandler> handlers;
+    private final MeterRegistry meterRegistry;
+    private final AtomicBoolean dispatching = new AtomicBoolean();
+    private final ExecutorService wakeUpExecutor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("outbox-dispatcher").daemon().factory());
+
+    @Value("${app.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${app.outbox.backoff-initial-ms:1000}")
+    private long backoffInitialMs;
+
+    @Value("${app.outbox.backoff-max-ms:600000}")
+    private long backoffMaxMs;
+
+    @Value("${app.outbox.retention-days:7}")
+    private int retentionDays;
+
+    public OutboxDispatcher(JdbcTemplate jdbcTemplate,
+                            TransactionTemplate transactionTemplate,
+                            ObjectProvider<OutboxEventHandler> handlers,
+                            MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.handlers = handlers;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @EventListener
+    public void onEventsPublished(OutboxService.OutboxEventsPublished published) {
+        wakeUpExecutor.execute(this::dispatch);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wakeUpExecutor.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:1000}")
+    public void dispatch() {
+        if (!enabled || !dispatching.compareAndSet(false, true)) {
+            return;
+        }
+        DataSourceWorkload.set(DataSourceWorkload.ANALYTICS);
+        try {
+            while (dispatchBatch() == batchSize) {
+                // Keep draining while full batches come back
+            }
+        } catch (Exception e) {
+            log.error("Outbox dispatch failed: {}", e.getMessage(), e);
+        } finally {
+            DataSourceWorkload.clear();
+            dispatching.set(false);
+        }
+    }
+
+    @Scheduled(cron = "${app.outbox.purge-cron:0 45 4 * * *}")
+    public void purgeProcessedEvents() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(retentionDays));
+        int purged = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update("DELETE FROM outbox_events WHERE status IN ('DONE', 'FAILED') " +
+                    "AND available_at < ? LIMIT 10000", cutoff);
+            purged += deleted;
+        } while (deleted > 0);
+        if (purged > 0) {
+            log.info("Purged {} processed outbox events older than {} days", purged, retentionDays);
+        }
+    }
+
+    private int dispatchBatch() {
+        List<OutboxEvent> claimed = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                claimed.addAll(jdbcTemplate.query(SELECT_DUE + "ORDER BY available_at LIMIT ? FOR UPDATE SKIP LOCKED",
+                        eventMapper(), batchSize));
+                if (!claimed.isEmpty()) {
+                    handle(claimed);
+                }
+            });
+            return claimed.size();
+        } catch (RuntimeException e) {
+            if (claimed.isEmpty()) {
+                throw e;
+            }
+            log.warn("Outbox batch of {} events failed ({}), retrying them individually", claimed.size(), e.getMessage());
+            claimed.forEach(this::dispatchSingle);
+            // Failed events are now backing off; the next poll picks up whatever else is due
+            return 0;
+        }
+    }
+
+    private void dispatchSingle(OutboxEvent event) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // Claimed again: another node may have taken it after the batch rolled back
+                List<OutboxEvent> reclaimed = jdbcTemplate.query(SELECT_DUE + "AND id = ? FOR UPDATE SKIP LOCKED",
+                        eventMapper(), event.id());
+                if (!reclaimed.isEmpty()) {
+                    handle(reclaimed);
+                }
+            });
+        } catch (RuntimeException e) {
+            scheduleRetry(event, e);
+        }
+    }
+
+    private void handle(List<OutboxEvent> events) {
+        // Only the newest event per aggregate and type matters; the others are superseded by it
+        Map<String, OutboxEvent> newest = new LinkedHashMap<>();
+        for (OutboxEvent event : events) {
+            String key = event.aggregateType() + ":" + event.aggregateId() + ":" + event.eventType();
+            OutboxEvent current = newest.get(key);
+            if (current == null || event.id() > current.id()) {
+                newest.put(key, event);
+            }
+        }
+        List<OutboxEvent> effective = newest.values().stream()
+                .sorted((a, b) -> Long.compare(a.id(), b.id()))
+                .toList();
+
+        List<OutboxEventHandler> available = handlers.orderedStream().toList();
+        for (OutboxEventHandler handler : available) {
+            List<OutboxEvent> supported = effective.stream()
+                    .filter(event -> handler.supports(event.eventType()))
+                    .toList();
+            if (!supported.isEmpty()) {
+                handler.handle(supported);
+            }
+        }
+
+        jdbcTemplate.update("UPDATE outbox_events SET status = 'DONE', processed_at = NOW(6) WHERE id IN (" +
+                events.stream().map(event -> String.valueOf(event.id())).collect(Collectors.joining(",")) + ")");
+
+        count("dispatched", effective.size());
+        count("superseded", events.size() - effective.size());
+    }
+
+    private void scheduleRetry(OutboxEvent event, RuntimeException error) {
+        int attempts = event.attempts() + 1;
+        String message = error.getMessage() != null ? error.getMessage() : error.getClass().getName();
+        if (attempts >= maxAttempts) {
+            log.error("Outbox event {} ({}) failed after {} attempts: {}", event.id(), event.eventType(), attempts, message);
+            jdbcTemplate.update("UPDATE outbox_events SET status = 'FAILED', attempts = ?, last_error = ?, " +
+                    "processed_at = NOW(6) WHERE id = ?", attempts, message, event.id());
+            count("failed", 1);
+            return;
+        }
+
+        // Exponential backoff with jitter, so events that failed together do not retry together
+        long backoff = Math.min(backoffMaxMs, backoffInitialMs << Math.min(attempts - 1, 30));
+        long delayMs = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        jdbcTemplate.update("UPDATE outbox_events SET attempts = ?, last_error = ?, " +
+                        "available_at = NOW(6) + INTERVAL ? MICROSECOND WHERE id = ? AND status = 'PENDING'",
+                attempts, message, delayMs * 1000, event.id());
+        count("retried", 1);
+    }
+
+    private void count(String outcome, int amount) {
+        if (amount > 0) {
+            meterRegistry.counter("outbox.events", "outcome", outcome).increment(amount);
+        }
+    }
+
+    private static RowMapper<OutboxEvent> eventMapper() {
+        return (rs, rowNum) -> new OutboxEvent(
+                rs.getLong("id"),
+                rs.getString("aggregate_type"),
+                rs.getLong("aggregate_id"),
+                rs.getLong("user_id"),
+                rs.getString("event_type"),
+                rs.getString("payload"),
+                rs.getInt("attempts"),
+                rs.getTimestamp("created_at").toLocalDateTime());
+    }
+}
@@ -0,0 +1,61 @@
+package com.spendSmart.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * Writes events to the transactional outbox. Must be called inside the transaction whose changes
+ * the event describes, so the event exists if and only if those changes commit.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(String aggregateType, Long aggregateId, Long userId, String eventType, Object payload) {
+        jdbcTemplate.update("INSERT INTO outbox_events (aggregate_type, aggregate_id, user_id, event_type, payload, " +
+                        "status, attempts, available_at, created_at) VALUES (?, ?, ?, ?, ?, 'PENDING', 0, NOW(6), NOW(6))",
+                aggregateType, aggregateId, userId, eventType, toJson(payload));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eventPublisher.publishEvent(new OutboxEventsPublished());
+                }
+            });
+        }
+    }
+
+    // Aggregates of the given type that still have events waiting to be applied
+    public List<Long> findPendingAggregateIds(String aggregateType, Long userId) {
+        return jdbcTemplate.queryForList("SELECT DISTINCT aggregate_id FROM outbox_events " +
+                "WHERE aggregate_type = ? AND user_id = ? AND status = 'PENDING'", Long.class, aggregateType, userId);
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Outbox payload is not serializable: " + e.getMessage(), e);
+        }
+    }
+
+    // Lets the dispatcher start right after a commit instead of waiting for its next poll
+    public record OutboxEventsPublished() {
+    }
+}
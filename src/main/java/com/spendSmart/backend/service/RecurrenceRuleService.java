@@ -0,0 +1,137 @@
+package com.spendSmart.backend.service;
+
+import com.spendSmart.backend.dto.recurrence.RecurrenceRuleRequest;
+import com.spendSmart.backend.dto.recurrence.RecurrenceRuleResponse;
+import com.spendSmart.backend.entity.Category;
+import com.spendSmart.backend.entity.RecurrenceRule;
+import com.spendSmart.backend.entity.User;
+import com.spendSmart.backend.entity.Wallet;
+import com.spendSmart.backend.exception.ResourceNotFoundException;
+import com.spendSmart.backend.exception.ValidationException;
+import com.spendSmart.backend.repository.RecurrenceRuleRepository;
+import com.spendSmart.backend.repository.UserRepository;
+import com.spendSmart.backend.repository.WalletRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class RecurrenceRuleService {
+
+    private final RecurrenceRuleRepository recurrenceRuleRepository;
+    private final UserRepository userRepository;
+    private final WalletRepository walletRepository;
+    private final CategoryService categoryService;
+
+    @Transactional(readOnly = true)
+    public List<RecurrenceRuleResponse> getRules(Long userId) {
+        return recurrenceRuleRepository.findByUserIdOrderByCreatedAtDesc(userId).stream()
+                .map(this::mapToResponse)
+                .toList();
+    }
+
+    public RecurrenceRuleResponse createRule(RecurrenceRuleRequest request, Long userId) {
+        if (request.getEndDate() != null && request.getEndDate().isBefore(request.getStartDate())) {
+            throw new ValidationException("End date must be after start date");
+        }
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+
+        RecurrenceRule rule = RecurrenceRule.builder()
+                .user(user)
+                .wallet(findWallet(request.getWalletId(), userId))
+                .category(findCategory(request.getCategoryId(), userId))
+                .amount(request.getAmount())
+                .currency(request.getCurrency())
+                .merchant(request.getMerchant())
+                .description(request.getDescription())
+                .type(request.getType())
+                .frequency(request.getFrequency())
+                .intervalCount(request.getIntervalCount())
+                .startDate(request.getStartDate())
+                .endDate(request.getEndDate())
+                .nextOccurrenceDate(request.getStartDate())
+                .build();
+
+        RecurrenceRule saved = recurrenceRuleRepository.save(rule);
+        log.info("Created {} recurrence rule {} for user {}", saved.getFrequency(), saved.getId(), userId);
+        return mapToResponse(saved);
+    }
+
+    // The schedule itself (frequency, interval, start date) is fixed; replace the rule to change it
+    public RecurrenceRuleResponse updateRule(Long id, RecurrenceRuleRequest request, Long userId) {
+        RecurrenceRule rule = findRule(id, userId);
+        if (rule.getFrequency() != request.getFrequency()
+                || !rule.getIntervalCount().equals(request.getIntervalCount())
+                || !rule.getStartDate().equals(request.getStartDate())) {
+            throw new ValidationException("The schedule of a recurrence rule cannot be changed, create a new rule instead");
+        }
+        if (request.getEndDate() != null && request.getEndDate().isBefore(request.getStartDate())) {
+            throw new ValidationException("End date must be after start date");
+        }
+
+        rule.setWallet(findWallet(request.getWalletId(), userId));
+        rule.setCategory(findCategory(request.getCategoryId(), userId));
+        rule.setAmount(request.getAmount());
+        rule.setCurrency(request.getCurrency());
+        rule.setMerchant(request.getMerchant());
+        rule.setDescription(request.getDescription());
+        rule.setType(request.getType());
+        rule.setEndDate(request.getEndDate());
+        rule.setNextOccurrenceDate(rule.occurrenceWithinEnd(rule.getOccurrenceCount()));
+
+        return mapToResponse(recurrenceRuleRepository.save(rule));
+    }
+
+    // Stops future occurrences; expenses already generated stay
+    public void deleteRule(Long id, Long userId) {
+        RecurrenceRule rule = findRule(id, userId);
+        rule.setIsActive(false);
+        recurrenceRuleRepository.save(rule);
+        log.info("Deactivated recurrence rule {} for user {}", id, userId);
+    }
+
+    private RecurrenceRule findRule(Long id, Long userId) {
+        return recurrenceRuleRepository.findByIdAndUserId(id, userId)
+                .filter(RecurrenceRule::getIsActive)
+                .orElseThrow(() -> new ResourceNotFoundException("Recurrence rule not found with id: " + id));
+    }
+
+    private Wallet findWallet(Long walletId, Long userId) {
+        return walletRepository.findByIdAndUserIdAndIsActiveTrue(walletId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Wallet not found with id: " + walletId));
+    }
+
+    private Category findCategory(Long categoryId, Long userId) {
+        return categoryService.findActiveForWrite(categoryId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + categoryId));
+    }
+
+    private RecurrenceRuleResponse mapToResponse(RecurrenceRule rule) {
+        return RecurrenceRuleResponse.builder()
+                .id(rule.getId())
+                .walletId(rule.getWallet().getId())
+                .categoryId(rule.getCategory().getId())
+                .amount(rule.getAmount())
+                .currency(rule.getCurrency())
+                .merchant(rule.getMerchant())
+                .description(rule.getDescription())
+                .type(rule.getType())
+                .frequency(rule.getFrequency())
+                .intervalCount(rule.getIntervalCount())
+                .startDate(rule.getStartDate())
+                .endDate(rule.getEndDate())
+                .occurrenceCount(rule.getOccurrenceCount())
+                .nextOccurrenceDate(rule.getNextOccurrenceDate())
+                .isActive(rule.getIsActive())
+                .createdAt(rule.getCreatedAt())
+                .updatedAt(rule.getUpdatedAt())
+                .build();
+    }
+}
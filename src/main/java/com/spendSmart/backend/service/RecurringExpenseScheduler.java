@@ -0,0 +1,351 @@
+package com.spendSmart.backend.service;
+
+import com.spendSmart.backend.categorization.CategorySample;
+import com.spendSmart.backend.config.DataSourceWorkload;
+import com.spendSmart.backend.dto.sync.SyncResponse;
+import com.spendSmart.backend.entity.Expense;
+import com.spendSmart.backend.entity.RecurrenceRule;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Materializes due occurrences of recurrence rules as expenses.
+ * <p>
+ * Users with due rules are split into chunks that a small worker pool processes in parallel, one
+ * transaction per chunk: the chunk's rules are locked, their occurrences up to today are inserted
+ * with a single JDBC batch, and wallet balances, rule positions and budgets are updated once per
+ * chunk. The unique occurrence key (recurrence_rule_id, transaction_date) makes a repeated run
+ * harmless, and a database lease keeps the job on one node at a time.
+ */
+@Service
+@Slf4j
+public class RecurringExpenseScheduler {
+
+    private static final String LEASE_NAME = "recurring-expenses";
+
+    private static final String INSERT_OCCURRENCE = "INSERT IGNORE INTO expenses (user_id, wallet_id, category_id, " +
+            "amount, currency, transaction_date, merchant, description, type, is_recurring, recurrence_rule_id, " +
+            "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, TRUE, ?, NOW(6), NOW(6))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SchedulerLeaseService leaseService;
+    private final BudgetService budgetService;
+    private final AnalyticsResultCache analyticsResultCache;
+    private final ExpenseSearchService expenseSearchService;
+    private final CategorySuggestionService categorySuggestionService;
+    private final WebhookService webhookService;
+    private final ChangeSequenceService changeSequenceService;
+    private final Counter generatedCounter;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${app.recurring.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.recurring.users-per-chunk:200}")
+    private int usersPerChunk;
+
+    @Value("${app.recurring.workers:4}")
+    private int workers;
+
+    @Value("${app.recurring.max-occurrences-per-rule:100}")
+    private int maxOccurrencesPerRule;
+
+    @Value("${app.recurring.lease-duration-ms:600000}")
+    private long leaseDurationMs;
+
+    public RecurringExpenseScheduler(JdbcTemplate jdbcTemplate,
+                                     TransactionTemplate transactionTemplate,
+                                     SchedulerLeaseService leaseService,
+                                     BudgetService budgetService,
+                                     AnalyticsResultCache analyticsResultCache,
+                                     ExpenseSearchService expenseSearchService,
+                                     CategorySuggestionService categorySuggestionService,
+                                     WebhookService webhookService,
+                                     ChangeSequenceService changeSequenceService,
+                                     MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.leaseService = leaseService;
+        this.budgetService = budgetService;
+        this.analyticsResultCache = analyticsResultCache;
+        this.expenseSearchService = expenseSearchService;
+        this.categorySuggestionService = categorySuggestionService;
+        this.webhookService = webhookService;
+        this.changeSequenceService = changeSequenceService;
+        this.generatedCounter = Counter.builder("recurring.occurrences.generated")
+                .description("Expenses materialized from recurrence rules")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.recurring.cron:0 5 * * * *}")
+    public void materializeDueOccurrences() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+        Duration leaseDuration = Duration.ofMillis(leaseDurationMs);
+        try {
+            if (!leaseService.tryAcquire(LEASE_NAME, leaseDuration)) {
+                log.debug("Recurring expense lease is held by another node, skipping this run");
+                return;
+            }
+            try {
+                run(LocalDate.now(), leaseDuration);
+            } finally {
+                leaseService.release(LEASE_NAME);
+            }
+        } catch (Exception e) {
+            log.error("Recurring expense materialization failed: {}", e.getMessage(), e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void run(LocalDate today, Duration leaseDuration) throws InterruptedException {
+        long started = System.currentTimeMillis();
+        List<Long> userIds = jdbcTemplate.queryForList("SELECT DISTINCT user_id FROM recurrence_rules " +
+                "WHERE is_active = TRUE AND next_occurrence_date <= ? ORDER BY user_id", Long.class, Date.valueOf(today));
+        if (userIds.isEmpty()) {
+            return;
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers, Thread.ofPlatform().name("recurring-", 0).factory());
+        AtomicBoolean leaseLost = new AtomicBoolean();
+        List<Future<Integer>> chunks = new ArrayList<>();
+        try {
+            for (int from = 0; from < userIds.size(); from += usersPerChunk) {
+                List<Long> chunk = userIds.subList(from, Math.min(from + usersPerChunk, userIds.size()));
+                chunks.add(pool.submit(() -> {
+                    // Another node may take over once the lease lapses; stop instead of racing it
+                    if (leaseLost.get() || !leaseService.renew(LEASE_NAME, leaseDuration)) {
+                        leaseLost.set(true);
+                        return 0;
+                    }
+                    DataSourceWorkload.set(DataSourceWorkload.ANALYTICS);
+                    try {
+                        return transactionTemplate.execute(status -> processChunk(chunk, today));
+                    } finally {
+                        DataSourceWorkload.clear();
+                    }
+                }));
+            }
+
+            int generated = 0;
+            int failedChunks = 0;
+            for (Future<Integer> chunk : chunks) {
+                try {
+                    generated += chunk.get();
+                } catch (ExecutionException e) {
+                    failedChunks++;
+                    log.error("Recurring expense chunk failed: {}", e.getCause().getMessage(), e.getCause());
+                }
+            }
+            log.info("Materialized {} recurring expenses for {} users in {} chunks ({} failed{}) in {} ms",
+                    generated, userIds.size(), chunks.size(), failedChunks, leaseLost.get() ? ", lease lost" : "",
+                    System.currentTimeMillis() - started);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private int processChunk(List<Long> userIds, LocalDate today) {
+        String users = userIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        List<DueRule> rules = jdbcTemplate.query("SELECT id, user_id, wallet_id, category_id, amount, currency, " +
+                        "merchant, description, type, frequency, interval_count, start_date, end_date, occurrence_count " +
+                        "FROM recurrence_rules WHERE is_active = TRUE AND next_occurrence_date <= ? " +
+                        "AND user_id IN (" + users + ") FOR UPDATE",
+                (rs, rowNum) -> {
+                    String type = rs.getString("type");
+                    Date endDate = rs.getDate("end_date");
+                    return new DueRule(
+                            rs.getLong("id"),
+                            rs.getLong("user_id"),
+                            rs.getLong("wallet_id"),
+                            rs.getLong("category_id"),
+                            rs.getBigDecimal("amount"),
+                            rs.getString("currency"),
+                            rs.getString("merchant"),
+                            rs.getString("description"),
+                            type != null ? Expense.ExpenseType.valueOf(type) : null,
+                            RecurrenceRule.Frequency.valueOf(rs.getString("frequency")),
+                            rs.getInt("interval_count"),
+                            rs.getDate("start_date").toLocalDate(),
+                            endDate != null ? endDate.toLocalDate() : null,
+                            rs.getInt("occurrence_count"));
+                },
+                Date.valueOf(today));
+        if (rules.isEmpty()) {
+            return 0;
+        }
+
+        List<Occurrence> occurrences = new ArrayList<>();
+        List<Object[]> advances = new ArrayList<>();
+        for (DueRule rule : rules) {
+            int index = rule.occurrenceCount();
+            LocalDate date = rule.occurrenceWithinEnd(index);
+            while (date != null && !date.isAfter(today) && index - rule.occurrenceCount() < maxOccurrencesPerRule) {
+                occurrences.add(new Occurrence(rule, date));
+                date = rule.occurrenceWithinEnd(++index);
+            }
+            advances.add(new Object[]{index, date != null ? Date.valueOf(date) : null, rule.id()});
+        }
+
+        // Occurrences that already exist, e.g. from a run whose lease lapsed mid-chunk, are not applied twice
+        Set<OccurrenceKey> existing = findExisting(occurrences).keySet();
+        List<Occurrence> pending = occurrences.stream()
+                .filter(occurrence -> !existing.contains(occurrence.key()))
+                .toList();
+
+        int[] counts = jdbcTemplate.batchUpdate(INSERT_OCCURRENCE, pending.stream()
+                .map(occurrence -> new Object[]{
+                        occurrence.rule().userId(), occurrence.rule().walletId(), occurrence.rule().categoryId(),
+                        occurrence.rule().amount(), occurrence.rule().currency(), Date.valueOf(occurrence.date()),
+                        occurrence.rule().merchant(), occurrence.rule().description(),
+                        occurrence.rule().type() != null ? occurrence.rule().type().name() : null,
+                        occurrence.rule().id()})
+                .toList());
+
+        Map<Long, BigDecimal> walletDeltas = new HashMap<>();
+        Map<Long, Set<Long>> walletsByUser = new LinkedHashMap<>();
+        List<Occurrence> inserted = new ArrayList<>();
+        for (int i = 0; i < pending.size(); i++) {
+            // A rewritten batch reports SUCCESS_NO_INFO; rows known to exist were filtered out above
+            if (counts[i] == 0) {
+                continue;
+            }
+            DueRule rule = pending.get(i).rule();
+            BigDecimal delta = switch (rule.type() != null ? rule.type() : Expense.ExpenseType.EXPENSE) {
+                case EXPENSE -> rule.amount().negate();
+                case INCOME -> rule.amount();
+                case TRANSFER -> BigDecimal.ZERO;
+            };
+            walletDeltas.merge(rule.walletId(), delta, BigDecimal::add);
+            walletsByUser.computeIfAbsent(rule.userId(), id -> new LinkedHashSet<>()).add(rule.walletId());
+            categorySuggestionService.recordChange(rule.userId(), null,
+                    new CategorySample(rule.merchant(), rule.description(), rule.categoryId()));
+            inserted.add(pending.get(i));
+        }
+
+        jdbcTemplate.batchUpdate("UPDATE wallets SET balance = balance + ?, updated_at = NOW(6) WHERE id = ?",
+                walletDeltas.entrySet().stream()
+                        .filter(delta -> delta.getValue().signum() != 0)
+                        .map(delta -> new Object[]{delta.getValue(), delta.getKey()})
+                        .toList());
+        notifyBalanceChanges(walletDeltas);
+        jdbcTemplate.batchUpdate("UPDATE recurrence_rules SET occurrence_count = ?, next_occurrence_date = ?, " +
+                "updated_at = NOW(6) WHERE id = ?", advances);
+        recordSyncChanges(inserted, walletsByUser);
+
+        for (Long userId : walletsByUser.keySet()) {
+            budgetService.updateBudgetSpentAmounts(userId);
+            analyticsResultCache.invalidateUser(userId);
+            expenseSearchService.invalidateUser(userId);
+        }
+
+        generatedCounter.increment(inserted.size());
+        return inserted.size();
+    }
+
+    private void recordSyncChanges(List<Occurrence> inserted, Map<Long, Set<Long>> walletsByUser) {
+        Map<OccurrenceKey, Long> expenseIds = findExisting(inserted);
+        Map<Long, List<Long>> expensesByUser = new HashMap<>();
+        for (Occurrence occurrence : inserted) {
+            Long expenseId = expenseIds.get(occurrence.key());
+            if (expenseId != null) {
+                expensesByUser.computeIfAbsent(occurrence.rule().userId(), id -> new ArrayList<>()).add(expenseId);
+            }
+        }
+        walletsByUser.forEach((userId, walletIds) -> {
+            changeSequenceService.recordChanges(userId, SyncResponse.EntityType.EXPENSE,
+                    expensesByUser.getOrDefault(userId, List.of()), false);
+            changeSequenceService.recordChanges(userId, SyncResponse.EntityType.WALLET, walletIds, false);
+        });
+    }
+
+    private void notifyBalanceChanges(Map<Long, BigDecimal> walletDeltas) {
+        List<Long> walletIds = walletDeltas.entrySet().stream()
+                .filter(delta -> delta.getValue().signum() < 0)
+                .map(Map.Entry::getKey)
+                .toList();
+        if (walletIds.isEmpty()) {
+            return;
+        }
+        List<WalletBalance> balances = jdbcTemplate.query("SELECT id, user_id, currency, balance FROM wallets " +
+                        "WHERE id IN (" + walletIds.stream().map(String::valueOf).collect(Collectors.joining(",")) + ")",
+                (rs, rowNum) -> new WalletBalance(rs.getLong("id"), rs.getLong("user_id"), rs.getString("currency"),
+                        rs.getBigDecimal("balance")));
+        for (WalletBalance wallet : balances) {
+            webhookService.onWalletBalanceChanged(wallet.userId(), wallet.id(), wallet.currency(),
+                    wallet.balance().subtract(walletDeltas.get(wallet.id())), wallet.balance());
+        }
+    }
+
+    // Expense ids of the occurrences that already exist
+    private Map<OccurrenceKey, Long> findExisting(List<Occurrence> occurrences) {
+        if (occurrences.isEmpty()) {
+            return Map.of();
+        }
+        String ruleIds = occurrences.stream().map(occurrence -> String.valueOf(occurrence.rule().id()))
+                .distinct().collect(Collectors.joining(","));
+        LocalDate from = occurrences.stream().map(Occurrence::date).min(LocalDate::compareTo).orElseThrow();
+        LocalDate to = occurrences.stream().map(Occurrence::date).max(LocalDate::compareTo).orElseThrow();
+
+        Map<OccurrenceKey, Long> existing = new HashMap<>();
+        jdbcTemplate.query("SELECT id, recurrence_rule_id, transaction_date FROM expenses " +
+                        "WHERE recurrence_rule_id IN (" + ruleIds + ") AND transaction_date BETWEEN ? AND ?",
+                rs -> {
+                    existing.put(new OccurrenceKey(rs.getLong("recurrence_rule_id"), rs.getDate("transaction_date").toLocalDate()),
+                            rs.getLong("id"));
+                },
+                Date.valueOf(from), Date.valueOf(to));
+        return existing;
+    }
+
+    private record WalletBalance(Long id, Long userId, String currency, BigDecimal balance) {
+    }
+
+    private record DueRule(Long id, Long userId, Long walletId, Long categoryId, BigDecimal amount, String currency,
+                           String merchant, String description, Expense.ExpenseType type,
+                           RecurrenceRule.Frequency frequency, int intervalCount, LocalDate startDate,
+                           LocalDate endDate, int occurrenceCount) {
+
+        LocalDate occurrenceWithinEnd(int index) {
+            LocalDate date = frequency.occurrence(startDate, intervalCount, index);
+            return endDate == null || !date.isAfter(endDate) ? date : null;
+        }
+    }
+
+    private record Occurrence(DueRule rule, LocalDate date) {
+
+        OccurrenceKey key() {
+            return new OccurrenceKey(rule.id(), date);
+        }
+    }
+
+    private record OccurrenceKey(Long ruleId, LocalDate date) {
+    }
+}
@@ -0,0 +1,61 @@
+package com.spendSmart.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Time-bound leases in the scheduler_leases table, so a scheduled job runs on one node at a time.
+ * Expiry is judged by the database clock, never by the nodes' own clocks. A holder that stops
+ * renewing loses the lease once it expires; jobs must therefore stay idempotent.
+ */
+@Service
+@Slf4j
+public class SchedulerLeaseService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String owner;
+
+    public SchedulerLeaseService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.owner = hostName() + "/" + UUID.randomUUID();
+    }
+
+    // Takes the lease if it is free or expired, or extends it if this node already holds it
+    public boolean tryAcquire(String name, Duration duration) {
+        jdbcTemplate.update("INSERT IGNORE INTO scheduler_leases (name, owner, lease_until, acquired_at) " +
+                "VALUES (?, '', NOW(6), NOW(6))", name);
+        int updated = jdbcTemplate.update("UPDATE scheduler_leases " +
+                        "SET acquired_at = IF(owner = ?, acquired_at, NOW(6)), owner = ?, " +
+                        "lease_until = NOW(6) + INTERVAL ? MICROSECOND " +
+                        "WHERE name = ? AND (owner = ? OR lease_until < NOW(6))",
+                owner, owner, duration.toNanos() / 1000, name, owner);
+        return updated == 1;
+    }
+
+    public boolean renew(String name, Duration duration) {
+        return jdbcTemplate.update("UPDATE scheduler_leases SET lease_until = NOW(6) + INTERVAL ? MICROSECOND " +
+                "WHERE name = ? AND owner = ? AND lease_until >= NOW(6)", duration.toNanos() / 1000, name, owner) == 1;
+    }
+
+    public void release(String name) {
+        jdbcTemplate.update("UPDATE scheduler_leases SET lease_until = NOW(6) WHERE name = ? AND owner = ?", name, owner);
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown-host";
+        }
+    }
+}
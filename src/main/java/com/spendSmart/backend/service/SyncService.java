@@ -0,0 +1,92 @@
+package com.spendSmart.backend.service;
+
+import com.spendSmart.backend.dto.category.CategoryResponse;
+import com.spendSmart.backend.dto.sync.SyncResponse;
+import com.spendSmart.backend.exception.ValidationException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Delta sync: returns the entities a user changed after a given change sequence number, read from
+ * sync_changes in sequence order. A first sync (since = 0) gets every live entity plus the system
+ * categories and no tombstones.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class SyncService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ExpenseService expenseService;
+    private final WalletService walletService;
+    private final CategoryService categoryService;
+    private final BudgetService budgetService;
+
+    @Value("${app.sync.max-page-size:1000}")
+    private int maxPageSize;
+
+    public SyncResponse getChanges(Long userId, long since, int limit) {
+        if (since < 0) {
+            throw new ValidationException("since must not be negative");
+        }
+        if (limit < 1 || limit > maxPageSize) {
+            throw new ValidationException("limit must be between 1 and " + maxPageSize);
+        }
+
+        List<Change> changes = jdbcTemplate.query("SELECT entity_type, entity_id, seq, deleted FROM sync_changes " +
+                        "WHERE user_id = ? AND seq > ? " + (since == 0 ? "AND deleted = FALSE " : "") +
+                        "ORDER BY seq LIMIT ?",
+                (rs, rowNum) -> new Change(
+                        SyncResponse.EntityType.valueOf(rs.getString("entity_type")),
+                        rs.getLong("entity_id"),
+                        rs.getLong("seq"),
+                        rs.getBoolean("deleted")),
+                userId, since, limit + 1);
+        boolean hasMore = changes.size() > limit;
+        if (hasMore) {
+            changes = changes.subList(0, limit);
+        }
+
+        Map<SyncResponse.EntityType, List<Long>> changed = new EnumMap<>(SyncResponse.EntityType.class);
+        List<SyncResponse.Tombstone> deleted = new ArrayList<>();
+        for (Change change : changes) {
+            if (change.deleted()) {
+                deleted.add(new SyncResponse.Tombstone(change.type(), change.entityId()));
+            } else {
+                changed.computeIfAbsent(change.type(), type -> new ArrayList<>()).add(change.entityId());
+            }
+        }
+
+        // Entities that changed again since this page was read are returned in their newer state;
+        // the later change shows up again on the next call
+        List<CategoryResponse> categories = new ArrayList<>();
+        if (since == 0) {
+            categories.addAll(categoryService.getSystemCategories());
+        }
+        categories.addAll(categoryService.getCategoriesByIds(ids(changed, SyncResponse.EntityType.CATEGORY), userId));
+        return SyncResponse.builder()
+                .nextSince(changes.isEmpty() ? since : changes.get(changes.size() - 1).seq())
+                .hasMore(hasMore)
+                .expenses(expenseService.getExpensesByIds(ids(changed, SyncResponse.EntityType.EXPENSE), userId))
+                .wallets(walletService.getWalletsByIds(ids(changed, SyncResponse.EntityType.WALLET), userId))
+                .categories(categories)
+                .budgets(budgetService.getBudgetsByIds(ids(changed, SyncResponse.EntityType.BUDGET), userId))
+                .deleted(deleted)
+                .build();
+    }
+
+    private static List<Long> ids(Map<SyncResponse.EntityType, List<Long>> changed, SyncResponse.EntityType type) {
+        return changed.getOrDefault(type, List.of());
+    }
+
+    private record Change(SyncResponse.EntityType type, Long entityId, long seq, boolean deleted) {
+    }
+}
@@ -0,0 +1,217 @@
+package com.spendSmart.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spendSmart.backend.archive.ArchivedExpense;
+import com.spendSmart.backend.dto.analytics.TagSpendResponse;
+import com.spendSmart.backend.entity.Expense;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the normalized tag tables in step with {@code expenses.tags_json}, which stays the
+ * source the API reads and writes. {@code expense_tags} repeats each expense's user, date, type
+ * and amount so tag filters and per-tag totals never touch the expenses table.
+ */
+@Service
+@RequiredArgsConstructor
+public class TagService {
+
+    private static final int MAX_TAG_LENGTH = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ExpenseArchiveService expenseArchiveService;
+
+    // Replaces the expense's tag rows; call after the expense has been saved and has an id
+    public void syncExpenseTags(Expense expense) {
+        removeExpenseTags(expense.getId());
+
+        Map<String, String> names = normalize(parseTags(expense.getTagsJson()));
+        if (names.isEmpty()) {
+            return;
+        }
+        Long userId = expense.getUser().getId();
+
+        jdbcTemplate.batchUpdate("INSERT IGNORE INTO tags (user_id, name, created_at) VALUES (?, ?, NOW(6))",
+                names.values().stream().map(name -> new Object[]{userId, name}).toList());
+
+        List<Long> tagIds = findTagIds(userId, names.values()).values().stream().distinct().toList();
+        jdbcTemplate.batchUpdate("INSERT IGNORE INTO expense_tags (expense_id, tag_id, user_id, transaction_date, type, amount) " +
+                        "VALUES (?, ?, ?, ?, ?, ?)",
+                tagIds.stream().map(tagId -> new Object[]{
+                        expense.getId(), tagId, userId, Date.valueOf(expense.getTransactionDate()),
+                        expense.getType() != null ? expense.getType().name() : null, expense.getAmount()}).toList());
+    }
+
+    public void removeExpenseTags(Long expenseId) {
+        jdbcTemplate.update("DELETE FROM expense_tags WHERE expense_id = ?", expenseId);
+    }
+
+    public Optional<Long> findTagId(Long userId, String name) {
+        Map<String, String> names = normalize(List.of(name));
+        if (names.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(findTagIds(userId, names.values()).get(names.keySet().iterator().next()));
+    }
+
+    /**
+     * Income and expense totals per tag in the range. Live rows are summed by MySQL from the covering
+     * index on expense_tags; archived rows are added from their segments.
+     */
+    public List<TagSpendResponse> getTagSpend(Long userId, LocalDate startDate, LocalDate endDate) {
+        Map<Long, TagSpendResponse> totals = new LinkedHashMap<>();
+        jdbcTemplate.query(
+                "SELECT et.tag_id, t.name, " +
+                "SUM(CASE WHEN et.type = 'EXPENSE' THEN et.amount ELSE 0 END) AS total_expenses, " +
+                "SUM(CASE WHEN et.type = 'INCOME' THEN et.amount ELSE 0 END) AS total_income, " +
+                "COUNT(*) AS transaction_count " +
+                "FROM expense_tags et JOIN tags t ON t.id = et.tag_id " +
+                "WHERE et.user_id = ? AND et.transaction_date BETWEEN ? AND ? " +
+                "GROUP BY et.tag_id, t.name",
+                rs -> {
+                    totals.put(rs.getLong("tag_id"), TagSpendResponse.builder()
+                            .tagId(rs.getLong("tag_id"))
+                            .name(rs.getString("name"))
+                            .totalExpenses(rs.getBigDecimal("total_expenses"))
+                            .totalIncome(rs.getBigDecimal("total_income"))
+                            .transactionCount(rs.getInt("transaction_count"))
+                            .build());
+                },
+                userId, Date.valueOf(startDate), Date.valueOf(endDate));
+
+        addArchivedSpend(totals, userId, startDate, endDate);
+
+        List<TagSpendResponse> result = new ArrayList<>(totals.values());
+        result.sort(Comparator.comparing(TagSpendResponse::getTotalExpenses).reversed()
+                .thenComparing(TagSpendResponse::getName));
+        return result;
+    }
+
+    // tagsJson is normally a JSON array of strings; anything else is treated as comma-separated
+    public List<String> parseTags(String tagsJson) {
+        if (tagsJson == null || tagsJson.isBlank()) {
+            return List.of();
+        }
+        try {
+            return Arrays.asList(objectMapper.readValue(tagsJson, String[].class));
+        } catch (JsonProcessingException e) {
+            return Arrays.stream(tagsJson.split(",")).map(String::strip).filter(tag -> !tag.isEmpty()).toList();
+        }
+    }
+
+    public boolean hasTag(String tagsJson, String name) {
+        Map<String, String> names = normalize(List.of(name));
+        return !names.isEmpty() && normalize(parseTags(tagsJson)).containsKey(names.keySet().iterator().next());
+    }
+
+    private void addArchivedSpend(Map<Long, TagSpendResponse> totals, Long userId, LocalDate startDate, LocalDate endDate) {
+        List<ArchivedExpense> archived = expenseArchiveService.findArchived(userId, startDate, endDate);
+        if (archived.isEmpty()) {
+            return;
+        }
+        Map<ArchivedExpense, Map<String, String>> tagsByExpense = new HashMap<>();
+        for (ArchivedExpense expense : archived) {
+            Map<String, String> names = normalize(parseTags(expense.tagsJson()));
+            if (!names.isEmpty()) {
+                tagsByExpense.put(expense, names);
+            }
+        }
+        if (tagsByExpense.isEmpty()) {
+            return;
+        }
+
+        // Archived expenses keep their dictionary entries, so their tags resolve to the same ids
+        Map<String, Long> tagIds = findTagIds(userId, tagsByExpense.values().stream()
+                .flatMap(names -> names.values().stream()).distinct().toList());
+        Map<Long, String> tagNames = new HashMap<>();
+        tagsByExpense.values().forEach(names -> names.forEach((key, name) -> {
+            Long tagId = tagIds.get(key);
+            if (tagId != null) {
+                tagNames.putIfAbsent(tagId, name);
+            }
+        }));
+
+        tagsByExpense.forEach((expense, names) -> names.keySet().stream()
+                .map(tagIds::get)
+                .filter(Objects::nonNull)
+                .distinct()
+                .forEach(tagId -> {
+                    TagSpendResponse total = totals.computeIfAbsent(tagId, id -> TagSpendResponse.builder()
+                            .tagId(id)
+                            .name(tagNames.get(id))
+                            .totalExpenses(BigDecimal.ZERO)
+                            .totalIncome(BigDecimal.ZERO)
+                            .transactionCount(0)
+                            .build());
+                    if (expense.type() == Expense.ExpenseType.EXPENSE) {
+                        total.setTotalExpenses(total.getTotalExpenses().add(expense.amount()));
+                    } else if (expense.type() == Expense.ExpenseType.INCOME) {
+                        total.setTotalIncome(total.getTotalIncome().add(expense.amount()));
+                    }
+                    total.setTransactionCount(total.getTransactionCount() + 1);
+                }));
+    }
+
+    // Tag names by their lookup key, mirroring the case-insensitive unique key on tags
+    private Map<String, Long> findTagIds(Long userId, Collection<String> names) {
+        if (names.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query("SELECT id, name FROM tags WHERE user_id = ? AND name IN (" +
+                        names.stream().map(name -> "?").collect(Collectors.joining(",")) + ")",
+                rs -> {
+                    ids.put(normalizedKey(rs.getString("name")), rs.getLong("id"));
+                },
+                concat(userId, names));
+        return ids;
+    }
+
+    private static Map<String, String> normalize(List<String> tags) {
+        Map<String, String> names = new LinkedHashMap<>();
+        for (String tag : tags) {
+            if (tag == null || tag.isBlank()) {
+                continue;
+            }
+            String name = tag.strip();
+            if (name.length() > MAX_TAG_LENGTH) {
+                name = name.substring(0, MAX_TAG_LENGTH).strip();
+            }
+            names.putIfAbsent(normalizedKey(name), name);
+        }
+        return names;
+    }
+
+    private static String normalizedKey(String name) {
+        return name.strip().toLowerCase(Locale.ROOT);
+    }
+
+    private static Object[] concat(Long userId, Collection<String> names) {
+        Object[] args = new Object[names.size() + 1];
+        args[0] = userId;
+        int i = 1;
+        for (String name : names) {
+            args[i++] = name;
+        }
+        return args;
+    }
+}
@@ -1,5 +1,7 @@
 package com.spendSmart.backend.service;
 
+import com.spendSmart.backend.dto.stream.LedgerChangeEvent;
+import com.spendSmart.backend.dto.sync.SyncResponse;
 import com.spendSmart.backend.dto.wallet.*;
 import com.spendSmart.backend.entity.User;
 import com.spendSmart.backend.entity.Wallet;
@@ -9,6 +11,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -21,6 +24,12 @@ public class WalletService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private LedgerStreamService ledgerStreamService;
+
+    @Autowired
+    private ChangeSequenceService changeSequenceService;
+
     public List<WalletResponse> getUserWallets(Long userId) {
         List<Wallet> wallets = walletRepository.findByUserIdAndIsActiveTrue(userId);
         return wallets.stream()
@@ -54,6 +63,7 @@ public class WalletService {
                     .ifPresent(defaultWallet -> {
                         defaultWallet.setIsDefault(false);
                         walletRepository.save(defaultWallet);
+                        recordChange(userId, defaultWallet);
                     });
         }
 
@@ -68,6 +78,8 @@ public class WalletService {
                 .build();
 
         Wallet savedWallet = walletRepository.save(wallet);
+        ledgerStreamService.walletChanged(userId, LedgerChangeEvent.ChangeType.WALLET_CREATED, savedWallet);
+        recordChange(userId, savedWallet);
         return mapToWalletResponse(savedWallet);
     }
 
@@ -88,6 +100,7 @@ public class WalletService {
                     .ifPresent(defaultWallet -> {
                         defaultWallet.setIsDefault(false);
                         walletRepository.save(defaultWallet);
+                        recordChange(userId, defaultWallet);
                     });
         }
 
@@ -105,6 +118,8 @@ public class WalletService {
         }
 
         Wallet updatedWallet = walletRepository.save(wallet);
+        ledgerStreamService.walletChanged(userId, LedgerChangeEvent.ChangeType.WALLET_UPDATED, updatedWallet);
+        recordChange(userId, updatedWallet);
         return mapToWalletResponse(updatedWallet);
     }
 
@@ -116,6 +131,8 @@ public class WalletService {
         // Soft delete
         wallet.setIsActive(false);
         walletRepository.save(wallet);
+        ledgerStreamService.walletChanged(userId, LedgerChangeEvent.ChangeType.WALLET_DELETED, wallet);
+        recordChange(userId, wallet);
 
         // If this was the default wallet, set another wallet as default
         if (wallet.getIsDefault()) {
@@ -124,10 +141,24 @@ public class WalletService {
                 Wallet newDefault = otherWallets.get(0);
                 newDefault.setIsDefault(true);
                 walletRepository.save(newDefault);
+                recordChange(userId, newDefault);
             }
         }
     }
 
+    // Current state of the given wallets for delta sync; other users' wallets are left out
+    public List<WalletResponse> getWalletsByIds(Collection<Long> walletIds, Long userId) {
+        return walletRepository.findAllById(walletIds).stream()
+                .filter(wallet -> wallet.getUser().getId().equals(userId) && wallet.getIsActive())
+                .map(this::mapToWalletResponse)
+                .collect(Collectors.toList());
+    }
+
+    // Deactivated wallets are deleted as far as sync is concerned
+    private void recordChange(Long userId, Wallet wallet) {
+        changeSequenceService.recordChange(userId, SyncResponse.EntityType.WALLET, wallet.getId(), !wallet.getIsActive());
+    }
+
     private WalletResponse mapToWalletResponse(Wallet wallet) {
         return new WalletResponse(
                 wallet.getId(),
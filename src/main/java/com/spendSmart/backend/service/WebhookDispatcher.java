@@ -0,0 +1,366 @@
+package com.spendSmart.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.spendSmart.backend.config.DataSourceWorkload;
+import com.spendSmart.backend.webhook.WebhookAddressPolicy;
+import com.spendSmart.backend.webhook.WebhookSender;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Sends queued webhook deliveries.
+ * <p>
+ * Due deliveries are claimed with FOR UPDATE SKIP LOCKED and moved to SENDING with a visibility
+ * timeout, so several nodes can dispatch at once and a node that dies mid-request only delays its
+ * deliveries. Events for the same subscription go out together, up to
+ * {@code app.webhooks.max-events-per-request} per request. Requests are sent asynchronously on a
+ * bounded client pool with at most {@code app.webhooks.max-concurrent-requests} in flight. Once
+ * every slot is taken, the rest of the batch is handed back as due and left to a later poll, so a
+ * slow endpoint throttles the dispatcher without ever blocking the scheduler thread. Failed
+ * requests back off exponentially until the attempt limit marks their deliveries FAILED.
+ */
+@Service
+@Slf4j
+public class WebhookDispatcher {
+
+    private static final String SELECT_DUE = "SELECT id, subscription_id, event_type, payload, attempts, created_at " +
+            "FROM webhook_deliveries WHERE status IN ('PENDING', 'SENDING') AND available_at <= NOW(6) ";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final AtomicBoolean dispatching = new AtomicBoolean();
+    private final ExecutorService wakeUpExecutor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("webhook-dispatcher").daemon().factory());
+
+    private ExecutorService clientExecutor;
+    private HttpClient httpClient;
+    private WebhookSender sender;
+    private Semaphore inFlight;
+
+    @Value("${app.webhooks.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.webhooks.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.webhooks.max-events-per-request:50}")
+    private int maxEventsPerRequest;
+
+    @Value("${app.webhooks.max-concurrent-requests:32}")
+    private int maxConcurrentRequests;
+
+    @Value("${app.webhooks.client-threads:4}")
+    private int clientThreads;
+
+    @Value("${app.webhooks.connect-timeout-ms:5000}")
+    private long connectTimeoutMs;
+
+    @Value("${app.webhooks.request-timeout-ms:10000}")
+    private long requestTimeoutMs;
+
+    @Value("${app.webhooks.visibility-timeout-ms:120000}")
+    private long visibilityTimeoutMs;
+
+    @Value("${app.webhooks.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${app.webhooks.backoff-initial-ms:5000}")
+    private long backoffInitialMs;
+
+    @Value("${app.webhooks.backoff-max-ms:3600000}")
+    private long backoffMaxMs;
+
+    @Value("${app.webhooks.retention-days:7}")
+    private int retentionDays;
+
+    @Value("${app.webhooks.allow-private-addresses:false}")
+    private boolean allowPrivateAddresses;
+
+    public WebhookDispatcher(JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        clientExecutor = Executors.newFixedThreadPool(clientThreads,
+                Thread.ofPlatform().name("webhook-client-", 0).daemon().factory());
+        httpClient = HttpClient.newBuilder()
+                .executor(clientExecutor)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        sender = new WebhookSender(httpClient, Duration.ofMillis(requestTimeoutMs), Clock.systemUTC(),
+                new WebhookAddressPolicy(allowPrivateAddresses));
+        inFlight = new Semaphore(maxConcurrentRequests);
+        meterRegistry.gauge("webhook.requests.in-flight", inFlight,
+                semaphore -> maxConcurrentRequests - semaphore.availablePermits());
+    }
+
+    @EventListener
+    public void onDeliveriesQueued(WebhookService.WebhookDeliveriesQueued queued) {
+        wakeUpExecutor.execute(this::dispatch);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wakeUpExecutor.shutdownNow();
+        httpClient.shutdownNow();
+        clientExecutor.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${app.webhooks.poll-interval-ms:2000}")
+    public void dispatch() {
+        if (!enabled || !dispatching.compareAndSet(false, true)) {
+            return;
+        }
+        DataSourceWorkload.set(DataSourceWorkload.ANALYTICS);
+        try {
+            while (dispatchBatch() == batchSize) {
+                // Keep draining while full batches come back
+            }
+        } catch (Exception e) {
+            log.error("Webhook dispatch failed: {}", e.getMessage(), e);
+        } finally {
+            DataSourceWorkload.clear();
+            dispatching.set(false);
+        }
+    }
+
+    @Scheduled(cron = "${app.webhooks.purge-cron:0 50 4 * * *}")
+    public void purgeFinishedDeliveries() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(retentionDays));
+        int purged = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update("DELETE FROM webhook_deliveries WHERE status IN ('DELIVERED', 'FAILED') " +
+                    "AND finished_at < ? LIMIT 10000", cutoff);
+            purged += deleted;
+        } while (deleted > 0);
+        if (purged > 0) {
+            log.info("Purged {} finished webhook deliveries older than {} days", purged, retentionDays);
+        }
+    }
+
+    private int dispatchBatch() {
+        List<Delivery> claimed = transactionTemplate.execute(status -> {
+            List<Delivery> due = jdbcTemplate.query(SELECT_DUE + "ORDER BY available_at LIMIT ? FOR UPDATE SKIP LOCKED",
+                    (rs, rowNum) -> new Delivery(
+                            rs.getLong("id"),
+                            rs.getLong("subscription_id"),
+                            rs.getString("event_type"),
+                            rs.getString("payload"),
+                            rs.getInt("attempts"),
+                            rs.getTimestamp("created_at").toLocalDateTime()),
+                    batchSize);
+            if (!due.isEmpty()) {
+                jdbcTemplate.update("UPDATE webhook_deliveries SET status = 'SENDING', " +
+                        "available_at = NOW(6) + INTERVAL ? MICROSECOND WHERE id IN (" + ids(due) + ")",
+                        visibilityTimeoutMs * 1000);
+            }
+            return due;
+        });
+        if (claimed == null || claimed.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, List<Delivery>> bySubscription = claimed.stream()
+                .collect(Collectors.groupingBy(Delivery::subscriptionId, LinkedHashMap::new, Collectors.toList()));
+        Map<Long, Endpoint> endpoints = findActiveEndpoints(bySubscription.keySet().stream().toList());
+
+        List<Delivery> deferred = new ArrayList<>();
+        for (Map.Entry<Long, List<Delivery>> entry : bySubscription.entrySet()) {
+            Endpoint endpoint = endpoints.get(entry.getKey());
+            if (endpoint == null) {
+                markFailed(entry.getValue(), null, "Subscription is no longer active", "dropped");
+                continue;
+            }
+            List<Delivery> deliveries = entry.getValue();
+            for (int from = 0; from < deliveries.size(); from += maxEventsPerRequest) {
+                List<Delivery> request = deliveries.subList(from, Math.min(from + maxEventsPerRequest, deliveries.size()));
+                if (!deferred.isEmpty() || !send(endpoint, request)) {
+                    deferred.addAll(request);
+                }
+            }
+        }
+        if (!deferred.isEmpty()) {
+            // The client is saturated: stop draining and let a later poll send the rest
+            jdbcTemplate.update("UPDATE webhook_deliveries SET status = 'PENDING', available_at = NOW(6) " +
+                    "WHERE id IN (" + ids(deferred) + ") AND status = 'SENDING'");
+            count("deferred", deferred.size());
+            return 0;
+        }
+        return claimed.size();
+    }
+
+    // False, without sending, when every request slot is taken
+    private boolean send(Endpoint endpoint, List<Delivery> deliveries) {
+        if (!inFlight.tryAcquire()) {
+            return false;
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            sender.send(endpoint.url(), endpoint.secret(), toBody(deliveries))
+                    .whenComplete((response, error) -> {
+                        boolean delivered = error == null && response.statusCode() / 100 == 2;
+                        sample.stop(meterRegistry.timer("webhook.requests", "outcome", delivered ? "success" : "failure"));
+                        complete(deliveries, response, error);
+                    });
+        } catch (RuntimeException e) {
+            sample.stop(meterRegistry.timer("webhook.requests", "outcome", "failure"));
+            complete(deliveries, null, e);
+        }
+        return true;
+    }
+
+    private void complete(List<Delivery> deliveries, HttpResponse<Void> response, Throwable error) {
+        DataSourceWorkload.set(DataSourceWorkload.ANALYTICS);
+        try {
+            Integer statusCode = response != null ? response.statusCode() : null;
+            if (error == null && statusCode / 100 == 2) {
+                jdbcTemplate.update("UPDATE webhook_deliveries SET status = 'DELIVERED', attempts = attempts + 1, " +
+                        "delivered_at = NOW(6), finished_at = NOW(6), last_status_code = ?, last_error = NULL " +
+                        "WHERE id IN (" + ids(deliveries) + ") AND status = 'SENDING'", statusCode);
+                count("delivered", deliveries.size());
+            } else {
+                Throwable cause = unwrap(error);
+                String message = cause != null
+                        ? (cause.getMessage() != null ? cause.getMessage() : cause.getClass().getName())
+                        : "HTTP " + statusCode;
+                scheduleRetry(deliveries, statusCode, message);
+            }
+        } catch (RuntimeException e) {
+            // The visibility timeout hands the deliveries to a later poll
+            log.error("Recording the result of {} webhook deliveries failed: {}", deliveries.size(), e.getMessage(), e);
+        } finally {
+            DataSourceWorkload.clear();
+            inFlight.release();
+        }
+    }
+
+    private void scheduleRetry(List<Delivery> deliveries, Integer statusCode, String message) {
+        List<Delivery> exhausted = new ArrayList<>();
+        List<Object[]> retries = new ArrayList<>();
+        for (Delivery delivery : deliveries) {
+            int attempts = delivery.attempts() + 1;
+            if (attempts >= maxAttempts) {
+                exhausted.add(delivery);
+                continue;
+            }
+            // Exponential backoff with jitter, so deliveries that failed together do not retry together
+            long backoff = Math.min(backoffMaxMs, backoffInitialMs << Math.min(attempts - 1, 30));
+            long delayMs = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+            retries.add(new Object[]{attempts, statusCode, message, delayMs * 1000, delivery.id()});
+        }
+        if (!retries.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE webhook_deliveries SET status = 'PENDING', attempts = ?, " +
+                    "last_status_code = ?, last_error = ?, available_at = NOW(6) + INTERVAL ? MICROSECOND " +
+                    "WHERE id = ? AND status = 'SENDING'", retries);
+            count("retried", retries.size());
+        }
+        if (!exhausted.isEmpty()) {
+            log.warn("{} webhook deliveries to subscription {} failed after {} attempts: {}",
+                    exhausted.size(), exhausted.get(0).subscriptionId(), maxAttempts, message);
+            markFailed(exhausted, statusCode, message, "failed");
+        }
+    }
+
+    private void markFailed(List<Delivery> deliveries, Integer statusCode, String message, String outcome) {
+        jdbcTemplate.update("UPDATE webhook_deliveries SET status = 'FAILED', attempts = attempts + 1, " +
+                "finished_at = NOW(6), last_status_code = ?, last_error = ? WHERE id IN (" + ids(deliveries) + ")",
+                statusCode, message);
+        count(outcome, deliveries.size());
+    }
+
+    private Map<Long, Endpoint> findActiveEndpoints(List<Long> subscriptionIds) {
+        Map<Long, Endpoint> endpoints = new HashMap<>();
+        jdbcTemplate.query("SELECT id, url, secret FROM webhook_subscriptions WHERE is_active = TRUE AND id IN (" +
+                        subscriptionIds.stream().map(String::valueOf).collect(Collectors.joining(",")) + ")",
+                rs -> {
+                    endpoints.put(rs.getLong("id"), new Endpoint(rs.getString("url"), rs.getString("secret")));
+                });
+        return endpoints;
+    }
+
+    // {"events": [{"id", "type", "createdAt", "data"}, ...]}; ids let receivers drop redelivered events
+    private String toBody(List<Delivery> deliveries) {
+        ObjectNode body = objectMapper.createObjectNode();
+        ArrayNode events = body.putArray("events");
+        for (Delivery delivery : deliveries) {
+            ObjectNode event = events.addObject();
+            event.put("id", delivery.id());
+            event.put("type", delivery.eventType());
+            event.put("createdAt", delivery.createdAt().toString());
+            try {
+                event.set("data", objectMapper.readTree(delivery.payload()));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Malformed payload in webhook delivery " + delivery.id(), e);
+            }
+        }
+        return body.toString();
+    }
+
+    private void count(String outcome, int amount) {
+        if (amount > 0) {
+            meterRegistry.counter("webhook.deliveries", "outcome", outcome).increment(amount);
+        }
+    }
+
+    // The sender's failures arrive wrapped by the futures they passed through
+    private static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof UncheckedIOException) && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    private static String ids(List<Delivery> deliveries) {
+        return deliveries.stream().map(delivery -> String.valueOf(delivery.id())).collect(Collectors.joining(","));
+    }
+
+    private record Delivery(Long id, Long subscriptionId, String eventType, String payload, int attempts,
+                            LocalDateTime createdAt) {
+    }
+
+    private record Endpoint(String url, String secret) {
+    }
+}
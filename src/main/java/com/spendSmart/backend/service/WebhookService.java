@@ -0,0 +1,204 @@
+package com.spendSmart.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spendSmart.backend.dto.webhook.WebhookSubscriptionRequest;
+import com.spendSmart.backend.dto.webhook.WebhookSubscriptionResponse;
+import com.spendSmart.backend.entity.User;
+import com.spendSmart.backend.entity.WebhookSubscription;
+import com.spendSmart.backend.exception.ResourceNotFoundException;
+import com.spendSmart.backend.exception.ValidationException;
+import com.spendSmart.backend.repository.UserRepository;
+import com.spendSmart.backend.repository.WebhookSubscriptionRepository;
+import com.spendSmart.backend.webhook.WebhookAddressPolicy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Webhook subscriptions and the delivery queue. Events are queued in webhook_deliveries inside the
+ * transaction that caused them, one row per matching subscription; {@link WebhookDispatcher}
+ * sends them afterwards.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WebhookService {
+
+    private static final SecureRandom SECRET_RANDOM = new SecureRandom();
+    private static final String INSERT_DELIVERY = "INSERT INTO webhook_deliveries (subscription_id, user_id, " +
+            "event_type, payload, status, attempts, available_at, created_at) " +
+            "SELECT id, user_id, ?, ?, 'PENDING', 0, NOW(6), NOW(6) ";
+
+    private final WebhookSubscriptionRepository subscriptionRepository;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.webhooks.allow-insecure-urls:false}")
+    private boolean allowInsecureUrls;
+
+    @Value("${app.webhooks.allow-private-addresses:false}")
+    private boolean allowPrivateAddresses;
+
+    @Value("${app.webhooks.max-subscriptions-per-user:10}")
+    private int maxSubscriptionsPerUser;
+
+    @Transactional(readOnly = true)
+    public List<WebhookSubscriptionResponse> getSubscriptions(Long userId) {
+        return subscriptionRepository.findByUserIdAndIsActiveTrueOrderByCreatedAtDesc(userId).stream()
+                .map(subscription -> mapToResponse(subscription, false))
+                .toList();
+    }
+
+    @Transactional
+    public WebhookSubscriptionResponse createSubscription(WebhookSubscriptionRequest request, Long userId) {
+        validate(request);
+        if (subscriptionRepository.findByUserIdAndIsActiveTrueOrderByCreatedAtDesc(userId).size() >= maxSubscriptionsPerUser) {
+            throw new ValidationException("A user can have at most " + maxSubscriptionsPerUser + " webhook subscriptions");
+        }
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+
+        byte[] secret = new byte[32];
+        SECRET_RANDOM.nextBytes(secret);
+        WebhookSubscription subscription = WebhookSubscription.builder()
+                .user(user)
+                .url(request.getUrl())
+                .secret(HexFormat.of().formatHex(secret))
+                .lowBalanceThreshold(request.getLowBalanceThreshold())
+                .build();
+        subscription.setEventTypeSet(request.getEventTypes());
+
+        WebhookSubscription saved = subscriptionRepository.save(subscription);
+        log.info("Created webhook subscription {} for user {}", saved.getId(), userId);
+        return mapToResponse(saved, true);
+    }
+
+    @Transactional
+    public WebhookSubscriptionResponse updateSubscription(Long id, WebhookSubscriptionRequest request, Long userId) {
+        validate(request);
+        WebhookSubscription subscription = findSubscription(id, userId);
+        subscription.setUrl(request.getUrl());
+        subscription.setEventTypeSet(request.getEventTypes());
+        subscription.setLowBalanceThreshold(request.getLowBalanceThreshold());
+        return mapToResponse(subscriptionRepository.save(subscription), false);
+    }
+
+    // Deliveries still queued for the subscription are dropped by the dispatcher
+    @Transactional
+    public void deleteSubscription(Long id, Long userId) {
+        WebhookSubscription subscription = findSubscription(id, userId);
+        subscription.setIsActive(false);
+        subscriptionRepository.save(subscription);
+    }
+
+    // Queues an event for every active subscription of the user that listens to its type
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(Long userId, WebhookSubscription.EventType eventType, Object data) {
+        int queued = jdbcTemplate.update(INSERT_DELIVERY + "FROM webhook_subscriptions " +
+                        "WHERE user_id = ? AND is_active = TRUE AND FIND_IN_SET(?, event_types) > 0",
+                eventType.name(), toJson(data), userId, eventType.name());
+        afterQueued(queued);
+    }
+
+    /**
+     * Queues a LOW_BALANCE event for each subscription whose threshold the balance has just dropped
+     * below. Staying below the threshold does not fire again until the balance has recovered.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onWalletBalanceChanged(Long userId, Long walletId, String currency, BigDecimal before, BigDecimal after) {
+        if (before == null || after == null || after.compareTo(before) >= 0) {
+            return;
+        }
+        String eventType = WebhookSubscription.EventType.LOW_BALANCE.name();
+        Map<String, Object> data = Map.of("walletId", walletId, "currency", currency,
+                "previousBalance", before, "balance", after);
+        int queued = jdbcTemplate.update(INSERT_DELIVERY + "FROM webhook_subscriptions " +
+                        "WHERE user_id = ? AND is_active = TRUE AND FIND_IN_SET(?, event_types) > 0 " +
+                        "AND low_balance_threshold IS NOT NULL AND low_balance_threshold <= ? AND low_balance_threshold > ?",
+                eventType, toJson(data), userId, eventType, before, after);
+        afterQueued(queued);
+    }
+
+    private void afterQueued(int queued) {
+        if (queued > 0 && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eventPublisher.publishEvent(new WebhookDeliveriesQueued());
+                }
+            });
+        }
+    }
+
+    private void validate(WebhookSubscriptionRequest request) {
+        URI uri;
+        try {
+            uri = URI.create(request.getUrl());
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid webhook URL");
+        }
+        boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+        boolean insecure = "http".equalsIgnoreCase(uri.getScheme());
+        if (uri.getHost() == null || !(secure || (insecure && allowInsecureUrls))) {
+            throw new ValidationException(allowInsecureUrls
+                    ? "Webhook URL must be an absolute http or https URL"
+                    : "Webhook URL must be an absolute https URL");
+        }
+        try {
+            new WebhookAddressPolicy(allowPrivateAddresses).check(uri.getHost());
+        } catch (IOException e) {
+            throw new ValidationException("Webhook URL must resolve to a public address");
+        }
+        if (request.getEventTypes().contains(WebhookSubscription.EventType.LOW_BALANCE)
+                && request.getLowBalanceThreshold() == null) {
+            throw new ValidationException("A low balance threshold is required for LOW_BALANCE events");
+        }
+    }
+
+    private WebhookSubscription findSubscription(Long id, Long userId) {
+        return subscriptionRepository.findByIdAndUserIdAndIsActiveTrue(id, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Webhook subscription not found with id: " + id));
+    }
+
+    private String toJson(Object data) {
+        try {
+            return objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Webhook payload is not serializable: " + e.getMessage(), e);
+        }
+    }
+
+    private WebhookSubscriptionResponse mapToResponse(WebhookSubscription subscription, boolean includeSecret) {
+        return WebhookSubscriptionResponse.builder()
+                .id(subscription.getId())
+                .url(subscription.getUrl())
+                .eventTypes(subscription.getEventTypeSet())
+                .lowBalanceThreshold(subscription.getLowBalanceThreshold())
+                .secret(includeSecret ? subscription.getSecret() : null)
+                .createdAt(subscription.getCreatedAt())
+                .updatedAt(subscription.getUpdatedAt())
+                .build();
+    }
+
+    // Lets the dispatcher start right after a commit instead of waiting for its next poll
+    public record WebhookDeliveriesQueued() {
+    }
+}
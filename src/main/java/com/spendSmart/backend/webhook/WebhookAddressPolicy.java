@@ -0,0 +1,57 @@
+package com.spendSmart.backend.webhook;
+
+import java.io.IOException;
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+
+/**
+ * Keeps webhooks away from the server's own network. A host is accepted only if every address it
+ * resolves to is public: loopback, link-local (which includes cloud metadata endpoints), private,
+ * shared and unique-local, wildcard and multicast addresses are refused. Private addresses can be
+ * allowed for a local development stub.
+ */
+public class WebhookAddressPolicy {
+
+    private final boolean allowPrivateAddresses;
+
+    public WebhookAddressPolicy(boolean allowPrivateAddresses) {
+        this.allowPrivateAddresses = allowPrivateAddresses;
+    }
+
+    // Resolves the host and returns its addresses, or throws if any of them is not allowed
+    public List<InetAddress> check(String host) throws IOException {
+        if (host == null || host.isEmpty()) {
+            throw new UnknownHostException("Webhook URL has no host");
+        }
+        List<InetAddress> addresses = List.of(InetAddress.getAllByName(host));
+        if (!allowPrivateAddresses) {
+            for (InetAddress address : addresses) {
+                if (!isPublic(address)) {
+                    throw new IOException("Webhook host " + host + " resolves to non-public address "
+                            + address.getHostAddress());
+                }
+            }
+        }
+        return addresses;
+    }
+
+    public static boolean isPublic(InetAddress address) {
+        if (address.isLoopbackAddress() || address.isLinkLocalAddress() || address.isSiteLocalAddress()
+                || address.isAnyLocalAddress() || address.isMulticastAddress()) {
+            return false;
+        }
+        byte[] bytes = address.getAddress();
+        if (address instanceof Inet4Address) {
+            // 100.64.0.0/10, shared address space behind carrier-grade NAT
+            return !((bytes[0] & 0xff) == 100 && (bytes[1] & 0xc0) == 64);
+        }
+        if (address instanceof Inet6Address) {
+            // fc00::/7 unique-local, the IPv6 counterpart of the private IPv4 ranges
+            return (bytes[0] & 0xfe) != 0xfc;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,82 @@
+package com.spendSmart.backend.webhook;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Posts signed webhook batches. Each request carries
+ * {@code X-SpendSmart-Signature: t=<unix seconds>,v1=<hex HMAC-SHA256 of "t.body">}, keyed with the
+ * subscription's secret, so receivers can verify the sender and reject replays by timestamp.
+ * <p>
+ * The host is checked against the {@link WebhookAddressPolicy} again right before every request,
+ * since its DNS records may have changed since the subscription was validated. The client's own
+ * lookup is then answered from the JVM's address cache, which that check has just filled, so the
+ * request goes to one of the addresses that were checked.
+ */
+public class WebhookSender {
+
+    public static final String SIGNATURE_HEADER = "X-SpendSmart-Signature";
+
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+    private final Clock clock;
+    private final WebhookAddressPolicy addressPolicy;
+
+    public WebhookSender(HttpClient httpClient, Duration requestTimeout, Clock clock, WebhookAddressPolicy addressPolicy) {
+        this.httpClient = httpClient;
+        this.requestTimeout = requestTimeout;
+        this.clock = clock;
+        this.addressPolicy = addressPolicy;
+    }
+
+    // Completes exceptionally, without sending, when the host no longer resolves to allowed addresses
+    public CompletableFuture<HttpResponse<Void>> send(String url, String secret, String body) {
+        URI uri = URI.create(url);
+        Executor executor = httpClient.executor().orElse(ForkJoinPool.commonPool());
+        return CompletableFuture
+                .runAsync(() -> {
+                    try {
+                        addressPolicy.check(uri.getHost());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, executor)
+                .thenCompose(checked -> httpClient.sendAsync(request(uri, secret, body),
+                        HttpResponse.BodyHandlers.discarding()));
+    }
+
+    private HttpRequest request(URI uri, String secret, String body) {
+        long timestamp = clock.instant().getEpochSecond();
+        return HttpRequest.newBuilder(uri)
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .header("User-Agent", "SpendSmart-Webhooks/1.0")
+                .header(SIGNATURE_HEADER, "t=" + timestamp + ",v1=" + sign(secret, timestamp, body))
+                .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                .build();
+    }
+
+    public static String sign(String secret, long timestamp, String body) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal((timestamp + "." + body).getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+}
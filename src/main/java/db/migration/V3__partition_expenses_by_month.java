@@ -0,0 +1,63 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Partitions expenses by month of transaction_date. MySQL requires the partition column in every
+ * unique key and does not support foreign keys on partitioned tables, so the primary key becomes
+ * (id, transaction_date) and the foreign keys are dropped; ownership is still enforced by the services.
+ * <p>
+ * Written in Java because databases baselined from hibernate ddl-auto carry generated constraint names.
+ * Only partitions up to the current month are created here; ExpensePartitionService adds future ones.
+ */
+public class V3__partition_expenses_by_month extends BaseJavaMigration {
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    @Override
+    public void migrate(Context context) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(context.getConnection(), true));
+
+        List<String> foreignKeys = jdbcTemplate.queryForList(
+                "SELECT CONSTRAINT_NAME FROM information_schema.REFERENTIAL_CONSTRAINTS " +
+                "WHERE CONSTRAINT_SCHEMA = DATABASE() AND TABLE_NAME = 'expenses'", String.class);
+        for (String foreignKey : foreignKeys) {
+            jdbcTemplate.execute("ALTER TABLE expenses DROP FOREIGN KEY `" + foreignKey + "`");
+        }
+
+        jdbcTemplate.execute("ALTER TABLE expenses DROP PRIMARY KEY, ADD PRIMARY KEY (id, transaction_date)");
+
+        Date oldest = jdbcTemplate.queryForObject("SELECT MIN(transaction_date) FROM expenses", Date.class);
+        YearMonth current = YearMonth.now();
+        YearMonth first = oldest != null ? YearMonth.from(oldest.toLocalDate()) : current;
+        if (first.isAfter(current)) {
+            first = current;
+        }
+
+        // The first partition also holds anything older; pfuture catches dates beyond the last month
+        List<String> partitions = new ArrayList<>();
+        for (YearMonth month = first; !month.isAfter(current); month = month.plusMonths(1)) {
+            LocalDate upperBound = month.plusMonths(1).atDay(1);
+            partitions.add("PARTITION " + month.format(PARTITION_NAME) + " VALUES LESS THAN ('" + upperBound + "')");
+        }
+        partitions.add("PARTITION pfuture VALUES LESS THAN (MAXVALUE)");
+
+        jdbcTemplate.execute("ALTER TABLE expenses PARTITION BY RANGE COLUMNS (transaction_date) (" +
+                String.join(", ", partitions) + ")");
+    }
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+}
@@ -0,0 +1,38 @@
+-- Per-user webhook endpoints and their persistent delivery queue
+
+CREATE TABLE webhook_subscriptions (
+    id                    BIGINT         NOT NULL AUTO_INCREMENT,
+    user_id               BIGINT         NOT NULL,
+    url                   VARCHAR(2048)  NOT NULL,
+    secret                VARCHAR(128)   NOT NULL,
+    event_types           VARCHAR(255)   NOT NULL,
+    low_balance_threshold DECIMAL(15, 2),
+    is_active             BIT            NOT NULL,
+    created_at            DATETIME(6)    NOT NULL,
+    updated_at            DATETIME(6)    NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_webhook_subscriptions_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_webhook_subscriptions_user_active ON webhook_subscriptions (user_id, is_active);
+
+-- SENDING rows carry a visibility timeout in available_at; a node that dies mid-request leaves
+-- them to be picked up again once it passes
+CREATE TABLE webhook_deliveries (
+    id               BIGINT       NOT NULL AUTO_INCREMENT,
+    subscription_id  BIGINT       NOT NULL,
+    user_id          BIGINT       NOT NULL,
+    event_type       VARCHAR(50)  NOT NULL,
+    payload          TEXT         NOT NULL,
+    status           ENUM ('PENDING','SENDING','DELIVERED','FAILED') NOT NULL,
+    attempts         INT          NOT NULL,
+    available_at     DATETIME(6)  NOT NULL,
+    created_at       DATETIME(6)  NOT NULL,
+    delivered_at     DATETIME(6),
+    last_status_code INT,
+    last_error       TEXT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_webhook_deliveries_subscription FOREIGN KEY (subscription_id) REFERENCES webhook_subscriptions (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_webhook_deliveries_status_available ON webhook_deliveries (status, available_at);
@@ -0,0 +1,36 @@
+-- Per-user change sequence for delta sync. sync_changes keeps one row per entity, carrying the
+-- sequence number of its latest change; deletes stay behind as tombstones (deleted = TRUE).
+
+CREATE TABLE user_change_sequences (
+    user_id  BIGINT NOT NULL,
+    last_seq BIGINT NOT NULL,
+    PRIMARY KEY (user_id),
+    CONSTRAINT fk_user_change_sequences_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE sync_changes (
+    user_id     BIGINT      NOT NULL,
+    entity_type ENUM ('EXPENSE','WALLET','CATEGORY','BUDGET') NOT NULL,
+    entity_id   BIGINT      NOT NULL,
+    seq         BIGINT      NOT NULL,
+    deleted     BIT         NOT NULL,
+    changed_at  DATETIME(6) NOT NULL,
+    PRIMARY KEY (user_id, entity_type, entity_id),
+    UNIQUE KEY uk_sync_changes_user_seq (user_id, seq)
+) ENGINE = InnoDB;
+
+-- Existing entities become the first changes of their users, oldest first
+INSERT INTO sync_changes (user_id, entity_type, entity_id, seq, deleted, changed_at)
+SELECT user_id, entity_type, entity_id,
+       ROW_NUMBER() OVER (PARTITION BY user_id ORDER BY changed_at, entity_type, entity_id),
+       FALSE, changed_at
+FROM (SELECT user_id, 'EXPENSE' AS entity_type, id AS entity_id, updated_at AS changed_at FROM expenses
+      UNION ALL
+      SELECT user_id, 'WALLET', id, updated_at FROM wallets WHERE is_active = TRUE
+      UNION ALL
+      SELECT user_id, 'CATEGORY', id, updated_at FROM categories WHERE user_id IS NOT NULL AND is_active = TRUE
+      UNION ALL
+      SELECT user_id, 'BUDGET', id, updated_at FROM budgets WHERE is_active = TRUE) existing;
+
+INSERT INTO user_change_sequences (user_id, last_seq)
+SELECT user_id, MAX(seq) FROM sync_changes GROUP BY user_id;
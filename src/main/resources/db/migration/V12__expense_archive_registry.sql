@@ -0,0 +1,21 @@
+-- Segments written by the expense archive job. A segment is registered in the same transaction that
+-- deletes its rows from expenses, so every node learns about it exactly when the rows disappear.
+
+CREATE TABLE expense_archive_segments (
+    id         BIGINT       NOT NULL AUTO_INCREMENT,
+    file_name  VARCHAR(255) NOT NULL,
+    row_count  BIGINT       NOT NULL,
+    created_at DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_expense_archive_segments_file_name UNIQUE (file_name)
+) ENGINE = InnoDB;
+
+-- Archived expenses put back into expenses so they could be updated or deleted; their archived
+-- copies are ignored until the row is archived again.
+CREATE TABLE expense_archive_restores (
+    expense_id BIGINT      NOT NULL,
+    user_id    BIGINT      NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (expense_id),
+    INDEX idx_expense_archive_restores_user (user_id)
+) ENGINE = InnoDB;
@@ -0,0 +1,8 @@
+-- When a delivery reached DELIVERED or FAILED; finished deliveries are purged by their age since then.
+-- Existing rows take their delivery time, or their last visibility timeout if they failed.
+ALTER TABLE webhook_deliveries ADD COLUMN finished_at DATETIME(6) NULL;
+
+UPDATE webhook_deliveries SET finished_at = COALESCE(delivered_at, available_at)
+WHERE status IN ('DELIVERED', 'FAILED');
+
+CREATE INDEX idx_webhook_deliveries_status_finished ON webhook_deliveries (status, finished_at);
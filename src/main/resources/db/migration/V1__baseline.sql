@@ -0,0 +1,101 @@
+-- Baseline schema, equivalent to what hibernate ddl-auto=update used to create.
+-- Databases that already have these tables are baselined at version 1 and skip this script.
+
+CREATE TABLE users (
+    id            BIGINT       NOT NULL AUTO_INCREMENT,
+    email         VARCHAR(255) NOT NULL,
+    password_hash VARCHAR(255) NOT NULL,
+    name          VARCHAR(100) NOT NULL,
+    settings_json TEXT,
+    is_active     BIT,
+    created_at    DATETIME(6)  NOT NULL,
+    updated_at    DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE = InnoDB;
+
+CREATE TABLE wallets (
+    id          BIGINT         NOT NULL AUTO_INCREMENT,
+    user_id     BIGINT         NOT NULL,
+    name        VARCHAR(100)   NOT NULL,
+    currency    VARCHAR(3)     NOT NULL,
+    balance     DECIMAL(15, 2) NOT NULL,
+    is_default  BIT,
+    is_active   BIT,
+    description TEXT,
+    created_at  DATETIME(6)    NOT NULL,
+    updated_at  DATETIME(6)    NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_wallets_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE categories (
+    id            BIGINT       NOT NULL AUTO_INCREMENT,
+    user_id       BIGINT,
+    name          VARCHAR(100) NOT NULL,
+    color         VARCHAR(7),
+    icon          VARCHAR(50),
+    rule_patterns TEXT,
+    is_system     BIT,
+    is_active     BIT,
+    description   TEXT,
+    created_at    DATETIME(6)  NOT NULL,
+    updated_at    DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_categories_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE expenses (
+    id               BIGINT         NOT NULL AUTO_INCREMENT,
+    user_id          BIGINT         NOT NULL,
+    wallet_id        BIGINT         NOT NULL,
+    category_id      BIGINT         NOT NULL,
+    amount           DECIMAL(15, 2) NOT NULL,
+    currency         VARCHAR(3)     NOT NULL,
+    transaction_date DATE           NOT NULL,
+    merchant         VARCHAR(200),
+    description      TEXT,
+    tags_json        TEXT,
+    attachments_json TEXT,
+    type             ENUM ('EXPENSE','INCOME','TRANSFER'),
+    is_recurring     BIT,
+    created_at       DATETIME(6)    NOT NULL,
+    updated_at       DATETIME(6)    NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_expenses_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_expenses_wallet FOREIGN KEY (wallet_id) REFERENCES wallets (id),
+    CONSTRAINT fk_expenses_category FOREIGN KEY (category_id) REFERENCES categories (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE budgets (
+    id              BIGINT         NOT NULL AUTO_INCREMENT,
+    user_id         BIGINT         NOT NULL,
+    category_id     BIGINT,
+    name            VARCHAR(100)   NOT NULL,
+    amount          DECIMAL(12, 2) NOT NULL,
+    spent_amount    DECIMAL(12, 2) NOT NULL,
+    period          ENUM ('WEEKLY','MONTHLY','QUARTERLY','YEARLY','CUSTOM') NOT NULL,
+    start_date      DATETIME(6)    NOT NULL,
+    end_date        DATETIME(6)    NOT NULL,
+    is_active       BIT,
+    alert_threshold DECIMAL(5, 2),
+    alert_enabled   BIT,
+    description     TEXT,
+    created_at      DATETIME(6)    NOT NULL,
+    updated_at      DATETIME(6)    NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_budgets_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_budgets_category FOREIGN KEY (category_id) REFERENCES categories (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE refresh_tokens (
+    id         BIGINT       NOT NULL AUTO_INCREMENT,
+    user_id    BIGINT       NOT NULL,
+    token_hash VARCHAR(255) NOT NULL,
+    expires_at DATETIME(6)  NOT NULL,
+    is_revoked BIT,
+    created_at DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_refresh_tokens_token_hash UNIQUE (token_hash),
+    CONSTRAINT fk_refresh_tokens_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
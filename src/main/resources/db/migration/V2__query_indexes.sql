@@ -0,0 +1,38 @@
+-- Composite indexes for the repository access paths. Every query filters on the owning user first,
+-- so user_id leads each index; the remaining columns follow the equality filters and then the
+-- range/sort column, which lets MySQL read rows already in order without a filesort.
+
+-- ExpenseRepository: findByUserIdOrderByTransactionDateDesc, findByUserIdAndTransactionDateBetween,
+-- findByUserAndTransactionDateBetween, findTop10ByUserOrderByTransactionDateDesc
+CREATE INDEX idx_expenses_user_date ON expenses (user_id, transaction_date);
+
+-- ExpenseRepository: findByUserIdAndCategoryIdOrderByTransactionDateDesc
+CREATE INDEX idx_expenses_user_category_date ON expenses (user_id, category_id, transaction_date);
+
+-- ExpenseRepository: findByUserIdAndWalletIdOrderByTransactionDateDesc
+CREATE INDEX idx_expenses_user_wallet_date ON expenses (user_id, wallet_id, transaction_date);
+
+-- BudgetRepository: findByUserAndIsActiveTrue, findActiveBudgetsForUser, findBudgetsNeedingAlert,
+-- findOverbudgetBudgets
+CREATE INDEX idx_budgets_user_active_dates ON budgets (user_id, is_active, start_date, end_date);
+
+-- BudgetRepository: findBudgetsEndingSoon
+CREATE INDEX idx_budgets_user_active_end ON budgets (user_id, is_active, end_date);
+
+-- BudgetRepository: findByUserAndCategoryAndIsActiveTrue, findByUserAndCategoryIsNullAndIsActiveTrue,
+-- existsOverlappingBudget
+CREATE INDEX idx_budgets_user_category_active ON budgets (user_id, category_id, is_active, start_date);
+
+-- BudgetRepository: findByUserAndPeriodAndIsActiveTrue
+CREATE INDEX idx_budgets_user_period_active ON budgets (user_id, period, is_active);
+
+-- BudgetRepository: findByCategoryAndIsActiveTrue
+CREATE INDEX idx_budgets_category_active ON budgets (category_id, is_active);
+
+-- WalletRepository: findByUserIdAndIsActiveTrue, findByUserIdAndIsDefaultTrueAndIsActiveTrue
+CREATE INDEX idx_wallets_user_active ON wallets (user_id, is_active);
+
+-- CategoryRepository: findByUserIdAndIsActiveTrue
+CREATE INDEX idx_categories_user_active ON categories (user_id, is_active);
+
+-- RefreshTokenRepository: findByTokenHash is served by the unique key on token_hash
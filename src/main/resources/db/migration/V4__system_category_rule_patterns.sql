@@ -0,0 +1,29 @@
+-- Default auto-categorization keywords for system categories seeded before rule patterns were used.
+-- Categories whose patterns were already set are left alone.
+
+UPDATE categories SET rule_patterns = 'restaurant, cafe, coffee, grocery, supermarket, bakery, pizza, burger, doordash, uber eats, starbucks, mcdonald''s'
+WHERE is_system = TRUE AND name = 'Food & Dining' AND rule_patterns IS NULL;
+
+UPDATE categories SET rule_patterns = 'uber, lyft, taxi, fuel, gas station, shell, parking, metro, subway, bus, train, toll'
+WHERE is_system = TRUE AND name = 'Transportation' AND rule_patterns IS NULL;
+
+UPDATE categories SET rule_patterns = 'netflix, spotify, cinema, movie, concert, steam, playstation, xbox, disney+, hulu'
+WHERE is_system = TRUE AND name = 'Entertainment' AND rule_patterns IS NULL;
+
+UPDATE categories SET rule_patterns = 'amazon, ebay, walmart, target, ikea, zara, h&m, best buy, apple store'
+WHERE is_system = TRUE AND name = 'Shopping' AND rule_patterns IS NULL;
+
+UPDATE categories SET rule_patterns = 'electricity, water bill, internet, broadband, phone bill, mobile plan, utility, rent'
+WHERE is_system = TRUE AND name = 'Bills & Utilities' AND rule_patterns IS NULL;
+
+UPDATE categories SET rule_patterns = 'pharmacy, doctor, dentist, hospital, clinic, medicine, health insurance'
+WHERE is_system = TRUE AND name = 'Healthcare' AND rule_patterns IS NULL;
+
+UPDATE categories SET rule_patterns = 'tuition, course, udemy, coursera, bookstore, textbook, school, university'
+WHERE is_system = TRUE AND name = 'Education' AND rule_patterns IS NULL;
+
+UPDATE categories SET rule_patterns = 'airline, flight, hotel, airbnb, booking.com, expedia, hostel'
+WHERE is_system = TRUE AND name = 'Travel' AND rule_patterns IS NULL;
+
+UPDATE categories SET rule_patterns = 'salary, payroll, dividend, interest, refund, invoice payment'
+WHERE is_system = TRUE AND name = 'Income' AND rule_patterns IS NULL;
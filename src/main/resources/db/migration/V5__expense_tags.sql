@@ -0,0 +1,48 @@
+-- Tag dictionary per user and the expense/tag join table. The join rows carry copies of the
+-- expense's user, date, type and amount so tag filters and per-tag totals are answered from the
+-- indexes alone. expenses is partitioned, so expense_id cannot be a foreign key.
+
+CREATE TABLE tags (
+    id         BIGINT      NOT NULL AUTO_INCREMENT,
+    user_id    BIGINT      NOT NULL,
+    name       VARCHAR(50) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_tags_user_name UNIQUE (user_id, name),
+    CONSTRAINT fk_tags_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE expense_tags (
+    expense_id       BIGINT         NOT NULL,
+    tag_id           BIGINT         NOT NULL,
+    user_id          BIGINT         NOT NULL,
+    transaction_date DATE           NOT NULL,
+    type             ENUM ('EXPENSE','INCOME','TRANSFER'),
+    amount           DECIMAL(15, 2) NOT NULL,
+    PRIMARY KEY (expense_id, tag_id),
+    CONSTRAINT fk_expense_tags_tag FOREIGN KEY (tag_id) REFERENCES tags (id)
+) ENGINE = InnoDB;
+
+-- Expenses with a tag, newest first
+CREATE INDEX idx_expense_tags_user_tag_date ON expense_tags (user_id, tag_id, transaction_date);
+
+-- Per-tag totals over a date range, covering
+CREATE INDEX idx_expense_tags_user_date_tag ON expense_tags (user_id, transaction_date, tag_id, type, amount);
+
+-- Backfill from the tags_json arrays
+INSERT IGNORE INTO tags (user_id, name, created_at)
+SELECT DISTINCT e.user_id, LEFT(TRIM(jt.tag), 50), NOW(6)
+FROM expenses e,
+     JSON_TABLE(IF(JSON_VALID(e.tags_json), e.tags_json, '[]'), '$[*]' COLUMNS (tag VARCHAR(255) PATH '$')) jt
+WHERE e.tags_json IS NOT NULL
+  AND TRIM(jt.tag) <> '';
+
+INSERT IGNORE INTO expense_tags (expense_id, tag_id, user_id, transaction_date, type, amount)
+SELECT e.id, t.id, e.user_id, e.transaction_date, e.type, e.amount
+FROM expenses e,
+     JSON_TABLE(IF(JSON_VALID(e.tags_json), e.tags_json, '[]'), '$[*]' COLUMNS (tag VARCHAR(255) PATH '$')) jt,
+     tags t
+WHERE e.tags_json IS NOT NULL
+  AND TRIM(jt.tag) <> ''
+  AND t.user_id = e.user_id
+  AND t.name = LEFT(TRIM(jt.tag), 50);
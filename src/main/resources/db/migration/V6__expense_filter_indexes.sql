@@ -0,0 +1,11 @@
+-- Indexes for the expense filter API. Each leads with user_id; InnoDB appends the primary key
+-- (id, transaction_date), which keeps keyset pagination on transaction_date, id index-ordered
+-- wherever the filter pins the columns before it.
+
+CREATE INDEX idx_expenses_user_type_date ON expenses (user_id, type, transaction_date);
+
+CREATE INDEX idx_expenses_user_recurring_date ON expenses (user_id, is_recurring, transaction_date);
+
+CREATE INDEX idx_expenses_user_merchant ON expenses (user_id, merchant);
+
+CREATE INDEX idx_expenses_user_amount ON expenses (user_id, amount);
@@ -0,0 +1,46 @@
+-- Recurring expense templates and the occurrences generated from them
+
+CREATE TABLE recurrence_rules (
+    id                    BIGINT         NOT NULL AUTO_INCREMENT,
+    user_id               BIGINT         NOT NULL,
+    wallet_id             BIGINT         NOT NULL,
+    category_id           BIGINT         NOT NULL,
+    amount                DECIMAL(15, 2) NOT NULL,
+    currency              VARCHAR(3)     NOT NULL,
+    merchant              VARCHAR(200),
+    description           TEXT,
+    type                  ENUM ('EXPENSE','INCOME','TRANSFER'),
+    frequency             ENUM ('DAILY','WEEKLY','MONTHLY','YEARLY') NOT NULL,
+    interval_count        INT            NOT NULL,
+    start_date            DATE           NOT NULL,
+    end_date              DATE,
+    occurrence_count      INT            NOT NULL,
+    next_occurrence_date  DATE,
+    is_active             BIT            NOT NULL,
+    created_at            DATETIME(6)    NOT NULL,
+    updated_at            DATETIME(6)    NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_recurrence_rules_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_recurrence_rules_wallet FOREIGN KEY (wallet_id) REFERENCES wallets (id),
+    CONSTRAINT fk_recurrence_rules_category FOREIGN KEY (category_id) REFERENCES categories (id)
+) ENGINE = InnoDB;
+
+-- Due rules by user, for the scheduler
+CREATE INDEX idx_recurrence_rules_active_next_user ON recurrence_rules (is_active, next_occurrence_date, user_id);
+
+CREATE INDEX idx_recurrence_rules_user ON recurrence_rules (user_id);
+
+-- The occurrence key: one expense per rule and date. It contains the partitioning column, as every
+-- unique key on expenses must.
+ALTER TABLE expenses ADD COLUMN recurrence_rule_id BIGINT NULL;
+
+CREATE UNIQUE INDEX uk_expenses_occurrence ON expenses (recurrence_rule_id, transaction_date);
+
+-- Time-bound locks that keep a scheduled job on one node at a time
+CREATE TABLE scheduler_leases (
+    name        VARCHAR(100) NOT NULL,
+    owner       VARCHAR(200) NOT NULL,
+    lease_until DATETIME(6)  NOT NULL,
+    acquired_at DATETIME(6)  NOT NULL,
+    PRIMARY KEY (name)
+) ENGINE = InnoDB;
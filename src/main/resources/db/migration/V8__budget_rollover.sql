@@ -0,0 +1,7 @@
+-- Links a rolled-over budget to the period it continues; the unique key allows one successor per budget
+ALTER TABLE budgets ADD COLUMN rolled_over_from_id BIGINT NULL;
+
+ALTER TABLE budgets ADD CONSTRAINT uk_budgets_rolled_over_from UNIQUE (rolled_over_from_id);
+
+-- Expired active budgets across all users, for the rollover job
+CREATE INDEX idx_budgets_active_end ON budgets (is_active, end_date);
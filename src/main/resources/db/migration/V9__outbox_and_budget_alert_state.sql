@@ -0,0 +1,50 @@
+-- Transactional outbox: events are inserted in the transaction that caused them and handed to
+-- their handlers by OutboxDispatcher afterwards
+CREATE TABLE outbox_events (
+    id             BIGINT       NOT NULL AUTO_INCREMENT,
+    aggregate_type VARCHAR(50)  NOT NULL,
+    aggregate_id   BIGINT       NOT NULL,
+    user_id        BIGINT       NOT NULL,
+    event_type     VARCHAR(50)  NOT NULL,
+    payload        TEXT         NOT NULL,
+    status         ENUM ('PENDING','DONE','FAILED') NOT NULL,
+    attempts       INT          NOT NULL,
+    available_at   DATETIME(6)  NOT NULL,
+    created_at     DATETIME(6)  NOT NULL,
+    processed_at   DATETIME(6),
+    last_error     TEXT,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+-- Claiming due events, and purging processed ones
+CREATE INDEX idx_outbox_events_status_available ON outbox_events (status, available_at);
+
+-- A user's events that have not been applied yet
+CREATE INDEX idx_outbox_events_user_type_status ON outbox_events (user_id, aggregate_type, status);
+
+-- Alert level of each budget as last applied from the outbox; read by the dashboard
+CREATE TABLE budget_alert_state (
+    budget_id        BIGINT         NOT NULL,
+    user_id          BIGINT         NOT NULL,
+    status           ENUM ('OK','THRESHOLD','OVERBUDGET') NOT NULL,
+    spent_amount     DECIMAL(12, 2) NOT NULL,
+    budget_amount    DECIMAL(12, 2) NOT NULL,
+    spent_percentage DECIMAL(10, 2) NOT NULL,
+    last_event_id    BIGINT         NOT NULL,
+    changed_at       DATETIME(6)    NOT NULL,
+    updated_at       DATETIME(6)    NOT NULL,
+    PRIMARY KEY (budget_id),
+    CONSTRAINT fk_budget_alert_state_budget FOREIGN KEY (budget_id) REFERENCES budgets (id) ON DELETE CASCADE
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_budget_alert_state_user_status ON budget_alert_state (user_id, status);
+
+-- Seed from the spent amounts stored so far
+INSERT INTO budget_alert_state (budget_id, user_id, status, spent_amount, budget_amount, spent_percentage,
+                                last_event_id, changed_at, updated_at)
+SELECT id, user_id, CASE WHEN spent_amount > amount THEN 'OVERBUDGET' ELSE 'THRESHOLD' END,
+       spent_amount, amount, ROUND(spent_amount * 100 / amount, 2), 0, NOW(6), NOW(6)
+FROM budgets
+WHERE is_active = TRUE
+  AND amount > 0
+  AND (spent_amount > amount OR (alert_enabled = TRUE AND spent_amount * 100 / amount >= alert_threshold));
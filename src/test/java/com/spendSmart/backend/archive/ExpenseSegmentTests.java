@@ -0,0 +1,171 @@
+package com.spendSmart.backend.archive;
+
+import com.spendSmart.backend.entity.Expense;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Writes segments to a temporary directory and reads them back through the block index.
+ */
+class ExpenseSegmentTests {
+
+    private static final LocalDate START = LocalDate.of(2022, 1, 1);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripsEveryColumnIncludingNulls() throws IOException {
+        ArchivedExpense full = new ArchivedExpense(7L, 1L, 3L, 4L, new BigDecimal("-1234.50"), "EUR",
+                START, "Café Ünïcode", "x".repeat(70_000), "[\"food\",\"trip\"]", "[]",
+                Expense.ExpenseType.INCOME, false,
+                LocalDateTime.of(2022, 1, 1, 8, 30, 15, 123_456_000), LocalDateTime.of(2022, 2, 1, 9, 0));
+        ArchivedExpense sparse = new ArchivedExpense(8L, 1L, 3L, 4L, new BigDecimal("0.01"), "USD",
+                START.plusDays(1), null, null, null, null, null, null,
+                LocalDateTime.of(2022, 1, 2, 0, 0), LocalDateTime.of(2022, 1, 2, 0, 0));
+
+        try (ExpenseSegment segment = write(65536, List.of(full, sparse))) {
+            assertThat(segment.getRowCount()).isEqualTo(2);
+            assertThat(segment.find(1L, null, null)).containsExactly(full, sparse);
+        }
+    }
+
+    @Test
+    void findsRowsAcrossBlockBoundaries() throws IOException {
+        // Each block holds a row or two, and user 2's same-day runs span several blocks
+        List<ArchivedExpense> rows = new ArrayList<>();
+        long id = 1;
+        for (long user = 1; user <= 3; user++) {
+            for (int day = 0; day < 40; day++) {
+                for (int sameDay = 0; sameDay < (user == 2 ? 5 : 1); sameDay++) {
+                    rows.add(expense(id++, user, START.plusDays(day)));
+                }
+            }
+        }
+
+        try (ExpenseSegment segment = write(64, rows)) {
+            assertThat(segment.getRowCount()).isEqualTo(rows.size());
+            for (long user = 1; user <= 3; user++) {
+                assertThat(segment.find(user, null, null)).containsExactlyElementsOf(rowsOf(rows, user, null, null));
+            }
+
+            LocalDate from = START.plusDays(10);
+            LocalDate to = START.plusDays(12);
+            assertThat(segment.find(2L, from, to))
+                    .hasSize(15)
+                    .containsExactlyElementsOf(rowsOf(rows, 2L, from, to));
+            assertThat(segment.find(2L, from, from)).containsExactlyElementsOf(rowsOf(rows, 2L, from, from));
+            assertThat(segment.find(3L, START.plusDays(39), null)).containsExactly(rows.get(rows.size() - 1));
+            assertThat(segment.find(1L, null, START)).containsExactly(rows.get(0));
+        }
+    }
+
+    @Test
+    void findsRowsByIdThroughTheDayIndex() throws IOException {
+        List<ArchivedExpense> rows = new ArrayList<>();
+        for (long user = 1; user <= 2; user++) {
+            for (int day = 0; day < 40; day++) {
+                rows.add(expense(user * 100 + day, user, START.plusDays(day)));
+            }
+        }
+
+        try (ExpenseSegment segment = write(64, rows)) {
+            for (ArchivedExpense row : rows) {
+                assertThat(segment.contains(row.id())).isTrue();
+                assertThat(segment.findById(row.userId(), row.id())).contains(row);
+            }
+            // Another user's id is not found, nor one the segment does not hold
+            assertThat(segment.findById(2L, 105L)).isEmpty();
+            assertThat(segment.contains(999L)).isFalse();
+            assertThat(segment.findById(1L, 999L)).isEmpty();
+        }
+    }
+
+    @Test
+    void findReturnsNothingOutsideTheSegment() throws IOException {
+        try (ExpenseSegment segment = write(64, List.of(expense(1, 5L, START), expense(2, 5L, START.plusDays(3))))) {
+            assertThat(segment.find(4L, null, null)).isEmpty();
+            assertThat(segment.find(6L, null, null)).isEmpty();
+            assertThat(segment.find(5L, START.plusDays(1), START.plusDays(2))).isEmpty();
+            assertThat(segment.find(5L, START.plusDays(4), null)).isEmpty();
+            assertThat(segment.find(5L, null, START.minusDays(1))).isEmpty();
+        }
+    }
+
+    @Test
+    void emptySegmentHasNoRows() throws IOException {
+        try (ExpenseSegment segment = write(64, List.of())) {
+            assertThat(segment.getRowCount()).isZero();
+            assertThat(segment.find(1L, null, null)).isEmpty();
+            assertThat(segment.findById(1L, 1L)).isEmpty();
+        }
+    }
+
+    @Test
+    void rejectsRowsOutOfKeyOrder() throws IOException {
+        try (ExpenseSegmentWriter writer = new ExpenseSegmentWriter(directory.resolve("a.seg"), 64)) {
+            writer.append(expense(1, 2L, START));
+
+            assertThatThrownBy(() -> writer.append(expense(2, 1L, START.plusDays(5))))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> writer.append(expense(3, 2L, START.minusDays(1))))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void unfinishedSegmentLeavesNoFileBehind() throws IOException {
+        try (ExpenseSegmentWriter writer = new ExpenseSegmentWriter(directory.resolve("a.seg"), 64)) {
+            writer.append(expense(1, 1L, START));
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void rejectsFilesThatAreNotSegments() throws IOException {
+        Path file = Files.write(directory.resolve("b.seg"), new byte[64]);
+
+        assertThatThrownBy(() -> new ExpenseSegment(file)).isInstanceOf(IOException.class);
+    }
+
+    private ExpenseSegment write(int blockSizeBytes, List<ArchivedExpense> rows) throws IOException {
+        Path written;
+        try (ExpenseSegmentWriter writer = new ExpenseSegmentWriter(directory.resolve("a.seg"), blockSizeBytes)) {
+            for (ArchivedExpense row : rows) {
+                writer.append(row);
+            }
+            written = writer.finish();
+        }
+        return new ExpenseSegment(written);
+    }
+
+    private static List<ArchivedExpense> rowsOf(List<ArchivedExpense> rows, long userId, LocalDate from, LocalDate to) {
+        return rows.stream()
+                .filter(row -> row.userId() == userId)
+                .filter(row -> from == null || !row.transactionDate().isBefore(from))
+                .filter(row -> to == null || !row.transactionDate().isAfter(to))
+                .toList();
+    }
+
+    private static ArchivedExpense expense(long id, long userId, LocalDate date) {
+        return new ArchivedExpense(id, userId, 10L, 20L, BigDecimal.valueOf(id * 137, 2), "USD", date,
+                "Merchant " + id, "Expense " + id, "[\"tag\"]", null, Expense.ExpenseType.EXPENSE, true,
+                date.atTime(12, 0), date.atTime(12, 0));
+    }
+}
@@ -0,0 +1,51 @@
+package com.spendSmart.backend.categorization;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares token sets of differently written merchants and descriptions; the hashes themselves
+ * are opaque, so only equality and counts are checked.
+ */
+class ExpenseTokenizerTests {
+
+    @Test
+    void foldsCaseAndSplitsOnPunctuation() {
+        assertThat(ExpenseTokenizer.tokenize(null, "Coffee, BEANS & milk!"))
+                .containsExactlyInAnyOrder(ExpenseTokenizer.tokenize(null, "milk beans coffee"));
+        assertThat(ExpenseTokenizer.tokenize("  Whole Foods ", "Weekly shop"))
+                .containsExactlyInAnyOrder(ExpenseTokenizer.tokenize("whole foods", "WEEKLY SHOP"));
+    }
+
+    @Test
+    void skipsSingleCharactersAndPureNumbers() {
+        assertThat(ExpenseTokenizer.tokenize(null, "a 12345 ok 7 #2024"))
+                .containsExactly(ExpenseTokenizer.tokenize(null, "ok"));
+        // Mixed letters and digits are kept
+        assertThat(ExpenseTokenizer.tokenize(null, "a1 b2")).hasSize(2);
+    }
+
+    @Test
+    void repeatedWordsYieldOneToken() {
+        assertThat(ExpenseTokenizer.tokenize("Coffee", "coffee COFFEE coffee"))
+                .containsExactlyInAnyOrder(ExpenseTokenizer.tokenize("Coffee", null));
+    }
+
+    @Test
+    void wholeMerchantNameIsAnExtraToken() {
+        long[] words = ExpenseTokenizer.tokenize(null, "Whole Foods");
+        long[] merchant = ExpenseTokenizer.tokenize("Whole Foods", null);
+
+        assertThat(words).hasSize(2);
+        assertThat(merchant).hasSize(3).contains(words);
+        // A one-word merchant is still told apart from the same word in a description
+        assertThat(ExpenseTokenizer.tokenize("Uber", null)).hasSize(2);
+    }
+
+    @Test
+    void blankInputHasNoTokens() {
+        assertThat(ExpenseTokenizer.tokenize(null, null)).isEmpty();
+        assertThat(ExpenseTokenizer.tokenize("   ", " - ")).isEmpty();
+    }
+}
@@ -0,0 +1,84 @@
+package com.spendSmart.backend.categorization;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fills maps well past their initial capacity and checks every entry against a HashMap.
+ */
+class LongIntHashMapTests {
+
+    @Test
+    void keepsEveryEntryAcrossResizes() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        long initialBytes = map.memoryBytes();
+        Map<Long, Integer> expected = new HashMap<>();
+
+        // Sequential, negative and widely spaced keys, including the empty-slot marker 0
+        for (long i = -500; i < 500; i++) {
+            long key = i * 31;
+            map.addTo(key, (int) (i % 7) + 10);
+            expected.put(key, (int) (i % 7) + 10);
+        }
+
+        assertThat(map.memoryBytes()).isGreaterThan(initialBytes);
+        assertThat(map.size()).isEqualTo(expected.size());
+        expected.forEach((key, value) -> assertThat(map.get(key)).as("key %d", key).isEqualTo(value));
+        assertThat(map.get(1L)).isZero();
+        assertThat(map.keys()).containsExactlyInAnyOrder(expected.keySet().stream().mapToLong(Long::longValue).toArray());
+    }
+
+    @Test
+    void addToAccumulatesAndReturnsTheNewValue() {
+        LongIntHashMap map = new LongIntHashMap();
+
+        assertThat(map.addTo(42L, 3)).isEqualTo(3);
+        assertThat(map.addTo(42L, 4)).isEqualTo(7);
+        assertThat(map.addTo(0L, 2)).isEqualTo(2);
+        assertThat(map.addTo(0L, 5)).isEqualTo(7);
+        assertThat(map.addTo(9L, 0)).isZero();
+
+        assertThat(map.get(42L)).isEqualTo(7);
+        assertThat(map.get(0L)).isEqualTo(7);
+        assertThat(map.size()).isEqualTo(2);
+    }
+
+    @Test
+    void entriesDroppingToZeroAreRemovedWithoutBreakingProbeRuns() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        for (long key = 0; key < 2000; key++) {
+            map.addTo(key, 1);
+        }
+
+        for (long key = 0; key < 2000; key += 2) {
+            assertThat(map.addTo(key, -1)).isZero();
+        }
+
+        assertThat(map.size()).isEqualTo(1000);
+        for (long key = 0; key < 2000; key++) {
+            assertThat(map.get(key)).as("key %d", key).isEqualTo(key % 2 == 0 ? 0 : 1);
+        }
+        // Removed keys can be added again
+        assertThat(map.addTo(0L, 1)).isEqualTo(1);
+        assertThat(map.addTo(1000L, 1)).isEqualTo(1);
+        assertThat(map.size()).isEqualTo(1002);
+    }
+
+    @Test
+    void forEachVisitsEveryEntryOnce() {
+        LongIntHashMap map = new LongIntHashMap();
+        for (long key = 0; key < 100; key++) {
+            map.addTo(key, (int) key + 1);
+        }
+
+        Map<Long, Integer> visited = new HashMap<>();
+        map.forEach((key, value) -> assertThat(visited.put(key, value)).isNull());
+
+        assertThat(visited).hasSize(100);
+        visited.forEach((key, value) -> assertThat(value).isEqualTo(key.intValue() + 1));
+    }
+}
@@ -0,0 +1,95 @@
+package com.spendSmart.backend.categorization;
+
+import com.spendSmart.backend.categorization.NaiveBayesModel.Suggestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Trains models on a handful of hand-picked token sets and compares the ranking with the
+ * Laplace-smoothed probabilities worked out by hand.
+ */
+class NaiveBayesModelTests {
+
+    private static final long A = 11;
+    private static final long B = 12;
+    private static final long C = 13;
+    private static final long D = 14;
+    private static final long E = 15;
+
+    @Test
+    void ranksCategoriesByLaplaceSmoothedPosterior() {
+        NaiveBayesModel model = new NaiveBayesModel();
+        model.add(new long[]{A, B}, 1);
+        model.add(new long[]{A, C}, 1);
+        model.add(new long[]{D, E}, 2);
+
+        // Five distinct tokens. Category 1: 2/3 * (2 + 1) / (4 + 5) = 2/9; category 2: 1/3 * 1 / (2 + 5) = 1/21
+        List<Suggestion> suggestions = model.suggest(new long[]{A}, 5);
+
+        assertThat(suggestions).extracting(Suggestion::categoryId).containsExactly(1L, 2L);
+        assertThat(suggestions.get(0).probability()).isCloseTo(14.0 / 17, within(1e-12));
+        assertThat(suggestions.get(1).probability()).isCloseTo(3.0 / 17, within(1e-12));
+    }
+
+    @Test
+    void unseenTokensFallBackToThePrior() {
+        NaiveBayesModel model = new NaiveBayesModel();
+        model.add(new long[]{A}, 1);
+        model.add(new long[]{A}, 1);
+        model.add(new long[]{A}, 1);
+        model.add(new long[]{B}, 2);
+
+        // Both categories smooth the unknown token to 1 / (tokens + vocabulary) = 1/5 and 1/3
+        List<Suggestion> suggestions = model.suggest(new long[]{C}, 5);
+
+        assertThat(suggestions).extracting(Suggestion::categoryId).containsExactly(1L, 2L);
+        assertThat(suggestions.get(0).probability()).isCloseTo((3.0 / 20) / (3.0 / 20 + 1.0 / 12), within(1e-12));
+    }
+
+    @Test
+    void removingATrainedExpenseRestoresThePriorCounts() {
+        NaiveBayesModel model = new NaiveBayesModel();
+        model.add(new long[]{A, B}, 1);
+        model.add(new long[]{D, E}, 2);
+        List<Suggestion> before = model.suggest(new long[]{A, D}, 5);
+
+        // New tokens and a new category grow the vocabulary and the category set
+        model.add(new long[]{A, C, E}, 3);
+        model.add(new long[]{B}, 2);
+        assertThat(model.suggest(new long[]{A, D}, 5)).isNotEqualTo(before);
+
+        model.remove(new long[]{B}, 2);
+        model.remove(new long[]{A, C, E}, 3);
+
+        assertThat(model.getDocumentCount()).isEqualTo(2);
+        assertThat(model.suggest(new long[]{A, D}, 5)).isEqualTo(before);
+    }
+
+    @Test
+    void removingFromAnUnknownCategoryChangesNothing() {
+        NaiveBayesModel model = new NaiveBayesModel();
+        model.add(new long[]{A}, 1);
+        List<Suggestion> before = model.suggest(new long[]{A}, 5);
+
+        model.remove(new long[]{A}, 9);
+
+        assertThat(model.getDocumentCount()).isEqualTo(1);
+        assertThat(model.suggest(new long[]{A}, 5)).isEqualTo(before);
+    }
+
+    @Test
+    void suggestsNothingWithoutTrainingTokensOrRoom() {
+        NaiveBayesModel model = new NaiveBayesModel();
+        assertThat(model.suggest(new long[]{A}, 3)).isEmpty();
+
+        model.add(new long[]{A}, 1);
+        model.add(new long[]{B}, 2);
+        assertThat(model.suggest(new long[0], 3)).isEmpty();
+        assertThat(model.suggest(new long[]{A}, 0)).isEmpty();
+        assertThat(model.suggest(new long[]{A}, 1)).extracting(Suggestion::categoryId).containsExactly(1L);
+    }
+}
@@ -0,0 +1,122 @@
+package com.spendSmart.backend.categorization;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Builds small automata by hand and checks which category each text resolves to.
+ */
+class RulePatternMatcherTests {
+
+    @Test
+    void matchesWholeWordsOnly() {
+        RulePatternMatcher matcher = RulePatternMatcher.builder().add("uber", 1, 0).build();
+
+        assertThat(matcher.match("Uber trip home")).contains(1L);
+        assertThat(matcher.match("paid: uber.")).contains(1L);
+        assertThat(matcher.match("Uberrima")).isEmpty();
+        assertThat(matcher.match("superuber")).isEmpty();
+        assertThat(matcher.match("uber2")).isEmpty();
+    }
+
+    @Test
+    void foldsCaseOfPatternsAndTexts() {
+        RulePatternMatcher matcher = RulePatternMatcher.builder()
+                .add("  STARBUCKS ", 1, 0)
+                .add("Whole Foods", 2, 0)
+                .build();
+
+        assertThat(matcher.match("starbucks #1234")).contains(1L);
+        assertThat(matcher.match("WHOLE FOODS MARKET")).contains(2L);
+        assertThat(matcher.match("wHoLe fOoDs")).contains(2L);
+    }
+
+    @Test
+    void followsFailureLinksIntoPatternsStartingInsideAPartialMatch() {
+        RulePatternMatcher matcher = RulePatternMatcher.builder()
+                .add("a b c", 1, 1)
+                .add("b c d", 2, 2)
+                .build();
+
+        // "b c d" only shows up after falling back from the "a b c" branch
+        assertThat(matcher.match("a b c d")).contains(2L);
+        assertThat(matcher.match("a b x b c d")).contains(2L);
+        assertThat(matcher.match("a b b c d")).contains(2L);
+        assertThat(matcher.match("a b c")).contains(1L);
+    }
+
+    @Test
+    void reportsPatternsEndingInsideLongerOnesThroughOutputLinks() {
+        RulePatternMatcher matcher = RulePatternMatcher.builder()
+                .add("ab market", 1, 0)
+                .add("market", 2, 0)
+                .build();
+
+        // The longer pattern ends at the same place but does not start on a word boundary
+        assertThat(matcher.match("cab market")).contains(2L);
+        assertThat(matcher.match("ab market")).contains(1L);
+    }
+
+    @Test
+    void prefersLongestThenHighestPriorityThenEarliestMatch() {
+        RulePatternMatcher longest = RulePatternMatcher.builder()
+                .add("coffee", 1, 9)
+                .add("coffee shop", 2, 0)
+                .build();
+        RulePatternMatcher prioritized = RulePatternMatcher.builder()
+                .add("lunch", 1, 0)
+                .add("taxis", 2, 5)
+                .build();
+        RulePatternMatcher earliest = RulePatternMatcher.builder()
+                .add("lunch", 1, 0)
+                .add("taxis", 2, 0)
+                .build();
+
+        assertThat(longest.match("coffee shop downtown")).contains(2L);
+        assertThat(prioritized.match("lunch then taxis")).contains(2L);
+        assertThat(earliest.match("lunch then taxis")).contains(1L);
+        assertThat(earliest.match("taxis then lunch")).contains(2L);
+    }
+
+    @Test
+    void searchesEveryTextAndSkipsMissingOnes() {
+        RulePatternMatcher matcher = RulePatternMatcher.builder()
+                .add("rent", 1, 0)
+                .add("netflix", 2, 0)
+                .build();
+
+        assertThat(matcher.match(null, "", "monthly rent")).contains(1L);
+        assertThat(matcher.match("Netflix", "monthly rent")).contains(2L);
+        assertThat(matcher.match("groceries", null)).isEmpty();
+    }
+
+    @Test
+    void duplicatePatternKeepsHigherPriorityCategory() {
+        RulePatternMatcher matcher = RulePatternMatcher.builder()
+                .add("rent", 1, 0)
+                .add("RENT ", 2, 3)
+                .add("rent", 3, 1)
+                .build();
+
+        assertThat(matcher.match("rent")).contains(2L);
+    }
+
+    @Test
+    void emptyMatcherMatchesNothing() {
+        RulePatternMatcher blank = RulePatternMatcher.builder().add("   ", 1, 0).build();
+
+        assertThat(RulePatternMatcher.empty().isEmpty()).isTrue();
+        assertThat(RulePatternMatcher.empty().match("anything")).isEmpty();
+        assertThat(blank.isEmpty()).isTrue();
+        assertThat(blank.match("   ")).isEmpty();
+    }
+
+    @Test
+    void parsesSeparatedListsAndJsonArrays() {
+        assertThat(RulePatterns.parse("uber, lyft;taxi|bolt\ncab")).containsExactly("uber", "lyft", "taxi", "bolt", "cab");
+        assertThat(RulePatterns.parse("[\"whole foods\", \"aldi\"]")).containsExactly("whole foods", "aldi");
+        assertThat(RulePatterns.parse(" ,, ")).isEmpty();
+        assertThat(RulePatterns.parse(null)).isEmpty();
+    }
+}
@@ -0,0 +1,98 @@
+package com.spendSmart.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Saturates the analytics executors and connection pool against the local database and checks
+ * that a CRUD query still gets a crud-pool connection within that pool's own timeout.
+ */
+@SpringBootTest
+class AnalyticsBulkheadTests {
+
+    private static final int MAX_SUBMITTED_TASKS = 10_000;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    @Qualifier("analyticsExecutor")
+    private ThreadPoolTaskExecutor analyticsExecutor;
+
+    @Autowired
+    @Qualifier("analyticsJobExecutor")
+    private ThreadPoolTaskExecutor analyticsJobExecutor;
+
+    @Test
+    void crudQueryGetsConnectionWhileAnalyticsIsSaturated() throws Exception {
+        HikariDataSource crudPool = context.getBean("crudDataSource", HikariDataSource.class);
+        HikariDataSource analyticsPool = context.getBean("analyticsDataSource", HikariDataSource.class);
+        int workers = analyticsExecutor.getMaxPoolSize() + analyticsJobExecutor.getMaxPoolSize();
+        int heldConnections = Math.min(workers, analyticsPool.getMaximumPoolSize());
+        CountDownLatch holding = new CountDownLatch(heldConnections);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try {
+            // Every worker sits on an analytics connection and both queues are filled up behind them
+            assertThat(fillUntilRejected(analyticsExecutor, holding, release)).isTrue();
+            assertThat(fillUntilRejected(analyticsJobExecutor, holding, release)).isTrue();
+            assertThat(holding.await(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(analyticsPool.getHikariPoolMXBean().getActiveConnections()).isEqualTo(heldConnections);
+
+            long start = System.nanoTime();
+            try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+                statement.execute("SELECT 1");
+                Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+                assertThat(elapsed).isLessThan(Duration.ofMillis(crudPool.getConnectionTimeout()));
+                assertThat(crudPool.getHikariPoolMXBean().getActiveConnections()).isPositive();
+                assertThat(analyticsPool.getHikariPoolMXBean().getActiveConnections()).isEqualTo(heldConnections);
+            }
+        } finally {
+            release.countDown();
+        }
+    }
+
+    // Submits connection-holding tasks until the executor rejects one, so its queue is known to be full
+    private boolean fillUntilRejected(ThreadPoolTaskExecutor executor, CountDownLatch holding, CountDownLatch release) {
+        for (int i = 0; i < MAX_SUBMITTED_TASKS; i++) {
+            try {
+                executor.execute(() -> holdConnection(holding, release));
+            } catch (TaskRejectedException e) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void holdConnection(CountDownLatch holding, CountDownLatch release) {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("SELECT 1");
+            holding.countDown();
+            release.await();
+        } catch (SQLException e) {
+            // Queued tasks time out waiting for the exhausted analytics pool, which is the point
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.spendSmart.backend.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.spendSmart.backend.security.JwtTokenProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Requests the public health endpoint through the application's own converter list, so the order
+ * Boot gives the CBOR and Smile converters is what decides the response format. The budget listing
+ * then checks that the same negotiation routes JSON to the streaming handler and the binary formats
+ * to the buffered one.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ContentNegotiationTests {
+
+    private static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    private String email;
+
+    @BeforeEach
+    void setUp() {
+        email = "negotiation-" + UUID.randomUUID() + "@test.local";
+        jdbcTemplate.update("INSERT INTO users (email, password_hash, name, is_active, created_at, updated_at) " +
+                "VALUES (?, 'x', 'Negotiation Test', TRUE, NOW(6), NOW(6))", email);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM users WHERE email = ?", email);
+    }
+
+    @Test
+    void jsonWithoutAnAcceptHeader() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/health"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn();
+
+        assertThat(statusOf(new ObjectMapper(), result)).isEqualTo("UP");
+    }
+
+    @Test
+    void jsonForAWildcardAcceptHeader() throws Exception {
+        mockMvc.perform(get("/api/v1/health").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void cborWhenAcceptAsksForIt() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/health").accept(CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(CBOR))
+                .andReturn();
+
+        assertThat(statusOf(new ObjectMapper(new CBORFactory()), result)).isEqualTo("UP");
+    }
+
+    @Test
+    void smileWhenAcceptAsksForIt() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/health").accept(SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(SMILE))
+                .andReturn();
+
+        assertThat(statusOf(new ObjectMapper(new SmileFactory()), result)).isEqualTo("UP");
+    }
+
+    @Test
+    void jsonListingIsStreamedWithoutAnAcceptHeader() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/budgets").header(HttpHeaders.AUTHORIZATION, bearer()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.ETAG, startsWith("W/\"")))
+                .andExpect(content().string("[]"));
+    }
+
+    @Test
+    void binaryListingIsBuiltByTheBufferedHandler() throws Exception {
+        for (MediaType format : new MediaType[]{CBOR, SMILE}) {
+            MvcResult result = mockMvc.perform(get("/api/v1/budgets").header(HttpHeaders.AUTHORIZATION, bearer())
+                            .accept(format))
+                    .andExpect(request().asyncNotStarted())
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(format))
+                    .andReturn();
+
+            ObjectMapper mapper = new ObjectMapper(format.equals(CBOR) ? new CBORFactory() : new SmileFactory());
+            assertThat(mapper.readTree(result.getResponse().getContentAsByteArray()).isArray()).isTrue();
+        }
+    }
+
+    private String bearer() {
+        return "Bearer " + jwtTokenProvider.generateJwtToken(email);
+    }
+
+    private static String statusOf(ObjectMapper mapper, MvcResult result) throws Exception {
+        JsonNode body = mapper.readTree(result.getResponse().getContentAsByteArray());
+        return body.path("status").asText();
+    }
+}
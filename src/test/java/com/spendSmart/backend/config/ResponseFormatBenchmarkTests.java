@@ -0,0 +1,41 @@
+package com.spendSmart.backend.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spendSmart.backend.dto.analytics.ExpenseAnalyticsResponse;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.util.Map;
+
+/**
+ * Times encoding a year of daily analytics in each negotiated format and reports the payload size,
+ * raw and gzipped, through the test report. Excluded from the default build; run it with
+ * {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class ResponseFormatBenchmarkTests {
+
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int MEASURED_ROUNDS = 500;
+
+    @Test
+    void encodeTimeAndSizePerFormat(TestReporter reporter) throws Exception {
+        ExpenseAnalyticsResponse analytics = ResponseFormatTests.yearOfDailyTrends();
+
+        for (Map.Entry<String, ObjectMapper> format : ResponseFormatTests.FORMATS.entrySet()) {
+            ObjectMapper mapper = format.getValue();
+            byte[] encoded = mapper.writeValueAsBytes(analytics);
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                mapper.writeValueAsBytes(analytics);
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                mapper.writeValueAsBytes(analytics);
+            }
+            long micros = (System.nanoTime() - start) / MEASURED_ROUNDS / 1000;
+            reporter.publishEntry(format.getKey(), String.format("%d bytes, %d gzipped, %d us per encode",
+                    encoded.length, ResponseFormatTests.gzippedSize(encoded), micros));
+        }
+    }
+}
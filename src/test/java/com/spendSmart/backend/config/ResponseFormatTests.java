@@ -0,0 +1,82 @@
+package com.spendSmart.backend.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.spendSmart.backend.dto.analytics.ExpenseAnalyticsResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Encodes a year of daily analytics in every negotiated format and checks each decodes back to the
+ * same response, and that the binary formats are smaller than JSON, raw and gzipped.
+ */
+class ResponseFormatTests {
+
+    static final Map<String, ObjectMapper> FORMATS = Map.of(
+            "json", Jackson2ObjectMapperBuilder.json().build(),
+            "cbor", Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build(),
+            "smile", Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build());
+
+    @Test
+    void binaryFormatsRoundTripAndAreSmallerThanJson() throws Exception {
+        ExpenseAnalyticsResponse analytics = yearOfDailyTrends();
+        byte[] json = FORMATS.get("json").writeValueAsBytes(analytics);
+
+        for (Map.Entry<String, ObjectMapper> format : FORMATS.entrySet()) {
+            ObjectMapper mapper = format.getValue();
+            byte[] encoded = mapper.writeValueAsBytes(analytics);
+            assertThat(mapper.readValue(encoded, ExpenseAnalyticsResponse.class)).isEqualTo(analytics);
+            if (!format.getKey().equals("json")) {
+                assertThat(encoded.length).as("%s size", format.getKey()).isLessThan(json.length);
+                assertThat(gzippedSize(encoded)).as("%s gzipped size", format.getKey()).isLessThan(gzippedSize(json));
+            }
+        }
+    }
+
+    static ExpenseAnalyticsResponse yearOfDailyTrends() {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        List<ExpenseAnalyticsResponse.DailySpendingSummary> days = new ArrayList<>();
+        for (int day = 0; day < 365; day++) {
+            BigDecimal expenses = BigDecimal.valueOf(1000 + day * 37L % 5000, 2);
+            BigDecimal income = day % 14 == 0 ? new BigDecimal("2500.00") : BigDecimal.ZERO.setScale(2);
+            days.add(new ExpenseAnalyticsResponse.DailySpendingSummary(
+                    start.plusDays(day), expenses, income, income.subtract(expenses), day % 7 + 1));
+        }
+        List<ExpenseAnalyticsResponse.CategoryExpenseSummary> categories = new ArrayList<>();
+        for (long id = 1; id <= 12; id++) {
+            categories.add(new ExpenseAnalyticsResponse.CategoryExpenseSummary(id, "Category " + id, "#FF5733",
+                    "icon-" + id, new BigDecimal("1234.56"), new BigDecimal("8.33"), 30, new BigDecimal("41.15")));
+        }
+        return ExpenseAnalyticsResponse.builder()
+                .totalExpenses(new BigDecimal("14814.72"))
+                .totalIncome(new BigDecimal("65000.00"))
+                .netAmount(new BigDecimal("50185.28"))
+                .transactionCount(1460)
+                .categoryBreakdown(categories)
+                .topCategories(categories.subList(0, 5))
+                .dailyTrends(days)
+                .budgetPerformance(List.of())
+                .periodStart(start)
+                .periodEnd(start.plusYears(1))
+                .build();
+    }
+
+    static int gzippedSize(byte[] bytes) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.size();
+    }
+}
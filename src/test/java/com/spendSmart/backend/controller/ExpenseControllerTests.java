@@ -0,0 +1,186 @@
+package com.spendSmart.backend.controller;
+
+import com.spendSmart.backend.security.JwtTokenProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.aMapWithSize;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Requests the compact expense views for a user with three expenses in one wallet and two
+ * categories, checking which fields the rows carry and that each referenced wallet and category is
+ * side-loaded once. Unknown fields and views are rejected before anything is read.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ExpenseControllerTests {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    private String email;
+    private long userId;
+    private long walletId;
+    private long groceriesId;
+    private long transportId;
+    private long newestId;
+    private long middleId;
+    private long oldestId;
+
+    @BeforeEach
+    void setUp() {
+        email = "compact-" + UUID.randomUUID() + "@test.local";
+        userId = insert("INSERT INTO users (email, password_hash, name, is_active, created_at, updated_at) " +
+                "VALUES (?, 'x', 'Compact Test', TRUE, NOW(6), NOW(6))", email);
+        walletId = insert("INSERT INTO wallets (user_id, name, currency, balance, is_default, is_active, created_at, " +
+                "updated_at) VALUES (?, 'Main', 'USD', 0.00, TRUE, TRUE, NOW(6), NOW(6))", userId);
+        groceriesId = category("Groceries");
+        transportId = category("Transport");
+        oldestId = expense(groceriesId, TODAY.minusDays(2), "10.00");
+        middleId = expense(transportId, TODAY.minusDays(1), "20.00");
+        newestId = expense(groceriesId, TODAY, "30.00");
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (String table : List.of("expenses", "wallets", "categories")) {
+            jdbcTemplate.update("DELETE FROM " + table + " WHERE user_id = ?", userId);
+        }
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+    }
+
+    @Test
+    void selectedFieldsOnlyWithEachWalletAndCategorySideLoadedOnce() throws Exception {
+        mockMvc.perform(get("/api/v1/expenses/filter")
+                        .param("fields", "amount,wallet,category")
+                        .header(HttpHeaders.AUTHORIZATION, bearer()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].id").value(contains(ids(newestId, middleId, oldestId))))
+                .andExpect(jsonPath("$.items[*].categoryId").value(contains(ids(groceriesId, transportId, groceriesId))))
+                .andExpect(jsonPath("$.items[0].walletId").value(walletId))
+                .andExpect(jsonPath("$.items[0].amount").value(30.00))
+                .andExpect(jsonPath("$.items[0].merchant").doesNotExist())
+                .andExpect(jsonPath("$.items[0].transactionDate").doesNotExist())
+                .andExpect(jsonPath("$.wallets").value(aMapWithSize(1)))
+                .andExpect(jsonPath("$.wallets['" + walletId + "'].name").value("Main"))
+                .andExpect(jsonPath("$.categories").value(aMapWithSize(2)))
+                .andExpect(jsonPath("$.categories['" + groceriesId + "'].name").value("Groceries"))
+                .andExpect(jsonPath("$.categories['" + transportId + "'].name").value("Transport"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void dictionariesAreLeftOutWhenWalletAndCategoryAreNotSelected() throws Exception {
+        mockMvc.perform(get("/api/v1/expenses")
+                        .param("fields", "amount")
+                        .header(HttpHeaders.AUTHORIZATION, bearer()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(3)))
+                .andExpect(jsonPath("$.items[0].walletId").doesNotExist())
+                .andExpect(jsonPath("$.items[0].categoryId").doesNotExist())
+                .andExpect(jsonPath("$.wallets").doesNotExist())
+                .andExpect(jsonPath("$.categories").doesNotExist());
+    }
+
+    @Test
+    void compactViewSelectsEveryFieldAndPagesLikeTheFullView() throws Exception {
+        mockMvc.perform(get("/api/v1/expenses/filter")
+                        .param("view", "compact")
+                        .param("limit", "2")
+                        .header(HttpHeaders.AUTHORIZATION, bearer()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].id").value(contains(ids(newestId, middleId))))
+                .andExpect(jsonPath("$.items[1].transactionDate").value(TODAY.minusDays(1).toString()))
+                .andExpect(jsonPath("$.items[1].currency").value("USD"))
+                .andExpect(jsonPath("$.wallets").value(aMapWithSize(1)))
+                .andExpect(jsonPath("$.categories").value(aMapWithSize(2)))
+                .andExpect(jsonPath("$.nextCursor").isString());
+    }
+
+    @Test
+    void unknownFieldIsABadRequest() throws Exception {
+        for (String path : List.of("/api/v1/expenses", "/api/v1/expenses/filter")) {
+            mockMvc.perform(get(path)
+                            .param("fields", "amount,walletName")
+                            .header(HttpHeaders.AUTHORIZATION, bearer()))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Test
+    void unknownViewIsABadRequest() throws Exception {
+        for (String path : List.of("/api/v1/expenses", "/api/v1/expenses/filter")) {
+            mockMvc.perform(get(path)
+                            .param("view", "summary")
+                            .header(HttpHeaders.AUTHORIZATION, bearer()))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    private long category(String name) {
+        return insert("INSERT INTO categories (user_id, name, is_system, is_active, created_at, updated_at) " +
+                "VALUES (?, ?, FALSE, TRUE, NOW(6), NOW(6))", userId, name);
+    }
+
+    private long expense(long categoryId, LocalDate date, String amount) {
+        return insert("INSERT INTO expenses (user_id, wallet_id, category_id, amount, currency, transaction_date, " +
+                        "type, is_recurring, created_at, updated_at) VALUES (?, ?, ?, ?, 'USD', ?, 'EXPENSE', FALSE, " +
+                        "NOW(6), NOW(6))",
+                userId, walletId, categoryId, new BigDecimal(amount), Date.valueOf(date));
+    }
+
+    // jsonPath reads ids small enough for an int as Integer
+    private static Object[] ids(long... ids) {
+        Object[] numbers = new Object[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            numbers[i] = ids[i] <= Integer.MAX_VALUE ? (Object) (int) ids[i] : ids[i];
+        }
+        return numbers;
+    }
+
+    private String bearer() {
+        return "Bearer " + jwtTokenProvider.generateJwtToken(email);
+    }
+
+    private long insert(String sql, Object... args) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            for (int i = 0; i < args.length; i++) {
+                statement.setObject(i + 1, args[i]);
+            }
+            return statement;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+}
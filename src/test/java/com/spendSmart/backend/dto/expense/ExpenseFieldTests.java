@@ -0,0 +1,46 @@
+package com.spendSmart.backend.dto.expense;
+
+import com.spendSmart.backend.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Parses ?fields= selectors the way the expense listings receive them.
+ */
+class ExpenseFieldTests {
+
+    @Test
+    void missingOrBlankSelectorSelectsEveryField() {
+        assertThat(ExpenseField.parse(null)).isEqualTo(EnumSet.allOf(ExpenseField.class));
+        assertThat(ExpenseField.parse(" ")).isEqualTo(EnumSet.allOf(ExpenseField.class));
+    }
+
+    @Test
+    void selectsNamedFieldsIgnoringSpacesEmptyNamesAndId() {
+        assertThat(ExpenseField.parse("id, amount,,transactionDate ,wallet,amount"))
+                .containsExactlyInAnyOrder(ExpenseField.AMOUNT, ExpenseField.TRANSACTION_DATE, ExpenseField.WALLET);
+        assertThat(ExpenseField.parse("id")).isEmpty();
+    }
+
+    @Test
+    void namesMatchTheResponseProperties() {
+        assertThat(ExpenseField.parse("tagsJson,attachmentsJson,isRecurring,createdAt,updatedAt"))
+                .containsExactlyInAnyOrder(ExpenseField.TAGS, ExpenseField.ATTACHMENTS, ExpenseField.IS_RECURRING,
+                        ExpenseField.CREATED_AT, ExpenseField.UPDATED_AT);
+    }
+
+    @Test
+    void unknownFieldIsRejected() {
+        assertThatThrownBy(() -> ExpenseField.parse("amount,walletId"))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage("Unknown expense field: walletId");
+        // Names are case-sensitive, like the JSON properties they select
+        assertThatThrownBy(() -> ExpenseField.parse("Amount"))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage("Unknown expense field: Amount");
+    }
+}
@@ -0,0 +1,62 @@
+package com.spendSmart.backend.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the occurrence dates a rule produces, which are always counted from its start date.
+ */
+class RecurrenceRuleTests {
+
+    @Test
+    void monthlyOccurrencesClampToMonthEndWithoutDrifting() {
+        LocalDate start = LocalDate.of(2023, 1, 31);
+        RecurrenceRule.Frequency monthly = RecurrenceRule.Frequency.MONTHLY;
+
+        assertThat(monthly.occurrence(start, 1, 0)).isEqualTo(LocalDate.of(2023, 1, 31));
+        assertThat(monthly.occurrence(start, 1, 1)).isEqualTo(LocalDate.of(2023, 2, 28));
+        assertThat(monthly.occurrence(start, 1, 2)).isEqualTo(LocalDate.of(2023, 3, 31));
+        assertThat(monthly.occurrence(start, 1, 3)).isEqualTo(LocalDate.of(2023, 4, 30));
+        assertThat(monthly.occurrence(start, 1, 13)).isEqualTo(LocalDate.of(2024, 2, 29));
+    }
+
+    @Test
+    void yearlyLeapDayFallsBackToFebruary28thOutsideLeapYears() {
+        LocalDate start = LocalDate.of(2024, 2, 29);
+        RecurrenceRule.Frequency yearly = RecurrenceRule.Frequency.YEARLY;
+
+        assertThat(yearly.occurrence(start, 1, 1)).isEqualTo(LocalDate.of(2025, 2, 28));
+        assertThat(yearly.occurrence(start, 1, 3)).isEqualTo(LocalDate.of(2027, 2, 28));
+        assertThat(yearly.occurrence(start, 1, 4)).isEqualTo(LocalDate.of(2028, 2, 29));
+        assertThat(yearly.occurrence(start, 4, 1)).isEqualTo(LocalDate.of(2028, 2, 29));
+    }
+
+    @Test
+    void intervalCountMultipliesEveryStep() {
+        LocalDate start = LocalDate.of(2024, 1, 1);
+
+        assertThat(RecurrenceRule.Frequency.DAILY.occurrence(start, 3, 2)).isEqualTo(LocalDate.of(2024, 1, 7));
+        assertThat(RecurrenceRule.Frequency.WEEKLY.occurrence(start, 2, 3)).isEqualTo(LocalDate.of(2024, 2, 12));
+        assertThat(RecurrenceRule.Frequency.MONTHLY.occurrence(start, 3, 4)).isEqualTo(LocalDate.of(2025, 1, 1));
+        assertThat(RecurrenceRule.Frequency.YEARLY.occurrence(start, 2, 2)).isEqualTo(LocalDate.of(2028, 1, 1));
+    }
+
+    @Test
+    void occurrencesAfterTheEndDateAreDropped() {
+        RecurrenceRule rule = RecurrenceRule.builder()
+                .frequency(RecurrenceRule.Frequency.WEEKLY)
+                .intervalCount(1)
+                .startDate(LocalDate.of(2024, 1, 1))
+                .endDate(LocalDate.of(2024, 1, 15))
+                .build();
+
+        assertThat(rule.occurrenceWithinEnd(2)).isEqualTo(LocalDate.of(2024, 1, 15));
+        assertThat(rule.occurrenceWithinEnd(3)).isNull();
+
+        rule.setEndDate(null);
+        assertThat(rule.occurrenceWithinEnd(3)).isEqualTo(LocalDate.of(2024, 1, 22));
+    }
+}
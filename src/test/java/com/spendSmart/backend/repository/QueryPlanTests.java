@@ -0,0 +1,216 @@
+package com.spendSmart.backend.repository;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs EXPLAIN against the local database for the SQL behind each hot repository query and checks
+ * that the index created for it by the migrations can serve it without a table scan.
+ * <p>
+ * Several indexes share a (user_id, ...) prefix, and on a near-empty development database MySQL
+ * breaks ties between them arbitrarily, so the plans are checked for the candidate index and the
+ * access type rather than for the one key the optimizer happened to choose.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanTests {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Fresh statistics, so the plans reflect the current indexes rather than whatever was sampled last
+    @BeforeAll
+    void analyzeTables() {
+        jdbcTemplate.queryForList("ANALYZE TABLE expenses, expense_tags, budgets, wallets, sync_changes");
+    }
+
+    @Test
+    void expensesByUserUseUserDateIndex() {
+        assertPlan("SELECT * FROM expenses WHERE user_id = 1 ORDER BY transaction_date DESC",
+                "idx_expenses_user_date");
+        assertPlan("SELECT * FROM expenses WHERE user_id = 1 "
+                        + "AND transaction_date BETWEEN '2024-01-01' AND '2024-01-31' ORDER BY transaction_date DESC",
+                "idx_expenses_user_date");
+        assertPlan("SELECT * FROM expenses WHERE user_id = 1 ORDER BY transaction_date DESC LIMIT 10",
+                "idx_expenses_user_date");
+    }
+
+    @Test
+    void expenseDateRangesArePrunedToTheirMonthlyPartition() {
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN SELECT * FROM expenses WHERE user_id = 1 "
+                + "AND transaction_date BETWEEN '2024-01-01' AND '2024-01-31'");
+
+        assertThat(plan).hasSize(1);
+        assertThat(String.valueOf(plan.get(0).get("partitions"))).doesNotContain(",");
+    }
+
+    @Test
+    void expensesByUserAndCategoryUseUserCategoryDateIndex() {
+        assertPlan("SELECT * FROM expenses WHERE user_id = 1 AND category_id = 1 ORDER BY transaction_date DESC",
+                "idx_expenses_user_category_date");
+    }
+
+    @Test
+    void expensesByUserAndWalletUseUserWalletDateIndex() {
+        assertPlan("SELECT * FROM expenses WHERE user_id = 1 AND wallet_id = 1 ORDER BY transaction_date DESC",
+                "idx_expenses_user_wallet_date");
+    }
+
+    @Test
+    void filterByWalletAndDateUsesUserWalletDateIndex() {
+        assertPlan("SELECT * FROM expenses WHERE user_id = 1 AND wallet_id = 1 "
+                        + "AND transaction_date BETWEEN '2024-01-01' AND '2024-03-31' "
+                        + "ORDER BY transaction_date DESC, id DESC LIMIT 51",
+                "idx_expenses_user_wallet_date");
+    }
+
+    // Several categories are several index ranges, so their rows are merged by a sort
+    @Test
+    void filterByCategorySetUsesUserCategoryDateIndex() {
+        assertPlan("SELECT * FROM expenses WHERE user_id = 1 AND category_id IN (1, 2, 3) "
+                        + "ORDER BY transaction_date DESC, id DESC LIMIT 51",
+                "idx_expenses_user_category_date", false);
+    }
+
+    @Test
+    void filterByTypeUsesUserTypeDateIndex() {
+        assertPlan("SELECT * FROM expenses WHERE user_id = 1 AND type = 'INCOME' "
+                        + "ORDER BY transaction_date DESC, id DESC LIMIT 51",
+                "idx_expenses_user_type_date");
+    }
+
+    @Test
+    void filterByRecurringUsesUserRecurringDateIndex() {
+        assertPlan("SELECT * FROM expenses WHERE user_id = 1 AND is_recurring = true "
+                        + "ORDER BY transaction_date DESC, id DESC LIMIT 51",
+                "idx_expenses_user_recurring_date");
+    }
+
+    // Range filters on merchant and amount return rows in that column's order, not by date
+    @Test
+    void filterByMerchantPrefixUsesUserMerchantIndex() {
+        assertPlan("SELECT * FROM expenses WHERE user_id = 1 AND merchant LIKE 'Star%' "
+                        + "ORDER BY transaction_date DESC, id DESC LIMIT 51",
+                "idx_expenses_user_merchant", false);
+    }
+
+    @Test
+    void filterByAmountRangeUsesUserAmountIndex() {
+        assertPlan("SELECT * FROM expenses WHERE user_id = 1 AND amount BETWEEN 100 AND 200 "
+                        + "ORDER BY transaction_date DESC, id DESC LIMIT 51",
+                "idx_expenses_user_amount", false);
+    }
+
+    @Test
+    void keysetContinuationUsesUserDateIndex() {
+        assertPlan("SELECT * FROM expenses WHERE user_id = 1 AND (transaction_date < '2024-01-31' "
+                        + "OR (transaction_date = '2024-01-31' AND id < 100)) "
+                        + "ORDER BY transaction_date DESC, id DESC LIMIT 51",
+                "idx_expenses_user_date");
+    }
+
+    @Test
+    void activeBudgetsUseUserActiveDatesIndex() {
+        assertPlan("SELECT * FROM budgets WHERE user_id = 1 AND is_active = true",
+                "idx_budgets_user_active_dates");
+        assertPlan("SELECT * FROM budgets WHERE user_id = 1 AND is_active = true "
+                        + "AND '2024-01-15 00:00:00' BETWEEN start_date AND end_date",
+                "idx_budgets_user_active_dates");
+    }
+
+    @Test
+    void budgetsEndingSoonUseUserActiveEndIndex() {
+        assertPlan("SELECT * FROM budgets WHERE user_id = 1 AND is_active = true "
+                        + "AND end_date BETWEEN '2024-01-01 00:00:00' AND '2024-01-08 00:00:00'",
+                "idx_budgets_user_active_end");
+    }
+
+    @Test
+    void budgetsByCategoryUseUserCategoryActiveIndex() {
+        assertPlan("SELECT * FROM budgets WHERE user_id = 1 AND category_id = 1 AND is_active = true",
+                "idx_budgets_user_category_active");
+        assertPlan("SELECT * FROM budgets WHERE user_id = 1 AND category_id IS NULL AND is_active = true",
+                "idx_budgets_user_category_active");
+        assertPlan("SELECT COUNT(*) FROM budgets WHERE user_id = 1 AND category_id = 1 AND is_active = true "
+                        + "AND id <> 1 AND start_date <= '2024-01-31 00:00:00' AND end_date >= '2024-01-01 00:00:00'",
+                "idx_budgets_user_category_active");
+    }
+
+    @Test
+    void budgetsByPeriodUseUserPeriodActiveIndex() {
+        assertPlan("SELECT * FROM budgets WHERE user_id = 1 AND period = 'MONTHLY' AND is_active = true",
+                "idx_budgets_user_period_active");
+    }
+
+    @Test
+    void expiredBudgetsUseActiveEndIndex() {
+        assertPlan("SELECT id, user_id FROM budgets WHERE is_active = true AND end_date < '2024-01-01 00:00:00' "
+                        + "ORDER BY end_date LIMIT 500",
+                "idx_budgets_active_end");
+    }
+
+    @Test
+    void activeWalletsUseUserActiveIndex() {
+        assertPlan("SELECT * FROM wallets WHERE user_id = 1 AND is_active = true",
+                "idx_wallets_user_active");
+    }
+
+    @Test
+    void expensesByTagUseUserTagDateIndex() {
+        assertPlan("SELECT expense_id FROM expense_tags WHERE user_id = 1 AND tag_id = 1 ORDER BY transaction_date DESC",
+                "idx_expense_tags_user_tag_date");
+    }
+
+    @Test
+    void tagSpendIsAnsweredFromTheCoveringIndex() {
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN SELECT tag_id, "
+                + "SUM(CASE WHEN type = 'EXPENSE' THEN amount ELSE 0 END), COUNT(*) FROM expense_tags "
+                + "WHERE user_id = 1 AND transaction_date BETWEEN '2024-01-01' AND '2024-01-31' GROUP BY tag_id");
+
+        assertThat(plan.get(0).get("key")).isEqualTo("idx_expense_tags_user_date_tag");
+        assertThat(String.valueOf(plan.get(0).get("Extra"))).contains("Using index");
+    }
+
+    @Test
+    void syncChangesUseUserSeqIndex() {
+        assertPlan("SELECT entity_type, entity_id, seq, deleted FROM sync_changes WHERE user_id = 1 AND seq > 100 "
+                        + "ORDER BY seq LIMIT 501",
+                "uk_sync_changes_user_seq");
+    }
+
+    // A miss on a unique key is resolved while planning ("no matching row in const table"), so check the key itself
+    @Test
+    void refreshTokenLookupHasUniqueTokenHashIndex() {
+        List<Map<String, Object>> indexes = jdbcTemplate.queryForList(
+                "SHOW INDEX FROM refresh_tokens WHERE Column_name = 'token_hash' AND Seq_in_index = 1 AND Non_unique = 0");
+        assertThat(indexes).isNotEmpty();
+    }
+
+    private void assertPlan(String sql, String expectedIndex) {
+        assertPlan(sql, expectedIndex, true);
+    }
+
+    private void assertPlan(String sql, String expectedIndex, boolean orderedByIndex) {
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + sql);
+
+        assertThat(plan).as("plan for %s", sql).hasSize(1);
+        Map<String, Object> row = plan.get(0);
+        assertThat(Arrays.asList(String.valueOf(row.get("possible_keys")).split(",")))
+                .as("candidate indexes for %s", sql).contains(expectedIndex);
+        assertThat(row.get("type")).as("access type of %s", sql).isNotEqualTo("ALL");
+        // Only the intended index is guaranteed to return rows in the requested order
+        if (orderedByIndex && expectedIndex.equals(row.get("key"))) {
+            assertThat(String.valueOf(row.get("Extra"))).as("extra for %s", sql).doesNotContain("Using filesort");
+        }
+    }
+}
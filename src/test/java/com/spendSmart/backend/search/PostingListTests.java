@@ -0,0 +1,91 @@
+package com.spendSmart.backend.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostingListTests {
+
+    @Test
+    void decodesAppendedPostingsInIdOrder() {
+        PostingList postings = new PostingList();
+        postings.add(3, 1);
+        postings.add(10, 2);
+        postings.add(11, 300);
+
+        assertThat(postings.size()).isEqualTo(3);
+        assertThat(decode(postings)).containsExactly(new Posting(3, 1), new Posting(10, 2), new Posting(11, 300));
+    }
+
+    @Test
+    void encodesLargeIdsAndGapsAsVarints() {
+        PostingList postings = new PostingList();
+        postings.add(1, 1);
+        postings.add(128, 127);
+        postings.add(1L << 40, 128);
+        postings.add(Long.MAX_VALUE, Integer.MAX_VALUE);
+
+        assertThat(decode(postings)).containsExactly(new Posting(1, 1), new Posting(128, 127),
+                new Posting(1L << 40, 128), new Posting(Long.MAX_VALUE, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void consecutiveIdsTakeTwoBytesEach() {
+        PostingList postings = new PostingList();
+        for (long id = 1; id <= 1000; id++) {
+            postings.add(id, 1);
+        }
+
+        assertThat(postings.size()).isEqualTo(1000);
+        assertThat(postings.byteSize()).isEqualTo(2000);
+    }
+
+    @Test
+    void outOfOrderAddIsInsertedInPlaceAndReplacesAnExistingPosting() {
+        PostingList postings = new PostingList();
+        postings.add(5, 1);
+        postings.add(20, 1);
+        postings.add(12, 4);
+        postings.add(20, 7);
+
+        assertThat(postings.size()).isEqualTo(3);
+        assertThat(decode(postings)).containsExactly(new Posting(5, 1), new Posting(12, 4), new Posting(20, 7));
+
+        // Appending after a rewrite still encodes the gap from the largest id
+        postings.add(21, 2);
+        assertThat(decode(postings)).containsExactly(new Posting(5, 1), new Posting(12, 4), new Posting(20, 7),
+                new Posting(21, 2));
+    }
+
+    @Test
+    void removeDropsOnlyTheGivenId() {
+        PostingList postings = new PostingList();
+        postings.add(5, 1);
+        postings.add(12, 2);
+        postings.add(20, 3);
+
+        assertThat(postings.remove(12)).isTrue();
+        assertThat(postings.remove(12)).isFalse();
+        assertThat(postings.remove(7)).isFalse();
+        assertThat(postings.remove(99)).isFalse();
+        assertThat(decode(postings)).containsExactly(new Posting(5, 1), new Posting(20, 3));
+
+        assertThat(postings.remove(20)).isTrue();
+        assertThat(postings.remove(5)).isTrue();
+        assertThat(postings.size()).isZero();
+        assertThat(postings.byteSize()).isZero();
+        assertThat(decode(postings)).isEmpty();
+    }
+
+    private static List<Posting> decode(PostingList postings) {
+        List<Posting> decoded = new ArrayList<>();
+        postings.forEach((id, frequency) -> decoded.add(new Posting(id, frequency)));
+        return decoded;
+    }
+
+    private record Posting(long id, int frequency) {
+    }
+}
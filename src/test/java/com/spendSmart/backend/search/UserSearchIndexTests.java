@@ -0,0 +1,120 @@
+package com.spendSmart.backend.search;
+
+import com.spendSmart.backend.entity.Expense;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class UserSearchIndexTests {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final LocalDate DATE = LocalDate.of(2025, 3, 1);
+
+    @Test
+    void scoresWithBm25CountingMerchantWordsDouble() {
+        UserSearchIndex index = new UserSearchIndex();
+        index.put(document(1, "Starbucks", null, DATE));
+        index.put(document(2, null, "coffee beans", DATE));
+        index.put(document(3, null, "starbucks coffee", DATE));
+
+        List<UserSearchIndex.SearchHit> hits = index.search("starbucks", 10);
+
+        // Every document has length 2; "starbucks" occurs in two of three, twice in the merchant
+        double idf = Math.log(1 + (3 - 2 + 0.5) / (2 + 0.5));
+        assertThat(hits).hasSize(2);
+        assertThat(hits.get(0).document().id()).isEqualTo(1L);
+        assertThat(hits.get(0).score()).isCloseTo(idf * 2 * (K1 + 1) / (2 + K1), within(1e-9));
+        assertThat(hits.get(1).document().id()).isEqualTo(3L);
+        assertThat(hits.get(1).score()).isCloseTo(idf * (K1 + 1) / (1 + K1), within(1e-9));
+    }
+
+    @Test
+    void longerDocumentsScoreLowerForTheSameTermFrequency() {
+        UserSearchIndex index = new UserSearchIndex();
+        index.put(document(1, null, "taxi", DATE));
+        index.put(document(2, null, "taxi to the airport at night", DATE));
+        index.put(document(3, null, "groceries", DATE));
+
+        List<UserSearchIndex.SearchHit> hits = index.search("taxi", 10);
+
+        double averageLength = (1 + 6 + 1) / 3.0;
+        double idf = Math.log(1 + (3 - 2 + 0.5) / (2 + 0.5));
+        assertThat(hits.get(0).document().id()).isEqualTo(1L);
+        assertThat(hits.get(0).score()).isCloseTo(bm25(idf, 1, 1, averageLength), within(1e-9));
+        assertThat(hits.get(1).score()).isCloseTo(bm25(idf, 1, 6, averageLength), within(1e-9));
+    }
+
+    @Test
+    void prefixMatchesRankBelowExactTerms() {
+        UserSearchIndex index = new UserSearchIndex();
+        index.put(document(1, null, "ubereats", DATE));
+        index.put(document(2, null, "uber", DATE));
+
+        List<UserSearchIndex.SearchHit> hits = index.search("Uber", 10);
+
+        assertThat(hits.stream().map(hit -> hit.document().id()).toList()).containsExactly(2L, 1L);
+        assertThat(hits.get(1).score()).isCloseTo(hits.get(0).score() * 0.8, within(1e-9));
+    }
+
+    @Test
+    void everyQueryWordMustMatch() {
+        UserSearchIndex index = new UserSearchIndex();
+        index.put(document(1, "Shell", "fuel", DATE));
+        index.put(document(2, "Shell", "car wash", DATE));
+
+        assertThat(index.search("shell fuel", 10)).hasSize(1);
+        assertThat(index.search("shell fu", 10).get(0).document().id()).isEqualTo(1L);
+        assertThat(index.search("shell pizza", 10)).isEmpty();
+        assertThat(index.search("   ", 10)).isEmpty();
+    }
+
+    @Test
+    void tiesAreOrderedByMostRecentDateThenIdAndLimited() {
+        UserSearchIndex index = new UserSearchIndex();
+        index.put(document(1, null, "rent", DATE));
+        index.put(document(2, null, "rent", DATE.plusMonths(1)));
+        index.put(document(3, null, "rent", DATE.plusMonths(1)));
+
+        List<UserSearchIndex.SearchHit> hits = index.search("rent", 2);
+
+        assertThat(hits.stream().map(hit -> hit.document().id()).toList()).containsExactly(3L, 2L);
+    }
+
+    @Test
+    void replacingAndRemovingDocumentsUpdatesTermsAndStatistics() {
+        UserSearchIndex index = new UserSearchIndex();
+        index.put(document(1, null, "lunch", DATE));
+        index.put(document(2, null, "dinner", DATE));
+
+        index.put(document(1, null, "breakfast", DATE));
+        assertThat(index.search("lunch", 10)).isEmpty();
+        assertThat(index.search("breakfast", 10)).hasSize(1);
+
+        index.remove(2L);
+        index.remove(2L);
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.search("dinner", 10)).isEmpty();
+        // A single remaining document of length 1
+        double idf = Math.log(1 + 0.5 / 1.5);
+        assertThat(index.search("breakfast", 10).get(0).score()).isCloseTo(bm25(idf, 1, 1, 1), within(1e-9));
+
+        index.remove(1L);
+        assertThat(index.size()).isZero();
+        assertThat(index.postingBytes()).isZero();
+    }
+
+    private static double bm25(double idf, int frequency, int length, double averageLength) {
+        return idf * frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * length / averageLength));
+    }
+
+    private static SearchDocument document(long id, String merchant, String description, LocalDate date) {
+        return new SearchDocument(id, 1L, 1L, BigDecimal.TEN, "USD", date, merchant, description, List.of(),
+                Expense.ExpenseType.EXPENSE);
+    }
+}
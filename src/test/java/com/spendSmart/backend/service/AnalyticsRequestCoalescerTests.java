@@ -0,0 +1,145 @@
+package com.spendSmart.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Submits the same computation from many threads while the first run is held open, and checks that
+ * they share that one run, its result and its failure.
+ */
+class AnalyticsRequestCoalescerTests {
+
+    private static final int CALLERS = 16;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AnalyticsRequestCoalescer coalescer = new AnalyticsRequestCoalescer(meterRegistry);
+    private final ExecutorService computeExecutor = Executors.newSingleThreadExecutor();
+    private final ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+    private final AtomicInteger runs = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        computeExecutor.shutdownNow();
+        callers.shutdownNow();
+    }
+
+    @Test
+    void concurrentIdenticalSubmitsRunTheComputationOnce() throws Exception {
+        List<CompletableFuture<Integer>> results = submitConcurrently(() -> {
+            runs.incrementAndGet();
+            awaitRelease();
+            return 42;
+        });
+
+        release.countDown();
+        for (CompletableFuture<Integer> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(42);
+        }
+        assertThat(runs).hasValue(1);
+        assertThat(meterRegistry.counter("analytics.singleflight.requests",
+                "operation", "trends", "outcome", "executed").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("analytics.singleflight.requests",
+                "operation", "trends", "outcome", "coalesced").count()).isEqualTo(CALLERS - 1);
+    }
+
+    @Test
+    void failureReachesEveryWaiter() throws Exception {
+        List<CompletableFuture<Integer>> results = submitConcurrently(() -> {
+            runs.incrementAndGet();
+            awaitRelease();
+            throw new IllegalStateException("analytics query failed");
+        });
+
+        release.countDown();
+        for (CompletableFuture<Integer> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasRootCauseMessage("analytics query failed");
+        }
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void cancellingOneWaiterLeavesTheOthersTheResult() throws Exception {
+        List<CompletableFuture<Integer>> results = submitConcurrently(() -> {
+            awaitRelease();
+            return 7;
+        });
+
+        results.get(0).cancel(true);
+        release.countDown();
+        for (CompletableFuture<Integer> result : results.subList(1, results.size())) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(7);
+        }
+    }
+
+    @Test
+    void completedFlightIsNotReused() throws Exception {
+        release.countDown();
+        assertThat(submit(runs::incrementAndGet).get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(submit(runs::incrementAndGet).get(5, TimeUnit.SECONDS)).isEqualTo(2);
+    }
+
+    @Test
+    void differentParametersAreNotCoalesced() throws Exception {
+        release.countDown();
+        CompletableFuture<Integer> twelve = coalescer.submit("trends", 1L, List.of(12), runs::incrementAndGet,
+                computeExecutor);
+        CompletableFuture<Integer> six = coalescer.submit("trends", 1L, List.of(6), runs::incrementAndGet,
+                computeExecutor);
+        CompletableFuture<Integer> otherUser = coalescer.submit("trends", 2L, List.of(12), runs::incrementAndGet,
+                computeExecutor);
+
+        CompletableFuture.allOf(twelve, six, otherUser).get(5, TimeUnit.SECONDS);
+        assertThat(runs).hasValue(3);
+    }
+
+    // Every caller submits while the first computation is still held open by the release latch
+    private List<CompletableFuture<Integer>> submitConcurrently(Supplier<Integer> computation)
+            throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<CompletableFuture<Integer>>> submitted = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            submitted.add(callers.submit(() -> {
+                start.await();
+                return submit(computation);
+            }));
+        }
+        start.countDown();
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (Future<CompletableFuture<Integer>> future : submitted) {
+            results.add(future.get(5, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+
+    private CompletableFuture<Integer> submit(Supplier<Integer> computation) {
+        return coalescer.submit("trends", 1L, List.of(12), computation, computeExecutor);
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.spendSmart.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Drives the stale-while-revalidate cache with a hand-set clock and an executor that runs refreshes
+ * either inline or only when the test says so, and checks which value each read is served.
+ */
+class AnalyticsResultCacheTests {
+
+    private static final long SOFT_TTL_MS = 30_000;
+    private static final long HARD_TTL_MS = 600_000;
+    private static final long RETENTION_MS = 3_600_000;
+
+    private final MutableClock clock = new MutableClock();
+    private final ManualExecutor executor = new ManualExecutor();
+    private final AtomicInteger loads = new AtomicInteger();
+    private AnalyticsResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new AnalyticsResultCache(new AnalyticsRequestCoalescer(new SimpleMeterRegistry()), executor, clock);
+        ReflectionTestUtils.setField(cache, "softTtlMs", SOFT_TTL_MS);
+        ReflectionTestUtils.setField(cache, "hardTtlMs", HARD_TTL_MS);
+        ReflectionTestUtils.setField(cache, "retentionMs", RETENTION_MS);
+        ReflectionTestUtils.setField(cache, "latencyBudgetMs", 50L);
+        ReflectionTestUtils.setField(cache, "maxEntries", 100);
+        ReflectionTestUtils.setField(cache, "computeTimeoutMs", 1000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void valueYoungerThanTheSoftTtlIsServedWithoutRecomputing() {
+        assertThat(get(1L).value()).isEqualTo("v1");
+
+        clock.advance(SOFT_TTL_MS - 1);
+        AnalyticsResultCache.CachedResult<String> result = get(1L);
+
+        assertThat(result).isEqualTo(new AnalyticsResultCache.CachedResult<>("v1", false, SOFT_TTL_MS - 1));
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void valuePastTheSoftTtlIsServedStaleWhileOneRefreshRuns() {
+        get(1L);
+        clock.advance(SOFT_TTL_MS);
+        executor.direct = false;
+
+        AnalyticsResultCache.CachedResult<String> first = get(1L);
+        AnalyticsResultCache.CachedResult<String> second = get(1L);
+
+        assertThat(first).isEqualTo(new AnalyticsResultCache.CachedResult<>("v1", true, SOFT_TTL_MS));
+        assertThat(second.value()).isEqualTo("v1");
+        // The second read joined the refresh already in flight
+        assertThat(executor.pending()).isEqualTo(1);
+
+        executor.runAll();
+        assertThat(get(1L)).isEqualTo(new AnalyticsResultCache.CachedResult<>("v2", false, 0));
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void valuePastTheHardTtlIsRecomputedWithinTheLatencyBudget() {
+        get(1L);
+        clock.advance(HARD_TTL_MS);
+
+        assertThat(get(1L)).isEqualTo(new AnalyticsResultCache.CachedResult<>("v2", false, 0));
+    }
+
+    @Test
+    void retainedValueIsServedStaleWhenTheRecomputeExceedsTheLatencyBudget() {
+        get(1L);
+        clock.advance(HARD_TTL_MS + 1000);
+        executor.direct = false;
+
+        AnalyticsResultCache.CachedResult<String> result = get(1L);
+
+        assertThat(result).isEqualTo(new AnalyticsResultCache.CachedResult<>("v1", true, HARD_TTL_MS + 1000));
+        // The refresh keeps going and its result is served next time
+        executor.runAll();
+        assertThat(get(1L).value()).isEqualTo("v2");
+    }
+
+    @Test
+    void retainedValueIsServedStaleWhenTheRecomputeFails() {
+        get(1L);
+        clock.advance(HARD_TTL_MS);
+
+        AnalyticsResultCache.CachedResult<String> result = cache.get("trends", 1L, List.of(12), () -> {
+            throw new IllegalStateException("analytics database unavailable");
+        });
+
+        assertThat(result.value()).isEqualTo("v1");
+        assertThat(result.stale()).isTrue();
+    }
+
+    @Test
+    void valuePastRetentionIsNeverServed() {
+        get(1L);
+        clock.advance(RETENTION_MS + 1);
+
+        assertThatThrownBy(() -> cache.get("trends", 1L, List.of(12), () -> {
+            throw new IllegalStateException("analytics database unavailable");
+        })).isInstanceOf(IllegalStateException.class).hasMessage("analytics database unavailable");
+        assertThat(get(1L)).isEqualTo(new AnalyticsResultCache.CachedResult<>("v2", false, 0));
+    }
+
+    @Test
+    void missIsShedWhenTheAnalyticsQueueIsFull() {
+        executor.rejecting = true;
+
+        assertThatThrownBy(() -> get(1L))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+    }
+
+    @Test
+    void invalidationTakesEffectOnlyAfterCommit() {
+        get(1L);
+        get(2L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.invalidateUser(1L);
+        assertThat(get(1L).value()).isEqualTo("v1");
+        assertThat(loads).hasValue(2);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        // Revalidated although young; the old value remains the fallback when the refresh is slow
+        executor.direct = false;
+        assertThat(get(1L)).isEqualTo(new AnalyticsResultCache.CachedResult<>("v1", true, 0));
+        assertThat(get(2L)).isEqualTo(new AnalyticsResultCache.CachedResult<>("v2", false, 0));
+        executor.runAll();
+        assertThat(get(1L).value()).isEqualTo("v3");
+    }
+
+    @Test
+    void rolledBackWriteDoesNotInvalidate() {
+        get(1L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.invalidateUser(1L);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertThat(get(1L)).isEqualTo(new AnalyticsResultCache.CachedResult<>("v1", false, 0));
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void valueComputedAcrossAnInvalidationIsRevalidatedOnTheNextRead() {
+        cache.get("trends", 1L, List.of(12), () -> {
+            cache.invalidateUser(1L);
+            return "before-write";
+        });
+
+        assertThat(get(1L)).isEqualTo(new AnalyticsResultCache.CachedResult<>("v1", false, 0));
+    }
+
+    @Test
+    void headersCarryTheAgeAndTheStaleWarning() {
+        HttpHeaders fresh = new AnalyticsResultCache.CachedResult<>("v1", false, 12_400).headers();
+        HttpHeaders stale = new AnalyticsResultCache.CachedResult<>("v1", true, 65_000).headers();
+
+        assertThat(fresh.getFirst(HttpHeaders.AGE)).isEqualTo("12");
+        assertThat(fresh.containsKey(HttpHeaders.WARNING)).isFalse();
+        assertThat(stale.getFirst(HttpHeaders.AGE)).isEqualTo("65");
+        assertThat(stale.getFirst(HttpHeaders.WARNING)).isEqualTo("110 - \"Response is Stale\"");
+    }
+
+    // Each load returns the next version, v1, v2, ...
+    private AnalyticsResultCache.CachedResult<String> get(Long userId) {
+        Supplier<String> loader = () -> "v" + loads.incrementAndGet();
+        return cache.get("trends", userId, List.of(12), loader);
+    }
+
+    private static class MutableClock extends Clock {
+
+        private long millis = 1_700_000_000_000L;
+
+        void advance(long delta) {
+            millis += delta;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+
+    // Runs tasks inline, or holds them until runAll when direct is off
+    private static class ManualExecutor implements Executor {
+
+        private final Deque<Runnable> queue = new ArrayDeque<>();
+        boolean direct = true;
+        boolean rejecting;
+
+        @Override
+        public synchronized void execute(Runnable task) {
+            if (rejecting) {
+                throw new RejectedExecutionException("analytics queue full");
+            }
+            if (direct) {
+                task.run();
+            } else {
+                queue.add(task);
+            }
+        }
+
+        synchronized int pending() {
+            return queue.size();
+        }
+
+        void runAll() {
+            Runnable task;
+            while ((task = poll()) != null) {
+                task.run();
+            }
+        }
+
+        private synchronized Runnable poll() {
+            return queue.poll();
+        }
+    }
+}
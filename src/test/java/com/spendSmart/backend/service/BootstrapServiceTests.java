@@ -0,0 +1,174 @@
+package com.spendSmart.backend.service;
+
+import com.spendSmart.backend.dto.bootstrap.BootstrapResponse;
+import com.spendSmart.backend.dto.budget.BudgetResponse;
+import com.spendSmart.backend.dto.category.CategoryResponse;
+import com.spendSmart.backend.dto.expense.ExpenseResponse;
+import com.spendSmart.backend.dto.wallet.WalletResponse;
+import com.spendSmart.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Loads the bootstrap response for a user with one of everything, then again with the dashboard
+ * section failing, to check the error names the section and keeps a refusal's status.
+ */
+@SpringBootTest
+class BootstrapServiceTests {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BootstrapService bootstrapService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private BudgetService budgetService;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private AnalyticsRequestCoalescer coalescer;
+
+    @Autowired
+    private LedgerVersionService ledgerVersionService;
+
+    @Autowired
+    @Qualifier("bootstrapExecutor")
+    private ThreadPoolTaskExecutor bootstrapExecutor;
+
+    private long userId;
+    private long walletId;
+    private long categoryId;
+    private long budgetId;
+    private long expenseId;
+
+    @BeforeEach
+    void setUp() {
+        userId = insert("INSERT INTO users (email, password_hash, name, is_active, created_at, updated_at) " +
+                "VALUES (?, 'x', 'Bootstrap Test', TRUE, NOW(6), NOW(6))", "bootstrap-" + UUID.randomUUID() + "@test.local");
+        walletId = insert("INSERT INTO wallets (user_id, name, currency, balance, is_default, is_active, created_at, " +
+                "updated_at) VALUES (?, 'Main', 'USD', 0.00, TRUE, TRUE, NOW(6), NOW(6))", userId);
+        categoryId = insert("INSERT INTO categories (user_id, name, is_system, is_active, created_at, updated_at) " +
+                "VALUES (?, 'Groceries', FALSE, TRUE, NOW(6), NOW(6))", userId);
+        LocalDateTime monthStart = LocalDate.now().withDayOfMonth(1).atStartOfDay();
+        budgetId = insert("INSERT INTO budgets (user_id, name, amount, spent_amount, period, start_date, end_date, " +
+                        "is_active, created_at, updated_at) VALUES (?, 'Monthly', 500.00, 0.00, 'MONTHLY', ?, ?, TRUE, " +
+                        "NOW(6), NOW(6))",
+                userId, monthStart, monthStart.plusMonths(1));
+        expenseId = insert("INSERT INTO expenses (user_id, wallet_id, category_id, amount, currency, transaction_date, " +
+                        "type, is_recurring, created_at, updated_at) VALUES (?, ?, ?, 42.50, 'USD', ?, 'EXPENSE', FALSE, " +
+                        "NOW(6), NOW(6))",
+                userId, walletId, categoryId, Date.valueOf(LocalDate.now()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (String table : List.of("expenses", "budgets", "wallets", "categories")) {
+            jdbcTemplate.update("DELETE FROM " + table + " WHERE user_id = ?", userId);
+        }
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+    }
+
+    @Test
+    void returnsEverySection() {
+        BootstrapResponse response = bootstrapService.bootstrap(userId, 10);
+
+        assertThat(response.getWallets()).extracting(WalletResponse::getId).containsExactly(walletId);
+        assertThat(response.getCategories()).extracting(CategoryResponse::getId).contains(categoryId);
+        assertThat(response.getActiveBudgets()).extracting(BudgetResponse::getId).containsExactly(budgetId);
+        assertThat(response.getExpenses().getItems()).extracting(ExpenseResponse::getId).containsExactly(expenseId);
+        assertThat(response.getExpenses().getNextCursor()).isNull();
+        assertThat(response.getDashboard()).isNotNull();
+        assertThat(response.getDashboard().getCurrentMonthExpenses()).isEqualByComparingTo(new BigDecimal("42.50"));
+    }
+
+    @Test
+    void refusedSectionKeepsItsStatusAndIsNamed() {
+        BootstrapService failing = withDashboard(() -> {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Analytics is busy, try again later");
+        });
+
+        assertThatThrownBy(() -> failing.bootstrap(userId, 10))
+                .isInstanceOfSatisfying(ResponseStatusException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+                    assertThat(e.getReason()).isEqualTo("Could not load dashboard: Analytics is busy, try again later");
+                });
+    }
+
+    @Test
+    void failedSectionIsNamedWithoutItsInternalMessage() {
+        BootstrapService failing = withDashboard(() -> {
+            throw new IllegalStateException("Communications link failure");
+        });
+
+        assertThatThrownBy(() -> failing.bootstrap(userId, 10))
+                .isInstanceOfSatisfying(ResponseStatusException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+                    assertThat(e.getReason()).isEqualTo("Could not load dashboard");
+                    assertThat(e.getCause()).hasMessage("Communications link failure");
+                });
+    }
+
+    // The real services, with the dashboard's cache lookup replaced by the given failure
+    private BootstrapService withDashboard(Supplier<?> failure) {
+        AnalyticsResultCache cache = new AnalyticsResultCache(coalescer, Runnable::run, Clock.systemUTC()) {
+            @Override
+            public <T> CachedResult<T> get(String operation, Long user, List<?> params, Supplier<T> loader) {
+                failure.get();
+                throw new AssertionError("failure did not throw");
+            }
+        };
+        return new BootstrapService(userRepository, walletService, categoryService, budgetService, expenseService,
+                analyticsService, cache, ledgerVersionService, bootstrapExecutor);
+    }
+
+    private long insert(String sql, Object... args) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            for (int i = 0; i < args.length; i++) {
+                statement.setObject(i + 1, args[i]);
+            }
+            return statement;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+}
@@ -0,0 +1,104 @@
+package com.spendSmart.backend.service;
+
+import com.spendSmart.backend.entity.Category;
+import com.spendSmart.backend.repository.CategoryRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Loads a user's category into the second-level cache and checks ownership and activity on the
+ * cached copy. The soft delete is written with plain JDBC, as another node's commit looks to this
+ * node's cache: nothing evicts the entry.
+ */
+@SpringBootTest
+class CategoryServiceTests {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private long ownerId;
+    private long otherUserId;
+    private long categoryId;
+
+    @BeforeEach
+    void setUp() {
+        ownerId = user("owner");
+        otherUserId = user("other");
+        categoryId = insert("INSERT INTO categories (user_id, name, is_system, is_active, created_at, updated_at) " +
+                "VALUES (?, 'Hobbies', FALSE, TRUE, NOW(6), NOW(6))", ownerId);
+        // Loaded once so the lookups below are answered by the cache
+        categoryRepository.findById(categoryId);
+    }
+
+    @AfterEach
+    void tearDown() {
+        entityManagerFactory.getCache().evict(Category.class, categoryId);
+        jdbcTemplate.update("DELETE FROM categories WHERE id = ?", categoryId);
+        jdbcTemplate.update("DELETE FROM users WHERE id IN (?, ?)", ownerId, otherUserId);
+    }
+
+    @Test
+    void cachedCategoryIsOnlyOwnedByItsUser() {
+        assertThat(entityManagerFactory.getCache().contains(Category.class, categoryId)).isTrue();
+        Category cached = categoryRepository.findById(categoryId).orElseThrow();
+
+        assertThat(CategoryService.isOwnedBy(cached, ownerId)).isTrue();
+        assertThat(CategoryService.isOwnedBy(cached, otherUserId)).isFalse();
+        assertThat(categoryService.getCategoryById(categoryId, ownerId).getId()).isEqualTo(categoryId);
+        assertThatThrownBy(() -> categoryService.getCategoryById(categoryId, otherUserId))
+                .hasMessage("Category not found");
+        assertThat(categoryService.findActiveForWrite(categoryId, otherUserId)).isEmpty();
+    }
+
+    @Test
+    void categoryDeletedElsewhereIsRejectedForWritesWhileStillCached() {
+        assertThat(categoryService.findActiveForWrite(categoryId, ownerId)).isPresent();
+
+        jdbcTemplate.update("UPDATE categories SET is_active = FALSE WHERE id = ?", categoryId);
+
+        // Reads may still see the cached copy until it expires; writes must not
+        assertThat(entityManagerFactory.getCache().contains(Category.class, categoryId)).isTrue();
+        assertThat(categoryRepository.findById(categoryId).orElseThrow().getIsActive()).isTrue();
+        assertThat(categoryService.findActiveForWrite(categoryId, ownerId)).isEmpty();
+    }
+
+    private long user(String name) {
+        return insert("INSERT INTO users (email, password_hash, name, is_active, created_at, updated_at) " +
+                "VALUES (?, 'x', ?, TRUE, NOW(6), NOW(6))", name + "-" + UUID.randomUUID() + "@test.local", name);
+    }
+
+    private long insert(String sql, Object... args) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            for (int i = 0; i < args.length; i++) {
+                statement.setObject(i + 1, args[i]);
+            }
+            return statement;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+}
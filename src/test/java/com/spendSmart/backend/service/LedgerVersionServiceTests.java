@@ -0,0 +1,103 @@
+package com.spendSmart.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the ETag format and If-None-Match parsing, and that cached versions only move forward,
+ * against a stubbed version table instead of the database.
+ */
+class LedgerVersionServiceTests {
+
+    private final AtomicLong storedVersion = new AtomicLong();
+    private final AtomicInteger reads = new AtomicInteger();
+
+    private final LedgerVersionService service = new LedgerVersionService(new JdbcTemplate() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> List<T> queryForList(String sql, Class<T> elementType, Object... args) {
+            reads.incrementAndGet();
+            return (List<T>) List.of(storedVersion.get());
+        }
+    });
+
+    @Test
+    void etagIsWeakAndCarriesTheVersion() {
+        String etag = service.etag(1L, 42L, request(null));
+
+        assertThat(etag).matches("W/\"42-[0-9a-f]{16}\"");
+        assertThat(service.etag(1L, 42L, request(null))).isEqualTo(etag);
+        assertThat(service.etag(1L, 43L, request(null))).isNotEqualTo(etag);
+        assertThat(service.etag(2L, 42L, request(null))).isNotEqualTo(etag);
+    }
+
+    @Test
+    void ifNoneMatchIsComparedWeakly() {
+        String etag = "W/\"7-0123456789abcdef\"";
+        String opaque = "\"7-0123456789abcdef\"";
+
+        assertThat(service.isNotModified(request(null), etag)).isFalse();
+        assertThat(service.isNotModified(request(etag), etag)).isTrue();
+        assertThat(service.isNotModified(request(opaque), etag)).isTrue();
+        assertThat(service.isNotModified(request(opaque), opaque)).isTrue();
+        assertThat(service.isNotModified(request("*"), etag)).isTrue();
+        assertThat(service.isNotModified(request("\"6-0123456789abcdef\", " + etag), etag)).isTrue();
+        assertThat(service.isNotModified(request("W/\"6-0123456789abcdef\" ,W/\"8-0123456789abcdef\""), etag))
+                .isFalse();
+        assertThat(service.isNotModified(request("7-0123456789abcdef"), etag)).isFalse();
+    }
+
+    @Test
+    void rememberedVersionNeverMovesBackward() {
+        assertThat(service.remember(1L, 5L, 1000L)).isEqualTo(5L);
+        // A slower load that read an older version loses to the newer one already cached
+        assertThat(service.remember(1L, 3L, 2000L)).isEqualTo(5L);
+        assertThat(service.remember(1L, 5L, 3000L)).isEqualTo(5L);
+        assertThat(service.remember(1L, 8L, 4000L)).isEqualTo(8L);
+        assertThat(service.remember(2L, 1L, 4000L)).isEqualTo(1L);
+    }
+
+    @Test
+    void zeroTtlRereadsTheVersionOnEveryRequest() {
+        storedVersion.set(4L);
+        assertThat(service.currentVersion(1L)).isEqualTo(4L);
+
+        // Another node commits; this node sees it on the next request
+        storedVersion.set(6L);
+        assertThat(service.currentVersion(1L)).isEqualTo(6L);
+        assertThat(reads).hasValue(2);
+    }
+
+    @Test
+    void positiveTtlServesTheCachedVersionUntilItExpires() {
+        ReflectionTestUtils.setField(service, "versionTtlMs", 60_000L);
+        storedVersion.set(4L);
+        assertThat(service.currentVersion(1L)).isEqualTo(4L);
+
+        storedVersion.set(6L);
+        assertThat(service.currentVersion(1L)).isEqualTo(4L);
+        // A commit on this node applies at once, outside a transaction as well
+        service.advance(1L, 7L);
+        assertThat(service.currentVersion(1L)).isEqualTo(7L);
+        assertThat(reads).hasValue(1);
+    }
+
+    private static WebRequest request(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/wallets");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return new ServletWebRequest(request);
+    }
+}
@@ -0,0 +1,211 @@
+package com.spendSmart.backend.service;
+
+import com.spendSmart.backend.outbox.OutboxEvent;
+import com.spendSmart.backend.outbox.OutboxEventHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the outbox dispatcher by hand against the local database, with a handler that fails for
+ * chosen aggregates, and checks the retry, backoff and FAILED transitions it writes.
+ */
+@SpringBootTest(properties = "app.outbox.enabled=false")
+class OutboxDispatcherTests {
+
+    private static final String AGGREGATE_TYPE = "TEST";
+    private static final String EVENT_TYPE = "TEST_FLAKY";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectProvider<OutboxEventHandler> handlers;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private FlakyHandler handler;
+
+    private OutboxDispatcher dispatcher;
+
+    // The application's dispatcher is disabled in the properties; this one is only run by the tests
+    @BeforeEach
+    void setUp() {
+        dispatcher = new OutboxDispatcher(jdbcTemplate, transactionTemplate, handlers, meterRegistry);
+        ReflectionTestUtils.setField(dispatcher, "enabled", true);
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 100);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(dispatcher, "backoffInitialMs", 2000L);
+        ReflectionTestUtils.setField(dispatcher, "backoffMaxMs", 3000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+        handler.failing.clear();
+        handler.handled.clear();
+        jdbcTemplate.update("DELETE FROM outbox_events WHERE aggregate_type = ?", AGGREGATE_TYPE);
+    }
+
+    @Test
+    void failingEventIsRetriedAloneWhileTheRestOfItsBatchIsApplied() {
+        long good = publish(1L);
+        long bad = publish(2L);
+        handler.failing.add(2L);
+
+        Timestamp before = now();
+        dispatcher.dispatch();
+        Timestamp after = now();
+
+        assertThat(status(good)).isEqualTo("DONE");
+        assertThat(handler.handled).contains(1L);
+        Map<String, Object> retried = row(bad);
+        assertThat(retried.get("status")).isEqualTo("PENDING");
+        assertThat(retried.get("attempts")).isEqualTo(1);
+        assertThat((String) retried.get("last_error")).contains("aggregate 2");
+        // First retry waits between half and all of the initial backoff
+        assertAvailableBetween(bad, before, 1000, after, 2000);
+    }
+
+    @Test
+    void backoffDoublesUpToItsMaximum() {
+        long bad = publish(3L);
+        handler.failing.add(3L);
+
+        dispatcher.dispatch();
+        makeDue(bad);
+        Timestamp before = now();
+        dispatcher.dispatch();
+        Timestamp after = now();
+
+        // Second attempt: 2000 << 1 capped at 3000, with jitter over its upper half
+        assertThat(row(bad).get("attempts")).isEqualTo(2);
+        assertAvailableBetween(bad, before, 1500, after, 3000);
+    }
+
+    @Test
+    void eventIsMarkedFailedAtTheAttemptLimit() {
+        long bad = publish(4L);
+        handler.failing.add(4L);
+
+        for (int attempt = 0; attempt < 3; attempt++) {
+            makeDue(bad);
+            dispatcher.dispatch();
+        }
+
+        Map<String, Object> failed = row(bad);
+        assertThat(failed.get("status")).isEqualTo("FAILED");
+        assertThat(failed.get("attempts")).isEqualTo(3);
+        assertThat(failed.get("processed_at")).isNotNull();
+
+        // A dead-lettered event is never claimed again
+        handler.failing.clear();
+        makeDue(bad);
+        dispatcher.dispatch();
+        assertThat(status(bad)).isEqualTo("FAILED");
+        assertThat(handler.handled).doesNotContain(4L);
+    }
+
+    @Test
+    void eventThatStopsFailingIsAppliedOnItsNextAttempt() {
+        long flaky = publish(5L);
+        handler.failing.add(5L);
+
+        dispatcher.dispatch();
+        assertThat(status(flaky)).isEqualTo("PENDING");
+
+        // Not due yet, so the next poll skips it
+        handler.failing.clear();
+        dispatcher.dispatch();
+        assertThat(status(flaky)).isEqualTo("PENDING");
+
+        makeDue(flaky);
+        dispatcher.dispatch();
+        assertThat(status(flaky)).isEqualTo("DONE");
+        assertThat(row(flaky).get("attempts")).isEqualTo(1);
+        assertThat(handler.handled).containsExactly(5L);
+    }
+
+    // Inserted the way OutboxService does, minus the after-commit wake-up of the application's dispatcher
+    private long publish(long aggregateId) {
+        jdbcTemplate.update("INSERT INTO outbox_events (aggregate_type, aggregate_id, user_id, event_type, payload, " +
+                        "status, attempts, available_at, created_at) VALUES (?, ?, 0, ?, '{}', 'PENDING', 0, NOW(6), NOW(6))",
+                AGGREGATE_TYPE, aggregateId, EVENT_TYPE);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM outbox_events WHERE aggregate_type = ? " +
+                "AND aggregate_id = ?", Long.class, AGGREGATE_TYPE, aggregateId);
+    }
+
+    private void makeDue(long id) {
+        jdbcTemplate.update("UPDATE outbox_events SET available_at = NOW(6) WHERE id = ?", id);
+    }
+
+    private void assertAvailableBetween(long id, Timestamp before, long minDelayMs, Timestamp after, long maxDelayMs) {
+        Timestamp availableAt = jdbcTemplate.queryForObject("SELECT available_at FROM outbox_events WHERE id = ?",
+                Timestamp.class, id);
+        assertThat(availableAt.getTime()).isBetween(before.getTime() + minDelayMs, after.getTime() + maxDelayMs);
+    }
+
+    private Timestamp now() {
+        return jdbcTemplate.queryForObject("SELECT NOW(6)", Timestamp.class);
+    }
+
+    private String status(long id) {
+        return jdbcTemplate.queryForObject("SELECT status FROM outbox_events WHERE id = ?", String.class, id);
+    }
+
+    private Map<String, Object> row(long id) {
+        return jdbcTemplate.queryForMap("SELECT status, attempts, last_error, processed_at FROM outbox_events WHERE id = ?", id);
+    }
+
+    static class FlakyHandler implements OutboxEventHandler {
+
+        final Set<Long> failing = ConcurrentHashMap.newKeySet();
+        final Set<Long> handled = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public boolean supports(String eventType) {
+            return EVENT_TYPE.equals(eventType);
+        }
+
+        @Override
+        public void handle(List<OutboxEvent> events) {
+            for (OutboxEvent event : events) {
+                if (failing.contains(event.aggregateId())) {
+                    throw new IllegalStateException("Handler rejects aggregate " + event.aggregateId());
+                }
+            }
+            events.forEach(event -> handled.add(event.aggregateId()));
+        }
+    }
+
+    @TestConfiguration
+    static class HandlerConfig {
+
+        @Bean
+        FlakyHandler flakyHandler() {
+            return new FlakyHandler();
+        }
+    }
+}
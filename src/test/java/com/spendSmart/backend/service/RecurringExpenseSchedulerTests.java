@@ -0,0 +1,125 @@
+package com.spendSmart.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Materializes a daily rule against the local database, then rewinds the rule as a run whose lease
+ * lapsed mid-chunk would leave it, and checks that the occurrence key keeps the second run harmless.
+ */
+@SpringBootTest
+class RecurringExpenseSchedulerTests {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("12.50");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RecurringExpenseScheduler scheduler;
+
+    private final LocalDate start = LocalDate.now().minusDays(2);
+    private long userId;
+    private long walletId;
+    private long ruleId;
+
+    @BeforeEach
+    void setUp() {
+        userId = insert("INSERT INTO users (email, password_hash, name, is_active, created_at, updated_at) " +
+                "VALUES (?, 'x', 'Recurring Test', TRUE, NOW(6), NOW(6))", "recurring-" + UUID.randomUUID() + "@test.local");
+        walletId = insert("INSERT INTO wallets (user_id, name, currency, balance, is_default, is_active, created_at, " +
+                "updated_at) VALUES (?, 'Main', 'USD', 100.00, TRUE, TRUE, NOW(6), NOW(6))", userId);
+        long categoryId = insert("INSERT INTO categories (user_id, name, is_system, is_active, created_at, updated_at) " +
+                "VALUES (?, 'Rent', FALSE, TRUE, NOW(6), NOW(6))", userId);
+        ruleId = insert("INSERT INTO recurrence_rules (user_id, wallet_id, category_id, amount, currency, merchant, " +
+                        "type, frequency, interval_count, start_date, occurrence_count, next_occurrence_date, is_active, " +
+                        "created_at, updated_at) VALUES (?, ?, ?, ?, 'USD', 'Landlord', 'EXPENSE', 'DAILY', 1, ?, 0, ?, " +
+                        "TRUE, NOW(6), NOW(6))",
+                userId, walletId, categoryId, AMOUNT, Date.valueOf(start), Date.valueOf(start));
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (String table : List.of("sync_changes", "user_change_sequences", "expenses", "recurrence_rules",
+                "wallets", "categories")) {
+            jdbcTemplate.update("DELETE FROM " + table + " WHERE user_id = ?", userId);
+        }
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+    }
+
+    @Test
+    void materializesEachDueOccurrenceOnce() {
+        scheduler.materializeDueOccurrences();
+
+        assertThat(occurrenceDates()).containsExactly(start, start.plusDays(1), start.plusDays(2));
+        assertThat(balance()).isEqualByComparingTo("62.50");
+        assertThat(jdbcTemplate.queryForObject("SELECT occurrence_count FROM recurrence_rules WHERE id = ?",
+                Integer.class, ruleId)).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject("SELECT next_occurrence_date FROM recurrence_rules WHERE id = ?",
+                LocalDate.class, ruleId)).isEqualTo(start.plusDays(3));
+    }
+
+    @Test
+    void rerunAfterALostPositionDoesNotDuplicateOccurrences() {
+        scheduler.materializeDueOccurrences();
+        jdbcTemplate.update("UPDATE recurrence_rules SET occurrence_count = 0, next_occurrence_date = ? WHERE id = ?",
+                Date.valueOf(start), ruleId);
+
+        scheduler.materializeDueOccurrences();
+
+        assertThat(occurrenceDates()).containsExactly(start, start.plusDays(1), start.plusDays(2));
+        assertThat(balance()).isEqualByComparingTo("62.50");
+        assertThat(jdbcTemplate.queryForObject("SELECT occurrence_count FROM recurrence_rules WHERE id = ?",
+                Integer.class, ruleId)).isEqualTo(3);
+    }
+
+    @Test
+    void occurrenceKeyRejectsASecondExpenseForTheSameRuleAndDate() {
+        scheduler.materializeDueOccurrences();
+
+        assertThatThrownBy(() -> jdbcTemplate.update("INSERT INTO expenses (user_id, wallet_id, category_id, amount, " +
+                        "currency, transaction_date, type, is_recurring, recurrence_rule_id, created_at, updated_at) " +
+                        "SELECT user_id, wallet_id, category_id, amount, currency, ?, type, TRUE, id, NOW(6), NOW(6) " +
+                        "FROM recurrence_rules WHERE id = ?", Date.valueOf(start), ruleId))
+                .isInstanceOf(DuplicateKeyException.class);
+    }
+
+    private List<LocalDate> occurrenceDates() {
+        return jdbcTemplate.queryForList("SELECT transaction_date FROM expenses WHERE recurrence_rule_id = ? " +
+                "ORDER BY transaction_date", LocalDate.class, ruleId);
+    }
+
+    private BigDecimal balance() {
+        return jdbcTemplate.queryForObject("SELECT balance FROM wallets WHERE id = ?", BigDecimal.class, walletId);
+    }
+
+    private long insert(String sql, Object... args) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            for (int i = 0; i < args.length; i++) {
+                statement.setObject(i + 1, args[i]);
+            }
+            return statement;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+}
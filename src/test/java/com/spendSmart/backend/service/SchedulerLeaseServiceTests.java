@@ -0,0 +1,96 @@
+package com.spendSmart.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the lease SQL against the local database with two services standing in for two nodes.
+ */
+@SpringBootTest
+class SchedulerLeaseServiceTests {
+
+    private static final Duration LONG = Duration.ofMinutes(5);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private SchedulerLeaseService nodeA;
+    private SchedulerLeaseService nodeB;
+    private String name;
+
+    @BeforeEach
+    void setUp() {
+        nodeA = new SchedulerLeaseService(jdbcTemplate);
+        nodeB = new SchedulerLeaseService(jdbcTemplate);
+        name = "test-" + UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM scheduler_leases WHERE name = ?", name);
+    }
+
+    @Test
+    void onlyOneNodeHoldsTheLease() {
+        assertThat(nodeA.tryAcquire(name, LONG)).isTrue();
+        assertThat(nodeB.tryAcquire(name, LONG)).isFalse();
+        assertThat(nodeB.renew(name, LONG)).isFalse();
+        assertThat(owner()).isEqualTo(nodeA.getOwner());
+    }
+
+    @Test
+    void holderCanReacquireAndRenewWithoutLosingItsAcquisitionTime() {
+        assertThat(nodeA.tryAcquire(name, LONG)).isTrue();
+        Object acquiredAt = acquiredAt();
+
+        assertThat(nodeA.tryAcquire(name, LONG)).isTrue();
+        assertThat(nodeA.renew(name, LONG)).isTrue();
+        assertThat(acquiredAt()).isEqualTo(acquiredAt);
+    }
+
+    @Test
+    void releasedLeaseCanBeTakenByAnotherNode() {
+        assertThat(nodeA.tryAcquire(name, LONG)).isTrue();
+        nodeA.release(name);
+
+        assertThat(nodeB.tryAcquire(name, LONG)).isTrue();
+        assertThat(owner()).isEqualTo(nodeB.getOwner());
+        assertThat(nodeA.renew(name, LONG)).isFalse();
+    }
+
+    @Test
+    void expiredLeaseIsTakenOverAndCannotBeRenewedByItsFormerHolder() throws InterruptedException {
+        assertThat(nodeA.tryAcquire(name, Duration.ofMillis(50))).isTrue();
+        Thread.sleep(200);
+
+        assertThat(nodeA.renew(name, LONG)).isFalse();
+        assertThat(nodeB.tryAcquire(name, LONG)).isTrue();
+        assertThat(nodeA.tryAcquire(name, LONG)).isFalse();
+    }
+
+    @Test
+    void releaseByAnotherNodeLeavesTheLeaseInPlace() {
+        assertThat(nodeA.tryAcquire(name, LONG)).isTrue();
+        nodeB.release(name);
+
+        assertThat(nodeB.tryAcquire(name, LONG)).isFalse();
+        assertThat(nodeA.renew(name, LONG)).isTrue();
+    }
+
+    private String owner() {
+        return jdbcTemplate.queryForObject("SELECT owner FROM scheduler_leases WHERE name = ?", String.class, name);
+    }
+
+    private Object acquiredAt() {
+        return jdbcTemplate.queryForObject("SELECT acquired_at FROM scheduler_leases WHERE name = ?", Object.class, name);
+    }
+}
@@ -0,0 +1,242 @@
+package com.spendSmart.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spendSmart.backend.archive.ArchivedExpense;
+import com.spendSmart.backend.entity.Expense;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Streams expense and budget listings from the local database in chunks of two, so live rows that
+ * share a date straddle a chunk boundary and the last chunk is either full or partial. Archived
+ * expenses come from a stubbed archive and have to be merged in by date as the chunks pass them.
+ * The listings are written outside any transaction, as a streamed response is.
+ */
+@SpringBootTest(properties = "app.streaming.chunk-size=2")
+class StreamedListingTests {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private BudgetService budgetService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private StubArchive archive;
+
+    private long userId;
+    private long walletId;
+    private long categoryId;
+
+    @BeforeEach
+    void setUp() {
+        userId = insert("INSERT INTO users (email, password_hash, name, is_active, created_at, updated_at) " +
+                "VALUES (?, 'x', 'Stream Test', TRUE, NOW(6), NOW(6))", "stream-" + UUID.randomUUID() + "@test.local");
+        walletId = insert("INSERT INTO wallets (user_id, name, currency, balance, is_default, is_active, created_at, " +
+                "updated_at) VALUES (?, 'Main', 'USD', 0.00, TRUE, TRUE, NOW(6), NOW(6))", userId);
+        categoryId = insert("INSERT INTO categories (user_id, name, is_system, is_active, created_at, updated_at) " +
+                "VALUES (?, 'Groceries', FALSE, TRUE, NOW(6), NOW(6))", userId);
+    }
+
+    @AfterEach
+    void tearDown() {
+        archive.rows.remove(userId);
+        for (String table : List.of("expenses", "budgets", "wallets", "categories")) {
+            jdbcTemplate.update("DELETE FROM " + table + " WHERE user_id = ?", userId);
+        }
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+    }
+
+    @Test
+    void archivedExpensesAreMergedNewestFirstAcrossFullChunks() throws Exception {
+        long live1 = expense(1);
+        long live2 = expense(3);
+        long live3 = expense(3);
+        long live4 = expense(6);
+        // Ids above the live ones, so the archived row dated like live2 and live3 sorts before both
+        long base = live4 + 1000;
+        archive(base + 1, 0);
+        archive(base + 2, 2);
+        archive(base + 3, 3);
+        archive(base + 4, 8);
+        // A copy of a row that is still live is left out
+        archive(live4, 6);
+
+        // Four live rows fill two chunks exactly; the empty third read flushes the oldest archived row
+        assertThat(streamedExpenseIds())
+                .containsExactly(base + 1, live1, base + 2, base + 3, live3, live2, live4, base + 4);
+    }
+
+    @Test
+    void archivedExpensesOlderThanEveryLiveRowFollowAPartialLastChunk() throws Exception {
+        long live1 = expense(1);
+        long live2 = expense(2);
+        long live3 = expense(2);
+        long base = live3 + 1000;
+        archive(base + 1, 2);
+        archive(base + 2, 5);
+        archive(base + 3, 9);
+
+        assertThat(streamedExpenseIds()).containsExactly(live1, base + 1, live3, live2, base + 2, base + 3);
+    }
+
+    @Test
+    void liveExpensesStreamWithoutArchive() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int day = 0; day < 5; day++) {
+            ids.add(0, expense(4 - day));
+        }
+
+        assertThat(streamedExpenseIds()).containsExactlyElementsOf(ids);
+    }
+
+    @Test
+    void emptyListingIsAnEmptyArray() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        expenseService.writeExpenses(userId, null, null, out);
+        assertThat(out.toString()).isEqualTo("[]");
+
+        out.reset();
+        budgetService.writeAllBudgets(userId, out);
+        assertThat(out.toString()).isEqualTo("[]");
+    }
+
+    @Test
+    void budgetsStreamInIdOrderAcrossChunkBoundaries() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ids.add(budget(true));
+        }
+        budget(false);
+
+        // A multiple of the chunk size, then one more for a partial last chunk
+        assertThat(streamedBudgetIds()).containsExactlyElementsOf(ids);
+        ids.add(budget(true));
+        assertThat(streamedBudgetIds()).containsExactlyElementsOf(ids);
+    }
+
+    private List<Long> streamedExpenseIds() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        expenseService.writeExpenses(userId, null, null, out);
+        return ids(out);
+    }
+
+    private List<Long> streamedBudgetIds() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        budgetService.writeAllBudgets(userId, out);
+        return ids(out);
+    }
+
+    private List<Long> ids(ByteArrayOutputStream out) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode row : objectMapper.readTree(out.toByteArray())) {
+            ids.add(row.get("id").asLong());
+        }
+        return ids;
+    }
+
+    private long expense(int daysAgo) {
+        return insert("INSERT INTO expenses (user_id, wallet_id, category_id, amount, currency, transaction_date, " +
+                        "type, is_recurring, created_at, updated_at) VALUES (?, ?, ?, 10.00, 'USD', ?, 'EXPENSE', FALSE, " +
+                        "NOW(6), NOW(6))",
+                userId, walletId, categoryId, Date.valueOf(TODAY.minusDays(daysAgo)));
+    }
+
+    private void archive(long id, int daysAgo) {
+        LocalDate date = TODAY.minusDays(daysAgo);
+        archive.rows.computeIfAbsent(userId, user -> new ArrayList<>()).add(new ArchivedExpense(id, userId, walletId,
+                categoryId, new BigDecimal("10.00"), "USD", date, null, null, null, null, Expense.ExpenseType.EXPENSE,
+                false, date.atStartOfDay(), date.atStartOfDay()));
+    }
+
+    private long budget(boolean active) {
+        LocalDateTime start = TODAY.withDayOfMonth(1).atStartOfDay();
+        return insert("INSERT INTO budgets (user_id, name, amount, spent_amount, period, start_date, end_date, " +
+                        "is_active, created_at, updated_at) VALUES (?, 'Monthly', 500.00, 0.00, 'MONTHLY', ?, ?, ?, " +
+                        "NOW(6), NOW(6))",
+                userId, start, start.plusMonths(1), active);
+    }
+
+    private long insert(String sql, Object... args) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            for (int i = 0; i < args.length; i++) {
+                statement.setObject(i + 1, args[i]);
+            }
+            return statement;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+
+    // Serves the rows registered for a user in place of archive segments; other users see the real archive
+    static class StubArchive extends ExpenseArchiveService {
+
+        final Map<Long, List<ArchivedExpense>> rows = new ConcurrentHashMap<>();
+
+        StubArchive(JdbcTemplate jdbcTemplate, DataSource dataSource, TransactionTemplate transactionTemplate,
+                    SchedulerLeaseService leaseService, ObjectProvider<ExpenseSearchService> expenseSearchService) {
+            super(jdbcTemplate, dataSource, transactionTemplate, leaseService, expenseSearchService);
+        }
+
+        @Override
+        public List<ArchivedExpense> findArchived(Long userId, LocalDate startDate, LocalDate endDate) {
+            List<ArchivedExpense> archived = rows.get(userId);
+            if (archived == null) {
+                return super.findArchived(userId, startDate, endDate);
+            }
+            return archived.stream()
+                    .filter(expense -> startDate == null || !expense.transactionDate().isBefore(startDate))
+                    .filter(expense -> endDate == null || !expense.transactionDate().isAfter(endDate))
+                    .toList();
+        }
+    }
+
+    @TestConfiguration
+    static class ArchiveConfig {
+
+        @Bean
+        @Primary
+        StubArchive stubArchive(JdbcTemplate jdbcTemplate, DataSource dataSource,
+                                TransactionTemplate transactionTemplate, SchedulerLeaseService leaseService,
+                                ObjectProvider<ExpenseSearchService> expenseSearchService) {
+            return new StubArchive(jdbcTemplate, dataSource, transactionTemplate, leaseService, expenseSearchService);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.spendSmart.backend.service;
+
+import com.spendSmart.backend.dto.expense.ExpenseResponse;
+import com.spendSmart.backend.dto.sync.SyncResponse;
+import com.spendSmart.backend.entity.Expense;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the real archive job over an expense dated decades back, so it is the only row old enough to
+ * move, and checks that a first sync still returns it from the segment.
+ */
+@SpringBootTest(properties = {
+        "app.expenses.archive.enabled=true",
+        "app.expenses.archive.directory=target/sync-test-archive",
+        "app.expenses.archive.age-months=360"
+})
+class SyncServiceTests {
+
+    private static final LocalDate ARCHIVED_DATE = LocalDate.of(1990, 6, 1);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SyncService syncService;
+
+    @Autowired
+    private ExpenseArchiveService expenseArchiveService;
+
+    private long userId;
+    private long walletId;
+    private long categoryId;
+    private long archivedId;
+    private long liveId;
+    private long lastSegmentId;
+
+    @BeforeEach
+    void setUp() {
+        lastSegmentId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM expense_archive_segments",
+                Long.class);
+        userId = insert("INSERT INTO users (email, password_hash, name, is_active, created_at, updated_at) " +
+                "VALUES (?, 'x', 'Sync Test', TRUE, NOW(6), NOW(6))", "sync-" + UUID.randomUUID() + "@test.local");
+        walletId = insert("INSERT INTO wallets (user_id, name, currency, balance, is_default, is_active, created_at, " +
+                "updated_at) VALUES (?, 'Main', 'USD', 0.00, TRUE, TRUE, NOW(6), NOW(6))", userId);
+        categoryId = insert("INSERT INTO categories (user_id, name, is_system, is_active, created_at, updated_at) " +
+                "VALUES (?, 'Groceries', FALSE, TRUE, NOW(6), NOW(6))", userId);
+        archivedId = expense(ARCHIVED_DATE, "12.34");
+        liveId = expense(LocalDate.now(), "5.00");
+        change(archivedId, 1);
+        change(liveId, 2);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        // Segments written by this test; the open copies in this context are never read again
+        for (String file : jdbcTemplate.queryForList("SELECT file_name FROM expense_archive_segments WHERE id > ?",
+                String.class, lastSegmentId)) {
+            Files.deleteIfExists(Path.of("target/sync-test-archive", file));
+        }
+        jdbcTemplate.update("DELETE FROM expense_archive_segments WHERE id > ?", lastSegmentId);
+        for (String table : List.of("sync_changes", "expenses", "wallets", "categories")) {
+            jdbcTemplate.update("DELETE FROM " + table + " WHERE user_id = ?", userId);
+        }
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+    }
+
+    @Test
+    void firstSyncReturnsArchivedExpenses() {
+        expenseArchiveService.archiveOldExpenses();
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM expenses WHERE user_id = ?", Long.class, userId))
+                .containsExactly(liveId);
+
+        SyncResponse response = syncService.getChanges(userId, 0, 100);
+
+        assertThat(response.getExpenses()).extracting(ExpenseResponse::getId)
+                .containsExactlyInAnyOrder(archivedId, liveId);
+        ExpenseResponse archived = response.getExpenses().stream()
+                .filter(expense -> expense.getId().equals(archivedId))
+                .findFirst()
+                .orElseThrow();
+        assertThat(archived.getAmount()).isEqualByComparingTo(new BigDecimal("12.34"));
+        assertThat(archived.getTransactionDate()).isEqualTo(ARCHIVED_DATE);
+        assertThat(archived.getWallet().getId()).isEqualTo(walletId);
+        assertThat(archived.getCategory().getId()).isEqualTo(categoryId);
+        assertThat(response.getNextSince()).isEqualTo(2);
+    }
+
+    @Test
+    void archivedExpensesOfOtherUsersAreNotReturned() {
+        expenseArchiveService.archiveOldExpenses();
+
+        assertThat(expenseArchiveService.findArchivedExpenses(userId + 1_000_000, List.of(archivedId))).isEmpty();
+        assertThat(expenseArchiveService.findArchivedExpenses(userId, List.of(archivedId, liveId)))
+                .extracting(Expense::getId)
+                .containsExactly(archivedId);
+    }
+
+    private long expense(LocalDate date, String amount) {
+        return insert("INSERT INTO expenses (user_id, wallet_id, category_id, amount, currency, transaction_date, " +
+                        "type, is_recurring, created_at, updated_at) VALUES (?, ?, ?, ?, 'USD', ?, 'EXPENSE', FALSE, " +
+                        "NOW(6), NOW(6))",
+                userId, walletId, categoryId, new BigDecimal(amount), Date.valueOf(date));
+    }
+
+    private void change(long expenseId, long seq) {
+        jdbcTemplate.update("INSERT INTO sync_changes (user_id, entity_type, entity_id, seq, deleted, changed_at) " +
+                "VALUES (?, 'EXPENSE', ?, ?, FALSE, NOW(6))", userId, expenseId, seq);
+    }
+
+    private long insert(String sql, Object... args) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            for (int i = 0; i < args.length; i++) {
+                statement.setObject(i + 1, args[i]);
+            }
+            return statement;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+}
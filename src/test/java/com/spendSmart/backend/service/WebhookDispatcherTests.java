@@ -0,0 +1,280 @@
+package com.spendSmart.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs a dispatcher of its own against the local database and a stub endpoint on a local port, and
+ * checks how deliveries are claimed, batched, retried and given up on.
+ */
+@SpringBootTest(properties = "app.webhooks.enabled=false")
+class WebhookDispatcherTests {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final BlockingQueue<JsonNode> requests = new LinkedBlockingQueue<>();
+    private final ExecutorService serverExecutor = Executors.newCachedThreadPool();
+    private volatile int responseStatus = 204;
+    private volatile CountDownLatch respond = new CountDownLatch(0);
+    private HttpServer server;
+    private WebhookDispatcher dispatcher;
+    private long userId;
+    private long subscriptionId;
+
+    // The application's dispatcher is disabled in the properties; this one is only run by the tests
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(serverExecutor);
+        server.createContext("/hook", exchange -> {
+            requests.add(objectMapper.readTree(exchange.getRequestBody()));
+            try {
+                respond.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(responseStatus, -1);
+            exchange.close();
+        });
+        server.start();
+
+        userId = insert("INSERT INTO users (email, password_hash, name, is_active, created_at, updated_at) " +
+                "VALUES (?, 'x', 'Webhook Test', TRUE, NOW(6), NOW(6))", "webhooks-" + UUID.randomUUID() + "@test.local");
+        subscriptionId = insert("INSERT INTO webhook_subscriptions (user_id, url, secret, event_types, is_active, " +
+                        "created_at, updated_at) VALUES (?, ?, 's3cret', 'LOW_BALANCE', TRUE, NOW(6), NOW(6))",
+                userId, "http://127.0.0.1:" + server.getAddress().getPort() + "/hook");
+
+        dispatcher = new WebhookDispatcher(jdbcTemplate, transactionTemplate, objectMapper, meterRegistry);
+        ReflectionTestUtils.setField(dispatcher, "enabled", true);
+        ReflectionTestUtils.setField(dispatcher, "allowPrivateAddresses", true);
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 500);
+        ReflectionTestUtils.setField(dispatcher, "maxEventsPerRequest", 2);
+        ReflectionTestUtils.setField(dispatcher, "maxConcurrentRequests", 8);
+        ReflectionTestUtils.setField(dispatcher, "clientThreads", 2);
+        ReflectionTestUtils.setField(dispatcher, "connectTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(dispatcher, "requestTimeoutMs", 10000L);
+        ReflectionTestUtils.setField(dispatcher, "visibilityTimeoutMs", 120000L);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(dispatcher, "backoffInitialMs", 4000L);
+        ReflectionTestUtils.setField(dispatcher, "backoffMaxMs", 60000L);
+        ReflectionTestUtils.setField(dispatcher, "retentionDays", 7);
+    }
+
+    @AfterEach
+    void tearDown() {
+        respond.countDown();
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+        server.stop(0);
+        serverExecutor.shutdownNow();
+        jdbcTemplate.update("DELETE FROM webhook_deliveries WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM webhook_subscriptions WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+    }
+
+    @Test
+    void deliveriesAreBatchedPerRequestUpToTheEventLimit() throws Exception {
+        dispatcher.start();
+        List<Long> ids = queue(5);
+
+        dispatcher.dispatch();
+
+        List<Integer> sizes = new ArrayList<>();
+        List<Long> sent = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            JsonNode body = requests.poll(5, TimeUnit.SECONDS);
+            assertThat(body).isNotNull();
+            sizes.add(body.get("events").size());
+            body.get("events").forEach(event -> sent.add(event.get("id").asLong()));
+        }
+        assertThat(sizes).containsExactlyInAnyOrder(2, 2, 1);
+        assertThat(sent).containsExactlyInAnyOrderElementsOf(ids);
+        for (Long id : ids) {
+            Map<String, Object> row = awaitStatus(id, "DELIVERED");
+            assertThat(row.get("attempts")).isEqualTo(1);
+            assertThat(row.get("finished_at")).isNotNull();
+        }
+    }
+
+    @Test
+    void claimedDeliveriesAreHiddenUntilTheirVisibilityTimeout() throws Exception {
+        dispatcher.start();
+        respond = new CountDownLatch(1);
+        long id = queue(1).get(0);
+
+        Timestamp before = now();
+        dispatcher.dispatch();
+        assertThat(requests.poll(5, TimeUnit.SECONDS)).isNotNull();
+
+        Map<String, Object> claimed = row(id);
+        assertThat(claimed.get("status")).isEqualTo("SENDING");
+        assertThat(availableAt(id).getTime()).isGreaterThanOrEqualTo(before.getTime() + 120000);
+
+        // A second poll while the request is in flight does not send it again
+        dispatcher.dispatch();
+        assertThat(requests.poll(300, TimeUnit.MILLISECONDS)).isNull();
+
+        respond.countDown();
+        awaitStatus(id, "DELIVERED");
+    }
+
+    @Test
+    void failedRequestBacksOffAndIsMarkedFailedAtTheAttemptLimit() throws Exception {
+        dispatcher.start();
+        responseStatus = 503;
+        long id = queue(1).get(0);
+
+        Timestamp before = now();
+        dispatcher.dispatch();
+        Map<String, Object> retried = awaitStatus(id, "PENDING");
+        Timestamp after = now();
+
+        assertThat(retried.get("attempts")).isEqualTo(1);
+        assertThat(retried.get("last_status_code")).isEqualTo(503);
+        assertThat(retried.get("last_error")).isEqualTo("HTTP 503");
+        // First retry waits between half and all of the initial backoff
+        assertThat(availableAt(id).getTime()).isBetween(before.getTime() + 2000, after.getTime() + 4000);
+
+        jdbcTemplate.update("UPDATE webhook_deliveries SET attempts = 2, available_at = NOW(6) WHERE id = ?", id);
+        dispatcher.dispatch();
+        Map<String, Object> failed = awaitStatus(id, "FAILED");
+
+        assertThat(failed.get("attempts")).isEqualTo(3);
+        assertThat(failed.get("finished_at")).isNotNull();
+        assertThat(requests).hasSize(2);
+    }
+
+    @Test
+    void saturatedClientHandsTheRestOfTheBatchBackWithoutBlocking() throws Exception {
+        ReflectionTestUtils.setField(dispatcher, "maxConcurrentRequests", 1);
+        dispatcher.start();
+        respond = new CountDownLatch(1);
+        List<Long> ids = queue(5);
+
+        long started = System.nanoTime();
+        dispatcher.dispatch();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isLessThan(5000);
+
+        JsonNode first = requests.poll(5, TimeUnit.SECONDS);
+        assertThat(first).isNotNull();
+        assertThat(first.get("events").size()).isEqualTo(2);
+        List<Object> statuses = ids.stream().map(id -> row(id).get("status")).toList();
+        assertThat(statuses.stream().filter("SENDING"::equals).count()).isEqualTo(2);
+        assertThat(statuses.stream().filter("PENDING"::equals).count()).isEqualTo(3);
+
+        // Later polls send the rest once the slot is free again
+        respond.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (ids.stream().anyMatch(id -> !"DELIVERED".equals(row(id).get("status"))) && System.nanoTime() < deadline) {
+            dispatcher.dispatch();
+            Thread.sleep(50);
+        }
+        for (Long id : ids) {
+            awaitStatus(id, "DELIVERED");
+        }
+        assertThat(requests).hasSize(2);
+    }
+
+    @Test
+    void finishedDeliveriesArePurgedByWhenTheyFinished() {
+        dispatcher.start();
+        List<Long> ids = queue(3);
+        // Queued long ago, but only just finished: kept
+        jdbcTemplate.update("UPDATE webhook_deliveries SET status = 'DELIVERED', available_at = NOW(6) - INTERVAL 30 DAY, " +
+                "finished_at = NOW(6) WHERE id = ?", ids.get(0));
+        jdbcTemplate.update("UPDATE webhook_deliveries SET status = 'FAILED', available_at = NOW(6), " +
+                "finished_at = NOW(6) - INTERVAL 8 DAY WHERE id = ?", ids.get(1));
+
+        dispatcher.purgeFinishedDeliveries();
+
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM webhook_deliveries WHERE user_id = ? ORDER BY id",
+                Long.class, userId)).containsExactly(ids.get(0), ids.get(2));
+    }
+
+    private List<Long> queue(int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(insert("INSERT INTO webhook_deliveries (subscription_id, user_id, event_type, payload, status, " +
+                    "attempts, available_at, created_at) VALUES (?, ?, 'LOW_BALANCE', '{\"walletId\":1}', 'PENDING', 0, " +
+                    "NOW(6), NOW(6))", subscriptionId, userId));
+        }
+        return ids;
+    }
+
+    private Map<String, Object> awaitStatus(long id, String status) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        Map<String, Object> row = row(id);
+        while (!status.equals(row.get("status")) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            row = row(id);
+        }
+        assertThat(row.get("status")).as("status of delivery %s", id).isEqualTo(status);
+        return row;
+    }
+
+    private Map<String, Object> row(long id) {
+        return jdbcTemplate.queryForMap("SELECT status, attempts, finished_at, last_status_code, " +
+                "last_error FROM webhook_deliveries WHERE id = ?", id);
+    }
+
+    private Timestamp availableAt(long id) {
+        return jdbcTemplate.queryForObject("SELECT available_at FROM webhook_deliveries WHERE id = ?", Timestamp.class, id);
+    }
+
+    private Timestamp now() {
+        return jdbcTemplate.queryForObject("SELECT NOW(6)", Timestamp.class);
+    }
+
+    private long insert(String sql, Object... args) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            for (int i = 0; i < args.length; i++) {
+                statement.setObject(i + 1, args[i]);
+            }
+            return statement;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+}
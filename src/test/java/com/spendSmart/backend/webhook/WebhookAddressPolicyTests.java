@@ -0,0 +1,59 @@
+package com.spendSmart.backend.webhook;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Classifies address literals, so no DNS server is involved, and checks which hosts are refused.
+ */
+class WebhookAddressPolicyTests {
+
+    @Test
+    void refusesAddressesOfTheLocalNetwork() throws UnknownHostException {
+        for (String literal : new String[]{
+                "127.0.0.1", "127.8.9.10", "::1",                          // loopback
+                "169.254.169.254", "fe80::1",                              // link-local, cloud metadata
+                "10.0.0.1", "172.16.5.4", "172.31.255.255", "192.168.1.1", // private
+                "100.64.0.1", "100.127.255.254",                           // shared address space
+                "fd12:3456:789a::1", "fc00::1",                            // unique-local
+                "0.0.0.0", "::",                                           // wildcard
+                "224.0.0.1", "ff02::1",                                    // multicast
+                "::ffff:127.0.0.1", "::ffff:10.1.2.3"}) {                  // IPv4-mapped
+            assertThat(WebhookAddressPolicy.isPublic(InetAddress.getByName(literal))).as(literal).isFalse();
+        }
+    }
+
+    @Test
+    void acceptsPublicAddresses() throws UnknownHostException {
+        for (String literal : new String[]{
+                "93.184.215.14", "8.8.8.8", "172.32.0.1", "100.128.0.1", "192.169.0.1",
+                "2606:2800:21f:cb07:6820:80da:af6b:8b2c", "2001:4860:4860::8888"}) {
+            assertThat(WebhookAddressPolicy.isPublic(InetAddress.getByName(literal))).as(literal).isTrue();
+        }
+    }
+
+    @Test
+    void refusesHostsResolvingToTheLocalNetwork() {
+        WebhookAddressPolicy policy = new WebhookAddressPolicy(false);
+
+        assertThatThrownBy(() -> policy.check("localhost")).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> policy.check("169.254.169.254"))
+                .hasMessage("Webhook host 169.254.169.254 resolves to non-public address 169.254.169.254");
+        assertThatThrownBy(() -> policy.check("[::1]")).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> policy.check(null)).isInstanceOf(UnknownHostException.class);
+    }
+
+    @Test
+    void developmentPolicyAllowsLocalHosts() throws IOException {
+        WebhookAddressPolicy policy = new WebhookAddressPolicy(true);
+
+        assertThat(policy.check("127.0.0.1")).containsExactly(InetAddress.getByName("127.0.0.1"));
+        assertThat(policy.check("8.8.8.8")).containsExactly(InetAddress.getByName("8.8.8.8"));
+    }
+}
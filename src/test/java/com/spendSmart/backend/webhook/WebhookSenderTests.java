@@ -0,0 +1,110 @@
+package com.spendSmart.backend.webhook;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Sends webhook batches to a stub HTTP server on a local port and checks what the receiver sees.
+ */
+class WebhookSenderTests {
+
+    private static final Instant NOW = Instant.parse("2025-01-15T10:00:00Z");
+
+    private final BlockingQueue<Received> received = new LinkedBlockingQueue<>();
+    private HttpServer server;
+    private int responseStatus = 204;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/hook", exchange -> {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            received.add(new Received(exchange.getRequestHeaders().getFirst(WebhookSender.SIGNATURE_HEADER), body));
+            exchange.sendResponseHeaders(responseStatus, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void postsBodySignedWithSubscriptionSecret() throws Exception {
+        String body = "{\"events\":[{\"id\":1,\"type\":\"LOW_BALANCE\"}]}";
+
+        HttpResponse<Void> response = sender().send(url(), "s3cret", body).get(5, TimeUnit.SECONDS);
+
+        assertThat(response.statusCode()).isEqualTo(204);
+        Received request = received.poll(5, TimeUnit.SECONDS);
+        assertThat(request).isNotNull();
+        assertThat(request.body()).isEqualTo(body);
+        // HMAC-SHA256("s3cret", "1736935200." + body), computed outside this code base
+        assertThat(request.signature())
+                .isEqualTo("t=1736935200,v1=6d7ab1384783a7fccb12a19b242e1322c30f7a566dbe3e7d1bd03d09e35fabef");
+    }
+
+    @Test
+    void signatureDependsOnSecretTimestampAndBody() {
+        String signature = WebhookSender.sign("s3cret", 1000, "{}");
+
+        assertThat(signature).isEqualTo("ba0820710ec0b179a7a98a686fdab3bfc9f3e3d02e89561ab1db87bef26581bb");
+        assertThat(WebhookSender.sign("other", 1000, "{}")).isNotEqualTo(signature);
+        assertThat(WebhookSender.sign("s3cret", 1001, "{}")).isNotEqualTo(signature);
+        assertThat(WebhookSender.sign("s3cret", 1000, "[]")).isNotEqualTo(signature);
+    }
+
+    @Test
+    void reportsErrorStatusToCaller() throws Exception {
+        responseStatus = 503;
+
+        HttpResponse<Void> response = sender().send(url(), "s3cret", "{}").get(5, TimeUnit.SECONDS);
+
+        assertThat(response.statusCode()).isEqualTo(503);
+    }
+
+    @Test
+    void refusesToSendToALoopbackHost() throws Exception {
+        WebhookSender sender = new WebhookSender(HttpClient.newHttpClient(), Duration.ofSeconds(5),
+                Clock.fixed(NOW, ZoneOffset.UTC), new WebhookAddressPolicy(false));
+
+        assertThatThrownBy(() -> sender.send(url(), "s3cret", "{}").get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasRootCauseMessage("Webhook host 127.0.0.1 resolves to non-public address 127.0.0.1");
+        assertThat(received.poll(200, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    // The stub listens on loopback, which only a development policy allows
+    private WebhookSender sender() {
+        return new WebhookSender(HttpClient.newHttpClient(), Duration.ofSeconds(5), Clock.fixed(NOW, ZoneOffset.UTC),
+                new WebhookAddressPolicy(true));
+    }
+
+    private String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/hook";
+    }
+
+    private record Received(String signature, String body) {
+    }
+}